@@ -1,5 +1,6 @@
 package com.openmailer.openmailer;
 
+import com.openmailer.openmailer.config.TrackingNodeTypeExcludeFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -11,7 +12,9 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 public class OpenmailerApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(OpenmailerApplication.class, args);
+        SpringApplication application = new SpringApplication(OpenmailerApplication.class);
+        application.addInitializers(new TrackingNodeTypeExcludeFilter.Initializer());
+        application.run(args);
     }
 
 }
@@ -82,6 +82,9 @@ public class RedisConfiguration {
         // Campaign statistics cache: 5 minutes
         cacheConfigurations.put("campaignStats", defaultConfig.entryTtl(Duration.ofMinutes(5)));
 
+        // Dashboard snapshots: 1 minute (engagement totals are kept exact in the database)
+        cacheConfigurations.put("dashboardSnapshots", defaultConfig.entryTtl(Duration.ofMinutes(1)));
+
         // Email provider cache: 1 hour
         cacheConfigurations.put("providers", defaultConfig.entryTtl(Duration.ofHours(1)));
 
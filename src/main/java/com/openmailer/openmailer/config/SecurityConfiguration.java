@@ -1,6 +1,7 @@
 package com.openmailer.openmailer.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -106,7 +107,7 @@ public class SecurityConfiguration {
                     "/sitemap.xml"
                 ).permitAll()
                 .requestMatchers("/api/auth/me/**", "/api/auth/change-password", "/api/auth/2fa/**").authenticated()
-                .requestMatchers("/api/auth/**", "/track/**").permitAll()
+                .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/v1/public/**").permitAll()
                 .requestMatchers("/api/webhooks/**", "/api/v1/webhooks/**").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
@@ -134,6 +135,25 @@ public class SecurityConfiguration {
         return http.build();
     }
 
+    /**
+     * The JWT and CSRF cookie filters are Spring components, so Boot would otherwise also
+     * register them as servlet filters on every request. They only need to run inside the
+     * security filter chain, which keeps them off paths ignored by security such as tracking.
+     */
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthFilterRegistration(JwtAuthenticationFilter filter) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<CsrfCookieFilter> csrfCookieFilterRegistration(CsrfCookieFilter filter) {
+        FilterRegistrationBean<CsrfCookieFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     /**
      * This method is modified to use the constructor injection 
      * required by your specific compiler error.
@@ -0,0 +1,71 @@
+package com.openmailer.openmailer.config;
+
+import com.openmailer.openmailer.repository.EngagementEventRepository;
+import com.openmailer.openmailer.repository.EngagementRollupRepository;
+import com.openmailer.openmailer.service.campaign.CampaignLinkService;
+import com.openmailer.openmailer.service.campaign.CampaignRecipientService;
+import com.openmailer.openmailer.service.campaign.DuplicateOpenFilter;
+import com.openmailer.openmailer.service.campaign.EngagementEventService;
+import com.openmailer.openmailer.service.campaign.TrackingService;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Profiles;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+
+import java.util.Set;
+
+/**
+ * Component-scan filter for dedicated tracking nodes.
+ * When the {@code tracking} profile is active, only the beans needed to serve
+ * {@code /track/*} are registered, so tracking nodes start fast and can be
+ * scaled independently of the dashboard and API.
+ */
+public class TrackingNodeTypeExcludeFilter extends TypeExcludeFilter {
+
+    public static final String PROFILE = "tracking";
+
+    private static final String APPLICATION_PACKAGE = "com.openmailer.openmailer.";
+
+    private static final Set<String> TRACKING_COMPONENTS = Set.of(
+            TrackingServletConfiguration.class.getName(),
+            TrackingService.class.getName(),
+            CampaignRecipientService.class.getName(),
+            CampaignLinkService.class.getName(),
+            EngagementEventService.class.getName(),
+            DuplicateOpenFilter.class.getName(),
+            EngagementEventRepository.class.getName(),
+            EngagementRollupRepository.class.getName()
+    );
+
+    @Override
+    public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+        String className = metadataReader.getClassMetadata().getClassName();
+        return className.startsWith(APPLICATION_PACKAGE) && !TRACKING_COMPONENTS.contains(className);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj != null && getClass() == obj.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    /**
+     * Registers the filter before component scanning when the tracking profile is active.
+     */
+    public static class Initializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+        @Override
+        public void initialize(ConfigurableApplicationContext context) {
+            if (context.getEnvironment().acceptsProfiles(Profiles.of(PROFILE))) {
+                context.getBeanFactory().registerSingleton(
+                        TrackingNodeTypeExcludeFilter.class.getName(), new TrackingNodeTypeExcludeFilter());
+            }
+        }
+    }
+}
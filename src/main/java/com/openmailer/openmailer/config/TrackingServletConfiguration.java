@@ -0,0 +1,33 @@
+package com.openmailer.openmailer.config;
+
+import com.openmailer.openmailer.controller.TrackingServlet;
+import com.openmailer.openmailer.service.campaign.TrackingService;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
+
+/**
+ * Registers the tracking servlet on {@code /track/*}.
+ * Tracking requests are anonymous and extremely hot, so they bypass the
+ * DispatcherServlet and are excluded from the Spring Security filter chain entirely.
+ */
+@Configuration
+public class TrackingServletConfiguration {
+
+    public static final String TRACKING_PATH = "/track/*";
+
+    @Bean
+    public ServletRegistrationBean<TrackingServlet> trackingServletRegistration(TrackingService trackingService) {
+        ServletRegistrationBean<TrackingServlet> registration =
+                new ServletRegistrationBean<>(new TrackingServlet(trackingService), TRACKING_PATH);
+        registration.setName("trackingServlet");
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+
+    @Bean
+    public WebSecurityCustomizer trackingWebSecurityCustomizer() {
+        return web -> web.ignoring().requestMatchers("/track/**");
+    }
+}
@@ -1,11 +1,23 @@
 package com.openmailer.openmailer.controller;
 
 import com.openmailer.openmailer.model.User;
+import com.openmailer.openmailer.model.EmailCampaign;
 import com.openmailer.openmailer.service.campaign.CampaignAnalyticsService;
+import com.openmailer.openmailer.service.campaign.CampaignReportExportService;
+import com.openmailer.openmailer.service.campaign.CampaignReportExportService.ReportFormat;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * REST controller for campaign analytics.
@@ -16,10 +28,14 @@ import org.springframework.web.bind.annotation.*;
 public class AnalyticsController {
 
     private final CampaignAnalyticsService analyticsService;
+    private final CampaignReportExportService reportExportService;
 
     @Autowired
-    public AnalyticsController(CampaignAnalyticsService analyticsService) {
+    public AnalyticsController(
+            CampaignAnalyticsService analyticsService,
+            CampaignReportExportService reportExportService) {
         this.analyticsService = analyticsService;
+        this.reportExportService = reportExportService;
     }
 
     /**
@@ -75,10 +91,7 @@ public class AnalyticsController {
             @PathVariable String campaignId,
             @AuthenticationPrincipal User user) {
 
-        CampaignAnalyticsService.CampaignAnalytics analytics =
-                analyticsService.getCampaignAnalytics(campaignId);
-
-        return ResponseEntity.ok(analytics.getEngagementTimeline());
+        return ResponseEntity.ok(analyticsService.getEngagementTimeline(campaignId));
     }
 
     /**
@@ -95,9 +108,86 @@ public class AnalyticsController {
             @PathVariable String campaignId,
             @AuthenticationPrincipal User user) {
 
-        CampaignAnalyticsService.CampaignAnalytics analytics =
-                analyticsService.getCampaignAnalytics(campaignId);
+        return ResponseEntity.ok(analyticsService.getTopLinks(campaignId, 10));
+    }
+
+    /**
+     * Gets approximate unique opens and clicks for a day range (about 1% error).
+     * Defaults to the last 30 days.
+     *
+     * GET /api/v1/analytics/campaigns/{campaignId}/unique?from=2026-03-01&to=2026-03-31
+     *
+     * @param campaignId the campaign ID
+     * @param from first day, inclusive
+     * @param to last day, inclusive
+     * @param user the authenticated user
+     * @return unique engagement estimates
+     */
+    @GetMapping("/campaigns/{campaignId}/unique")
+    public ResponseEntity<?> getUniqueEngagement(
+            @PathVariable String campaignId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @AuthenticationPrincipal User user) {
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        return ResponseEntity.ok(analyticsService.getUniqueEngagement(campaignId, user.getId(), start, end));
+    }
+
+    /**
+     * Gets opens, clicks and bounces over time for some campaigns, or for the whole
+     * account when no campaign is given. The resolution (hour, day, week or month)
+     * is picked from the range. Defaults to the last 30 days.
+     *
+     * GET /api/v1/analytics/timeseries?campaignId=a&campaignId=b&from=2026-03-01T00:00:00&to=2026-03-08T00:00:00
+     *
+     * @param campaignIds campaign IDs to include; all of the user's campaigns if omitted
+     * @param from start of the range, inclusive
+     * @param to end of the range, exclusive
+     * @param user the authenticated user
+     * @return engagement time series
+     */
+    @GetMapping("/timeseries")
+    public ResponseEntity<CampaignAnalyticsService.EngagementTimeSeries> getTimeSeries(
+            @RequestParam(name = "campaignId", required = false) List<String> campaignIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @AuthenticationPrincipal User user) {
+
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        return ResponseEntity.ok(analyticsService.getEngagementTimeSeries(
+                user.getId(), campaignIds != null ? campaignIds : List.of(), start, end));
+    }
+
+    /**
+     * Exports a campaign's recipient-level results as gzip-compressed CSV or NDJSON.
+     * The body is streamed from a database cursor, so memory use does not grow with the campaign.
+     *
+     * GET /api/v1/analytics/campaigns/{campaignId}/recipients/export?format=csv|ndjson
+     *
+     * @param campaignId the campaign ID
+     * @param format csv (default) or ndjson
+     * @param user the authenticated user
+     * @return streaming gzip body
+     */
+    @GetMapping("/campaigns/{campaignId}/recipients/export")
+    public ResponseEntity<StreamingResponseBody> exportRecipients(
+            @PathVariable String campaignId,
+            @RequestParam(defaultValue = "csv") String format,
+            @AuthenticationPrincipal User user) {
+
+        EmailCampaign campaign = reportExportService.findExportableCampaign(campaignId, user.getId());
+        ReportFormat reportFormat = ReportFormat.from(format);
+        String filename = "campaign_" + campaign.getId() + "_recipients." + reportFormat.getExtension() + ".gz";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/gzip"));
+        headers.setContentDisposition(ContentDisposition.attachment().filename(filename).build());
 
-        return ResponseEntity.ok(analytics.getTopLinks());
+        StreamingResponseBody body = outputStream ->
+                reportExportService.exportRecipients(campaign.getId(), reportFormat, outputStream);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 }
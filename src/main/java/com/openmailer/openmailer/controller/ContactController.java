@@ -6,6 +6,7 @@ import com.openmailer.openmailer.dto.contact.ContactRequest;
 import com.openmailer.openmailer.dto.contact.ContactResponse;
 import com.openmailer.openmailer.model.Contact;
 import com.openmailer.openmailer.model.User;
+import com.openmailer.openmailer.repository.projection.ContactImportJob;
 import com.openmailer.openmailer.service.contact.ContactService;
 import com.openmailer.openmailer.service.contact.ContactImportService;
 import com.openmailer.openmailer.service.contact.ContactExportService;
@@ -16,6 +17,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -23,7 +25,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -93,6 +97,22 @@ public class ContactController {
         return ResponseEntity.ok(new PaginatedResponse<>(responses, pagination));
     }
 
+    /**
+     * GET /api/v1/contacts/most-engaged - Contacts with the highest engagement score
+     */
+    @GetMapping("/most-engaged")
+    public ResponseEntity<ApiResponse<List<ContactResponse>>> getMostEngaged(
+            @AuthenticationPrincipal User user,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        List<ContactResponse> responses = contactService.findMostEngaged(user.getId(), Math.clamp(limit, 1, 500))
+                .stream()
+                .map(ContactResponse::fromEntity)
+                .toList();
+
+        return ResponseEntity.ok(ApiResponse.success(responses));
+    }
+
     /**
      * GET /api/v1/contacts/{id} - Get contact by ID
      */
@@ -355,13 +375,13 @@ public class ContactController {
      * GET /api/v1/contacts/import/{jobId} - Check import job status
      */
     @GetMapping("/import/{jobId}")
-    public ResponseEntity<ApiResponse<ContactImportService.ImportJob>> getImportStatus(
+    public ResponseEntity<ApiResponse<ContactImportJob>> getImportStatus(
             @AuthenticationPrincipal User user,
             @PathVariable String jobId) {
 
         log.info("Checking import status for job: {}", jobId);
 
-        ContactImportService.ImportJob job = importService.getImportStatus(jobId);
+        ContactImportJob job = importService.getImportStatus(jobId);
 
         // Verify user owns this job
         if (!job.getUserId().equals(user.getId())) {
@@ -372,6 +392,71 @@ public class ContactController {
         return ResponseEntity.ok(ApiResponse.success(job, "Import status retrieved"));
     }
 
+    /**
+     * POST /api/v1/contacts/import/uploads - Start a chunked upload for a large import file
+     */
+    @PostMapping("/import/uploads")
+    public ResponseEntity<ApiResponse<ContactImportJob>> createImportUpload(
+            @AuthenticationPrincipal User user,
+            @RequestParam long fileSize) {
+
+        log.info("Starting chunked import upload of {} bytes for user: {}", fileSize, user.getEmail());
+
+        ContactImportJob upload = importService.createUpload(user, fileSize);
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(upload, "Upload started. Send parts to /api/v1/contacts/import/uploads/" + upload.getJobId()));
+    }
+
+    /**
+     * GET /api/v1/contacts/import/uploads/{uploadId} - Check how many bytes have been received
+     */
+    @GetMapping("/import/uploads/{uploadId}")
+    public ResponseEntity<ApiResponse<ContactImportJob>> getImportUpload(
+            @AuthenticationPrincipal User user,
+            @PathVariable String uploadId) {
+
+        ContactImportJob upload = importService.getUpload(uploadId, user.getId());
+
+        return ResponseEntity.ok(ApiResponse.success(upload, "Upload status retrieved"));
+    }
+
+    /**
+     * PUT /api/v1/contacts/import/uploads/{uploadId}?offset=N - Append the next part of the file
+     */
+    @PutMapping(value = "/import/uploads/{uploadId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<ApiResponse<ContactImportJob>> appendImportUpload(
+            @AuthenticationPrincipal User user,
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            InputStream part) {
+
+        ContactImportJob upload = importService.appendUpload(uploadId, user.getId(), offset, part);
+
+        return ResponseEntity.ok(ApiResponse.success(upload, "Part received"));
+    }
+
+    /**
+     * POST /api/v1/contacts/import/uploads/{uploadId}/complete - Import the uploaded file
+     */
+    @PostMapping("/import/uploads/{uploadId}/complete")
+    public ResponseEntity<ApiResponse<Map<String, String>>> completeImportUpload(
+            @AuthenticationPrincipal User user,
+            @PathVariable String uploadId,
+            @RequestParam(required = false) String listId,
+            @RequestParam(defaultValue = "true") boolean skipDuplicates) {
+
+        String jobId = importService.completeUpload(uploadId, user.getId(), listId, skipDuplicates);
+
+        Map<String, String> response = Map.of(
+                "jobId", jobId,
+                "message", "Import started. Check status using /api/v1/contacts/import/" + jobId
+        );
+
+        return ResponseEntity.accepted()
+                .body(ApiResponse.success(response, "Import started successfully"));
+    }
+
     /**
      * POST /api/v1/contacts/import/validate - Validate CSV without importing
      */
@@ -393,14 +478,17 @@ public class ContactController {
     }
 
     /**
-     * GET /api/v1/contacts/export - Export contacts to CSV or JSON
+     * GET /api/v1/contacts/export - Export contacts as CSV, JSON or NDJSON, optionally gzip-compressed.
+     * The body is streamed from a database cursor, so memory use does not grow with the number of contacts.
      */
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportContacts(
+    public ResponseEntity<StreamingResponseBody> exportContacts(
             @AuthenticationPrincipal User user,
             @RequestParam(defaultValue = "csv") String format,
             @RequestParam(required = false) String listId,
+            @RequestParam(required = false) String segmentId,
             @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "false") boolean gzip,
             @RequestParam(defaultValue = "true") boolean includeFirstName,
             @RequestParam(defaultValue = "true") boolean includeLastName,
             @RequestParam(defaultValue = "true") boolean includeStatus,
@@ -413,6 +501,7 @@ public class ContactController {
         // Build export options
         ContactExportService.ExportOptions options = new ContactExportService.ExportOptions();
         options.setListId(listId);
+        options.setSegmentId(segmentId);
         options.setStatus(status);
         options.setIncludeFirstName(includeFirstName);
         options.setIncludeLastName(includeLastName);
@@ -420,28 +509,17 @@ public class ContactController {
         options.setIncludeSource(includeSource);
         options.setIncludeTags(includeTags);
         options.setIncludeCustomFields(includeCustomFields);
+        exportService.validateOptions(user.getId(), options);
 
-        byte[] data;
-        String filename;
-        String contentType;
-
-        if ("json".equalsIgnoreCase(format)) {
-            data = exportService.exportToJSON(user.getId(), options);
-            filename = "contacts_export.json";
-            contentType = MediaType.APPLICATION_JSON_VALUE;
-        } else {
-            data = exportService.exportToCSV(user.getId(), options);
-            filename = "contacts_export.csv";
-            contentType = "text/csv";
-        }
+        ContactExportService.ExportFormat exportFormat = ContactExportService.ExportFormat.from(format);
+        String filename = "contacts_export." + exportFormat.getExtension() + (gzip ? ".gz" : "");
 
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType(contentType));
-        headers.setContentDispositionFormData("attachment", filename);
-        headers.setContentLength(data.length);
+        headers.setContentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()));
+        headers.setContentDisposition(ContentDisposition.attachment().filename(filename).build());
 
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(data);
+        StreamingResponseBody body = outputStream ->
+                exportService.export(user.getId(), options, exportFormat, gzip, outputStream);
+        return ResponseEntity.ok().headers(headers).body(body);
     }
 }
@@ -26,6 +26,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -227,46 +228,23 @@ public class ContactListController {
                     .body(ApiResponse.error("INVALID_REQUEST", "contactIds is required", "contactIds"));
         }
 
-        int added = 0;
+        // Contacts that do not exist or belong to another user are skipped
+        Set<String> owned = membershipService.findOwnedContactIds(user.getId(), contactIds);
         int skipped = 0;
         List<String> errors = new java.util.ArrayList<>();
-
+        List<String> ownedContactIds = new java.util.ArrayList<>();
         for (String contactId : contactIds) {
-            try {
-                Contact contact = contactService.findById(contactId);
-
-                // Verify contact belongs to user
-                if (!contact.getUser().getId().equals(user.getId())) {
-                    errors.add("Contact " + contactId + " does not belong to you");
-                    skipped++;
-                    continue;
-                }
-
-                // Check if already in list
-                if (membershipService.isContactInList(contactId, id)) {
-                    skipped++;
-                    continue;
-                }
-
-                com.openmailer.openmailer.model.ContactListMembership membership =
-                        new com.openmailer.openmailer.model.ContactListMembership();
-                membership.setContact(contact);
-                membership.setContactId(contactId);
-                membership.setListId(id);
-                membership.setStatus("ACTIVE");
-                membershipService.addContactToList(membership);
-                added++;
-
-            } catch (Exception e) {
-                errors.add("Error adding contact " + contactId + ": " + e.getMessage());
+            if (owned.contains(contactId)) {
+                ownedContactIds.add(contactId);
+            } else {
+                errors.add("Contact " + contactId + " not found");
                 skipped++;
             }
         }
 
-        // Update list counts
-        long totalContacts = membershipService.countByList(id);
-        long activeContacts = membershipService.countActiveByList(id);
-        listService.updateStatistics(id, user.getId(), (int) totalContacts, (int) activeContacts);
+        // Contacts already in the list are skipped; list counts are updated with the memberships
+        int added = membershipService.addContactsToList(ownedContactIds, id);
+        skipped += ownedContactIds.size() - added;
 
         Map<String, Object> result = new HashMap<>();
         result.put("added", added);
@@ -306,11 +284,6 @@ public class ContactListController {
 
         membershipService.removeContactFromList(contactId, id);
 
-        // Update list counts
-        long totalContacts = membershipService.countByList(id);
-        long activeContacts = membershipService.countActiveByList(id);
-        listService.updateStatistics(id, user.getId(), (int) totalContacts, (int) activeContacts);
-
         log.info("Removed contact {} from list {} by user: {}", contactId, id, user.getEmail());
 
         return ResponseEntity.ok(ApiResponse.success(null, "Contact removed from list"));
@@ -6,6 +6,7 @@ import com.openmailer.openmailer.model.ContactList;
 import com.openmailer.openmailer.model.ContactListMembership;
 import com.openmailer.openmailer.model.User;
 import com.openmailer.openmailer.repository.ContactListRepository;
+import com.openmailer.openmailer.repository.projection.ContactSummaryRow;
 import com.openmailer.openmailer.security.CustomUserDetails;
 import com.openmailer.openmailer.service.contact.ContactImportService;
 import com.openmailer.openmailer.service.contact.ContactListService;
@@ -37,9 +38,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
-import java.util.TreeSet;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -48,6 +46,7 @@ import java.util.stream.Stream;
 public class ContactsController {
 
     private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy, HH:mm");
+    private static final int PAGE_SIZE = 50;
     private final ContactService contactService;
     private final ContactImportService contactImportService;
     private final ContactListService contactListService;
@@ -73,17 +72,21 @@ public class ContactsController {
         @RequestParam(required = false) String status,
         @RequestParam(required = false) String tag,
         @RequestParam(required = false) String search,
+        @RequestParam(required = false) String after,
+        @RequestParam(required = false) String before,
         @AuthenticationPrincipal CustomUserDetails userDetails,
         Model model
     ) {
         String userId = userDetails.getUser().getId();
-        List<Contact> userContacts = contactService.findByUserId(userId);
+        Map<String, Long> statusCounts = contactService.countPerStatus(userId);
+        long totalContacts = statusCounts.values().stream().mapToLong(Long::longValue).sum();
+        ContactService.ContactPage page = contactService.findPage(userId, status, tag, search, after, before, PAGE_SIZE);
 
         model.addAttribute("pageTitle", "Contacts - OpenMailer");
-        model.addAttribute("totalContacts", contactService.countByUserId(userId));
-        model.addAttribute("subscribedContacts", contactService.countByStatus(userId, "SUBSCRIBED"));
-        model.addAttribute("unsubscribedContacts", contactService.countByStatus(userId, "UNSUBSCRIBED"));
-        model.addAttribute("bouncedContacts", contactService.countByStatus(userId, "BOUNCED"));
+        model.addAttribute("totalContacts", totalContacts);
+        model.addAttribute("subscribedContacts", statusCounts.getOrDefault("SUBSCRIBED", 0L));
+        model.addAttribute("unsubscribedContacts", statusCounts.getOrDefault("UNSUBSCRIBED", 0L));
+        model.addAttribute("bouncedContacts", statusCounts.getOrDefault("BOUNCED", 0L));
         model.addAttribute("statusFilters", List.of(
             Map.of("value", "", "label", "All Statuses"),
             Map.of("value", "SUBSCRIBED", "label", "Subscribed"),
@@ -91,20 +94,18 @@ public class ContactsController {
             Map.of("value", "PENDING", "label", "Pending"),
             Map.of("value", "BOUNCED", "label", "Bounced")
         ));
-        model.addAttribute("tagFilters", buildTagFilters(userContacts));
         model.addAttribute("currentStatus", status != null ? status : "");
         model.addAttribute("currentTag", tag != null ? tag : "");
         model.addAttribute("searchQuery", search != null ? search : "");
-        model.addAttribute("contacts", userContacts.stream()
+        model.addAttribute("contacts", page.getContacts().stream()
             .map(this::toSummaryView)
-            .filter(contact -> status == null || status.isBlank() || status.equals(contact.status()))
-            .filter(contact -> tag == null || tag.isBlank() || contact.tags().contains(tag))
-            .filter(contact -> matchesSearch(contact, search))
-            .sorted(Comparator.comparing(ContactSummaryView::sortDate, Comparator.nullsLast(Comparator.reverseOrder())))
             .toList());
-        model.addAttribute("currentPage", 1);
-        model.addAttribute("totalPages", 1);
-        model.addAttribute("pages", Collections.singletonList(1));
+        // Only status filters can be counted without scanning, so other filters show no total
+        model.addAttribute("matchingContacts", isBlank(tag) && isBlank(search)
+            ? (isBlank(status) ? totalContacts : statusCounts.getOrDefault(status, 0L))
+            : null);
+        model.addAttribute("previousCursor", page.getPreviousCursor());
+        model.addAttribute("nextCursor", page.getNextCursor());
 
         return "contacts/list";
     }
@@ -282,8 +283,7 @@ public class ContactsController {
         }
 
         if ("add".equalsIgnoreCase(bulkAction)) {
-            int addedCount = membershipService.addContactsToList(validatedContactIds, list.getId()).size();
-            refreshListStatistics(list.getId(), userId);
+            int addedCount = membershipService.addContactsToList(validatedContactIds, list.getId());
             redirectAttributes.addFlashAttribute(
                 "successMessage",
                 addedCount > 0
@@ -294,11 +294,7 @@ public class ContactsController {
         }
 
         if ("remove".equalsIgnoreCase(bulkAction)) {
-            int removableCount = (int) validatedContactIds.stream()
-                .filter(contactId -> membershipService.isContactInList(contactId, list.getId()))
-                .count();
-            membershipService.removeContactsFromList(validatedContactIds, list.getId());
-            refreshListStatistics(list.getId(), userId);
+            int removableCount = membershipService.removeContactsFromList(validatedContactIds, list.getId());
             redirectAttributes.addFlashAttribute(
                 "successMessage",
                 removableCount > 0
@@ -404,45 +400,30 @@ public class ContactsController {
             return;
         }
         String userId = userDetails.getUser().getId();
-        model.addAttribute("tagFilters", buildTagFilters(contactService.findByUserId(userId)));
+        model.addAttribute("tagFilters", buildTagFilters(contactService.countPerTag(userId)));
         model.addAttribute("listOptions", contactListRepository.findByUser_Id(userId));
     }
 
-    private List<Map<String, String>> buildTagFilters(List<Contact> contacts) {
-        Set<String> tags = contacts.stream()
-            .map(Contact::getTags)
-            .filter(Objects::nonNull)
-            .flatMap(Arrays::stream)
-            .map(String::trim)
-            .filter(tag -> !tag.isEmpty())
-            .collect(Collectors.toCollection(TreeSet::new));
-
+    private List<Map<String, String>> buildTagFilters(Map<String, Long> tagCounts) {
         List<Map<String, String>> filters = new ArrayList<>();
         filters.add(Map.of("value", "", "label", "All Tags"));
-        tags.forEach(tag -> filters.add(Map.of("value", tag, "label", tag)));
+        tagCounts.forEach((tag, count) -> filters.add(Map.of("value", tag, "label", tag + " (" + count + ")")));
         return filters;
     }
 
-    private boolean matchesSearch(ContactSummaryView contact, String search) {
-        if (search == null || search.isBlank()) {
-            return true;
-        }
-        String query = search.toLowerCase(Locale.ROOT);
-        return contact.name().toLowerCase(Locale.ROOT).contains(query)
-            || contact.email().toLowerCase(Locale.ROOT).contains(query);
+    private boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
 
-    private ContactSummaryView toSummaryView(Contact contact) {
-        LocalDateTime sortDate = Optional.ofNullable(contact.getSubscribedAt()).orElse(contact.getCreatedAt());
+    private ContactSummaryView toSummaryView(ContactSummaryRow contact) {
         return new ContactSummaryView(
-            contact.getId(),
-            buildContactName(contact),
-            contact.getEmail(),
-            contact.getStatus(),
-            normalizeTags(contact.getTags()),
-            extractCustomField(contact, "company"),
-            formatDate(sortDate),
-            sortDate
+            contact.id(),
+            buildName(contact.firstName(), contact.lastName(), contact.email()),
+            contact.email(),
+            contact.status(),
+            normalizeTags(contact.tags()),
+            contact.company(),
+            formatDate(contact.sortDate())
         );
     }
 
@@ -565,13 +546,6 @@ public class ContactsController {
         existingListIds.stream()
             .filter(existingListId -> !requestedListIds.contains(existingListId))
             .forEach(existingListId -> membershipService.removeContactFromList(contactId, existingListId));
-
-        Stream.concat(
-                requestedListIds.stream(),
-                existingListIds.stream()
-            )
-            .distinct()
-            .forEach(listId -> refreshListStatistics(listId, userId));
     }
 
     private void bindValidationError(BindingResult bindingResult, ValidationException ex) {
@@ -583,12 +557,16 @@ public class ContactsController {
     }
 
     private String buildContactName(Contact contact) {
-        String fullName = Stream.of(contact.getFirstName(), contact.getLastName())
+        return buildName(contact.getFirstName(), contact.getLastName(), contact.getEmail());
+    }
+
+    private String buildName(String firstName, String lastName, String email) {
+        String fullName = Stream.of(firstName, lastName)
             .filter(Objects::nonNull)
             .map(String::trim)
             .filter(value -> !value.isEmpty())
             .collect(Collectors.joining(" "));
-        return fullName.isBlank() ? contact.getEmail() : fullName;
+        return fullName.isBlank() ? email : fullName;
     }
 
     private List<String> normalizeTags(String[] tags) {
@@ -619,19 +597,12 @@ public class ContactsController {
     }
 
     private ContactListSummaryView toListSummaryView(ContactList list) {
-        long totalContacts = membershipService.countByList(list.getId());
-        long activeContacts = membershipService.countActiveByList(list.getId());
-
-        if (!Objects.equals(list.getTotalContacts(), (int) totalContacts) || !Objects.equals(list.getActiveContacts(), (int) activeContacts)) {
-            contactListService.updateStatistics(list.getId(), list.getUserId(), (int) totalContacts, (int) activeContacts);
-        }
-
         return new ContactListSummaryView(
             list.getId(),
             list.getName(),
             blankToNull(list.getDescription()),
-            (int) totalContacts,
-            (int) activeContacts,
+            list.getTotalContacts() != null ? list.getTotalContacts() : 0,
+            list.getActiveContacts() != null ? list.getActiveContacts() : 0,
             Boolean.TRUE.equals(list.getDoubleOptInEnabled()),
             formatDate(list.getUpdatedAt())
         );
@@ -676,15 +647,6 @@ public class ContactsController {
             .count();
     }
 
-    private void refreshListStatistics(String listId, String userId) {
-        contactListService.updateStatistics(
-            listId,
-            userId,
-            (int) membershipService.countByList(listId),
-            (int) membershipService.countActiveByList(listId)
-        );
-    }
-
     private record ContactSummaryView(
         String id,
         String name,
@@ -692,8 +654,7 @@ public class ContactsController {
         String status,
         List<String> tags,
         String company,
-        String subscribedDate,
-        LocalDateTime sortDate
+        String subscribedDate
     ) { }
 
     private record ContactDetailView(
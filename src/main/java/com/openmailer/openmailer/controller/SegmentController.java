@@ -10,9 +10,7 @@ import com.openmailer.openmailer.model.Segment;
 import com.openmailer.openmailer.model.User;
 import com.openmailer.openmailer.security.CustomUserDetails;
 import com.openmailer.openmailer.service.contact.ContactListService;
-import com.openmailer.openmailer.service.contact.ContactListMembershipService;
-import com.openmailer.openmailer.service.contact.ContactService;
-import com.openmailer.openmailer.service.contact.SegmentEvaluationService;
+import com.openmailer.openmailer.service.contact.SegmentQueryService;
 import com.openmailer.openmailer.service.contact.SegmentService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,21 +38,15 @@ public class SegmentController {
 
     private final SegmentService segmentService;
     private final ContactListService contactListService;
-    private final ContactListMembershipService membershipService;
-    private final ContactService contactService;
-    private final SegmentEvaluationService segmentEvaluationService;
+    private final SegmentQueryService segmentQueryService;
 
     @Autowired
     public SegmentController(SegmentService segmentService,
                             ContactListService contactListService,
-                            ContactListMembershipService membershipService,
-                            ContactService contactService,
-                            SegmentEvaluationService segmentEvaluationService) {
+                            SegmentQueryService segmentQueryService) {
         this.segmentService = segmentService;
         this.contactListService = contactListService;
-        this.membershipService = membershipService;
-        this.contactService = contactService;
-        this.segmentEvaluationService = segmentEvaluationService;
+        this.segmentQueryService = segmentQueryService;
     }
 
     /**
@@ -237,7 +229,8 @@ public class SegmentController {
         result.put("segmentName", segment.getName());
         result.put("isDynamic", segment.getIsDynamic());
         result.put("conditions", segment.getConditions());
-        List<Contact> matchingContacts = resolveSegmentContacts(user.getId(), segment);
+        List<Contact> matchingContacts = segmentQueryService.findSubscribedContacts(
+                user.getId(), segmentListId(segment), segment);
         int fromIndex = Math.min(page * size, matchingContacts.size());
         int toIndex = Math.min(fromIndex + size, matchingContacts.size());
         List<Contact> pagedContacts = matchingContacts.subList(fromIndex, toIndex);
@@ -273,28 +266,17 @@ public class SegmentController {
         result.put("conditions", segment.getConditions());
         result.put("isDynamic", segment.getIsDynamic());
 
-        List<Contact> matchingContacts = resolveSegmentContacts(user.getId(), segment);
-        segmentService.updateCachedCount(segment.getId(), user.getId(), matchingContacts.size());
-        result.put("matchingContacts", matchingContacts.size());
+        int matchingContacts = (int) segmentQueryService.countSubscribedContacts(
+                user.getId(), segmentListId(segment), segment);
+        segmentService.updateCachedCount(segment.getId(), user.getId(), matchingContacts);
+        result.put("matchingContacts", matchingContacts);
         result.put("lastCalculatedAt", LocalDateTime.now());
         result.put("source", "evaluated");
 
         return ResponseEntity.ok(ApiResponse.success(result));
     }
 
-    private List<Contact> resolveSegmentContacts(String userId, Segment segment) {
-        List<Contact> baseContacts;
-        if (segment.getContactList() != null) {
-            List<String> contactIds = membershipService.getActiveContactIdsByList(segment.getContactList().getId());
-            baseContacts = contactService.findByUserId(userId).stream()
-                .filter(contact -> contactIds.contains(contact.getId()))
-                .filter(contact -> "SUBSCRIBED".equals(contact.getStatus()))
-                .toList();
-        } else {
-            baseContacts = contactService.findByUserId(userId).stream()
-                .filter(contact -> "SUBSCRIBED".equals(contact.getStatus()))
-                .toList();
-        }
-        return segmentEvaluationService.filterContacts(baseContacts, segment);
+    private static String segmentListId(Segment segment) {
+        return segment.getContactList() != null ? segment.getContactList().getId() : null;
     }
 }
@@ -0,0 +1,133 @@
+package com.openmailer.openmailer.controller;
+
+import com.openmailer.openmailer.exception.ResourceNotFoundException;
+import com.openmailer.openmailer.service.campaign.TrackingService;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Lightweight servlet for handling email tracking.
+ * Serves the open-tracking pixel and click redirects directly, without going through
+ * the DispatcherServlet, the Spring Security filter chain, sessions or view resolution.
+ * These endpoints do NOT require authentication as they are accessed from emails.
+ *
+ * Mapped to {@code /track/*} by {@link com.openmailer.openmailer.config.TrackingServletConfiguration}.
+ */
+public class TrackingServlet extends HttpServlet {
+
+    private static final Logger log = LoggerFactory.getLogger(TrackingServlet.class);
+
+    // 1x1 transparent GIF pixel (base64 encoded)
+    private static final byte[] TRACKING_PIXEL = Base64.getDecoder().decode(
+            "R0lGODlhAQABAIAAAAAAAP///yH5BAEAAAAALAAAAAABAAEAAAIBRAA7"
+    );
+
+    private static final byte[] HEALTH_MESSAGE = "Tracking service is running".getBytes(StandardCharsets.UTF_8);
+
+    private static final String OPEN_PREFIX = "/open/";
+    private static final String CLICK_PREFIX = "/click/";
+    private static final String HEALTH_PATH = "/health";
+
+    private final transient TrackingService trackingService;
+
+    public TrackingServlet(TrackingService trackingService) {
+        this.trackingService = trackingService;
+    }
+
+    /**
+     * Dispatches tracking requests by path:
+     *
+     * GET /track/open/{trackingId}
+     * GET /track/click/{shortCode}?tid={trackingId}
+     * GET /track/health
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = request.getPathInfo();
+
+        if (path != null && path.startsWith(OPEN_PREFIX)) {
+            trackOpen(path.substring(OPEN_PREFIX.length()), request, response);
+        } else if (path != null && path.startsWith(CLICK_PREFIX)) {
+            trackClick(path.substring(CLICK_PREFIX.length()), request, response);
+        } else if (HEALTH_PATH.equals(path)) {
+            health(response);
+        } else {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    /**
+     * Tracks email opens by serving a 1x1 transparent pixel.
+     * The pixel is returned even when tracking fails, to avoid broken images in emails.
+     */
+    private void trackOpen(String trackingId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("Tracking pixel requested for: {}", trackingId);
+
+        try {
+            trackingService.recordOpen(trackingId, request.getHeader(HttpHeaders.USER_AGENT));
+        } catch (ResourceNotFoundException e) {
+            log.warn("Tracking ID not found: {}", trackingId);
+        } catch (Exception e) {
+            log.error("Error tracking open for {}: {}", trackingId, e.getMessage());
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.IMAGE_GIF_VALUE);
+        response.setContentLength(TRACKING_PIXEL.length);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate");
+        response.setHeader(HttpHeaders.PRAGMA, "no-cache");
+        response.setDateHeader(HttpHeaders.EXPIRES, 0);
+        response.getOutputStream().write(TRACKING_PIXEL);
+    }
+
+    /**
+     * Tracks link clicks and redirects to the original URL.
+     * Unknown short codes and tracking errors redirect to the home page.
+     */
+    private void trackClick(String shortCode, HttpServletRequest request, HttpServletResponse response) {
+        String trackingId = request.getParameter("tid");
+        String userAgent = request.getHeader(HttpHeaders.USER_AGENT);
+
+        log.debug("Link click tracked - Short code: {}, Tracking ID: {}", shortCode, trackingId);
+
+        String location;
+        try {
+            if (trackingId != null && !trackingId.isEmpty()) {
+                // Record click with recipient tracking
+                location = trackingService.recordClick(shortCode, trackingId, userAgent);
+            } else {
+                // Record anonymous click (no recipient tracking)
+                location = trackingService.recordAnonymousClick(shortCode, userAgent);
+            }
+        } catch (ResourceNotFoundException e) {
+            log.warn("Short code not found: {}", shortCode);
+            location = "/";
+        } catch (Exception e) {
+            log.error("Error tracking click for {}: {}", shortCode, e.getMessage(), e);
+            location = "/";
+        }
+
+        response.setStatus(HttpServletResponse.SC_FOUND);
+        response.setHeader(HttpHeaders.LOCATION, location);
+    }
+
+    /**
+     * Health check endpoint for tracking service.
+     */
+    private void health(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentLength(HEALTH_MESSAGE.length);
+        response.getOutputStream().write(HEALTH_MESSAGE);
+    }
+}
@@ -377,6 +377,7 @@ public class WebhookController {
             // Increment complaint count
             int complaintCount = contact.getComplaintCount() != null ? contact.getComplaintCount() : 0;
             contact.setComplaintCount(complaintCount + 1);
+            bounceProcessingService.recordComplaint(contact.getId());
 
             // Automatically unsubscribe on spam complaint
             if (contact.getUnsubscribeToken() != null) {
@@ -6,17 +6,23 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "campaign_recipients")
+@NamedEntityGraph(name = CampaignRecipient.GRAPH_CONTACT, attributeNodes = @NamedAttributeNode("contact"))
 public class CampaignRecipient {
 
+    /**
+     * Fetch plan for reads that render or address the email (sending and retries).
+     */
+    public static final String GRAPH_CONTACT = "CampaignRecipient.contact";
+
     @Id
     @Column(length = 50)
     private String id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "campaign_id", nullable = false)
     private EmailCampaign campaign;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "contact_id", nullable = false)
     private Contact contact;
 
@@ -15,7 +15,7 @@ public class Contact {
     @Column(length = 50)
     private String id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -70,6 +70,23 @@ public class Contact {
     @Column(name = "last_complaint_at")
     private LocalDateTime lastComplaintAt;
 
+    // Engagement times are written in batches by the send and tracking pipelines only
+    @Column(name = "last_sent_at", insertable = false, updatable = false)
+    private LocalDateTime lastSentAt;
+
+    @Column(name = "last_opened_at", insertable = false, updatable = false)
+    private LocalDateTime lastOpenedAt;
+
+    @Column(name = "last_clicked_at", insertable = false, updatable = false)
+    private LocalDateTime lastClickedAt;
+
+    // Decayed engagement score as of engagementScoredAt, which is in UTC (see EngagementScore)
+    @Column(name = "engagement_score", insertable = false, updatable = false)
+    private Double engagementScore;
+
+    @Column(name = "engagement_scored_at", insertable = false, updatable = false)
+    private LocalDateTime engagementScoredAt;
+
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "custom_fields", columnDefinition = "JSONB")
     private Map<String, Object> customFields;
@@ -255,6 +272,46 @@ public class Contact {
         this.bounceType = bounceType;
     }
 
+    public LocalDateTime getLastSentAt() {
+        return lastSentAt;
+    }
+
+    public void setLastSentAt(LocalDateTime lastSentAt) {
+        this.lastSentAt = lastSentAt;
+    }
+
+    public LocalDateTime getLastOpenedAt() {
+        return lastOpenedAt;
+    }
+
+    public void setLastOpenedAt(LocalDateTime lastOpenedAt) {
+        this.lastOpenedAt = lastOpenedAt;
+    }
+
+    public LocalDateTime getLastClickedAt() {
+        return lastClickedAt;
+    }
+
+    public void setLastClickedAt(LocalDateTime lastClickedAt) {
+        this.lastClickedAt = lastClickedAt;
+    }
+
+    public Double getEngagementScore() {
+        return engagementScore;
+    }
+
+    public void setEngagementScore(Double engagementScore) {
+        this.engagementScore = engagementScore;
+    }
+
+    public LocalDateTime getEngagementScoredAt() {
+        return engagementScoredAt;
+    }
+
+    public void setEngagementScoredAt(LocalDateTime engagementScoredAt) {
+        this.engagementScoredAt = engagementScoredAt;
+    }
+
     public Integer getComplaintCount() {
         return complaintCount;
     }
@@ -7,8 +7,25 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "email_campaigns")
+@NamedEntityGraph(
+    name = EmailCampaign.GRAPH_DELIVERY,
+    attributeNodes = {
+        @NamedAttributeNode("template"),
+        @NamedAttributeNode("createdBy"),
+        @NamedAttributeNode("domain"),
+        @NamedAttributeNode("provider"),
+        @NamedAttributeNode("contactList"),
+        @NamedAttributeNode("segment")
+    }
+)
 public class EmailCampaign {
 
+    /**
+     * Fetch plan for reads that hand the campaign to sending, audience resolution
+     * or detail views outside the loading transaction.
+     */
+    public static final String GRAPH_DELIVERY = "EmailCampaign.delivery";
+
     @Id
     @Column(length = 50)
     private String id;
@@ -16,7 +33,7 @@ public class EmailCampaign {
     @Column(nullable = false)
     private String name;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "template_id", nullable = false)
     private EmailTemplate template;
 
@@ -41,7 +58,7 @@ public class EmailCampaign {
     @Column(name = "user_id", nullable = false, length = 50)
     private String userId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by", nullable = false)
     private User createdBy;
 
@@ -54,19 +71,19 @@ public class EmailCampaign {
     @Column(name = "reply_to_email")
     private String replyToEmail;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "domain_id")
     private Domain domain;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "provider_id")
     private EmailProvider provider;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "list_id")
     private ContactList contactList;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "segment_id")
     private Segment segment;
 
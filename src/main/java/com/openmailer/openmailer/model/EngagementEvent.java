@@ -0,0 +1,40 @@
+package com.openmailer.openmailer.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single open or click, as written to the {@code engagement_events} table.
+ *
+ * Not a JPA entity: the table is range-partitioned by day and written with batched
+ * JDBC inserts, so rows stay narrow and never carry entity relations.
+ *
+ * @param type the event type
+ * @param campaignId the campaign ID
+ * @param recipientId the campaign recipient ID, or null for anonymous clicks
+ * @param linkId the campaign link ID for clicks, null for opens
+ * @param occurredAt when the event was received
+ * @param userAgentHash hash of the requesting User-Agent, or null if absent
+ */
+public record EngagementEvent(
+        EngagementEventType type,
+        String campaignId,
+        String recipientId,
+        String linkId,
+        LocalDateTime occurredAt,
+        Integer userAgentHash
+) {
+
+    public static EngagementEvent open(String campaignId, String recipientId, String userAgent) {
+        return new EngagementEvent(EngagementEventType.OPEN, campaignId, recipientId, null,
+                LocalDateTime.now(), hashUserAgent(userAgent));
+    }
+
+    public static EngagementEvent click(String campaignId, String recipientId, String linkId, String userAgent) {
+        return new EngagementEvent(EngagementEventType.CLICK, campaignId, recipientId, linkId,
+                LocalDateTime.now(), hashUserAgent(userAgent));
+    }
+
+    private static Integer hashUserAgent(String userAgent) {
+        return userAgent == null || userAgent.isBlank() ? null : userAgent.hashCode();
+    }
+}
@@ -0,0 +1,30 @@
+package com.openmailer.openmailer.model;
+
+/**
+ * Types of engagement events stored in the append-only engagement event table.
+ * Each type is persisted as a stable SMALLINT code rather than its ordinal or name
+ * to keep event rows narrow.
+ */
+public enum EngagementEventType {
+    OPEN((short) 1),
+    CLICK((short) 2);
+
+    private final short code;
+
+    EngagementEventType(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static EngagementEventType fromCode(short code) {
+        for (EngagementEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown engagement event type code: " + code);
+    }
+}
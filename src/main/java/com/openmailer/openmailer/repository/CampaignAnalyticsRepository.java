@@ -0,0 +1,150 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.repository.projection.EngagementBucket;
+import com.openmailer.openmailer.repository.projection.EngagementSeriesPoint;
+import com.openmailer.openmailer.repository.projection.EngagementTotals;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read-only aggregate queries for campaign analytics.
+ *
+ * NOTE:
+ * - Reads the engagement rollups maintained by {@link EngagementRollupRepository}, so a
+ *   query touches one row per campaign hour or day instead of one row per recipient or event
+ * - Hourly and daily rollups never overlap in time, so both tables are simply unioned
+ */
+@Repository
+public class CampaignAnalyticsRepository {
+
+  private static final String ROLLUP_COLUMNS =
+      "bucket_start, sends, opens, unique_opens, clicks, unique_clicks, bounces, complaints";
+
+  private static final RowMapper<EngagementTotals> TOTALS_MAPPER = (rs, rowNum) -> new EngagementTotals(
+      rs.getLong("sends"),
+      rs.getLong("opens"),
+      rs.getLong("unique_opens"),
+      rs.getLong("clicks"),
+      rs.getLong("unique_clicks"),
+      rs.getLong("bounces"),
+      rs.getLong("complaints"));
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public CampaignAnalyticsRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Sum all rollup buckets of a campaign.
+   *
+   * @param campaignId the campaign ID
+   * @return campaign engagement counters
+   */
+  public EngagementTotals findCampaignTotals(String campaignId) {
+    return findTotals("campaign_id", campaignId);
+  }
+
+  /**
+   * Count unique opens and clicks of a campaign per time bucket.
+   * Buckets already compacted to days fall on midnight when a finer unit is requested.
+   *
+   * @param campaignId the campaign ID
+   * @param unit the {@code date_trunc} unit, e.g. {@code day} or {@code hour}
+   * @return buckets that have at least one open or click, oldest first
+   */
+  public List<EngagementBucket> findEngagementBuckets(String campaignId, String unit) {
+    return jdbcTemplate.query("""
+        SELECT date_trunc(:unit, r.bucket_start) AS bucket_start,
+               SUM(r.unique_opens) AS opens,
+               SUM(r.unique_clicks) AS clicks
+        FROM (%s) r
+        GROUP BY 1
+        HAVING SUM(r.unique_opens) > 0 OR SUM(r.unique_clicks) > 0
+        ORDER BY 1
+    """.formatted(rollupRows("campaign_id")), new MapSqlParameterSource()
+        .addValue("key", campaignId)
+        .addValue("unit", unit), (rs, rowNum) -> {
+          Timestamp bucketStart = rs.getTimestamp("bucket_start");
+          return new EngagementBucket(bucketStart.toLocalDateTime(), rs.getLong("opens"), rs.getLong("clicks"));
+        });
+  }
+
+  /**
+   * Sum rollup buckets of a user's campaigns into coarser time buckets.
+   *
+   * @param userId the owning user ID; always applied, so foreign campaign IDs match nothing
+   * @param campaignIds campaigns to include, or empty for all of the user's campaigns
+   * @param from start of the range, inclusive
+   * @param to end of the range, exclusive
+   * @param unit the {@code date_trunc} unit, e.g. {@code hour}, {@code day} or {@code week}
+   * @param limit maximum number of buckets returned
+   * @return non-empty buckets, oldest first
+   */
+  public List<EngagementSeriesPoint> findEngagementSeries(
+      String userId, Collection<String> campaignIds, LocalDateTime from, LocalDateTime to, String unit, int limit) {
+    String campaignFilter = campaignIds.isEmpty() ? "" : " AND campaign_id IN (:campaignIds)";
+    String rows = "SELECT " + ROLLUP_COLUMNS + " FROM %s WHERE user_id = :userId"
+        + " AND bucket_start >= :from AND bucket_start < :to" + campaignFilter;
+
+    return jdbcTemplate.query("""
+        SELECT date_trunc(:unit, r.bucket_start) AS bucket_start,
+               SUM(r.opens) AS opens,
+               SUM(r.unique_opens) AS unique_opens,
+               SUM(r.clicks) AS clicks,
+               SUM(r.unique_clicks) AS unique_clicks,
+               SUM(r.bounces) AS bounces
+        FROM (%s UNION ALL %s) r
+        GROUP BY 1
+        ORDER BY 1
+        LIMIT :limit
+    """.formatted(
+        rows.formatted(EngagementRollupRepository.HOURLY_TABLE),
+        rows.formatted(EngagementRollupRepository.DAILY_TABLE)), new MapSqlParameterSource()
+        .addValue("userId", userId)
+        .addValue("campaignIds", campaignIds)
+        .addValue("from", Timestamp.valueOf(from))
+        .addValue("to", Timestamp.valueOf(to))
+        .addValue("unit", unit)
+        .addValue("limit", limit), (rs, rowNum) -> new EngagementSeriesPoint(
+            rs.getTimestamp("bucket_start").toLocalDateTime(),
+            rs.getLong("opens"),
+            rs.getLong("unique_opens"),
+            rs.getLong("clicks"),
+            rs.getLong("unique_clicks"),
+            rs.getLong("bounces")));
+  }
+
+  private EngagementTotals findTotals(String keyColumn, String key) {
+    List<EngagementTotals> rows = jdbcTemplate.query("""
+        SELECT COALESCE(SUM(sends), 0) AS sends,
+               COALESCE(SUM(opens), 0) AS opens,
+               COALESCE(SUM(unique_opens), 0) AS unique_opens,
+               COALESCE(SUM(clicks), 0) AS clicks,
+               COALESCE(SUM(unique_clicks), 0) AS unique_clicks,
+               COALESCE(SUM(bounces), 0) AS bounces,
+               COALESCE(SUM(complaints), 0) AS complaints
+        FROM (%s) r
+    """.formatted(rollupRows(keyColumn)), new MapSqlParameterSource("key", key), TOTALS_MAPPER);
+    return rows.isEmpty() ? EngagementTotals.empty() : rows.get(0);
+  }
+
+  /**
+   * Build a union of the hourly and daily rollup rows matching {@code :key}.
+   *
+   * @param keyColumn {@code campaign_id} or {@code user_id}
+   */
+  private static String rollupRows(String keyColumn) {
+    return "SELECT " + ROLLUP_COLUMNS + " FROM " + EngagementRollupRepository.HOURLY_TABLE
+        + " WHERE " + keyColumn + " = :key"
+        + " UNION ALL SELECT " + ROLLUP_COLUMNS + " FROM " + EngagementRollupRepository.DAILY_TABLE
+        + " WHERE " + keyColumn + " = :key";
+  }
+}
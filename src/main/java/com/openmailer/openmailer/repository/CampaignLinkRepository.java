@@ -1,6 +1,7 @@
 package com.openmailer.openmailer.repository;
 
 import com.openmailer.openmailer.model.CampaignLink;
+import com.openmailer.openmailer.repository.projection.LinkTrackingView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -45,6 +46,15 @@ public interface CampaignLinkRepository extends JpaRepository<CampaignLink, Stri
    */
   Optional<CampaignLink> findByShortCode(String shortCode);
 
+  /**
+   * Find the columns needed to record a click for a short code without loading the entity graph.
+   *
+   * @param shortCode the short code
+   * @return Optional containing the tracking view if found
+   */
+  @Query("SELECT l.id AS id, l.campaign.id AS campaignId, l.originalUrl AS originalUrl FROM CampaignLink l WHERE l.shortCode = :shortCode")
+  Optional<LinkTrackingView> findTrackingViewByShortCode(@Param("shortCode") String shortCode);
+
   /**
    * Find link by campaign and original URL.
    *
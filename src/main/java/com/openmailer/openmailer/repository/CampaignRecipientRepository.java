@@ -1,8 +1,10 @@
 package com.openmailer.openmailer.repository;
 
 import com.openmailer.openmailer.model.CampaignRecipient;
+import com.openmailer.openmailer.repository.projection.RecipientTrackingView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -34,6 +36,7 @@ public interface CampaignRecipientRepository extends JpaRepository<CampaignRecip
    * @param pageable pagination information
    * @return page of recipients
    */
+  @EntityGraph(CampaignRecipient.GRAPH_CONTACT)
   @Query("SELECT r FROM CampaignRecipient r WHERE r.campaign.id = :campaignId")
   Page<CampaignRecipient> findByCampaignId(@Param("campaignId") String campaignId, Pageable pageable);
 
@@ -45,6 +48,7 @@ public interface CampaignRecipientRepository extends JpaRepository<CampaignRecip
    * @param pageable pagination information
    * @return page of recipients
    */
+  @EntityGraph(CampaignRecipient.GRAPH_CONTACT)
   @Query("SELECT r FROM CampaignRecipient r WHERE r.campaign.id = :campaignId AND r.status = :status")
   Page<CampaignRecipient> findByCampaignIdAndStatus(@Param("campaignId") String campaignId, @Param("status") String status, Pageable pageable);
 
@@ -75,6 +79,15 @@ public interface CampaignRecipientRepository extends JpaRepository<CampaignRecip
    */
   Optional<CampaignRecipient> findByTrackingId(String trackingId);
 
+  /**
+   * Find the recipient and campaign IDs for a tracking ID without loading the entity graph.
+   *
+   * @param trackingId the tracking ID
+   * @return Optional containing the tracking view if found
+   */
+  @Query("SELECT r.id AS id, r.campaign.id AS campaignId FROM CampaignRecipient r WHERE r.trackingId = :trackingId")
+  Optional<RecipientTrackingView> findTrackingViewByTrackingId(@Param("trackingId") String trackingId);
+
   /**
    * Find recipients that opened emails.
    *
@@ -82,6 +95,7 @@ public interface CampaignRecipientRepository extends JpaRepository<CampaignRecip
    * @param pageable pagination information
    * @return page of recipients who opened
    */
+  @EntityGraph(CampaignRecipient.GRAPH_CONTACT)
   @Query("SELECT r FROM CampaignRecipient r WHERE r.campaign.id = :campaignId AND r.openedAt IS NOT NULL")
   Page<CampaignRecipient> findOpenedByCampaignId(@Param("campaignId") String campaignId, Pageable pageable);
 
@@ -92,6 +106,7 @@ public interface CampaignRecipientRepository extends JpaRepository<CampaignRecip
    * @param pageable pagination information
    * @return page of recipients who clicked
    */
+  @EntityGraph(CampaignRecipient.GRAPH_CONTACT)
   @Query("SELECT r FROM CampaignRecipient r WHERE r.campaign.id = :campaignId AND r.clickedAt IS NOT NULL")
   Page<CampaignRecipient> findClickedByCampaignId(@Param("campaignId") String campaignId, Pageable pageable);
 
@@ -102,6 +117,7 @@ public interface CampaignRecipientRepository extends JpaRepository<CampaignRecip
    * @param pageable pagination information
    * @return page of recipients who bounced
    */
+  @EntityGraph(CampaignRecipient.GRAPH_CONTACT)
   @Query("SELECT r FROM CampaignRecipient r WHERE r.campaign.id = :campaignId AND r.bouncedAt IS NOT NULL")
   Page<CampaignRecipient> findBouncedByCampaignId(@Param("campaignId") String campaignId, Pageable pageable);
 
@@ -158,6 +174,7 @@ public interface CampaignRecipientRepository extends JpaRepository<CampaignRecip
    * @param maxRetries maximum retry attempts
    * @return list of pending recipients
    */
+  @EntityGraph(CampaignRecipient.GRAPH_CONTACT)
   @Query("SELECT r FROM CampaignRecipient r WHERE r.campaign.id = :campaignId AND r.status = 'PENDING' AND r.retryCount < :maxRetries")
   List<CampaignRecipient> findPendingRecipients(@Param("campaignId") String campaignId, @Param("maxRetries") Integer maxRetries);
 
@@ -0,0 +1,63 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.repository.projection.RecipientReportRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Streaming queries for campaign reports.
+ *
+ * NOTE:
+ * - Uses its own JdbcTemplate with a fetch size, so PostgreSQL returns rows from a
+ *   server-side cursor in fixed-size chunks instead of materializing the whole result
+ * - The cursor only exists inside a transaction; callers must be transactional
+ */
+@Repository
+public class CampaignReportRepository {
+
+  private final NamedParameterJdbcTemplate streamingTemplate;
+
+  public CampaignReportRepository(
+      DataSource dataSource,
+      @Value("${app.reports.fetch-size:1000}") int fetchSize) {
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.setFetchSize(fetchSize);
+    this.streamingTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+  }
+
+  /**
+   * Stream every recipient of a campaign with its contact email.
+   *
+   * @param campaignId the campaign ID
+   * @param handler receives each row as it is fetched
+   */
+  public void streamRecipients(String campaignId, Consumer<RecipientReportRow> handler) {
+    streamingTemplate.query("""
+        SELECT c.email, r.status, r.sent_at, r.opened_at, r.clicked_at, r.bounced_at, r.error_message
+        FROM campaign_recipients r
+        JOIN contacts c ON c.id = r.contact_id
+        WHERE r.campaign_id = :campaignId
+    """, new MapSqlParameterSource("campaignId", campaignId), rs -> {
+      handler.accept(new RecipientReportRow(
+          rs.getString("email"),
+          rs.getString("status"),
+          toLocalDateTime(rs.getTimestamp("sent_at")),
+          toLocalDateTime(rs.getTimestamp("opened_at")),
+          toLocalDateTime(rs.getTimestamp("clicked_at")),
+          toLocalDateTime(rs.getTimestamp("bounced_at")),
+          rs.getString("error_message")));
+    });
+  }
+
+  private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+    return timestamp != null ? timestamp.toLocalDateTime() : null;
+  }
+}
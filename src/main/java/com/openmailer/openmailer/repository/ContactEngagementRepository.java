@@ -0,0 +1,298 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.model.EngagementEventType;
+import com.openmailer.openmailer.util.EngagementScore;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+
+/**
+ * Repository for the last-engagement times denormalized onto contacts.
+ *
+ * NOTE:
+ * - {@code last_sent_at}, {@code last_opened_at} and {@code last_clicked_at} are only
+ *   moved forward ({@code GREATEST}), so batches may be applied in any order
+ * - Sends are recorded per flushed batch of contacts; opens and clicks are folded in
+ *   from the event store by the engagement projection, in the transaction that
+ *   advances its cursor
+ * - A contact's last activity is its latest open, click or (re)subscription, but never
+ *   earlier than its first send, so a contact counts as inactive only once it has been
+ *   mailed for the whole window; a partial expression index over it on mailed,
+ *   subscribed contacts turns inactive-contact flagging into an index range scan
+ * - Times of sends, opens and clicks recorded before these columns existed are backfilled
+ *   from the recipient history a batch at a time, off startup, with the cursor kept in
+ *   {@code contact_engagement_backfill} so a restart resumes where it stopped
+ * - The engagement score follows {@link EngagementScore}: each update decays the stored
+ *   score to the later of its time and the event's, then adds the event's weight decayed
+ *   to the same time; {@link #RANK} is indexed per user for top-N queries
+ * - {@code engagement_scored_at} is in UTC, so its epoch seconds match the Java side's
+ *   {@code System.currentTimeMillis()}; event times, stored in the application's time zone,
+ *   are converted with the session time zone, which the JDBC driver sets to the JVM's
+ */
+@Repository
+public class ContactEngagementRepository {
+
+  /**
+   * Orders contacts by their current engagement score; only defined for positive scores.
+   */
+  public static final String RANK =
+      "ln(engagement_score) + extract(epoch from engagement_scored_at) * ln(2) / " + EngagementScore.HALF_LIFE_SECONDS;
+
+  private static final String DECAY_RATE = "(ln(2) / " + EngagementScore.HALF_LIFE_SECONDS + ")";
+
+  private static final String EVENT_TIME_UTC = "(CAST(ev.occurred_at AS TIMESTAMPTZ) AT TIME ZONE 'UTC')";
+
+  private static final String LAST_ACTIVITY =
+      "GREATEST(COALESCE(GREATEST(last_opened_at, last_clicked_at, subscribed_at), created_at), first_sent_at)";
+
+  private static final String INACTIVE_INDEX = "idx_contacts_subscribed_inactive_since";
+
+  private static final int BACKFILL_BATCH_SIZE = 10_000;
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public ContactEngagementRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Create the engagement columns, the rank index and the backfill progress row.
+   * On installs that already have the last-activity index, the backfill is recorded as done;
+   * otherwise {@link #backfillNextBatch()} fills the engagement times from the recipient history
+   * and creates the index when it finishes.
+   */
+  public void createSchemaIfMissing() {
+    jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE contacts ADD COLUMN IF NOT EXISTS first_sent_at TIMESTAMP");
+    jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE contacts ADD COLUMN IF NOT EXISTS last_sent_at TIMESTAMP");
+    jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE contacts ADD COLUMN IF NOT EXISTS last_opened_at TIMESTAMP");
+    jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE contacts ADD COLUMN IF NOT EXISTS last_clicked_at TIMESTAMP");
+    jdbcTemplate.getJdbcTemplate().execute(
+        "ALTER TABLE contacts ADD COLUMN IF NOT EXISTS engagement_score DOUBLE PRECISION");
+    jdbcTemplate.getJdbcTemplate().execute(
+        "ALTER TABLE contacts ADD COLUMN IF NOT EXISTS engagement_scored_at TIMESTAMP");
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE INDEX IF NOT EXISTS idx_contacts_user_engagement_rank
+        ON contacts (user_id, (%s) DESC)
+        WHERE engagement_score > 0
+    """.formatted(RANK));
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE TABLE IF NOT EXISTS contact_engagement_backfill (
+            id SMALLINT PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+            after_recipient_id VARCHAR(50) NOT NULL DEFAULT '',
+            completed_at TIMESTAMP
+        )
+    """);
+    jdbcTemplate.getJdbcTemplate().execute("""
+        INSERT INTO contact_engagement_backfill (id, completed_at)
+        SELECT 1, CASE WHEN to_regclass('%s') IS NOT NULL THEN now() END
+        ON CONFLICT (id) DO NOTHING
+    """.formatted(INACTIVE_INDEX));
+  }
+
+  /**
+   * @return whether the engagement times have been backfilled from the recipient history
+   */
+  public boolean isBackfillComplete() {
+    Boolean complete = jdbcTemplate.getJdbcTemplate().queryForObject(
+        "SELECT completed_at IS NOT NULL FROM contact_engagement_backfill WHERE id = 1", Boolean.class);
+    return Boolean.TRUE.equals(complete);
+  }
+
+  /**
+   * Fill the engagement times from the next {@value #BACKFILL_BATCH_SIZE} recipients in id order,
+   * advancing the persisted cursor in the same statement. Recipients only keep their first
+   * open and click, so backfilled times are a lower bound until new events arrive; times are
+   * only moved forward (or the first send back), so batches commute with live updates.
+   * Once the history is exhausted, the last-activity index is built concurrently and the
+   * backfill is marked complete. Must not run inside a transaction.
+   *
+   * @return true if more batches remain
+   */
+  public boolean backfillNextBatch() {
+    Integer read = jdbcTemplate.queryForObject("""
+        WITH progress AS (
+            SELECT after_recipient_id FROM contact_engagement_backfill
+            WHERE id = 1 AND completed_at IS NULL
+            FOR UPDATE
+        ), batch AS (
+            SELECT r.id, r.contact_id, r.sent_at, r.opened_at, r.clicked_at
+            FROM campaign_recipients r, progress p
+            WHERE r.id > p.after_recipient_id
+            ORDER BY r.id
+            LIMIT :limit
+        ), updated AS (
+            UPDATE contacts c
+            SET first_sent_at = LEAST(c.first_sent_at, r.first_sent),
+                last_sent_at = GREATEST(c.last_sent_at, r.last_sent),
+                last_opened_at = GREATEST(c.last_opened_at, r.last_opened),
+                last_clicked_at = GREATEST(c.last_clicked_at, r.last_clicked)
+            FROM (
+                SELECT contact_id, MIN(sent_at) AS first_sent, MAX(sent_at) AS last_sent,
+                       MAX(opened_at) AS last_opened, MAX(clicked_at) AS last_clicked
+                FROM batch
+                GROUP BY contact_id
+            ) r
+            WHERE c.id = r.contact_id
+        ), advanced AS (
+            UPDATE contact_engagement_backfill
+            SET after_recipient_id = (SELECT MAX(id) FROM batch)
+            WHERE id = 1 AND EXISTS (SELECT 1 FROM batch)
+        )
+        SELECT COUNT(*) FROM batch
+    """, new MapSqlParameterSource("limit", BACKFILL_BATCH_SIZE), Integer.class);
+    if (read != null && read > 0) {
+      return true;
+    }
+    if (isBackfillComplete()) {
+      return false;
+    }
+
+    // An interrupted concurrent build leaves an invalid index behind
+    Boolean invalid = jdbcTemplate.getJdbcTemplate().queryForObject("""
+        SELECT EXISTS (
+            SELECT 1 FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+            WHERE c.relname = '%s' AND NOT i.indisvalid
+        )
+    """.formatted(INACTIVE_INDEX), Boolean.class);
+    if (Boolean.TRUE.equals(invalid)) {
+      jdbcTemplate.getJdbcTemplate().execute("DROP INDEX CONCURRENTLY IF EXISTS " + INACTIVE_INDEX);
+    }
+    jdbcTemplate.getJdbcTemplate().execute("DROP INDEX IF EXISTS idx_contacts_subscribed_last_activity");
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE INDEX CONCURRENTLY IF NOT EXISTS %s
+        ON contacts ((%s))
+        WHERE status = 'SUBSCRIBED' AND first_sent_at IS NOT NULL
+    """.formatted(INACTIVE_INDEX, LAST_ACTIVITY));
+    jdbcTemplate.getJdbcTemplate().execute(
+        "UPDATE contact_engagement_backfill SET completed_at = now() WHERE id = 1");
+    return false;
+  }
+
+  /**
+   * Record that contacts were sent an email.
+   *
+   * @param contactIds contact IDs
+   * @param sentAt when they were sent
+   * @return number of contacts updated
+   */
+  public int recordSends(Collection<String> contactIds, LocalDateTime sentAt) {
+    if (contactIds.isEmpty()) {
+      return 0;
+    }
+
+    return jdbcTemplate.update("""
+        UPDATE contacts
+        SET first_sent_at = LEAST(first_sent_at, :sentAt),
+            last_sent_at = GREATEST(last_sent_at, :sentAt)
+        WHERE id = ANY(:contactIds)
+    """, new MapSqlParameterSource()
+        .addValue("contactIds", new SqlParameterValue(Types.ARRAY, contactIds.toArray(new String[0])))
+        .addValue("sentAt", Timestamp.valueOf(sentAt)));
+  }
+
+  /**
+   * Fold the latest open and click per contact in a transaction ID range into contacts,
+   * and add the batch's opens and clicks to their engagement scores.
+   *
+   * @param afterTxId exclusive lower transaction ID
+   * @param upToTxId inclusive upper transaction ID
+   * @return number of contacts updated
+   */
+  public int applyEvents(long afterTxId, long upToTxId) {
+    return jdbcTemplate.update("""
+        UPDATE contacts c
+        SET last_opened_at = GREATEST(c.last_opened_at, e.last_opened),
+            last_clicked_at = GREATEST(c.last_clicked_at, e.last_clicked),
+            %s
+        FROM (
+            SELECT contact_id,
+                   MAX(occurred_at) FILTER (WHERE event_type = :open) AS last_opened,
+                   MAX(occurred_at) FILTER (WHERE event_type = :click) AS last_clicked,
+                   MAX(batch_at) AS batch_at,
+                   SUM(CASE WHEN event_type = :open THEN :openWeight ELSE :clickWeight END
+                       * %s) AS gain
+            FROM (
+                SELECT r.contact_id, ev.event_type, ev.occurred_at, %s AS scored_at,
+                       MAX(%s) OVER (PARTITION BY r.contact_id) AS batch_at
+                FROM engagement_events ev
+                JOIN campaign_recipients r ON r.id = ev.recipient_id
+                WHERE ev.tx_id > :afterTxId AND ev.tx_id <= :upToTxId
+            ) x
+            GROUP BY contact_id
+        ) e
+        WHERE c.id = e.contact_id
+    """.formatted(scoreUpdate("e.gain", "e.batch_at"), decay("scored_at", "batch_at"), EVENT_TIME_UTC, EVENT_TIME_UTC),
+        new MapSqlParameterSource()
+            .addValue("afterTxId", afterTxId)
+            .addValue("upToTxId", upToTxId)
+            .addValue("open", EngagementEventType.OPEN.getCode())
+            .addValue("click", EngagementEventType.CLICK.getCode())
+            .addValue("openWeight", EngagementScore.OPEN_WEIGHT)
+            .addValue("clickWeight", EngagementScore.CLICK_WEIGHT));
+  }
+
+  /**
+   * Add one event, such as a bounce or complaint, to a contact's engagement score.
+   *
+   * @param contactId the contact ID
+   * @param weight the event's weight
+   * @param at when the event happened
+   */
+  public void recordEvent(String contactId, double weight, Instant at) {
+    jdbcTemplate.update("""
+        UPDATE contacts c
+        SET %s
+        WHERE c.id = :contactId
+    """.formatted(scoreUpdate("CAST(:weight AS DOUBLE PRECISION)", "CAST(:at AS TIMESTAMP)")),
+        new MapSqlParameterSource()
+            .addValue("contactId", contactId)
+            .addValue("weight", weight)
+            .addValue("at", Timestamp.valueOf(LocalDateTime.ofInstant(at, ZoneOffset.UTC))));
+  }
+
+  /**
+   * Mark a batch of subscribed contacts as INACTIVE when they were already being sent
+   * email at a cutoff and have not engaged since.
+   *
+   * @param cutoff contacts first mailed and last active before it are flagged
+   * @param limit maximum number of contacts to flag
+   * @return number of contacts flagged
+   */
+  public int flagInactiveBefore(LocalDateTime cutoff, int limit) {
+    return jdbcTemplate.update("""
+        UPDATE contacts SET status = 'INACTIVE', updated_at = now()
+        WHERE id IN (
+            SELECT id FROM contacts
+            WHERE status = 'SUBSCRIBED' AND first_sent_at IS NOT NULL AND %s < :cutoff
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+    """.formatted(LAST_ACTIVITY), new MapSqlParameterSource()
+        .addValue("cutoff", Timestamp.valueOf(cutoff))
+        .addValue("limit", limit));
+  }
+
+  /**
+   * SET clause moving {@code c}'s score to the later of its time and {@code at},
+   * then adding {@code gain} as of {@code at}.
+   */
+  private static String scoreUpdate(String gain, String at) {
+    String scoredAt = "GREATEST(c.engagement_scored_at, " + at + ")";
+    return """
+        engagement_score = GREATEST(0, COALESCE(c.engagement_score * %s, 0) + %s * %s),
+        engagement_scored_at = %s
+    """.formatted(decay("c.engagement_scored_at", scoredAt), gain, decay(at, scoredAt), scoredAt).strip();
+  }
+
+  private static String decay(String from, String to) {
+    return "exp(-" + DECAY_RATE + " * extract(epoch from (" + to + " - " + from + ")))";
+  }
+}
@@ -0,0 +1,233 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.repository.projection.ContactEmail;
+import com.openmailer.openmailer.repository.projection.ContactHygieneCounts;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based, batched writes for list hygiene jobs.
+ *
+ * NOTE:
+ * - Every write changes at most {@code limit} contacts, so callers commit each batch
+ *   in its own short transaction instead of locking a tenant's contacts for a whole run
+ * - Batches that walk a user's contacts use keyset pagination on {@code lower(email)},
+ *   served by the unique index {@code idx_contacts_user_email_lower}
+ * - Old hard bounces are found through a partial index on bounced contacts, which
+ *   archived rows leave, so each batch starts where the previous one ended
+ */
+@Repository
+public class ContactHygieneRepository {
+
+  private static final RowMapper<ContactEmail> EMAIL_MAPPER = (rs, rowNum) -> new ContactEmail(
+      rs.getString("id"),
+      rs.getString("email"),
+      rs.getString("email_key")
+  );
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public ContactHygieneRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Create the partial index on bounced contacts.
+   */
+  public void createSchemaIfMissing() {
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE INDEX IF NOT EXISTS idx_contacts_bounced_at
+        ON contacts (last_bounce_at) WHERE status = 'BOUNCED'
+    """);
+  }
+
+  /**
+   * Archive a batch of contacts, of any user, that last bounced before a cutoff.
+   * Rows locked by other transactions are skipped and picked up by a later run.
+   *
+   * @param cutoff contacts whose last bounce is older are archived
+   * @param limit maximum number of contacts to archive
+   * @return number of contacts archived
+   */
+  public int archiveBouncedBefore(LocalDateTime cutoff, int limit) {
+    return jdbcTemplate.update("""
+        UPDATE contacts SET status = 'ARCHIVED', updated_at = now()
+        WHERE id IN (
+            SELECT id FROM contacts
+            WHERE status = 'BOUNCED' AND last_bounce_at < :cutoff
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+    """, new MapSqlParameterSource()
+        .addValue("cutoff", Timestamp.valueOf(cutoff))
+        .addValue("limit", limit));
+  }
+
+  /**
+   * Count a user's contacts per hygiene category in one pass.
+   *
+   * @param userId the user ID
+   * @return the counts
+   */
+  public ContactHygieneCounts countByCategory(String userId) {
+    return jdbcTemplate.queryForObject("""
+        SELECT COUNT(*) AS total,
+               COUNT(*) FILTER (WHERE status = 'SUBSCRIBED') AS subscribed,
+               COUNT(*) FILTER (WHERE status = 'BOUNCED') AS bounced,
+               COUNT(*) FILTER (WHERE status = 'UNSUBSCRIBED') AS unsubscribed,
+               COUNT(*) FILTER (WHERE bounce_count >= 2) AS high_bounce
+        FROM contacts
+        WHERE user_id = :userId
+    """, new MapSqlParameterSource("userId", userId), (rs, rowNum) -> new ContactHygieneCounts(
+        rs.getLong("total"),
+        rs.getLong("subscribed"),
+        rs.getLong("bounced"),
+        rs.getLong("unsubscribed"),
+        rs.getLong("high_bounce")));
+  }
+
+  /**
+   * Find the next batch of a user's contact emails, in lower-cased email order.
+   *
+   * @param userId the user ID
+   * @param afterEmailKey the last lower-cased email of the previous batch, or null to start
+   * @param limit maximum number of contacts
+   * @return the contacts
+   */
+  public List<ContactEmail> findEmailsAfter(String userId, String afterEmailKey, int limit) {
+    return jdbcTemplate.query("""
+        SELECT id, email, lower(email) AS email_key
+        FROM contacts
+        WHERE user_id = :userId AND (CAST(:after AS TEXT) IS NULL OR lower(email) > :after)
+        ORDER BY lower(email)
+        LIMIT :limit
+    """, new MapSqlParameterSource()
+        .addValue("userId", userId)
+        .addValue("after", afterEmailKey)
+        .addValue("limit", limit), EMAIL_MAPPER);
+  }
+
+  /**
+   * Mark contacts as INVALID and append a note, leaving bounced and already invalid contacts.
+   *
+   * @param contactIds contact IDs
+   * @param note the note to append
+   * @return number of contacts marked
+   */
+  public int markInvalid(Collection<String> contactIds, String note) {
+    if (contactIds.isEmpty()) {
+      return 0;
+    }
+
+    return jdbcTemplate.update("""
+        UPDATE contacts
+        SET status = 'INVALID',
+            notes = trim(concat_ws(E'\\n', notes, :note)),
+            updated_at = now()
+        WHERE id = ANY(:contactIds) AND status NOT IN ('BOUNCED', 'INVALID')
+    """, new MapSqlParameterSource()
+        .addValue("contactIds", textArray(contactIds))
+        .addValue("note", note));
+  }
+
+  /**
+   * Find the next batch of a user's emails that more than one contact shares, ignoring case.
+   *
+   * @param userId the user ID
+   * @param afterEmailKey the last lower-cased email of the previous batch, or null to start
+   * @param limit maximum number of emails
+   * @return lower-cased emails, in order
+   */
+  public List<String> findDuplicateEmailsAfter(String userId, String afterEmailKey, int limit) {
+    return jdbcTemplate.queryForList("""
+        SELECT lower(email) AS email_key
+        FROM contacts
+        WHERE user_id = :userId AND (CAST(:after AS TEXT) IS NULL OR lower(email) > :after)
+        GROUP BY lower(email)
+        HAVING COUNT(*) > 1
+        ORDER BY lower(email)
+        LIMIT :limit
+    """, new MapSqlParameterSource()
+        .addValue("userId", userId)
+        .addValue("after", afterEmailKey)
+        .addValue("limit", limit), String.class);
+  }
+
+  /**
+   * Merge the contacts sharing each of the given emails into the most recently created one.
+   * Campaign recipients move to the kept contact, as do list memberships in lists it is not
+   * yet in; the other memberships are removed and list counts adjusted. Then the older
+   * duplicates are deleted.
+   *
+   * @param userId the user ID
+   * @param emailKeys lower-cased emails
+   * @return number of contacts deleted
+   */
+  public int removeDuplicates(String userId, Collection<String> emailKeys) {
+    if (emailKeys.isEmpty()) {
+      return 0;
+    }
+
+    Integer removed = jdbcTemplate.queryForObject("""
+        WITH ranked AS (
+            SELECT id,
+                   first_value(id) OVER w AS keeper_id,
+                   row_number() OVER w AS rank_in_email
+            FROM contacts
+            WHERE user_id = :userId AND lower(email) = ANY(:emailKeys)
+            WINDOW w AS (PARTITION BY lower(email) ORDER BY created_at DESC, id DESC)
+        ), duplicates AS (
+            SELECT id, keeper_id FROM ranked WHERE rank_in_email > 1
+        ), recipients AS (
+            UPDATE campaign_recipients r
+            SET contact_id = d.keeper_id
+            FROM duplicates d
+            WHERE r.contact_id = d.id
+        ), moved AS (
+            UPDATE contact_list_memberships m
+            SET contact_id = d.keeper_id
+            FROM duplicates d
+            WHERE m.contact_id = d.id AND m.id IN (
+                SELECT DISTINCT ON (dm.list_id, dd.keeper_id) dm.id
+                FROM contact_list_memberships dm
+                JOIN duplicates dd ON dd.id = dm.contact_id
+                WHERE NOT EXISTS (
+                    SELECT 1 FROM contact_list_memberships k
+                    WHERE k.list_id = dm.list_id AND k.contact_id = dd.keeper_id
+                )
+                ORDER BY dm.list_id, dd.keeper_id, dm.id
+            )
+            RETURNING m.id
+        ), changes AS (
+            DELETE FROM contact_list_memberships m
+            USING duplicates d
+            WHERE m.contact_id = d.id AND m.id NOT IN (SELECT id FROM moved)
+            RETURNING m.list_id, -1 AS total, CASE WHEN m.status = 'ACTIVE' THEN -1 ELSE 0 END AS active
+        )
+    """ + ContactListMembershipBulkRepository.APPLY_COUNT_CHANGES + """
+        , deleted AS (
+            DELETE FROM contacts c
+            USING duplicates d
+            WHERE c.id = d.id
+            RETURNING c.id
+        )
+        SELECT COUNT(*) FROM deleted
+    """, new MapSqlParameterSource()
+        .addValue("userId", userId)
+        .addValue("emailKeys", textArray(emailKeys)), Integer.class);
+    return removed != null ? removed : 0;
+  }
+
+  private static SqlParameterValue textArray(Collection<String> values) {
+    return new SqlParameterValue(Types.ARRAY, values.toArray(new String[0]));
+  }
+}
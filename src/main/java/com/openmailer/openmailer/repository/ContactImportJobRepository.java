@@ -0,0 +1,273 @@
+package com.openmailer.openmailer.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openmailer.openmailer.repository.projection.ContactImportJob;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for contact import jobs.
+ *
+ * NOTE:
+ * - A job row is the import's checkpoint: counters and the byte offset into the staged
+ *   file are saved in the same transaction as each chunk's contacts, so a resumed import
+ *   continues exactly after the last committed chunk
+ * - Staged files live on the local disk of the node that accepted the upload, so only
+ *   that node ({@code node}) receives further upload parts and resumes a job
+ * - Jobs uploaded in parts start as UPLOADING and are queued once the file is complete
+ */
+@Repository
+public class ContactImportJobRepository {
+
+  public static final String UPLOADING = "UPLOADING";
+  public static final String QUEUED = "QUEUED";
+  public static final String PROCESSING = "PROCESSING";
+  public static final String COMPLETED = "COMPLETED";
+  public static final String FAILED = "FAILED";
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final TypeReference<List<String>> ERRORS_TYPE = new TypeReference<>() {};
+
+  private static final RowMapper<ContactImportJob> JOB_MAPPER = (rs, rowNum) -> {
+    ContactImportJob job = new ContactImportJob();
+    job.setJobId(rs.getString("id"));
+    job.setUserId(rs.getString("user_id"));
+    job.setListId(rs.getString("list_id"));
+    job.setSkipDuplicates(rs.getBoolean("skip_duplicates"));
+    job.setStatus(rs.getString("status"));
+    job.setFileSize(rs.getLong("file_size"));
+    job.setProcessedBytes(rs.getLong("processed_bytes"));
+    job.setTotalRows(rs.getInt("total_rows"));
+    job.setImportedCount(rs.getInt("imported_count"));
+    job.setSkippedCount(rs.getInt("skipped_count"));
+    job.setErrorCount(rs.getInt("error_count"));
+    job.setStartedAt(toLocalDateTime(rs.getTimestamp("started_at")));
+    job.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+    job.setCompletedAt(toLocalDateTime(rs.getTimestamp("completed_at")));
+    job.setErrors(readErrors(rs.getString("errors")));
+    return job;
+  };
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public ContactImportJobRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Create the job table.
+   */
+  public void createSchemaIfMissing() {
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE TABLE IF NOT EXISTS contact_import_jobs (
+            id VARCHAR(50) PRIMARY KEY,
+            user_id VARCHAR(50) NOT NULL,
+            list_id VARCHAR(50),
+            skip_duplicates BOOLEAN NOT NULL,
+            node VARCHAR(255) NOT NULL,
+            status VARCHAR(20) NOT NULL,
+            file_size BIGINT NOT NULL,
+            processed_bytes BIGINT NOT NULL DEFAULT 0,
+            total_rows INTEGER NOT NULL DEFAULT 0,
+            imported_count INTEGER NOT NULL DEFAULT 0,
+            skipped_count INTEGER NOT NULL DEFAULT 0,
+            error_count INTEGER NOT NULL DEFAULT 0,
+            errors JSONB NOT NULL DEFAULT '[]',
+            started_at TIMESTAMP NOT NULL,
+            updated_at TIMESTAMP NOT NULL,
+            completed_at TIMESTAMP
+        )
+    """);
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE INDEX IF NOT EXISTS idx_contact_import_jobs_node
+        ON contact_import_jobs (node, status)
+    """);
+  }
+
+  /**
+   * Insert a new job.
+   *
+   * @param job the job
+   * @param node the node holding the staged file
+   */
+  public void insert(ContactImportJob job, String node) {
+    jdbcTemplate.update("""
+        INSERT INTO contact_import_jobs (id, user_id, list_id, skip_duplicates, node, status, file_size,
+                                         started_at, updated_at)
+        VALUES (:id, :userId, :listId, :skipDuplicates, :node, :status, :fileSize, :startedAt, :startedAt)
+    """, new MapSqlParameterSource()
+        .addValue("id", job.getJobId())
+        .addValue("userId", job.getUserId())
+        .addValue("listId", job.getListId())
+        .addValue("skipDuplicates", job.isSkipDuplicates())
+        .addValue("node", node)
+        .addValue("status", job.getStatus())
+        .addValue("fileSize", job.getFileSize())
+        .addValue("startedAt", Timestamp.valueOf(job.getStartedAt())));
+  }
+
+  /**
+   * Find a job by ID.
+   *
+   * @param jobId the job ID
+   * @return the job, if it exists
+   */
+  public Optional<ContactImportJob> findById(String jobId) {
+    return jdbcTemplate.query("SELECT * FROM contact_import_jobs WHERE id = :id",
+        new MapSqlParameterSource("id", jobId), JOB_MAPPER).stream().findFirst();
+  }
+
+  /**
+   * Find jobs on a node that were queued or interrupted before they finished.
+   *
+   * @param node the node name
+   * @return job IDs, oldest first
+   */
+  public List<String> findUnfinishedIds(String node) {
+    return jdbcTemplate.queryForList("""
+        SELECT id FROM contact_import_jobs
+        WHERE node = :node AND status IN ('QUEUED', 'PROCESSING')
+        ORDER BY started_at
+    """, new MapSqlParameterSource("node", node), String.class);
+  }
+
+  /**
+   * Move an unfinished job to PROCESSING.
+   *
+   * @param jobId the job ID
+   * @return the job, or empty if it has already finished
+   */
+  public Optional<ContactImportJob> markProcessing(String jobId) {
+    return jdbcTemplate.query("""
+        UPDATE contact_import_jobs
+        SET status = 'PROCESSING', updated_at = now()
+        WHERE id = :id AND status IN ('QUEUED', 'PROCESSING')
+        RETURNING *
+    """, new MapSqlParameterSource("id", jobId), JOB_MAPPER).stream().findFirst();
+  }
+
+  /**
+   * Queue a job whose file has been fully uploaded.
+   *
+   * @param jobId the job ID
+   * @param listId optional list to add contacts to
+   * @param skipDuplicates whether to skip or update existing contacts
+   * @return true if the job was still uploading
+   */
+  public boolean queueUploaded(String jobId, String listId, boolean skipDuplicates) {
+    return jdbcTemplate.update("""
+        UPDATE contact_import_jobs
+        SET status = 'QUEUED', list_id = :listId, skip_duplicates = :skipDuplicates, updated_at = now()
+        WHERE id = :id AND status = 'UPLOADING'
+    """, new MapSqlParameterSource()
+        .addValue("id", jobId)
+        .addValue("listId", listId)
+        .addValue("skipDuplicates", skipDuplicates)) > 0;
+  }
+
+  /**
+   * Fail a node's uploads that have not received a part since a cutoff.
+   *
+   * @param node the node name
+   * @param cutoff uploads last updated before this time expire
+   * @return IDs of the expired jobs
+   */
+  public List<String> expireUploads(String node, LocalDateTime cutoff) {
+    return jdbcTemplate.queryForList("""
+        UPDATE contact_import_jobs
+        SET status = 'FAILED',
+            errors = '["Upload expired before it was completed"]',
+            completed_at = now(),
+            updated_at = now()
+        WHERE node = :node AND status = 'UPLOADING' AND updated_at < :cutoff
+        RETURNING id
+    """, new MapSqlParameterSource()
+        .addValue("node", node)
+        .addValue("cutoff", Timestamp.valueOf(cutoff)), String.class);
+  }
+
+  /**
+   * Mark an upload as active, so it does not expire while parts keep arriving.
+   *
+   * @param jobId the job ID
+   */
+  public void touch(String jobId) {
+    jdbcTemplate.update("UPDATE contact_import_jobs SET updated_at = now() WHERE id = :id",
+        new MapSqlParameterSource("id", jobId));
+  }
+
+  /**
+   * Save a job's counters, reported errors and file offset.
+   * Called in the transaction that writes the chunk the progress covers.
+   *
+   * @param job the job
+   */
+  public void saveProgress(ContactImportJob job) {
+    jdbcTemplate.update("""
+        UPDATE contact_import_jobs
+        SET processed_bytes = :processedBytes,
+            total_rows = :totalRows,
+            imported_count = :importedCount,
+            skipped_count = :skippedCount,
+            error_count = :errorCount,
+            errors = CAST(:errors AS JSONB),
+            updated_at = now()
+        WHERE id = :id
+    """, new MapSqlParameterSource()
+        .addValue("id", job.getJobId())
+        .addValue("processedBytes", job.getProcessedBytes())
+        .addValue("totalRows", job.getTotalRows())
+        .addValue("importedCount", job.getImportedCount())
+        .addValue("skippedCount", job.getSkippedCount())
+        .addValue("errorCount", job.getErrorCount())
+        .addValue("errors", writeErrors(job.getErrors())));
+  }
+
+  /**
+   * Record a job's final status. Counters keep the values of the last committed chunk.
+   *
+   * @param job the job
+   */
+  public void finish(ContactImportJob job) {
+    jdbcTemplate.update("""
+        UPDATE contact_import_jobs
+        SET status = :status,
+            errors = CAST(:errors AS JSONB),
+            completed_at = now(),
+            updated_at = now()
+        WHERE id = :id
+    """, new MapSqlParameterSource()
+        .addValue("id", job.getJobId())
+        .addValue("status", job.getStatus())
+        .addValue("errors", writeErrors(job.getErrors())));
+  }
+
+  private static String writeErrors(List<String> errors) {
+    try {
+      return OBJECT_MAPPER.writeValueAsString(errors);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to serialize import errors", e);
+    }
+  }
+
+  private static List<String> readErrors(String json) {
+    try {
+      return OBJECT_MAPPER.readValue(json, ERRORS_TYPE);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to read import errors", e);
+    }
+  }
+
+  private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+    return timestamp != null ? timestamp.toLocalDateTime() : null;
+  }
+}
@@ -0,0 +1,135 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.repository.projection.ImportedContact;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Bulk writes for contact imports.
+ *
+ * NOTE:
+ * - Uses JDBC instead of JPA so a whole chunk of rows is written with one
+ *   {@code INSERT ... ON CONFLICT} statement instead of a lookup and a save per row
+ * - Relies on the unique expression index on {@code contacts (user_id, lower(email))},
+ *   which Hibernate's schema update cannot create
+ * - A chunk must not contain the same email twice; PostgreSQL rejects an upsert that
+ *   touches a row more than once
+ * - A chunk binds one parameter per column and row, so it is limited to
+ *   {@link #MAX_CHUNK_SIZE} rows by PostgreSQL's limit of 32767 bind parameters
+ */
+@Repository
+public class ContactImportRepository {
+
+  private static final int COLUMNS = 7;
+
+  /**
+   * Maximum number of rows in one upsert: {@value #COLUMNS} parameters per row plus the user ID.
+   */
+  public static final int MAX_CHUNK_SIZE = (Short.MAX_VALUE - 1) / COLUMNS;
+
+  private static final String EMAIL_INDEX = "idx_contacts_user_email_lower";
+
+  private static final String ROWS = """
+      FROM (VALUES :rows) AS v(id, email, first_name, last_name, status, source, custom_fields)
+  """;
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public ContactImportRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Create the unique index on a user's lower-cased contact emails, unless it exists.
+   * The index is built concurrently, so contacts stay writable while it builds, and only
+   * when no user has emails that differ only in case. Otherwise the duplicates are
+   * returned and the index is left missing until they are merged.
+   * An invalid index left behind by an interrupted build is dropped first.
+   *
+   * @param reportLimit maximum number of duplicates to return
+   * @return up to {@code reportLimit} duplicates as "user ID: email"; empty once the index exists
+   */
+  public List<String> createSchemaIfMissing(int reportLimit) {
+    List<Boolean> valid = jdbcTemplate.queryForList("""
+        SELECT i.indisvalid
+        FROM pg_index i
+        JOIN pg_class c ON c.oid = i.indexrelid
+        WHERE c.relname = :name
+    """, new MapSqlParameterSource("name", EMAIL_INDEX), Boolean.class);
+    if (!valid.isEmpty() && valid.get(0)) {
+      return List.of();
+    }
+    if (!valid.isEmpty()) {
+      jdbcTemplate.getJdbcTemplate().execute("DROP INDEX CONCURRENTLY IF EXISTS " + EMAIL_INDEX);
+    }
+
+    List<String> duplicates = jdbcTemplate.queryForList("""
+        SELECT user_id || ': ' || lower(email)
+        FROM contacts
+        GROUP BY user_id, lower(email)
+        HAVING COUNT(*) > 1
+        ORDER BY 1
+        LIMIT :limit
+    """, new MapSqlParameterSource("limit", reportLimit), String.class);
+    if (!duplicates.isEmpty()) {
+      return duplicates;
+    }
+
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS %s
+        ON contacts (user_id, lower(email))
+    """.formatted(EMAIL_INDEX));
+    return List.of();
+  }
+
+  /**
+   * Insert a chunk of contacts, updating or skipping those whose email already exists.
+   * Existing contacts only take the non-null fields of a row; their status is only
+   * changed when {@code updateStatus} is set, so callers split rows with and without one.
+   *
+   * @param userId the owner of the contacts
+   * @param contacts the rows, with distinct emails; at most {@link #MAX_CHUNK_SIZE}
+   * @param updateExisting whether existing contacts are updated or skipped
+   * @param updateStatus whether existing contacts take the row's status
+   * @return IDs of the inserted and updated contacts
+   */
+  public List<String> upsert(String userId, List<ImportedContact> contacts, boolean updateExisting, boolean updateStatus) {
+    if (contacts.isEmpty()) {
+      return List.of();
+    }
+    if (contacts.size() > MAX_CHUNK_SIZE) {
+      throw new IllegalArgumentException("At most " + MAX_CHUNK_SIZE + " contacts can be upserted at once");
+    }
+
+    String onConflict = !updateExisting ? "DO NOTHING" : """
+        DO UPDATE SET
+            first_name = COALESCE(EXCLUDED.first_name, contacts.first_name),
+            last_name = COALESCE(EXCLUDED.last_name, contacts.last_name),
+            source = COALESCE(EXCLUDED.source, contacts.source),
+            custom_fields = COALESCE(EXCLUDED.custom_fields, contacts.custom_fields),
+            updated_at = now()
+    """ + (updateStatus ? ", status = EXCLUDED.status" : "");
+
+    List<Object[]> rows = contacts.stream()
+        .map(contact -> new Object[] {
+            contact.id(), contact.email(), contact.firstName(), contact.lastName(),
+            contact.status(), contact.source(), contact.customFields()})
+        .toList();
+
+    return jdbcTemplate.queryForList("""
+        INSERT INTO contacts (id, user_id, email, first_name, last_name, status, source, custom_fields,
+                              email_verified, bounce_count, complaint_count, gdpr_consent, created_at, updated_at)
+        SELECT v.id, :userId, v.email, v.first_name, v.last_name, COALESCE(v.status, 'SUBSCRIBED'), v.source,
+               CAST(v.custom_fields AS JSONB), false, 0, 0, false, now(), now()
+    """ + ROWS + """
+        ON CONFLICT (user_id, lower(email))
+    """ + onConflict + """
+        RETURNING id
+    """, new MapSqlParameterSource()
+        .addValue("userId", userId)
+        .addValue("rows", rows), String.class);
+  }
+}
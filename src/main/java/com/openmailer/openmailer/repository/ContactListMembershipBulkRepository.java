@@ -0,0 +1,264 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.util.IdGenerator;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based writes for list memberships.
+ *
+ * NOTE:
+ * - Each method is a single statement that changes all given memberships and applies
+ *   the resulting deltas to {@code contact_lists.total_contacts} and {@code active_contacts},
+ *   so the cached counts commit or roll back together with the memberships
+ * - Contact IDs are bound as one PostgreSQL array parameter ({@code unnest(:ids)},
+ *   {@code = ANY(:ids)}) rather than expanded into a placeholder per ID
+ * - Relies on the unique index on {@code contact_list_memberships (list_id, contact_id)}
+ */
+@Repository
+public class ContactListMembershipBulkRepository {
+
+  /**
+   * Applies the rows of a {@code changes (list_id, total, active)} CTE to the cached list counts.
+   */
+  static final String APPLY_COUNT_CHANGES = """
+      , counted AS (
+          UPDATE contact_lists l
+          SET total_contacts = GREATEST(COALESCE(l.total_contacts, 0) + c.total, 0),
+              active_contacts = GREATEST(COALESCE(l.active_contacts, 0) + c.active, 0),
+              updated_at = now()
+          FROM (
+              SELECT list_id, SUM(total) AS total, SUM(active) AS active
+              FROM changes
+              GROUP BY list_id
+          ) c
+          WHERE l.id = c.list_id
+      )
+  """;
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public ContactListMembershipBulkRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Create the unique index on memberships, removing duplicate memberships first
+   * when the index does not exist yet. The cached list counts are recounted once at the
+   * same time: from then on they are only adjusted by deltas, so counts that were
+   * already stale would otherwise stay stale.
+   */
+  public void createSchemaIfMissing() {
+    Boolean missing = jdbcTemplate.getJdbcTemplate().queryForObject(
+        "SELECT to_regclass('idx_contact_list_memberships_list_contact') IS NULL", Boolean.class);
+    if (!Boolean.TRUE.equals(missing)) {
+      return;
+    }
+    jdbcTemplate.getJdbcTemplate().execute("""
+        DELETE FROM contact_list_memberships m
+        USING contact_list_memberships keep
+        WHERE m.list_id = keep.list_id AND m.contact_id = keep.contact_id AND m.id > keep.id
+    """);
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE UNIQUE INDEX IF NOT EXISTS idx_contact_list_memberships_list_contact
+        ON contact_list_memberships (list_id, contact_id)
+    """);
+    jdbcTemplate.getJdbcTemplate().execute("""
+        UPDATE contact_lists l
+        SET total_contacts = c.total, active_contacts = c.active, updated_at = now()
+        FROM (
+            SELECT l.id,
+                   COUNT(m.id) AS total,
+                   COUNT(m.id) FILTER (WHERE m.status = 'ACTIVE') AS active
+            FROM contact_lists l
+            LEFT JOIN contact_list_memberships m ON m.list_id = l.id
+            GROUP BY l.id
+        ) c
+        WHERE l.id = c.id
+          AND (l.total_contacts IS DISTINCT FROM c.total OR l.active_contacts IS DISTINCT FROM c.active)
+    """);
+  }
+
+  /**
+   * Add contacts to a list as ACTIVE members, skipping those already in it.
+   *
+   * @param listId the list ID
+   * @param contactIds distinct contact IDs
+   * @return number of memberships created
+   */
+  public int addContacts(String listId, Collection<String> contactIds) {
+    if (contactIds.isEmpty()) {
+      return 0;
+    }
+
+    String[] ids = contactIds.stream().map(contactId -> IdGenerator.generateId()).toArray(String[]::new);
+
+    return count("""
+        WITH changes AS (
+            INSERT INTO contact_list_memberships (id, contact_id, list_id, status, added_at, subscribed_at, created_at)
+            SELECT v.id, v.contact_id, :listId, 'ACTIVE', now(), now(), now()
+            FROM unnest(:ids, :contactIds) AS v(id, contact_id)
+            ON CONFLICT (list_id, contact_id) DO NOTHING
+            RETURNING list_id, 1 AS total, 1 AS active
+        )
+    """ + APPLY_COUNT_CHANGES + """
+        SELECT COUNT(*) FROM changes
+    """, new MapSqlParameterSource()
+        .addValue("listId", listId)
+        .addValue("ids", textArray(List.of(ids)))
+        .addValue("contactIds", textArray(contactIds)));
+  }
+
+  /**
+   * Find which of the given contacts belong to a user.
+   *
+   * @param userId the user ID
+   * @param contactIds contact IDs
+   * @return IDs of the given contacts owned by the user
+   */
+  public List<String> findOwnedContactIds(String userId, Collection<String> contactIds) {
+    if (contactIds.isEmpty()) {
+      return List.of();
+    }
+
+    return jdbcTemplate.queryForList("""
+        SELECT id FROM contacts WHERE id = ANY(:contactIds) AND user_id = :userId
+    """, new MapSqlParameterSource()
+        .addValue("userId", userId)
+        .addValue("contactIds", textArray(contactIds)), String.class);
+  }
+
+  /**
+   * Remove contacts from a list.
+   *
+   * @param listId the list ID
+   * @param contactIds contact IDs
+   * @return number of memberships removed
+   */
+  public int removeContacts(String listId, Collection<String> contactIds) {
+    if (contactIds.isEmpty()) {
+      return 0;
+    }
+
+    return count("""
+        WITH changes AS (
+            DELETE FROM contact_list_memberships
+            WHERE list_id = :listId AND contact_id = ANY(:contactIds)
+            RETURNING list_id, -1 AS total, CASE WHEN status = 'ACTIVE' THEN -1 ELSE 0 END AS active
+        )
+    """ + APPLY_COUNT_CHANGES + """
+        SELECT COUNT(*) FROM changes
+    """, new MapSqlParameterSource()
+        .addValue("listId", listId)
+        .addValue("contactIds", textArray(contactIds)));
+  }
+
+  /**
+   * Remove a contact from every list it belongs to.
+   *
+   * @param contactId the contact ID
+   * @return IDs of the lists the contact was removed from
+   */
+  public List<String> removeFromAllLists(String contactId) {
+    return jdbcTemplate.queryForList("""
+        WITH changes AS (
+            DELETE FROM contact_list_memberships
+            WHERE contact_id = :contactId
+            RETURNING list_id, -1 AS total, CASE WHEN status = 'ACTIVE' THEN -1 ELSE 0 END AS active
+        )
+    """ + APPLY_COUNT_CHANGES + """
+        SELECT list_id FROM changes
+    """, new MapSqlParameterSource("contactId", contactId), String.class);
+  }
+
+  /**
+   * Remove every membership of a list and reset its cached counts.
+   *
+   * @param listId the list ID
+   * @return number of memberships removed
+   */
+  public int removeAll(String listId) {
+    return count("""
+        WITH removed AS (
+            DELETE FROM contact_list_memberships WHERE list_id = :listId RETURNING 1
+        ), counted AS (
+            UPDATE contact_lists
+            SET total_contacts = 0, active_contacts = 0, updated_at = now()
+            WHERE id = :listId
+        )
+        SELECT COUNT(*) FROM removed
+    """, new MapSqlParameterSource("listId", listId));
+  }
+
+  /**
+   * Set the status of contacts' memberships in a list.
+   *
+   * @param listId the list ID
+   * @param contactIds contact IDs
+   * @param status the new status
+   * @return number of memberships whose status changed
+   */
+  public int updateStatus(String listId, Collection<String> contactIds, String status) {
+    if (contactIds.isEmpty()) {
+      return 0;
+    }
+
+    return count("""
+        WITH changes AS (
+            UPDATE contact_list_memberships m
+            SET status = :status
+            FROM (
+                SELECT id, status AS old_status
+                FROM contact_list_memberships
+                WHERE list_id = :listId AND contact_id = ANY(:contactIds)
+                  AND status IS DISTINCT FROM :status
+                FOR UPDATE
+            ) o
+            WHERE m.id = o.id
+            RETURNING m.list_id, 0 AS total,
+                      (CASE WHEN m.status = 'ACTIVE' THEN 1 ELSE 0 END)
+                        - (CASE WHEN o.old_status = 'ACTIVE' THEN 1 ELSE 0 END) AS active
+        )
+    """ + APPLY_COUNT_CHANGES + """
+        SELECT COUNT(*) FROM changes
+    """, new MapSqlParameterSource()
+        .addValue("listId", listId)
+        .addValue("contactIds", textArray(contactIds))
+        .addValue("status", status));
+  }
+
+  /**
+   * Apply membership deltas to a list's cached counts, for changes written through JPA.
+   *
+   * @param listId the list ID
+   * @param total change in total members
+   * @param active change in active members
+   */
+  public void adjustCounts(String listId, int total, int active) {
+    jdbcTemplate.update("""
+        UPDATE contact_lists
+        SET total_contacts = GREATEST(COALESCE(total_contacts, 0) + :total, 0),
+            active_contacts = GREATEST(COALESCE(active_contacts, 0) + :active, 0),
+            updated_at = now()
+        WHERE id = :listId
+    """, new MapSqlParameterSource()
+        .addValue("listId", listId)
+        .addValue("total", total)
+        .addValue("active", active));
+  }
+
+  private int count(String sql, MapSqlParameterSource params) {
+    Long count = jdbcTemplate.queryForObject(sql, params, Long.class);
+    return count != null ? count.intValue() : 0;
+  }
+
+  private static SqlParameterValue textArray(Collection<String> values) {
+    return new SqlParameterValue(Types.ARRAY, values.toArray(new String[0]));
+  }
+}
@@ -1,16 +1,19 @@
 package com.openmailer.openmailer.repository;
 
 import com.openmailer.openmailer.model.Contact;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Contact entity.
@@ -19,6 +22,8 @@ import java.util.Optional;
 @Repository
 public interface ContactRepository extends JpaRepository<Contact, String> {
 
+  String EXPORT_FETCH_SIZE = "1000";
+
   /**
    * Find all contacts for a specific user.
    *
@@ -74,27 +79,65 @@ public interface ContactRepository extends JpaRepository<Contact, String> {
   Page<Contact> findByUser_IdAndStatus(String userId, String status, Pageable pageable);
 
   /**
-   * Search contacts by email, first name, or last name.
+   * Search contacts by email, names, tags or searched custom fields.
    *
-   * Uses JPQL and entity relationship navigation (c.user.id).
+   * NOTE:
+   * - Uses a native PostgreSQL query over {@code search_text}, which a trigger keeps
+   *   current on write (see {@link ContactSearchRepository})
+   * - The pattern is built by {@link ContactSearchRepository#containsPattern}, so LIKE
+   *   wildcards in the search term match literally
+   * - The substring match is served by the trigram index on that column
    *
    * @param userId the user ID
-   * @param searchTerm the search term
+   * @param pattern the escaped LIKE pattern
    * @param pageable pagination information
    * @return page of matching contacts
    */
-  @Query("""
-      SELECT c FROM Contact c
-      WHERE c.user.id = :userId AND (
-          LOWER(c.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR
-          LOWER(c.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR
-          LOWER(c.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%'))
-      )
-  """)
+  @Query(
+      value = """
+          SELECT * FROM contacts c
+          WHERE c.user_id = :userId
+          AND c.search_text LIKE :pattern ESCAPE '\\'
+      """,
+      countQuery = """
+          SELECT COUNT(*) FROM contacts c
+          WHERE c.user_id = :userId
+          AND c.search_text LIKE :pattern ESCAPE '\\'
+      """,
+      nativeQuery = true
+  )
   Page<Contact> searchContacts(@Param("userId") String userId,
-                               @Param("searchTerm") String searchTerm,
+                               @Param("pattern") String pattern,
                                Pageable pageable);
 
+  /**
+   * Search contacts like {@link #searchContacts}, also matching close words ({@code <%}).
+   * Only valid when pg_trgm is installed (see {@link ContactSearchRepository#isFuzzySearch}).
+   *
+   * @param userId the user ID
+   * @param pattern the escaped LIKE pattern
+   * @param term the lower-cased search term
+   * @param pageable pagination information
+   * @return page of matching contacts
+   */
+  @Query(
+      value = """
+          SELECT * FROM contacts c
+          WHERE c.user_id = :userId
+          AND (c.search_text LIKE :pattern ESCAPE '\\' OR :term <% c.search_text)
+      """,
+      countQuery = """
+          SELECT COUNT(*) FROM contacts c
+          WHERE c.user_id = :userId
+          AND (c.search_text LIKE :pattern ESCAPE '\\' OR :term <% c.search_text)
+      """,
+      nativeQuery = true
+  )
+  Page<Contact> fuzzySearchContacts(@Param("userId") String userId,
+                                    @Param("pattern") String pattern,
+                                    @Param("term") String term,
+                                    Pageable pageable);
+
   /**
    * Find contacts by tag.
    *
@@ -102,6 +145,8 @@ public interface ContactRepository extends JpaRepository<Contact, String> {
    * - Uses a native PostgreSQL query
    * - Required because tags are stored as TEXT[]
    * - JPQL does NOT support SQL array columns
+   * - Containment ({@code @>}) is served by the GIN index on tags
+   * - Stored tags are trimmed on write, so the tag is trimmed the same way
    *
    * @param userId the user ID
    * @param tag the tag to search for
@@ -112,12 +157,12 @@ public interface ContactRepository extends JpaRepository<Contact, String> {
       value = """
           SELECT * FROM contacts c
           WHERE c.user_id = :userId
-          AND :tag = ANY(c.tags)
+          AND c.tags @> ARRAY[trim(CAST(:tag AS TEXT))]
       """,
       countQuery = """
           SELECT COUNT(*) FROM contacts c
           WHERE c.user_id = :userId
-          AND :tag = ANY(c.tags)
+          AND c.tags @> ARRAY[trim(CAST(:tag AS TEXT))]
       """,
       nativeQuery = true
   )
@@ -125,6 +170,24 @@ public interface ContactRepository extends JpaRepository<Contact, String> {
                           @Param("tag") String tag,
                           Pageable pageable);
 
+  /**
+   * Find a user's contacts with the highest current engagement score.
+   *
+   * NOTE:
+   * - Orders by {@link ContactEngagementRepository#RANK}, which the per-user rank index
+   *   covers, so the query reads only the returned rows
+   *
+   * @param userId the user ID
+   * @param limit maximum number of contacts
+   * @return contacts, most engaged first
+   */
+  @Query(
+      value = "SELECT * FROM contacts WHERE user_id = :userId AND engagement_score > 0"
+          + " ORDER BY " + ContactEngagementRepository.RANK + " DESC LIMIT :limit",
+      nativeQuery = true
+  )
+  List<Contact> findMostEngaged(@Param("userId") String userId, @Param("limit") int limit);
+
   /**
    * Find contacts created after a certain date.
    *
@@ -198,6 +261,65 @@ public interface ContactRepository extends JpaRepository<Contact, String> {
   """)
   long countByListAndStatus(@Param("listId") String listId, @Param("status") String status);
 
+  /**
+   * Count contacts with an active membership in a list by their status.
+   *
+   * @param listId the contact list ID
+   * @param status the contact status
+   * @return count of actively listed contacts with the given status
+   */
+  @Query("""
+      SELECT COUNT(c) FROM Contact c
+      JOIN ContactListMembership m ON c.id = m.contactId
+      WHERE m.listId = :listId AND m.status = 'ACTIVE' AND c.status = :status
+  """)
+  long countByActiveListMembershipAndStatus(@Param("listId") String listId, @Param("status") String status);
+
+  /**
+   * Stream a user's contacts for export, optionally filtered by status.
+   *
+   * NOTE:
+   * - Rows are fetched from a PostgreSQL cursor in chunks of {@value #EXPORT_FETCH_SIZE}
+   *   and loaded read-only, so Hibernate keeps no dirty-checking snapshots
+   * - Must be consumed and closed inside a transaction; callers detach each contact
+   *   once written so the persistence context does not grow with the export
+   *
+   * @param userId the user ID
+   * @param status the contact status, or null for all
+   * @return stream of contacts
+   */
+  @QueryHints({
+      @QueryHint(name = "org.hibernate.fetchSize", value = EXPORT_FETCH_SIZE),
+      @QueryHint(name = "org.hibernate.readOnly", value = "true")
+  })
+  @Query("""
+      SELECT c FROM Contact c
+      WHERE c.user.id = :userId AND (:status IS NULL OR c.status = :status)
+  """)
+  Stream<Contact> streamForExport(@Param("userId") String userId, @Param("status") String status);
+
+  /**
+   * Stream a user's contacts in a list for export, optionally filtered by status.
+   * See {@link #streamForExport(String, String)} for how the stream must be consumed.
+   *
+   * @param userId the user ID
+   * @param listId the contact list ID
+   * @param status the contact status, or null for all
+   * @return stream of contacts
+   */
+  @QueryHints({
+      @QueryHint(name = "org.hibernate.fetchSize", value = EXPORT_FETCH_SIZE),
+      @QueryHint(name = "org.hibernate.readOnly", value = "true")
+  })
+  @Query("""
+      SELECT c FROM Contact c
+      JOIN ContactListMembership m ON c.id = m.contactId
+      WHERE m.listId = :listId AND c.user.id = :userId AND (:status IS NULL OR c.status = :status)
+  """)
+  Stream<Contact> streamListForExport(@Param("userId") String userId,
+                                      @Param("listId") String listId,
+                                      @Param("status") String status);
+
   /**
    * Find contact by confirmation token.
    *
@@ -0,0 +1,275 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.repository.projection.ContactPageCursor;
+import com.openmailer.openmailer.repository.projection.ContactSummaryRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Read queries behind the contacts list page.
+ *
+ * NOTE:
+ * - Pages are keyset-paginated on (sort date, id), newest first, where the sort date is
+ *   {@code COALESCE(subscribed_at, created_at)}; the expression indexes created here let
+ *   each page be read from the index instead of sorting the user's contacts
+ * - Uses JDBC instead of JPA so only the listed columns are read and filters can be
+ *   combined without one query method per combination
+ * - Search runs against {@code contacts.search_text}: the lower-cased email, names, tags and
+ *   configured custom fields, kept current on every insert and update by a trigger.
+ *   A pg_trgm GIN index serves substring, prefix and typo-tolerant ({@code <%}) matches;
+ *   without the pg_trgm extension, search falls back to unindexed substring matches
+ * - The trigger function's comment holds the md5 of the definition every row's search text
+ *   was computed with; when the definition changes, for example because the searched
+ *   custom fields were reconfigured, all rows are recomputed in batches at startup
+ */
+@Repository
+public class ContactSearchRepository {
+
+  private static final Logger log = LoggerFactory.getLogger(ContactSearchRepository.class);
+
+  private static final String SORT_DATE = "COALESCE(c.subscribed_at, c.created_at)";
+  private static final int BACKFILL_BATCH_SIZE = 10_000;
+
+  private static final RowMapper<ContactSummaryRow> SUMMARY_MAPPER = (rs, rowNum) -> {
+    Array tags = rs.getArray("tags");
+    return new ContactSummaryRow(
+        rs.getString("id"),
+        rs.getString("email"),
+        rs.getString("first_name"),
+        rs.getString("last_name"),
+        rs.getString("status"),
+        tags != null ? (String[]) tags.getArray() : null,
+        rs.getString("company"),
+        rs.getTimestamp("sort_date").toLocalDateTime());
+  };
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final List<String> searchedCustomFields;
+  private volatile boolean fuzzySearch;
+
+  public ContactSearchRepository(
+      NamedParameterJdbcTemplate jdbcTemplate,
+      @Value("${app.contacts.search.custom-fields:company}") List<String> searchedCustomFields) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.searchedCustomFields = searchedCustomFields.stream().map(String::trim).filter(f -> !f.isEmpty()).toList();
+  }
+
+  /**
+   * Create the keyset indexes, the search column with its trigger and the trigram index,
+   * then recompute the search column of every row if the trigger function has changed
+   * since the rows were last computed, or the column has never been filled.
+   */
+  public void createSchemaIfMissing() {
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE INDEX IF NOT EXISTS idx_contacts_user_sort
+        ON contacts (user_id, (COALESCE(subscribed_at, created_at)), id)
+    """);
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE INDEX IF NOT EXISTS idx_contacts_user_status_sort
+        ON contacts (user_id, status, (COALESCE(subscribed_at, created_at)), id)
+    """);
+    jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE contacts ADD COLUMN IF NOT EXISTS search_text TEXT");
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE OR REPLACE FUNCTION contacts_search_text() RETURNS trigger AS $$
+        BEGIN
+            NEW.search_text := lower(concat_ws(' ', NEW.email, NEW.first_name, NEW.last_name,
+                                               array_to_string(NEW.tags, ' ')%s));
+            RETURN NEW;
+        END
+        $$ LANGUAGE plpgsql
+    """.formatted(searchedCustomFields.stream()
+        .map(field -> ", NEW.custom_fields ->> '" + field.replace("'", "''") + "'")
+        .collect(Collectors.joining())));
+    jdbcTemplate.getJdbcTemplate().execute("""
+        DO $$
+        BEGIN
+            IF NOT EXISTS (
+                SELECT 1 FROM pg_trigger
+                WHERE tgrelid = 'contacts'::regclass AND tgname = 'contacts_search_text'
+            ) THEN
+                CREATE TRIGGER contacts_search_text
+                BEFORE INSERT OR UPDATE ON contacts
+                FOR EACH ROW EXECUTE FUNCTION contacts_search_text();
+            END IF;
+        END
+        $$
+    """);
+
+    try {
+      jdbcTemplate.getJdbcTemplate().execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+      jdbcTemplate.getJdbcTemplate().execute("""
+          CREATE INDEX IF NOT EXISTS idx_contacts_search_trgm
+          ON contacts USING gin (search_text gin_trgm_ops)
+      """);
+      fuzzySearch = true;
+    } catch (DataAccessException e) {
+      log.warn("pg_trgm is not available, contact search will not be indexed: {}", e.getMessage());
+      fuzzySearch = false;
+    }
+
+    Boolean changed = jdbcTemplate.getJdbcTemplate().queryForObject("""
+        SELECT obj_description(oid, 'pg_proc') IS DISTINCT FROM md5(prosrc)
+        FROM pg_proc WHERE oid = 'contacts_search_text()'::regprocedure
+    """, Boolean.class);
+    if (Boolean.TRUE.equals(changed)) {
+      recomputeSearchText();
+    }
+  }
+
+  /**
+   * Recompute the search text of all contacts in batches of {@value #BACKFILL_BATCH_SIZE},
+   * in id order, then record the definition they were computed with. Rewriting a row is
+   * enough: the trigger computes its search text. An interrupted run starts over on the
+   * next startup because the definition is only recorded at the end.
+   */
+  private void recomputeSearchText() {
+    log.info("Contact search definition changed, recomputing search text");
+    String after = "";
+    while (after != null) {
+      after = jdbcTemplate.queryForObject("""
+          WITH batch AS (
+              SELECT id FROM contacts WHERE id > :after ORDER BY id LIMIT :limit
+          ), rewritten AS (
+              UPDATE contacts c SET search_text = NULL
+              FROM batch b WHERE c.id = b.id
+          )
+          SELECT MAX(id) FROM batch
+      """, new MapSqlParameterSource("after", after).addValue("limit", BACKFILL_BATCH_SIZE), String.class);
+    }
+    jdbcTemplate.getJdbcTemplate().execute("""
+        DO $$
+        BEGIN
+            EXECUTE format('COMMENT ON FUNCTION contacts_search_text() IS %L',
+                (SELECT md5(prosrc) FROM pg_proc WHERE oid = 'contacts_search_text()'::regprocedure));
+        END
+        $$
+    """);
+  }
+
+  /**
+   * Find one page of a user's contacts, newest first.
+   *
+   * @param userId the user ID
+   * @param status only contacts with this status, or null for all
+   * @param tag only contacts with this tag, or null for all
+   * @param search text to find in the email, names, tags or searched custom fields, matched
+   *     as a case-insensitive substring or, when pg_trgm is installed, a close word; null for all
+   * @param cursor the page boundary, or null for the first page
+   * @param backward whether to read the page before the cursor instead of after it
+   * @param limit maximum number of rows
+   * @return the rows, newest first
+   */
+  public List<ContactSummaryRow> findPage(String userId, String status, String tag, String search,
+                                          ContactPageCursor cursor, boolean backward, int limit) {
+    PageQuery query = pageQuery(userId, status, tag, search, cursor, backward, limit);
+    List<ContactSummaryRow> rows = jdbcTemplate.query(query.sql(), query.params(), SUMMARY_MAPPER);
+
+    if (backward) {
+      rows = new ArrayList<>(rows);
+      Collections.reverse(rows);
+    }
+    return rows;
+  }
+
+  /**
+   * Build the query behind {@link #findPage}; rows come back in scan order.
+   */
+  PageQuery pageQuery(String userId, String status, String tag, String search,
+                      ContactPageCursor cursor, boolean backward, int limit) {
+    MapSqlParameterSource params = new MapSqlParameterSource()
+        .addValue("userId", userId)
+        .addValue("limit", limit);
+    StringBuilder where = new StringBuilder("c.user_id = :userId");
+
+    if (status != null) {
+      where.append(" AND c.status = :status");
+      params.addValue("status", status);
+    }
+    if (tag != null) {
+      // Stored tags are trimmed on write (see ContactTagCountRepository)
+      where.append(" AND c.tags @> ARRAY[trim(CAST(:tag AS TEXT))]");
+      params.addValue("tag", tag);
+    }
+    if (search != null) {
+      where.append(fuzzySearch
+          ? " AND (c.search_text LIKE :pattern ESCAPE '\\' OR :term <% c.search_text)"
+          : " AND c.search_text LIKE :pattern ESCAPE '\\'");
+      params.addValue("pattern", containsPattern(search));
+      params.addValue("term", search.toLowerCase(Locale.ROOT));
+    }
+    if (cursor != null) {
+      where.append(" AND (").append(SORT_DATE).append(", c.id) ").append(backward ? ">" : "<")
+          .append(" (:cursorDate, :cursorId)");
+      params.addValue("cursorDate", Timestamp.valueOf(cursor.sortDate()));
+      params.addValue("cursorId", cursor.id());
+    }
+
+    String direction = backward ? "ASC" : "DESC";
+    return new PageQuery(
+        "SELECT c.id, c.email, c.first_name, c.last_name, c.status, c.tags,"
+            + " c.custom_fields ->> 'company' AS company, " + SORT_DATE + " AS sort_date"
+            + " FROM contacts c WHERE " + where
+            + " ORDER BY " + SORT_DATE + " " + direction + ", c.id " + direction
+            + " LIMIT :limit",
+        params);
+  }
+
+  /**
+   * Count a user's contacts per status with one grouped query.
+   *
+   * @param userId the user ID
+   * @return contact count by status
+   */
+  public Map<String, Long> countByStatus(String userId) {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    jdbcTemplate.query("""
+        SELECT status, COUNT(*) AS contacts
+        FROM contacts
+        WHERE user_id = :userId
+        GROUP BY status
+    """, new MapSqlParameterSource("userId", userId),
+        rs -> {
+          counts.put(rs.getString("status"), rs.getLong("contacts"));
+        });
+    return counts;
+  }
+
+  /**
+   * @return whether search uses the trigram index and matches close words
+   */
+  public boolean isFuzzySearch() {
+    return fuzzySearch;
+  }
+
+  /**
+   * @param search the search term
+   * @return a LIKE pattern matching search text that contains the term, with wildcards
+   *     escaped by a backslash
+   */
+  public static String containsPattern(String search) {
+    return "%" + escapeLike(search.toLowerCase(Locale.ROOT)) + "%";
+  }
+
+  private static String escapeLike(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+
+  record PageQuery(String sql, MapSqlParameterSource params) {
+  }
+}
@@ -0,0 +1,72 @@
+package com.openmailer.openmailer.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Finds and counts the subscribed contacts that match a segment condition translated to SQL.
+ *
+ * NOTE:
+ * - The condition is a SQL predicate over {@code contacts} with its own named parameters;
+ *   it must only be built from bound parameters, never from user input
+ * - Contacts are narrowed by the {@code (user_id, status, ...)} indexes, or through the
+ *   {@code (list_id, contact_id)} membership index for a list, before the condition is applied
+ */
+@Repository
+public class ContactSegmentRepository {
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public ContactSegmentRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Find the subscribed contacts matching a condition, newest first.
+   *
+   * @param userId the user ID
+   * @param listId only contacts with an active membership in this list, or null for all
+   * @param condition SQL predicate over {@code contacts}
+   * @param params the predicate's parameters
+   * @return contact IDs
+   */
+  public List<String> findSubscribedIds(String userId, String listId, String condition,
+                                        MapSqlParameterSource params) {
+    return jdbcTemplate.queryForList("SELECT id " + from(listId, condition) + " ORDER BY created_at DESC, id",
+        withBase(params, userId, listId), String.class);
+  }
+
+  /**
+   * Count the subscribed contacts matching a condition.
+   *
+   * @param userId the user ID
+   * @param listId only contacts with an active membership in this list, or null for all
+   * @param condition SQL predicate over {@code contacts}
+   * @param params the predicate's parameters
+   * @return number of matching contacts
+   */
+  public long countSubscribed(String userId, String listId, String condition, MapSqlParameterSource params) {
+    Long count = jdbcTemplate.queryForObject("SELECT count(*) " + from(listId, condition),
+        withBase(params, userId, listId), Long.class);
+    return count != null ? count : 0;
+  }
+
+  private static String from(String listId, String condition) {
+    StringBuilder where = new StringBuilder("user_id = :userId AND status = 'SUBSCRIBED'");
+    if (listId != null) {
+      where.append(" AND EXISTS (SELECT 1 FROM contact_list_memberships m")
+          .append(" WHERE m.list_id = :listId AND m.contact_id = contacts.id AND m.status = 'ACTIVE')");
+    }
+    where.append(" AND (").append(condition).append(")");
+    return "FROM contacts WHERE " + where;
+  }
+
+  private static MapSqlParameterSource withBase(MapSqlParameterSource params, String userId, String listId) {
+    return new MapSqlParameterSource(params.getValues())
+        .addValue("userId", userId)
+        .addValue("listId", listId);
+  }
+}
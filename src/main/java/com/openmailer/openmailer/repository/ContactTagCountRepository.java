@@ -0,0 +1,225 @@
+package com.openmailer.openmailer.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Repository for per-user tag counts, the dictionary behind tag facets.
+ *
+ * NOTE:
+ * - Tags are normalized on write by a row trigger on contacts: trimmed, with blank and
+ *   repeated tags dropped, so the stored tags, their counts and tag filters agree.
+ *   Rows written before the trigger existed are normalized in batches at startup
+ * - contact_tag_counts holds one row per user and tag with the number of contacts
+ *   carrying it (tags are trimmed, blank tags are ignored)
+ * - Counts are kept current by statement-level triggers on contacts, so JPA writes,
+ *   bulk imports and deletes all apply their deltas in the statement that changes tags;
+ *   each statement aggregates its transition tables into one upsert per tag
+ * - The table is filled from existing contacts once, in the statement that creates it
+ * - A GIN index on contacts.tags serves tag filters ({@code tags @> ARRAY[...]}), and one
+ *   on {@link #LOWER_TAGS} serves case-insensitive ones ({@code LOWER_TAGS && ARRAY[...]})
+ */
+@Repository
+public class ContactTagCountRepository {
+
+  /**
+   * A contact's tags in lower case, for case-insensitive tag filters; indexed.
+   */
+  public static final String LOWER_TAGS = "contact_tags_lower(tags)";
+
+  private static final int BACKFILL_BATCH_SIZE = 10_000;
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public ContactTagCountRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Create the tag indexes, the tag normalization trigger, the count table and the triggers
+   * maintaining it, then normalize the tags of rows written before the trigger existed.
+   */
+  public void createSchemaIfMissing() {
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE INDEX IF NOT EXISTS idx_contacts_tags
+        ON contacts USING gin (tags)
+    """);
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE OR REPLACE FUNCTION contact_tags_normalized(tags TEXT[]) RETURNS TEXT[] AS $$
+            SELECT CASE WHEN tags IS NOT NULL THEN ARRAY(
+                SELECT trim(t.tag)
+                FROM unnest(tags) WITH ORDINALITY AS t(tag, position)
+                WHERE trim(t.tag) <> ''
+                GROUP BY trim(t.tag)
+                ORDER BY MIN(t.position)
+            ) END
+        $$ LANGUAGE sql IMMUTABLE
+    """);
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE OR REPLACE FUNCTION contact_tags_lower(tags TEXT[]) RETURNS TEXT[] AS $$
+            SELECT CASE WHEN tags IS NOT NULL THEN ARRAY(SELECT lower(tag) FROM unnest(tags) AS tag) END
+        $$ LANGUAGE sql IMMUTABLE
+    """);
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE INDEX IF NOT EXISTS idx_contacts_tags_lower
+        ON contacts USING gin (%s)
+    """.formatted(LOWER_TAGS));
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE OR REPLACE FUNCTION contacts_normalize_tags() RETURNS trigger AS $$
+        BEGIN
+            NEW.tags := contact_tags_normalized(NEW.tags);
+            RETURN NEW;
+        END
+        $$ LANGUAGE plpgsql
+    """);
+    jdbcTemplate.getJdbcTemplate().execute("""
+        DO $$
+        BEGIN
+            IF NOT EXISTS (
+                SELECT 1 FROM pg_trigger
+                WHERE tgrelid = 'contacts'::regclass AND tgname = 'contacts_normalize_tags'
+            ) THEN
+                CREATE TRIGGER contacts_normalize_tags
+                BEFORE INSERT OR UPDATE OF tags ON contacts
+                FOR EACH ROW EXECUTE FUNCTION contacts_normalize_tags();
+            END IF;
+        END
+        $$
+    """);
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE OR REPLACE FUNCTION contact_tag_counts_apply() RETURNS trigger AS $$
+        BEGIN
+            IF TG_OP = 'INSERT' THEN
+                INSERT INTO contact_tag_counts AS c (user_id, tag, contact_count)
+                SELECT user_id, tag, COUNT(*)
+                FROM (
+                    SELECT DISTINCT n.id, n.user_id, trim(t.tag) AS tag
+                    FROM new_rows n CROSS JOIN LATERAL unnest(n.tags) AS t(tag)
+                    WHERE trim(t.tag) <> ''
+                ) d
+                GROUP BY user_id, tag
+                ORDER BY user_id, tag
+                ON CONFLICT (user_id, tag) DO UPDATE SET contact_count = c.contact_count + EXCLUDED.contact_count;
+            ELSIF TG_OP = 'DELETE' THEN
+                INSERT INTO contact_tag_counts AS c (user_id, tag, contact_count)
+                SELECT user_id, tag, -COUNT(*)
+                FROM (
+                    SELECT DISTINCT o.id, o.user_id, trim(t.tag) AS tag
+                    FROM old_rows o CROSS JOIN LATERAL unnest(o.tags) AS t(tag)
+                    WHERE trim(t.tag) <> ''
+                ) d
+                GROUP BY user_id, tag
+                ORDER BY user_id, tag
+                ON CONFLICT (user_id, tag) DO UPDATE SET contact_count = c.contact_count + EXCLUDED.contact_count;
+            ELSE
+                -- Only rows whose tags changed contribute: +1 for new tags, -1 for old ones
+                INSERT INTO contact_tag_counts AS c (user_id, tag, contact_count)
+                SELECT user_id, tag, SUM(delta)
+                FROM (
+                    SELECT DISTINCT n.id, n.user_id, trim(t.tag) AS tag, 1 AS delta
+                    FROM new_rows n
+                    JOIN old_rows o ON o.id = n.id AND o.tags IS DISTINCT FROM n.tags
+                    CROSS JOIN LATERAL unnest(n.tags) AS t(tag)
+                    WHERE trim(t.tag) <> ''
+                    UNION ALL
+                    SELECT DISTINCT o.id, o.user_id, trim(t.tag) AS tag, -1 AS delta
+                    FROM old_rows o
+                    JOIN new_rows n ON n.id = o.id AND n.tags IS DISTINCT FROM o.tags
+                    CROSS JOIN LATERAL unnest(o.tags) AS t(tag)
+                    WHERE trim(t.tag) <> ''
+                ) d
+                GROUP BY user_id, tag
+                HAVING SUM(delta) <> 0
+                ORDER BY user_id, tag
+                ON CONFLICT (user_id, tag) DO UPDATE SET contact_count = c.contact_count + EXCLUDED.contact_count;
+            END IF;
+
+            IF TG_OP <> 'INSERT' THEN
+                DELETE FROM contact_tag_counts
+                WHERE contact_count <= 0 AND user_id IN (SELECT DISTINCT user_id FROM old_rows);
+            END IF;
+            RETURN NULL;
+        END
+        $$ LANGUAGE plpgsql
+    """);
+    // Created together with the triggers, under a lock that holds off contact writes,
+    // so no change is counted twice or missed
+    jdbcTemplate.getJdbcTemplate().execute("""
+        DO $$
+        BEGIN
+            IF to_regclass('contact_tag_counts') IS NULL THEN
+                LOCK TABLE contacts IN SHARE MODE;
+
+                CREATE TABLE contact_tag_counts (
+                    user_id VARCHAR(50) NOT NULL,
+                    tag TEXT NOT NULL,
+                    contact_count BIGINT NOT NULL,
+                    PRIMARY KEY (user_id, tag)
+                );
+
+                INSERT INTO contact_tag_counts (user_id, tag, contact_count)
+                SELECT user_id, tag, COUNT(*)
+                FROM (
+                    SELECT DISTINCT c.id, c.user_id, trim(t.tag) AS tag
+                    FROM contacts c, unnest(c.tags) AS t(tag)
+                    WHERE trim(t.tag) <> ''
+                ) d
+                GROUP BY user_id, tag;
+
+                CREATE TRIGGER contact_tag_counts_insert
+                AFTER INSERT ON contacts REFERENCING NEW TABLE AS new_rows
+                FOR EACH STATEMENT EXECUTE FUNCTION contact_tag_counts_apply();
+                CREATE TRIGGER contact_tag_counts_update
+                AFTER UPDATE ON contacts REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+                FOR EACH STATEMENT EXECUTE FUNCTION contact_tag_counts_apply();
+                CREATE TRIGGER contact_tag_counts_delete
+                AFTER DELETE ON contacts REFERENCING OLD TABLE AS old_rows
+                FOR EACH STATEMENT EXECUTE FUNCTION contact_tag_counts_apply();
+            END IF;
+        END
+        $$
+    """);
+
+    // Rewriting the tags is enough: the trigger normalizes them, and the count triggers
+    // see no change because counts are already taken over trimmed tags
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE INDEX IF NOT EXISTS idx_contacts_tags_pending
+        ON contacts (id) WHERE tags IS DISTINCT FROM contact_tags_normalized(tags)
+    """);
+    int updated;
+    do {
+      updated = jdbcTemplate.update("""
+          UPDATE contacts SET tags = tags
+          WHERE id IN (
+              SELECT id FROM contacts
+              WHERE tags IS DISTINCT FROM contact_tags_normalized(tags)
+              LIMIT :limit
+          )
+      """, new MapSqlParameterSource("limit", BACKFILL_BATCH_SIZE));
+    } while (updated == BACKFILL_BATCH_SIZE);
+  }
+
+  /**
+   * Find a user's tags and how many contacts carry each.
+   *
+   * @param userId the user ID
+   * @return contact count by tag, in tag order
+   */
+  public Map<String, Long> findCounts(String userId) {
+    Map<String, Long> counts = new LinkedHashMap<>();
+    jdbcTemplate.query("""
+        SELECT tag, contact_count
+        FROM contact_tag_counts
+        WHERE user_id = :userId AND contact_count > 0
+        ORDER BY tag
+    """, new MapSqlParameterSource("userId", userId),
+        rs -> {
+          counts.put(rs.getString("tag"), rs.getLong("contact_count"));
+        });
+    return counts;
+  }
+}
@@ -0,0 +1,198 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.repository.projection.DashboardSnapshot;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for per-user dashboard snapshots.
+ *
+ * NOTE:
+ * - {@code dashboard_snapshots} holds exact account-wide engagement totals per user; the
+ *   engagement pipeline adds to them in the same statements that write the rollups
+ *   (see {@link EngagementRollupRepository}) and campaign completions add recipients
+ * - Rows are created from the rollups the first time a user's dashboard is loaded; until
+ *   then increments for that user are skipped, so history is never counted twice
+ * - Creating a row and every increment outside the event projection take a per-user
+ *   advisory lock ({@link #USER_LOCK}) first, so an increment either commits before the
+ *   row is built from the source tables or waits and is applied to the new row
+ * - Object counts (contacts, campaigns by status, templates, ...) are read alongside the
+ *   snapshot in the same statement
+ */
+@Repository
+public class DashboardSnapshotRepository {
+
+  public static final String TABLE = "dashboard_snapshots";
+
+  /**
+   * Transaction-scoped advisory lock on one user's snapshot; format with the user ID expression.
+   */
+  public static final String USER_LOCK = "pg_advisory_xact_lock(hashtext('" + TABLE + "'), hashtext(%s))";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public DashboardSnapshotRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Create the snapshot table.
+   */
+  public void createSchemaIfMissing() {
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE TABLE IF NOT EXISTS dashboard_snapshots (
+            user_id VARCHAR(50) PRIMARY KEY,
+            completed_campaigns BIGINT NOT NULL DEFAULT 0,
+            total_recipients BIGINT NOT NULL DEFAULT 0,
+            sends BIGINT NOT NULL DEFAULT 0,
+            unique_opens BIGINT NOT NULL DEFAULT 0,
+            unique_clicks BIGINT NOT NULL DEFAULT 0,
+            bounces BIGINT NOT NULL DEFAULT 0,
+            complaints BIGINT NOT NULL DEFAULT 0,
+            updated_at TIMESTAMP NOT NULL DEFAULT now()
+        )
+    """);
+  }
+
+  /**
+   * Create a user's snapshot from the rollups and completed campaigns, unless it exists.
+   * Callers hold the projection cursor lock so no event batch is applied concurrently,
+   * and must call this in a transaction so the user lock is held until the row commits.
+   *
+   * @param userId the user ID
+   * @return true if the snapshot was created
+   */
+  public boolean createIfMissing(String userId) {
+    lockUser(userId);
+    return jdbcTemplate.update("""
+        INSERT INTO dashboard_snapshots (user_id, completed_campaigns, total_recipients,
+                                         sends, unique_opens, unique_clicks, bounces, complaints, updated_at)
+        SELECT :userId, c.completed, c.recipients,
+               COALESCE(SUM(r.sends), 0), COALESCE(SUM(r.unique_opens), 0), COALESCE(SUM(r.unique_clicks), 0),
+               COALESCE(SUM(r.bounces), 0), COALESCE(SUM(r.complaints), 0), now()
+        FROM (
+            SELECT COUNT(*) FILTER (WHERE status = 'COMPLETED') AS completed,
+                   COALESCE(SUM(total_recipients) FILTER (WHERE status = 'COMPLETED'), 0) AS recipients
+            FROM email_campaigns
+            WHERE user_id = :userId
+        ) c
+        LEFT JOIN (
+            SELECT sends, unique_opens, unique_clicks, bounces, complaints
+            FROM engagement_rollups_hourly WHERE user_id = :userId
+            UNION ALL
+            SELECT sends, unique_opens, unique_clicks, bounces, complaints
+            FROM engagement_rollups_daily WHERE user_id = :userId
+        ) r ON true
+        GROUP BY c.completed, c.recipients
+        ON CONFLICT (user_id) DO NOTHING
+    """, new MapSqlParameterSource("userId", userId)) > 0;
+  }
+
+  /**
+   * Add a completed campaign and its recipients to a user's snapshot.
+   * Must be called in the transaction that marks the campaign completed.
+   *
+   * @param userId the user ID
+   * @param recipients number of recipients of the campaign
+   */
+  public void addCompletedCampaign(String userId, long recipients) {
+    addToCompletedCampaigns(userId, 1, recipients);
+  }
+
+  /**
+   * Remove a deleted completed campaign and its recipients from a user's snapshot.
+   * Must be called in the transaction that deletes the campaign.
+   *
+   * @param userId the user ID
+   * @param recipients number of recipients of the campaign
+   */
+  public void removeCompletedCampaign(String userId, long recipients) {
+    addToCompletedCampaigns(userId, -1, -recipients);
+  }
+
+  /**
+   * Delete a user's snapshot.
+   *
+   * @param userId the user ID
+   */
+  public void deleteByUserId(String userId) {
+    lockUser(userId);
+    jdbcTemplate.update("DELETE FROM dashboard_snapshots WHERE user_id = :userId",
+        new MapSqlParameterSource("userId", userId));
+  }
+
+  /**
+   * Read a user's snapshot together with the account's object counts in one statement.
+   *
+   * @param userId the user ID
+   * @return the dashboard snapshot; {@code updatedAt} is null if no snapshot row exists yet
+   */
+  public DashboardSnapshot findByUserId(String userId) {
+    List<DashboardSnapshot> rows = jdbcTemplate.query("""
+        SELECT s.updated_at, s.completed_campaigns, s.total_recipients,
+               s.sends, s.unique_opens, s.unique_clicks, s.bounces, s.complaints,
+               c.total AS campaigns, c.drafts, c.scheduled, c.sending,
+               (SELECT COUNT(*) FROM contacts WHERE user_id = :userId) AS contacts,
+               (SELECT COUNT(*) FROM contacts WHERE user_id = :userId AND status = 'SUBSCRIBED') AS subscribed_contacts,
+               (SELECT COUNT(*) FROM email_templates WHERE user_id = :userId) AS templates,
+               (SELECT COUNT(*) FROM email_providers WHERE user_id = :userId AND is_active) AS active_providers,
+               (SELECT COUNT(*) FROM domains WHERE user_id = :userId AND status = 'VERIFIED') AS verified_domains
+        FROM (
+            SELECT COUNT(*) AS total,
+                   COUNT(*) FILTER (WHERE status = 'DRAFT') AS drafts,
+                   COUNT(*) FILTER (WHERE status = 'SCHEDULED') AS scheduled,
+                   COUNT(*) FILTER (WHERE status = 'SENDING') AS sending
+            FROM email_campaigns
+            WHERE user_id = :userId
+        ) c
+        LEFT JOIN dashboard_snapshots s ON s.user_id = :userId
+    """, new MapSqlParameterSource("userId", userId), (rs, rowNum) -> {
+      DashboardSnapshot snapshot = new DashboardSnapshot();
+      Timestamp updatedAt = rs.getTimestamp("updated_at");
+      snapshot.setUpdatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null);
+      snapshot.setCompletedCampaigns(rs.getLong("completed_campaigns"));
+      snapshot.setTotalRecipients(rs.getLong("total_recipients"));
+      snapshot.setSends(rs.getLong("sends"));
+      snapshot.setUniqueOpens(rs.getLong("unique_opens"));
+      snapshot.setUniqueClicks(rs.getLong("unique_clicks"));
+      snapshot.setBounces(rs.getLong("bounces"));
+      snapshot.setComplaints(rs.getLong("complaints"));
+      snapshot.setCampaigns(rs.getLong("campaigns"));
+      snapshot.setDraftCampaigns(rs.getLong("drafts"));
+      snapshot.setScheduledCampaigns(rs.getLong("scheduled"));
+      snapshot.setSendingCampaigns(rs.getLong("sending"));
+      snapshot.setContacts(rs.getLong("contacts"));
+      snapshot.setSubscribedContacts(rs.getLong("subscribed_contacts"));
+      snapshot.setTemplates(rs.getLong("templates"));
+      snapshot.setActiveProviders(rs.getLong("active_providers"));
+      snapshot.setVerifiedDomains(rs.getLong("verified_domains"));
+      snapshot.setLoadedAt(LocalDateTime.now());
+      return snapshot;
+    });
+    return rows.get(0);
+  }
+
+  private void addToCompletedCampaigns(String userId, int campaigns, long recipients) {
+    lockUser(userId);
+    jdbcTemplate.update("""
+        UPDATE dashboard_snapshots
+        SET completed_campaigns = completed_campaigns + :campaigns,
+            total_recipients = total_recipients + :recipients,
+            updated_at = now()
+        WHERE user_id = :userId
+    """, new MapSqlParameterSource()
+        .addValue("userId", userId)
+        .addValue("campaigns", campaigns)
+        .addValue("recipients", recipients));
+  }
+
+  private void lockUser(String userId) {
+    jdbcTemplate.query("SELECT " + USER_LOCK.formatted(":userId"),
+        new MapSqlParameterSource("userId", userId), rs -> { });
+  }
+}
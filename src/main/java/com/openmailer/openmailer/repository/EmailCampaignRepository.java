@@ -3,6 +3,7 @@ package com.openmailer.openmailer.repository;
 import com.openmailer.openmailer.model.EmailCampaign;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -37,14 +38,24 @@ public interface EmailCampaignRepository extends JpaRepository<EmailCampaign, St
   Page<EmailCampaign> findByUserId(String userId, Pageable pageable);
 
   /**
-   * Find campaign by ID and user ID.
+   * Find campaign by ID and user ID, with its delivery associations fetched in the same query.
    *
    * @param id the campaign ID
    * @param userId the user ID
    * @return Optional containing the campaign if found
    */
+  @EntityGraph(EmailCampaign.GRAPH_DELIVERY)
   Optional<EmailCampaign> findByIdAndUserId(String id, String userId);
 
+  /**
+   * Find campaign by ID, with its delivery associations fetched in the same query.
+   *
+   * @param id the campaign ID
+   * @return Optional containing the campaign if found
+   */
+  @EntityGraph(EmailCampaign.GRAPH_DELIVERY)
+  Optional<EmailCampaign> findWithDeliveryGraphById(String id);
+
   /**
    * Find campaigns by status.
    *
@@ -65,6 +76,16 @@ public interface EmailCampaignRepository extends JpaRepository<EmailCampaign, St
    */
   Page<EmailCampaign> findByUserIdAndNameContainingIgnoreCase(String userId, String name, Pageable pageable);
 
+  /**
+   * Find a user's most recent campaigns, by send time or, for unsent campaigns, creation time.
+   *
+   * @param userId the user ID
+   * @param pageable page size limits the number of campaigns
+   * @return most recent campaigns first
+   */
+  @Query("SELECT c FROM EmailCampaign c WHERE c.userId = :userId ORDER BY COALESCE(c.sentAt, c.createdAt) DESC")
+  List<EmailCampaign> findRecentByUserId(@Param("userId") String userId, Pageable pageable);
+
   /**
    * Find scheduled campaigns that are ready to send.
    *
@@ -82,6 +103,7 @@ public interface EmailCampaignRepository extends JpaRepository<EmailCampaign, St
    * @param now current timestamp
    * @return list of campaigns ready to send
    */
+  @EntityGraph(EmailCampaign.GRAPH_DELIVERY)
   @Query("SELECT c FROM EmailCampaign c WHERE c.status = 'SCHEDULED' AND c.scheduledAt IS NOT NULL AND c.scheduledAt <= :now")
   List<EmailCampaign> findScheduledCampaigns(@Param("now") LocalDateTime now);
 
@@ -0,0 +1,347 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.model.EngagementEvent;
+import com.openmailer.openmailer.model.EngagementEventType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Repository for the append-only engagement event store.
+ *
+ * NOTE:
+ * - Uses JDBC instead of JPA because {@code engagement_events} is a PostgreSQL
+ *   table range-partitioned by day, which Hibernate's schema update cannot create
+ * - Rows are only ever inserted; whole days are removed by detaching partitions
+ * - Derived state (first open/click, counters) is applied by consumers that track
+ *   their progress in {@code engagement_event_cursors}
+ * - Consumers read events by the ID of the transaction that inserted them ({@code tx_id}),
+ *   not by event ID: sequence values are handed out before commit, so a lower event ID can
+ *   become visible after a higher one. Only transactions older than the current snapshot's
+ *   xmin are read, and those can no longer change, so a consumer never moves past an event
+ *   that has not committed yet
+ */
+@Repository
+public class EngagementEventRepository {
+
+  public static final String TABLE = "engagement_events";
+
+  private static final String CURRENT_TX_ID = "CAST(CAST(pg_current_xact_id() AS TEXT) AS BIGINT)";
+  private static final String SNAPSHOT_XMIN = "CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS TEXT) AS BIGINT)";
+
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public EngagementEventRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Create the partitioned parent table, its indexes and the consumer cursor table.
+   * Indexes declared on the parent are created on every partition automatically.
+   */
+  public void createSchemaIfMissing() {
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE TABLE IF NOT EXISTS engagement_events (
+            id BIGSERIAL NOT NULL,
+            event_type SMALLINT NOT NULL,
+            campaign_id VARCHAR(50) NOT NULL,
+            recipient_id VARCHAR(50),
+            link_id VARCHAR(50),
+            occurred_at TIMESTAMP NOT NULL,
+            user_agent_hash INTEGER,
+            tx_id BIGINT NOT NULL DEFAULT %s,
+            PRIMARY KEY (id, occurred_at)
+        ) PARTITION BY RANGE (occurred_at)
+    """.formatted(CURRENT_TX_ID));
+    // Tables created before events carried their transaction ID
+    jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE engagement_events ADD COLUMN IF NOT EXISTS tx_id BIGINT");
+    jdbcTemplate.getJdbcTemplate().execute(
+        "ALTER TABLE engagement_events ALTER COLUMN tx_id SET DEFAULT " + CURRENT_TX_ID);
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE INDEX IF NOT EXISTS idx_engagement_events_tx
+        ON engagement_events (tx_id)
+    """);
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE INDEX IF NOT EXISTS idx_engagement_events_recipient
+        ON engagement_events (recipient_id, link_id, event_type)
+    """);
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE INDEX IF NOT EXISTS idx_engagement_events_campaign
+        ON engagement_events (campaign_id, occurred_at)
+    """);
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE TABLE IF NOT EXISTS engagement_event_cursors (
+            consumer VARCHAR(50) PRIMARY KEY,
+            last_tx_id BIGINT NOT NULL DEFAULT 0,
+            updated_at TIMESTAMP NOT NULL DEFAULT now()
+        )
+    """);
+    jdbcTemplate.getJdbcTemplate().execute(
+        "ALTER TABLE engagement_event_cursors ADD COLUMN IF NOT EXISTS last_tx_id BIGINT NOT NULL DEFAULT 0");
+  }
+
+  /**
+   * Create the partition holding events for a single day if it does not exist yet.
+   *
+   * @param day the day to cover
+   */
+  public void createDailyPartitionIfMissing(LocalDate day) {
+    jdbcTemplate.getJdbcTemplate().execute(
+        "CREATE TABLE IF NOT EXISTS " + partitionName(day)
+            + " PARTITION OF " + TABLE
+            + " FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+  }
+
+  /**
+   * List the names of all partitions currently attached to the event table.
+   *
+   * @return partition table names
+   */
+  public List<String> findPartitionNames() {
+    return jdbcTemplate.queryForList("""
+        SELECT child.relname
+        FROM pg_inherits i
+        JOIN pg_class child ON child.oid = i.inhrelid
+        JOIN pg_class parent ON parent.oid = i.inhparent
+        WHERE parent.relname = :table
+        ORDER BY child.relname
+    """, new MapSqlParameterSource("table", TABLE), String.class);
+  }
+
+  /**
+   * Check whether a partition holds events a consumer has not applied yet, that is,
+   * events of transactions after its cursor.
+   *
+   * @param partitionName the partition table name
+   * @param consumer the consumer name
+   * @return true if the consumer has not reached all of the partition's events
+   */
+  public boolean hasUnappliedEvents(String partitionName, String consumer) {
+    Boolean unapplied = jdbcTemplate.queryForObject("""
+        SELECT EXISTS (
+            SELECT 1 FROM %s
+            WHERE tx_id > COALESCE(
+                (SELECT last_tx_id FROM engagement_event_cursors WHERE consumer = :consumer), 0)
+        )
+    """.formatted(partitionName), new MapSqlParameterSource("consumer", consumer), Boolean.class);
+    return Boolean.TRUE.equals(unapplied);
+  }
+
+  /**
+   * Detach a partition and drop it. Detaching is a catalog-only operation,
+   * so expired days are removed without deleting or vacuuming rows.
+   *
+   * @param partitionName the partition table name
+   */
+  public void detachAndDropPartition(String partitionName) {
+    jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partitionName);
+    jdbcTemplate.getJdbcTemplate().execute("DROP TABLE IF EXISTS " + partitionName);
+  }
+
+  /**
+   * Append a batch of events with a single JDBC batch insert.
+   *
+   * @param events the events to append
+   */
+  public void appendBatch(List<EngagementEvent> events) {
+    SqlParameterSource[] batch = events.stream()
+        .map(event -> new MapSqlParameterSource()
+            .addValue("type", event.type().getCode())
+            .addValue("campaignId", event.campaignId())
+            .addValue("recipientId", event.recipientId())
+            .addValue("linkId", event.linkId())
+            .addValue("occurredAt", Timestamp.valueOf(event.occurredAt()))
+            .addValue("userAgentHash", event.userAgentHash()))
+        .toArray(SqlParameterSource[]::new);
+
+    jdbcTemplate.batchUpdate("""
+        INSERT INTO engagement_events (event_type, campaign_id, recipient_id, link_id, occurred_at, user_agent_hash)
+        VALUES (:type, :campaignId, :recipientId, :linkId, :occurredAt, :userAgentHash)
+    """, batch);
+  }
+
+  /**
+   * Lock a consumer's cursor row for the current transaction and return its position.
+   * The row is created on first use. Holding the lock serializes consumers across nodes.
+   *
+   * @param consumer the consumer name
+   * @return the ID of the last transaction whose events the consumer has applied
+   */
+  public long lockCursor(String consumer) {
+    MapSqlParameterSource params = new MapSqlParameterSource("consumer", consumer);
+    jdbcTemplate.update("""
+        INSERT INTO engagement_event_cursors (consumer, updated_at)
+        VALUES (:consumer, now())
+        ON CONFLICT (consumer) DO NOTHING
+    """, params);
+    Long position = jdbcTemplate.queryForObject("""
+        SELECT last_tx_id FROM engagement_event_cursors WHERE consumer = :consumer FOR UPDATE
+    """, params, Long.class);
+    return position != null ? position : 0L;
+  }
+
+  /**
+   * Move a consumer's cursor forward.
+   *
+   * @param consumer the consumer name
+   * @param lastTxId the ID of the last transaction whose events were applied
+   */
+  public void advanceCursor(String consumer, long lastTxId) {
+    jdbcTemplate.update("""
+        UPDATE engagement_event_cursors
+        SET last_tx_id = :lastTxId, updated_at = now()
+        WHERE consumer = :consumer
+    """, new MapSqlParameterSource()
+        .addValue("consumer", consumer)
+        .addValue("lastTxId", lastTxId));
+  }
+
+  /**
+   * Find the upper transaction ID of the next batch after a cursor position.
+   * Only transactions that finished before the oldest one still running are included,
+   * so no event can commit into the batch's range afterwards. A batch always holds
+   * whole transactions and may exceed the limit by the rest of the last one.
+   *
+   * @param afterTxId the current cursor position
+   * @param limit number of events after which the batch ends
+   * @return the highest transaction ID in the batch, or {@code afterTxId} if there is nothing to apply
+   */
+  public long findBatchUpperBound(long afterTxId, int limit) {
+    Long upper = jdbcTemplate.queryForObject("""
+        SELECT MAX(tx_id) FROM (
+            SELECT tx_id FROM engagement_events
+            WHERE tx_id > :afterTxId AND tx_id < %s
+            ORDER BY tx_id
+            LIMIT :limit
+        ) batch
+    """.formatted(SNAPSHOT_XMIN), new MapSqlParameterSource()
+        .addValue("afterTxId", afterTxId)
+        .addValue("limit", limit), Long.class);
+    return upper != null ? upper : afterTxId;
+  }
+
+  /**
+   * Fold opens in a transaction ID range into {@code campaign_recipients}:
+   * keeps the earliest open time and adds to the open count.
+   *
+   * @param afterTxId exclusive lower transaction ID
+   * @param upToTxId inclusive upper transaction ID
+   * @return number of recipients updated
+   */
+  public int applyOpensToRecipients(long afterTxId, long upToTxId) {
+    return jdbcTemplate.update("""
+        UPDATE campaign_recipients r
+        SET opened_at = LEAST(r.opened_at, e.first_at),
+            open_count = COALESCE(r.open_count, 0) + e.events,
+            updated_at = now()
+        FROM (
+            SELECT recipient_id, MIN(occurred_at) AS first_at, COUNT(*) AS events
+            FROM engagement_events
+            WHERE tx_id > :afterTxId AND tx_id <= :upToTxId AND event_type = :type AND recipient_id IS NOT NULL
+            GROUP BY recipient_id
+        ) e
+        WHERE r.id = e.recipient_id
+    """, rangeParams(afterTxId, upToTxId, EngagementEventType.OPEN));
+  }
+
+  /**
+   * Fold clicks in a transaction ID range into {@code campaign_recipients}:
+   * keeps the earliest click time and adds to the click count.
+   *
+   * @param afterTxId exclusive lower transaction ID
+   * @param upToTxId inclusive upper transaction ID
+   * @return number of recipients updated
+   */
+  public int applyClicksToRecipients(long afterTxId, long upToTxId) {
+    return jdbcTemplate.update("""
+        UPDATE campaign_recipients r
+        SET clicked_at = LEAST(r.clicked_at, e.first_at),
+            click_count = COALESCE(r.click_count, 0) + e.events,
+            updated_at = now()
+        FROM (
+            SELECT recipient_id, MIN(occurred_at) AS first_at, COUNT(*) AS events
+            FROM engagement_events
+            WHERE tx_id > :afterTxId AND tx_id <= :upToTxId AND event_type = :type AND recipient_id IS NOT NULL
+            GROUP BY recipient_id
+        ) e
+        WHERE r.id = e.recipient_id
+    """, rangeParams(afterTxId, upToTxId, EngagementEventType.CLICK));
+  }
+
+  /**
+   * Fold clicks in a transaction ID range into {@code campaign_links} counters.
+   * A click is unique when the recipient has no earlier click on the same link
+   * in the retained event history.
+   *
+   * @param afterTxId exclusive lower transaction ID
+   * @param upToTxId inclusive upper transaction ID
+   * @return number of links updated
+   */
+  public int applyClicksToLinks(long afterTxId, long upToTxId) {
+    return jdbcTemplate.update("""
+        UPDATE campaign_links l
+        SET click_count = COALESCE(l.click_count, 0) + e.clicks,
+            unique_click_count = COALESCE(l.unique_click_count, 0) + e.unique_clicks
+        FROM (
+            SELECT b.link_id,
+                   COUNT(*) AS clicks,
+                   COUNT(DISTINCT b.recipient_id) FILTER (
+                       WHERE b.recipient_id IS NOT NULL AND NOT EXISTS (
+                           SELECT 1 FROM engagement_events p
+                           WHERE p.recipient_id = b.recipient_id
+                             AND p.link_id = b.link_id
+                             AND p.event_type = :type
+                             AND p.tx_id <= :afterTxId
+                       )
+                   ) AS unique_clicks
+            FROM engagement_events b
+            WHERE b.tx_id > :afterTxId AND b.tx_id <= :upToTxId AND b.event_type = :type AND b.link_id IS NOT NULL
+            GROUP BY b.link_id
+        ) e
+        WHERE l.id = e.link_id
+    """, rangeParams(afterTxId, upToTxId, EngagementEventType.CLICK));
+  }
+
+  /**
+   * Build the partition table name for a day, e.g. {@code engagement_events_p20260131}.
+   *
+   * @param day the day
+   * @return the partition table name
+   */
+  public static String partitionName(LocalDate day) {
+    return TABLE + "_p" + day.format(PARTITION_SUFFIX);
+  }
+
+  /**
+   * Parse the day back out of a partition table name.
+   *
+   * @param partitionName the partition table name
+   * @return the day, or null if the name does not follow the daily naming scheme
+   */
+  public static LocalDate partitionDay(String partitionName) {
+    String prefix = TABLE + "_p";
+    if (partitionName == null || !partitionName.startsWith(prefix)) {
+      return null;
+    }
+    try {
+      return LocalDate.parse(partitionName.substring(prefix.length()), PARTITION_SUFFIX);
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  private MapSqlParameterSource rangeParams(long afterTxId, long upToTxId, EngagementEventType type) {
+    return new MapSqlParameterSource()
+        .addValue("afterTxId", afterTxId)
+        .addValue("upToTxId", upToTxId)
+        .addValue("type", type.getCode());
+  }
+}
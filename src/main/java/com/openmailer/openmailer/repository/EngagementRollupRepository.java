@@ -0,0 +1,270 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.model.EngagementEventType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Repository maintaining the engagement rollup tables.
+ *
+ * NOTE:
+ * - {@code engagement_rollups_hourly} and {@code engagement_rollups_daily} hold counters per
+ *   (campaign, bucket) with the owning user denormalized for account-wide queries
+ * - Counters are only ever added to, so concurrent writers upsert with
+ *   {@code ON CONFLICT ... DO UPDATE SET x = x + EXCLUDED.x}
+ * - A unique open/click is a recipient's first ever open/click, so unique counters
+ *   can be summed across buckets and compacted without losing exactness
+ * - Every increment is also added to the user's row in {@code dashboard_snapshots}
+ *   (see {@link DashboardSnapshotRepository}) by the same statement; increments outside the
+ *   event projection take the snapshot's user lock first
+ * - Reads live in {@link CampaignAnalyticsRepository}
+ */
+@Repository
+public class EngagementRollupRepository {
+
+  public static final String HOURLY_TABLE = "engagement_rollups_hourly";
+  public static final String DAILY_TABLE = "engagement_rollups_daily";
+
+  private static final String COUNTER_COLUMNS =
+      "sends, opens, unique_opens, clicks, unique_clicks, bounces, complaints";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public EngagementRollupRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Create the hourly and daily rollup tables and their indexes.
+   */
+  public void createSchemaIfMissing() {
+    for (String table : new String[] {HOURLY_TABLE, DAILY_TABLE}) {
+      jdbcTemplate.getJdbcTemplate().execute("""
+          CREATE TABLE IF NOT EXISTS %s (
+              campaign_id VARCHAR(50) NOT NULL,
+              bucket_start TIMESTAMP NOT NULL,
+              user_id VARCHAR(50) NOT NULL,
+              sends BIGINT NOT NULL DEFAULT 0,
+              opens BIGINT NOT NULL DEFAULT 0,
+              unique_opens BIGINT NOT NULL DEFAULT 0,
+              clicks BIGINT NOT NULL DEFAULT 0,
+              unique_clicks BIGINT NOT NULL DEFAULT 0,
+              bounces BIGINT NOT NULL DEFAULT 0,
+              complaints BIGINT NOT NULL DEFAULT 0,
+              PRIMARY KEY (campaign_id, bucket_start)
+          )
+      """.formatted(table));
+      jdbcTemplate.getJdbcTemplate().execute(
+          "CREATE INDEX IF NOT EXISTS idx_" + table + "_user ON " + table + " (user_id, bucket_start)");
+    }
+  }
+
+  /**
+   * Check whether the rollups have been seeded yet.
+   *
+   * @return true if either rollup table has rows
+   */
+  public boolean hasRows() {
+    Boolean present = jdbcTemplate.getJdbcTemplate().queryForObject(
+        "SELECT EXISTS (SELECT 1 FROM " + HOURLY_TABLE + ") OR EXISTS (SELECT 1 FROM " + DAILY_TABLE + ")",
+        Boolean.class);
+    return Boolean.TRUE.equals(present);
+  }
+
+  /**
+   * Seed the hourly rollups from the timestamps and counters already stored on
+   * {@code campaign_recipients}. Must run while the recipient projection cursor is
+   * locked, so events applied later are not counted twice.
+   *
+   * @return number of rollup rows written
+   */
+  public int seedFromRecipients() {
+    return jdbcTemplate.getJdbcTemplate().update("""
+        INSERT INTO engagement_rollups_hourly (campaign_id, bucket_start, user_id, %s)
+        SELECT s.campaign_id, s.bucket_start, c.user_id,
+               SUM(s.sends), SUM(s.opens), SUM(s.unique_opens), SUM(s.clicks),
+               SUM(s.unique_clicks), SUM(s.bounces), SUM(s.complaints)
+        FROM (
+            SELECT r.campaign_id, date_trunc('hour', v.at) AS bucket_start,
+                   COUNT(*) FILTER (WHERE v.kind = 'send') AS sends,
+                   COALESCE(SUM(r.open_count) FILTER (WHERE v.kind = 'open'), 0) AS opens,
+                   COUNT(*) FILTER (WHERE v.kind = 'open') AS unique_opens,
+                   COALESCE(SUM(r.click_count) FILTER (WHERE v.kind = 'click'), 0) AS clicks,
+                   COUNT(*) FILTER (WHERE v.kind = 'click') AS unique_clicks,
+                   COUNT(*) FILTER (WHERE v.kind = 'bounce') AS bounces,
+                   COUNT(*) FILTER (WHERE v.kind = 'complaint') AS complaints
+            FROM campaign_recipients r
+            CROSS JOIN LATERAL (VALUES
+                ('send', r.sent_at), ('open', r.opened_at), ('click', r.clicked_at),
+                ('bounce', r.bounced_at), ('complaint', r.complained_at)
+            ) AS v(kind, at)
+            WHERE v.at IS NOT NULL
+            GROUP BY r.campaign_id, date_trunc('hour', v.at)
+        ) s
+        JOIN email_campaigns c ON c.id = s.campaign_id
+        GROUP BY s.campaign_id, s.bucket_start, c.user_id
+        ON CONFLICT (campaign_id, bucket_start) DO NOTHING
+    """.formatted(COUNTER_COLUMNS));
+  }
+
+  /**
+   * Fold a transaction ID range of engagement events into the hourly rollups and dashboard snapshots.
+   * Must run before the same range is applied to {@code campaign_recipients}: an event is a
+   * unique open/click when it is the recipient's first of its type in the range and the
+   * recipient had no open/click recorded yet.
+   *
+   * @param afterTxId exclusive lower transaction ID
+   * @param upToTxId inclusive upper transaction ID
+   * @return number of rollup rows written
+   */
+  public int applyEvents(long afterTxId, long upToTxId) {
+    return jdbcTemplate.update("""
+        WITH batch AS (
+            SELECT a.campaign_id, a.bucket_start, c.user_id, a.opens, a.unique_opens, a.clicks, a.unique_clicks
+            FROM (
+                SELECT e.campaign_id, date_trunc('hour', e.occurred_at) AS bucket_start,
+                       COUNT(*) FILTER (WHERE e.event_type = :open) AS opens,
+                       COUNT(*) FILTER (WHERE e.event_type = :open AND e.first_of_type AND r.opened_at IS NULL) AS unique_opens,
+                       COUNT(*) FILTER (WHERE e.event_type = :click) AS clicks,
+                       COUNT(*) FILTER (WHERE e.event_type = :click AND e.first_of_type AND r.clicked_at IS NULL) AS unique_clicks
+                FROM (
+                    SELECT ev.campaign_id, ev.recipient_id, ev.event_type, ev.occurred_at,
+                           ev.recipient_id IS NOT NULL
+                               AND ROW_NUMBER() OVER (PARTITION BY ev.recipient_id, ev.event_type ORDER BY ev.id) = 1 AS first_of_type
+                    FROM engagement_events ev
+                    WHERE ev.tx_id > :afterTxId AND ev.tx_id <= :upToTxId
+                ) e
+                LEFT JOIN campaign_recipients r ON r.id = e.recipient_id
+                GROUP BY e.campaign_id, date_trunc('hour', e.occurred_at)
+            ) a
+            JOIN email_campaigns c ON c.id = a.campaign_id
+        ), snapshots AS (
+            UPDATE dashboard_snapshots s
+            SET unique_opens = s.unique_opens + u.unique_opens,
+                unique_clicks = s.unique_clicks + u.unique_clicks,
+                updated_at = now()
+            FROM (
+                SELECT user_id, SUM(unique_opens) AS unique_opens, SUM(unique_clicks) AS unique_clicks
+                FROM batch
+                GROUP BY user_id
+                HAVING SUM(unique_opens) > 0 OR SUM(unique_clicks) > 0
+            ) u
+            WHERE s.user_id = u.user_id
+        )
+        INSERT INTO engagement_rollups_hourly (campaign_id, bucket_start, user_id, opens, unique_opens, clicks, unique_clicks)
+        SELECT campaign_id, bucket_start, user_id, opens, unique_opens, clicks, unique_clicks
+        FROM batch
+        ON CONFLICT (campaign_id, bucket_start) DO UPDATE SET
+            opens = engagement_rollups_hourly.opens + EXCLUDED.opens,
+            unique_opens = engagement_rollups_hourly.unique_opens + EXCLUDED.unique_opens,
+            clicks = engagement_rollups_hourly.clicks + EXCLUDED.clicks,
+            unique_clicks = engagement_rollups_hourly.unique_clicks + EXCLUDED.unique_clicks
+    """, new MapSqlParameterSource()
+        .addValue("afterTxId", afterTxId)
+        .addValue("upToTxId", upToTxId)
+        .addValue("open", EngagementEventType.OPEN.getCode())
+        .addValue("click", EngagementEventType.CLICK.getCode()));
+  }
+
+  /**
+   * Add sends to a campaign's hourly bucket.
+   *
+   * @param campaignId the campaign ID
+   * @param at when the emails were sent
+   * @param count number of emails sent
+   */
+  @Transactional
+  public void addSends(String campaignId, LocalDateTime at, long count) {
+    addToCounter("sends", campaignId, at, count);
+  }
+
+  /**
+   * Add a bounce to a campaign's hourly bucket.
+   *
+   * @param campaignId the campaign ID
+   * @param at when the bounce was recorded
+   */
+  @Transactional
+  public void addBounce(String campaignId, LocalDateTime at) {
+    addToCounter("bounces", campaignId, at, 1);
+  }
+
+  /**
+   * Add a complaint to a campaign's hourly bucket.
+   *
+   * @param campaignId the campaign ID
+   * @param at when the complaint was recorded
+   */
+  @Transactional
+  public void addComplaint(String campaignId, LocalDateTime at) {
+    addToCounter("complaints", campaignId, at, 1);
+  }
+
+  /**
+   * Move hourly rows older than a cutoff into daily buckets in one statement.
+   *
+   * @param cutoff hourly buckets starting before this time are compacted
+   * @return number of daily rows written
+   */
+  public int compactHourlyBefore(LocalDateTime cutoff) {
+    return jdbcTemplate.update("""
+        WITH moved AS (
+            DELETE FROM engagement_rollups_hourly
+            WHERE bucket_start < :cutoff
+            RETURNING *
+        )
+        INSERT INTO engagement_rollups_daily (campaign_id, bucket_start, user_id, %1$s)
+        SELECT campaign_id, date_trunc('day', bucket_start), MIN(user_id),
+               SUM(sends), SUM(opens), SUM(unique_opens), SUM(clicks),
+               SUM(unique_clicks), SUM(bounces), SUM(complaints)
+        FROM moved
+        GROUP BY campaign_id, date_trunc('day', bucket_start)
+        ON CONFLICT (campaign_id, bucket_start) DO UPDATE SET
+            sends = engagement_rollups_daily.sends + EXCLUDED.sends,
+            opens = engagement_rollups_daily.opens + EXCLUDED.opens,
+            unique_opens = engagement_rollups_daily.unique_opens + EXCLUDED.unique_opens,
+            clicks = engagement_rollups_daily.clicks + EXCLUDED.clicks,
+            unique_clicks = engagement_rollups_daily.unique_clicks + EXCLUDED.unique_clicks,
+            bounces = engagement_rollups_daily.bounces + EXCLUDED.bounces,
+            complaints = engagement_rollups_daily.complaints + EXCLUDED.complaints
+    """.formatted(COUNTER_COLUMNS), new MapSqlParameterSource("cutoff", Timestamp.valueOf(cutoff)));
+  }
+
+  /**
+   * Add to one counter of a campaign's hourly bucket and of its user's dashboard snapshot.
+   * The owning user is read from the campaign, so callers only need the campaign ID.
+   * The user's snapshot lock is taken in a separate statement, so the update runs with a
+   * snapshot that includes a row created while it waited.
+   *
+   * @param column one of the fixed counter column names, present in both tables
+   */
+  private void addToCounter(String column, String campaignId, LocalDateTime at, long count) {
+    jdbcTemplate.query("SELECT %s FROM email_campaigns WHERE id = :campaignId"
+        .formatted(DashboardSnapshotRepository.USER_LOCK.formatted("user_id")),
+        new MapSqlParameterSource("campaignId", campaignId), rs -> { });
+    jdbcTemplate.update("""
+        WITH campaign AS (
+            SELECT id, user_id FROM email_campaigns WHERE id = :campaignId
+        ), snapshots AS (
+            UPDATE dashboard_snapshots s
+            SET %1$s = s.%1$s + :count, updated_at = now()
+            FROM campaign c
+            WHERE s.user_id = c.user_id
+        )
+        INSERT INTO engagement_rollups_hourly (campaign_id, bucket_start, user_id, %1$s)
+        SELECT c.id, :bucketStart, c.user_id, :count
+        FROM campaign c
+        ON CONFLICT (campaign_id, bucket_start) DO UPDATE SET
+            %1$s = engagement_rollups_hourly.%1$s + EXCLUDED.%1$s
+    """.formatted(column), new MapSqlParameterSource()
+        .addValue("campaignId", campaignId)
+        .addValue("bucketStart", Timestamp.valueOf(at.truncatedTo(ChronoUnit.HOURS)))
+        .addValue("count", count));
+  }
+}
@@ -0,0 +1,210 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.model.EngagementEventType;
+import com.openmailer.openmailer.repository.projection.EngagementSketchKey;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Repository for daily HyperLogLog sketches of unique engaged recipients.
+ *
+ * NOTE:
+ * - {@code engagement_sketches} holds one serialized sketch per (campaign, link, event type, day);
+ *   campaign-wide sketches use an empty link ID
+ * - Sketches are read, merged in memory and written back by the single projection consumer,
+ *   so writes need no merge in SQL
+ */
+@Repository
+public class EngagementSketchRepository {
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public EngagementSketchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Create the sketch table.
+   */
+  public void createSchemaIfMissing() {
+    jdbcTemplate.getJdbcTemplate().execute("""
+        CREATE TABLE IF NOT EXISTS engagement_sketches (
+            campaign_id VARCHAR(50) NOT NULL,
+            event_type SMALLINT NOT NULL,
+            link_id VARCHAR(50) NOT NULL DEFAULT '',
+            bucket_day DATE NOT NULL,
+            sketch BYTEA NOT NULL,
+            PRIMARY KEY (campaign_id, event_type, link_id, bucket_day)
+        )
+    """);
+  }
+
+  /**
+   * Check whether any sketch has been stored yet.
+   *
+   * @return true if the sketch table has rows
+   */
+  public boolean hasRows() {
+    Boolean present = jdbcTemplate.getJdbcTemplate().queryForObject(
+        "SELECT EXISTS (SELECT 1 FROM engagement_sketches)", Boolean.class);
+    return Boolean.TRUE.equals(present);
+  }
+
+  /**
+   * Stream the distinct (campaign, link, type, day, recipient) tuples of a transaction ID range,
+   * ordered by campaign and day so callers can flush as they go.
+   * Anonymous events are skipped because they cannot be attributed to a recipient.
+   *
+   * @param afterTxId exclusive lower transaction ID
+   * @param upToTxId inclusive upper transaction ID
+   * @param handler receives the link-level key and the recipient ID of each tuple
+   */
+  public void streamEventRecipients(long afterTxId, long upToTxId, BiConsumer<EngagementSketchKey, String> handler) {
+    jdbcTemplate.query("""
+        SELECT DISTINCT campaign_id, COALESCE(link_id, '') AS link_id, event_type,
+               occurred_at::date AS bucket_day, recipient_id
+        FROM engagement_events
+        WHERE tx_id > :afterTxId AND tx_id <= :upToTxId AND recipient_id IS NOT NULL
+        ORDER BY campaign_id, bucket_day, link_id, event_type
+    """, new MapSqlParameterSource()
+        .addValue("afterTxId", afterTxId)
+        .addValue("upToTxId", upToTxId), rs -> {
+          handler.accept(new EngagementSketchKey(
+              rs.getString("campaign_id"),
+              rs.getString("link_id"),
+              rs.getInt("event_type"),
+              rs.getDate("bucket_day").toLocalDate()), rs.getString("recipient_id"));
+        });
+  }
+
+  /**
+   * Stream first opens and first clicks recorded on {@code campaign_recipients}, and link clicks
+   * recorded in {@code campaign_clicks}, ordered by campaign and day so callers can flush as they go.
+   *
+   * @param handler receives the key and the recipient ID of each tuple
+   */
+  public void streamRecordedRecipients(BiConsumer<EngagementSketchKey, String> handler) {
+    jdbcTemplate.query("""
+        SELECT campaign_id, link_id, event_type, bucket_day, recipient_id
+        FROM (
+            SELECT r.campaign_id, '' AS link_id, :open AS event_type, r.opened_at::date AS bucket_day, r.id AS recipient_id
+            FROM campaign_recipients r
+            WHERE r.opened_at IS NOT NULL
+            UNION ALL
+            SELECT r.campaign_id, '', :click, r.clicked_at::date, r.id
+            FROM campaign_recipients r
+            WHERE r.clicked_at IS NOT NULL
+            UNION ALL
+            SELECT c.campaign_id, c.link_id, :click, c.clicked_at::date, c.recipient_id
+            FROM campaign_clicks c
+        ) recorded
+        ORDER BY campaign_id, bucket_day
+    """, new MapSqlParameterSource()
+        .addValue("open", EngagementEventType.OPEN.getCode())
+        .addValue("click", EngagementEventType.CLICK.getCode()), rs -> {
+          handler.accept(new EngagementSketchKey(
+              rs.getString("campaign_id"),
+              rs.getString("link_id"),
+              rs.getInt("event_type"),
+              rs.getDate("bucket_day").toLocalDate()), rs.getString("recipient_id"));
+        });
+  }
+
+  /**
+   * Load the stored sketches for a set of keys.
+   *
+   * @param keys the sketch keys
+   * @return serialized sketches by key; keys without a stored sketch are absent
+   */
+  public Map<EngagementSketchKey, byte[]> findByKeys(Collection<EngagementSketchKey> keys) {
+    Map<EngagementSketchKey, byte[]> sketches = new HashMap<>();
+    if (keys.isEmpty()) {
+      return sketches;
+    }
+
+    LocalDate from = keys.stream().map(EngagementSketchKey::day).min(LocalDate::compareTo).orElseThrow();
+    LocalDate to = keys.stream().map(EngagementSketchKey::day).max(LocalDate::compareTo).orElseThrow();
+    jdbcTemplate.query("""
+        SELECT campaign_id, link_id, event_type, bucket_day, sketch
+        FROM engagement_sketches
+        WHERE campaign_id IN (:campaignIds) AND bucket_day BETWEEN :from AND :to
+    """, new MapSqlParameterSource()
+        .addValue("campaignIds", keys.stream().map(EngagementSketchKey::campaignId).distinct().toList())
+        .addValue("from", Date.valueOf(from))
+        .addValue("to", Date.valueOf(to)), rs -> {
+          EngagementSketchKey key = new EngagementSketchKey(
+              rs.getString("campaign_id"),
+              rs.getString("link_id"),
+              rs.getInt("event_type"),
+              rs.getDate("bucket_day").toLocalDate());
+          if (keys.contains(key)) {
+            sketches.put(key, rs.getBytes("sketch"));
+          }
+        });
+    return sketches;
+  }
+
+  /**
+   * Insert or replace sketches with a single JDBC batch.
+   *
+   * @param sketches serialized sketches by key
+   */
+  public void saveAll(Map<EngagementSketchKey, byte[]> sketches) {
+    SqlParameterSource[] batch = sketches.entrySet().stream()
+        .map(entry -> new MapSqlParameterSource()
+            .addValue("campaignId", entry.getKey().campaignId())
+            .addValue("linkId", entry.getKey().linkId())
+            .addValue("type", entry.getKey().eventType())
+            .addValue("day", Date.valueOf(entry.getKey().day()))
+            .addValue("sketch", entry.getValue()))
+        .toArray(SqlParameterSource[]::new);
+
+    jdbcTemplate.batchUpdate("""
+        INSERT INTO engagement_sketches (campaign_id, event_type, link_id, bucket_day, sketch)
+        VALUES (:campaignId, :type, :linkId, :day, :sketch)
+        ON CONFLICT (campaign_id, event_type, link_id, bucket_day) DO UPDATE SET sketch = EXCLUDED.sketch
+    """, batch);
+  }
+
+  /**
+   * Load the daily sketches of a campaign for one event type and day range.
+   *
+   * @param campaignId the campaign ID
+   * @param type the event type
+   * @param linkWide true for per-link sketches, false for campaign-wide sketches
+   * @param from first day, inclusive
+   * @param to last day, inclusive
+   * @return serialized sketches grouped by link ID (empty link ID for campaign-wide sketches)
+   */
+  public Map<String, List<byte[]>> findRange(
+      String campaignId, EngagementEventType type, boolean linkWide, LocalDate from, LocalDate to) {
+    Map<String, List<byte[]>> sketches = new HashMap<>();
+    jdbcTemplate.query("""
+        SELECT link_id, sketch
+        FROM engagement_sketches
+        WHERE campaign_id = :campaignId
+          AND event_type = :type
+          AND (link_id = '') <> :linkWide
+          AND bucket_day BETWEEN :from AND :to
+    """, new MapSqlParameterSource()
+        .addValue("campaignId", campaignId)
+        .addValue("type", type.getCode())
+        .addValue("linkWide", linkWide)
+        .addValue("from", Date.valueOf(from))
+        .addValue("to", Date.valueOf(to)), rs -> {
+          sketches.computeIfAbsent(rs.getString("link_id"), id -> new ArrayList<>()).add(rs.getBytes("sketch"));
+        });
+    return sketches;
+  }
+}
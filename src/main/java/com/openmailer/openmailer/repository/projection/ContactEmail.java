@@ -0,0 +1,13 @@
+package com.openmailer.openmailer.repository.projection;
+
+/**
+ * A contact's ID and email, read in batches by jobs that only check addresses.
+ *
+ * @param emailKey the lower-cased email the batches are ordered by
+ */
+public record ContactEmail(
+    String id,
+    String email,
+    String emailKey
+) {
+}
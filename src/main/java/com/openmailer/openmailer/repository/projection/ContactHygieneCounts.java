@@ -0,0 +1,15 @@
+package com.openmailer.openmailer.repository.projection;
+
+/**
+ * A user's contact counts used for list hygiene statistics.
+ *
+ * @param highBounce contacts that bounced at least twice
+ */
+public record ContactHygieneCounts(
+    long total,
+    long subscribed,
+    long bounced,
+    long unsubscribed,
+    long highBounce
+) {
+}
@@ -0,0 +1,159 @@
+package com.openmailer.openmailer.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A contact import job and its progress, persisted after every committed chunk.
+ */
+public class ContactImportJob {
+
+  private String jobId;
+  private String userId;
+  private String listId;
+  private boolean skipDuplicates;
+  private String status;
+  /** Size of the staged file in bytes. */
+  private long fileSize;
+  /** Bytes received so far while the file is uploaded in parts; not persisted. */
+  private long uploadedBytes;
+  /** Byte offset after the last committed chunk; the import resumes from here. */
+  private long processedBytes;
+  private int totalRows;
+  private int importedCount;
+  private int skippedCount;
+  private int errorCount;
+  private LocalDateTime startedAt;
+  private LocalDateTime updatedAt;
+  private LocalDateTime completedAt;
+  private List<String> errors = new ArrayList<>();
+
+  public String getJobId() {
+    return jobId;
+  }
+
+  public void setJobId(String jobId) {
+    this.jobId = jobId;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  public void setUserId(String userId) {
+    this.userId = userId;
+  }
+
+  public String getListId() {
+    return listId;
+  }
+
+  public void setListId(String listId) {
+    this.listId = listId;
+  }
+
+  public boolean isSkipDuplicates() {
+    return skipDuplicates;
+  }
+
+  public void setSkipDuplicates(boolean skipDuplicates) {
+    this.skipDuplicates = skipDuplicates;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus(String status) {
+    this.status = status;
+  }
+
+  public long getFileSize() {
+    return fileSize;
+  }
+
+  public void setFileSize(long fileSize) {
+    this.fileSize = fileSize;
+  }
+
+  public long getUploadedBytes() {
+    return uploadedBytes;
+  }
+
+  public void setUploadedBytes(long uploadedBytes) {
+    this.uploadedBytes = uploadedBytes;
+  }
+
+  public long getProcessedBytes() {
+    return processedBytes;
+  }
+
+  public void setProcessedBytes(long processedBytes) {
+    this.processedBytes = processedBytes;
+  }
+
+  public int getTotalRows() {
+    return totalRows;
+  }
+
+  public void setTotalRows(int totalRows) {
+    this.totalRows = totalRows;
+  }
+
+  public int getImportedCount() {
+    return importedCount;
+  }
+
+  public void setImportedCount(int importedCount) {
+    this.importedCount = importedCount;
+  }
+
+  public int getSkippedCount() {
+    return skippedCount;
+  }
+
+  public void setSkippedCount(int skippedCount) {
+    this.skippedCount = skippedCount;
+  }
+
+  public int getErrorCount() {
+    return errorCount;
+  }
+
+  public void setErrorCount(int errorCount) {
+    this.errorCount = errorCount;
+  }
+
+  public LocalDateTime getStartedAt() {
+    return startedAt;
+  }
+
+  public void setStartedAt(LocalDateTime startedAt) {
+    this.startedAt = startedAt;
+  }
+
+  public LocalDateTime getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(LocalDateTime updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  public LocalDateTime getCompletedAt() {
+    return completedAt;
+  }
+
+  public void setCompletedAt(LocalDateTime completedAt) {
+    this.completedAt = completedAt;
+  }
+
+  public List<String> getErrors() {
+    return errors;
+  }
+
+  public void setErrors(List<String> errors) {
+    this.errors = errors;
+  }
+}
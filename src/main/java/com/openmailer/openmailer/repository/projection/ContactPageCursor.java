@@ -0,0 +1,42 @@
+package com.openmailer.openmailer.repository.projection;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the contacts list: the sort key of the last row of a page.
+ * Encoded as an opaque URL-safe token for page links.
+ */
+public record ContactPageCursor(LocalDateTime sortDate, String id) {
+
+  public static ContactPageCursor of(ContactSummaryRow row) {
+    return new ContactPageCursor(row.sortDate(), row.id());
+  }
+
+  public String encode() {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((sortDate + "|" + id).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @param token a token from {@link #encode()}
+   * @return the cursor, or null if the token is blank or malformed
+   */
+  public static ContactPageCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return null;
+    }
+    try {
+      String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int separator = value.indexOf('|');
+      if (separator < 0) {
+        return null;
+      }
+      return new ContactPageCursor(LocalDateTime.parse(value.substring(0, separator)), value.substring(separator + 1));
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.openmailer.openmailer.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the contacts list, with the key it is sorted by.
+ *
+ * @param sortDate when the contact subscribed, or was created if it never subscribed
+ */
+public record ContactSummaryRow(
+    String id,
+    String email,
+    String firstName,
+    String lastName,
+    String status,
+    String[] tags,
+    String company,
+    LocalDateTime sortDate
+) {
+}
@@ -0,0 +1,176 @@
+package com.openmailer.openmailer.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-user dashboard totals: exact engagement counters maintained incrementally,
+ * plus the account's object counts read in the same statement.
+ * A mutable class rather than a record so it round-trips through the typed JSON cache.
+ */
+public class DashboardSnapshot {
+
+  /** When the engagement totals last changed; null before the snapshot row exists. */
+  private LocalDateTime updatedAt;
+  /** When the snapshot was read from the database. */
+  private LocalDateTime loadedAt;
+  private long completedCampaigns;
+  private long totalRecipients;
+  private long sends;
+  private long uniqueOpens;
+  private long uniqueClicks;
+  private long bounces;
+  private long complaints;
+  private long campaigns;
+  private long draftCampaigns;
+  private long scheduledCampaigns;
+  private long sendingCampaigns;
+  private long contacts;
+  private long subscribedContacts;
+  private long templates;
+  private long activeProviders;
+  private long verifiedDomains;
+
+  public LocalDateTime getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(LocalDateTime updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  public LocalDateTime getLoadedAt() {
+    return loadedAt;
+  }
+
+  public void setLoadedAt(LocalDateTime loadedAt) {
+    this.loadedAt = loadedAt;
+  }
+
+  public long getCompletedCampaigns() {
+    return completedCampaigns;
+  }
+
+  public void setCompletedCampaigns(long completedCampaigns) {
+    this.completedCampaigns = completedCampaigns;
+  }
+
+  public long getTotalRecipients() {
+    return totalRecipients;
+  }
+
+  public void setTotalRecipients(long totalRecipients) {
+    this.totalRecipients = totalRecipients;
+  }
+
+  public long getSends() {
+    return sends;
+  }
+
+  public void setSends(long sends) {
+    this.sends = sends;
+  }
+
+  public long getUniqueOpens() {
+    return uniqueOpens;
+  }
+
+  public void setUniqueOpens(long uniqueOpens) {
+    this.uniqueOpens = uniqueOpens;
+  }
+
+  public long getUniqueClicks() {
+    return uniqueClicks;
+  }
+
+  public void setUniqueClicks(long uniqueClicks) {
+    this.uniqueClicks = uniqueClicks;
+  }
+
+  public long getBounces() {
+    return bounces;
+  }
+
+  public void setBounces(long bounces) {
+    this.bounces = bounces;
+  }
+
+  public long getComplaints() {
+    return complaints;
+  }
+
+  public void setComplaints(long complaints) {
+    this.complaints = complaints;
+  }
+
+  public long getCampaigns() {
+    return campaigns;
+  }
+
+  public void setCampaigns(long campaigns) {
+    this.campaigns = campaigns;
+  }
+
+  public long getDraftCampaigns() {
+    return draftCampaigns;
+  }
+
+  public void setDraftCampaigns(long draftCampaigns) {
+    this.draftCampaigns = draftCampaigns;
+  }
+
+  public long getScheduledCampaigns() {
+    return scheduledCampaigns;
+  }
+
+  public void setScheduledCampaigns(long scheduledCampaigns) {
+    this.scheduledCampaigns = scheduledCampaigns;
+  }
+
+  public long getSendingCampaigns() {
+    return sendingCampaigns;
+  }
+
+  public void setSendingCampaigns(long sendingCampaigns) {
+    this.sendingCampaigns = sendingCampaigns;
+  }
+
+  public long getContacts() {
+    return contacts;
+  }
+
+  public void setContacts(long contacts) {
+    this.contacts = contacts;
+  }
+
+  public long getSubscribedContacts() {
+    return subscribedContacts;
+  }
+
+  public void setSubscribedContacts(long subscribedContacts) {
+    this.subscribedContacts = subscribedContacts;
+  }
+
+  public long getTemplates() {
+    return templates;
+  }
+
+  public void setTemplates(long templates) {
+    this.templates = templates;
+  }
+
+  public long getActiveProviders() {
+    return activeProviders;
+  }
+
+  public void setActiveProviders(long activeProviders) {
+    this.activeProviders = activeProviders;
+  }
+
+  public long getVerifiedDomains() {
+    return verifiedDomains;
+  }
+
+  public void setVerifiedDomains(long verifiedDomains) {
+    this.verifiedDomains = verifiedDomains;
+  }
+}
@@ -0,0 +1,9 @@
+package com.openmailer.openmailer.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Opens and clicks that fall into one time bucket.
+ */
+public record EngagementBucket(LocalDateTime bucketStart, long opens, long clicks) {
+}
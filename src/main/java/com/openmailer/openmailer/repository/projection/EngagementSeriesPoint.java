@@ -0,0 +1,20 @@
+package com.openmailer.openmailer.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Engagement counters of one time-series bucket.
+ */
+public record EngagementSeriesPoint(
+    LocalDateTime bucketStart,
+    long opens,
+    long uniqueOpens,
+    long clicks,
+    long uniqueClicks,
+    long bounces
+) {
+
+  public static EngagementSeriesPoint empty(LocalDateTime bucketStart) {
+    return new EngagementSeriesPoint(bucketStart, 0, 0, 0, 0, 0);
+  }
+}
@@ -0,0 +1,12 @@
+package com.openmailer.openmailer.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Identifies one unique-recipient sketch: a campaign (or one of its links),
+ * an event type and a day. Campaign-wide sketches use {@link #CAMPAIGN_WIDE} as link ID.
+ */
+public record EngagementSketchKey(String campaignId, String linkId, int eventType, LocalDate day) {
+
+  public static final String CAMPAIGN_WIDE = "";
+}
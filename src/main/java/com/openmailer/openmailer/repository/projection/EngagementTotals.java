@@ -0,0 +1,20 @@
+package com.openmailer.openmailer.repository.projection;
+
+/**
+ * Engagement counters summed over rollup buckets.
+ * Unique opens and clicks count recipients, the other counters count events.
+ */
+public record EngagementTotals(
+    long sends,
+    long opens,
+    long uniqueOpens,
+    long clicks,
+    long uniqueClicks,
+    long bounces,
+    long complaints
+) {
+
+  public static EngagementTotals empty() {
+    return new EngagementTotals(0, 0, 0, 0, 0, 0, 0);
+  }
+}
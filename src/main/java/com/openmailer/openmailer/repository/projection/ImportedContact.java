@@ -0,0 +1,24 @@
+package com.openmailer.openmailer.repository.projection;
+
+/**
+ * A validated and normalized contact row from an import file.
+ * Null fields were absent or blank in the file and leave existing values untouched.
+ *
+ * @param id ID to use if the contact is new
+ * @param email lower-cased email address
+ * @param firstName first name
+ * @param lastName last name
+ * @param status upper-cased status
+ * @param source source
+ * @param customFields custom fields as a JSON object
+ */
+public record ImportedContact(
+    String id,
+    String email,
+    String firstName,
+    String lastName,
+    String status,
+    String source,
+    String customFields
+) {
+}
@@ -0,0 +1,13 @@
+package com.openmailer.openmailer.repository.projection;
+
+/**
+ * Minimal link columns needed to record a click and redirect.
+ */
+public interface LinkTrackingView {
+
+  String getId();
+
+  String getCampaignId();
+
+  String getOriginalUrl();
+}
@@ -0,0 +1,17 @@
+package com.openmailer.openmailer.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of a campaign's recipient-level report.
+ */
+public record RecipientReportRow(
+    String email,
+    String status,
+    LocalDateTime sentAt,
+    LocalDateTime openedAt,
+    LocalDateTime clickedAt,
+    LocalDateTime bouncedAt,
+    String errorMessage
+) {
+}
@@ -0,0 +1,11 @@
+package com.openmailer.openmailer.repository.projection;
+
+/**
+ * Minimal recipient columns needed to attribute a tracking event.
+ */
+public interface RecipientTrackingView {
+
+  String getId();
+
+  String getCampaignId();
+}
@@ -1,13 +1,18 @@
 package com.openmailer.openmailer.service.campaign;
 
-import com.openmailer.openmailer.model.CampaignClick;
-import com.openmailer.openmailer.model.CampaignRecipient;
+import com.openmailer.openmailer.exception.ResourceNotFoundException;
+import com.openmailer.openmailer.exception.ValidationException;
 import com.openmailer.openmailer.model.EmailCampaign;
-import com.openmailer.openmailer.repository.CampaignClickRepository;
-import com.openmailer.openmailer.repository.CampaignRecipientRepository;
+import com.openmailer.openmailer.repository.CampaignAnalyticsRepository;
+import com.openmailer.openmailer.repository.CampaignLinkRepository;
+import com.openmailer.openmailer.repository.projection.DashboardSnapshot;
+import com.openmailer.openmailer.repository.projection.EngagementSeriesPoint;
+import com.openmailer.openmailer.repository.projection.EngagementTotals;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,17 +33,29 @@ public class CampaignAnalyticsService {
     private static final Logger log = LoggerFactory.getLogger(CampaignAnalyticsService.class);
 
     private final CampaignService campaignService;
-    private final CampaignRecipientRepository recipientRepository;
-    private final CampaignClickRepository clickRepository;
+    private final CampaignAnalyticsRepository analyticsRepository;
+    private final CampaignLinkRepository linkRepository;
+    private final EngagementSketchService sketchService;
+    private final DashboardSnapshotService dashboardSnapshotService;
+    private final int timeSeriesMaxPoints;
+    private final int hourlyRetentionDays;
 
     @Autowired
     public CampaignAnalyticsService(
             CampaignService campaignService,
-            CampaignRecipientRepository recipientRepository,
-            CampaignClickRepository clickRepository) {
+            CampaignAnalyticsRepository analyticsRepository,
+            CampaignLinkRepository linkRepository,
+            EngagementSketchService sketchService,
+            DashboardSnapshotService dashboardSnapshotService,
+            @Value("${app.analytics.timeseries.max-points:500}") int timeSeriesMaxPoints,
+            @Value("${app.analytics.rollups.hourly-retention-days:14}") int hourlyRetentionDays) {
         this.campaignService = campaignService;
-        this.recipientRepository = recipientRepository;
-        this.clickRepository = clickRepository;
+        this.analyticsRepository = analyticsRepository;
+        this.linkRepository = linkRepository;
+        this.sketchService = sketchService;
+        this.dashboardSnapshotService = dashboardSnapshotService;
+        this.timeSeriesMaxPoints = timeSeriesMaxPoints;
+        this.hourlyRetentionDays = hourlyRetentionDays;
     }
 
     /**
@@ -58,17 +75,16 @@ public class CampaignAnalyticsService {
         analytics.setStatus(campaign.getStatus());
         analytics.setSentAt(campaign.getSentAt());
 
-        // Get all recipients
-        List<CampaignRecipient> recipients = recipientRepository.findByCampaignId(campaignId);
+        // Sum the campaign's engagement rollups
+        EngagementTotals totals = analyticsRepository.findCampaignTotals(campaignId);
 
-        // Calculate basic stats
-        long totalRecipients = recipients.size();
-        long sentCount = recipients.stream().filter(r -> "SENT".equals(r.getStatus())).count();
-        long deliveredCount = recipients.stream().filter(r -> r.getDeliveredAt() != null).count();
-        long openedCount = recipients.stream().filter(r -> r.getOpenedAt() != null).count();
-        long clickedCount = recipients.stream().filter(r -> r.getClickedAt() != null).count();
-        long bouncedCount = recipients.stream().filter(r -> "BOUNCED".equals(r.getStatus())).count();
-        long complainedCount = recipients.stream().filter(r -> r.getComplainedAt() != null).count();
+        long sentCount = totals.sends();
+        long totalRecipients = campaign.getTotalRecipients() != null ? campaign.getTotalRecipients() : sentCount;
+        long bouncedCount = totals.bounces();
+        long deliveredCount = Math.max(sentCount - bouncedCount, 0);
+        long openedCount = totals.uniqueOpens();
+        long clickedCount = totals.uniqueClicks();
+        long complainedCount = totals.complaints();
 
         analytics.setTotalRecipients(totalRecipients);
         analytics.setSentCount(sentCount);
@@ -106,6 +122,8 @@ public class CampaignAnalyticsService {
 
     /**
      * Gets analytics for multiple campaigns (dashboard overview).
+     * Totals come from the user's dashboard snapshot, so the number of queries
+     * does not depend on the number of campaigns.
      *
      * @param userId the user ID
      * @return dashboard analytics
@@ -114,42 +132,22 @@ public class CampaignAnalyticsService {
         log.info("Generating dashboard analytics for user: {}", userId);
 
         DashboardAnalytics analytics = new DashboardAnalytics();
+        DashboardSnapshot snapshot = dashboardSnapshotService.getSnapshot(userId);
 
-        List<EmailCampaign> campaigns = campaignService.findByUserId(userId);
-
-        long totalCampaigns = campaigns.size();
-        long completedCampaigns = campaigns.stream().filter(c -> "COMPLETED".equals(c.getStatus())).count();
-        long activeCampaigns = campaigns.stream().filter(c -> "SENDING".equals(c.getStatus())).count();
-
-        analytics.setTotalCampaigns(totalCampaigns);
-        analytics.setCompletedCampaigns(completedCampaigns);
-        analytics.setActiveCampaigns(activeCampaigns);
-
-        // Aggregate stats across all campaigns
-        long totalRecipients = 0;
-        long totalOpened = 0;
-        long totalClicked = 0;
-        long totalBounced = 0;
-
-        for (EmailCampaign campaign : campaigns) {
-            if (campaign.getTotalRecipients() != null) {
-                totalRecipients += campaign.getTotalRecipients();
-            }
-            if (campaign.getSentCount() != null && campaign.getOpenRate() != null) {
-                totalOpened += (long) (campaign.getSentCount() * campaign.getOpenRate().doubleValue() / 100);
-            }
-            if (campaign.getSentCount() != null && campaign.getClickRate() != null) {
-                totalClicked += (long) (campaign.getSentCount() * campaign.getClickRate().doubleValue() / 100);
-            }
-            if (campaign.getBounceRate() != null) {
-                totalBounced += (long) (campaign.getTotalRecipients() * campaign.getBounceRate().doubleValue() / 100);
-            }
-        }
+        analytics.setTotalCampaigns(snapshot.getCampaigns());
+        analytics.setCompletedCampaigns(snapshot.getCompletedCampaigns());
+        analytics.setActiveCampaigns(snapshot.getSendingCampaigns());
+
+        long totalRecipients = snapshot.getTotalRecipients();
+        long totalOpened = snapshot.getUniqueOpens();
+        long totalClicked = snapshot.getUniqueClicks();
+        long totalBounced = snapshot.getBounces();
 
         analytics.setTotalRecipients(totalRecipients);
         analytics.setTotalOpened(totalOpened);
         analytics.setTotalClicked(totalClicked);
         analytics.setTotalBounced(totalBounced);
+        analytics.setUpdatedAt(snapshot.getUpdatedAt());
 
         // Calculate average rates
         if (totalRecipients > 0) {
@@ -159,13 +157,7 @@ public class CampaignAnalyticsService {
         }
 
         // Get recent campaigns
-        analytics.setRecentCampaigns(campaigns.stream()
-                .sorted((a, b) -> {
-                    LocalDateTime aTime = a.getSentAt() != null ? a.getSentAt() : a.getCreatedAt();
-                    LocalDateTime bTime = b.getSentAt() != null ? b.getSentAt() : b.getCreatedAt();
-                    return bTime.compareTo(aTime);
-                })
-                .limit(5)
+        analytics.setRecentCampaigns(campaignService.findRecentByUserId(userId, 5).stream()
                 .map(c -> {
                     CampaignSummary summary = new CampaignSummary();
                     summary.setId(c.getId());
@@ -182,58 +174,114 @@ public class CampaignAnalyticsService {
     }
 
     /**
-     * Gets engagement timeline for a campaign (opens and clicks over time).
+     * Gets engagement timeline for a campaign (unique opens and clicks per day).
+     * Read from the rollups, so the result size depends on the number of days, not recipients.
+     *
+     * @param campaignId the campaign ID
+     * @return daily timeline points, oldest first
      */
-    private List<TimelinePoint> getEngagementTimeline(String campaignId) {
-        List<CampaignRecipient> recipients = recipientRepository.findByCampaignId(campaignId);
-
-        // Group by date
-        Map<LocalDate, TimelinePoint> timeline = new TreeMap<>();
-
-        for (CampaignRecipient recipient : recipients) {
-            if (recipient.getOpenedAt() != null) {
-                LocalDate date = recipient.getOpenedAt().toLocalDate();
-                TimelinePoint point = timeline.computeIfAbsent(date, d -> new TimelinePoint(d));
-                point.setOpens(point.getOpens() + 1);
-            }
-
-            if (recipient.getClickedAt() != null) {
-                LocalDate date = recipient.getClickedAt().toLocalDate();
-                TimelinePoint point = timeline.computeIfAbsent(date, d -> new TimelinePoint(d));
-                point.setClicks(point.getClicks() + 1);
-            }
-        }
-
-        return new ArrayList<>(timeline.values());
+    public List<TimelinePoint> getEngagementTimeline(String campaignId) {
+        return analyticsRepository.findEngagementBuckets(campaignId, "day")
+                .stream()
+                .map(bucket -> {
+                    TimelinePoint point = new TimelinePoint(bucket.bucketStart().toLocalDate());
+                    point.setOpens((int) bucket.opens());
+                    point.setClicks((int) bucket.clicks());
+                    return point;
+                })
+                .toList();
     }
 
     /**
      * Gets top clicked links for a campaign.
+     * Reads the per-link counters maintained from the engagement event store.
+     *
+     * @param campaignId the campaign ID
+     * @param limit maximum number of links
+     * @return links ordered by click count
      */
-    private List<LinkStats> getTopLinks(String campaignId, int limit) {
-        List<CampaignClick> clicks = clickRepository.findByCampaignId(campaignId);
-
-        Map<String, LinkStats> linkStatsMap = new HashMap<>();
-
-        for (CampaignClick click : clicks) {
-            String url = click.getLink().getOriginalUrl();
-            LinkStats stats = linkStatsMap.computeIfAbsent(url, u -> {
-                LinkStats ls = new LinkStats();
-                ls.setUrl(u);
-                ls.setClicks(0);
-                ls.setUniqueClicks(new HashSet<>());
-                return ls;
-            });
-
-            stats.setClicks(stats.getClicks() + 1);
-            stats.getUniqueClicks().add(click.getRecipient().getId());
+    public List<LinkStats> getTopLinks(String campaignId, int limit) {
+        return linkRepository.findTopClickedByCampaignId(campaignId, PageRequest.of(0, limit))
+                .stream()
+                .map(link -> {
+                    LinkStats stats = new LinkStats();
+                    stats.setUrl(link.getOriginalUrl());
+                    stats.setClicks(link.getClickCount() != null ? link.getClickCount() : 0);
+                    stats.setUniqueClickCount(link.getUniqueClickCount() != null ? link.getUniqueClickCount() : 0);
+                    return stats;
+                })
+                .toList();
+    }
+
+    /**
+     * Gets approximate unique opens and clicks of a campaign for a day range.
+     * Merges the daily HyperLogLog sketches, so memory and time depend on the
+     * number of days and links, not on the number of recipients.
+     *
+     * @param campaignId the campaign ID
+     * @param userId the user ID; the campaign must belong to this user
+     * @param from first day, inclusive
+     * @param to last day, inclusive
+     * @return unique engagement estimates
+     * @throws ResourceNotFoundException if the user has no such campaign
+     */
+    public UniqueEngagement getUniqueEngagement(String campaignId, String userId, LocalDate from, LocalDate to) {
+        campaignService.findByIdAndUserId(campaignId, userId);
+
+        UniqueEngagement engagement = new UniqueEngagement();
+        engagement.setFrom(from);
+        engagement.setTo(to);
+        engagement.setUniqueOpens(sketchService.estimateUniqueOpens(campaignId, from, to));
+        engagement.setUniqueClicks(sketchService.estimateUniqueClicks(campaignId, from, to));
+
+        Map<String, Long> linkClicks = sketchService.estimateUniqueClicksByLink(campaignId, from, to);
+        Map<String, Long> uniqueClicksByUrl = new LinkedHashMap<>();
+        linkRepository.findAllById(linkClicks.keySet()).forEach(link ->
+                uniqueClicksByUrl.put(link.getOriginalUrl(), linkClicks.get(link.getId())));
+        engagement.setUniqueClicksByUrl(uniqueClicksByUrl);
+        engagement.setStandardError(sketchService.getStandardError());
+        return engagement;
+    }
+
+    /**
+     * Gets an engagement time series for some campaigns, or for the whole account
+     * when no campaign IDs are given. The resolution is the finest one that keeps the
+     * number of points within the configured cap; ranges reaching past the hourly
+     * rollup retention start at daily resolution. Empty buckets are returned as zeros.
+     *
+     * @param userId the owner of the campaigns
+     * @param campaignIds campaign IDs to include, or empty for all of the user's campaigns
+     * @param from start of the range, inclusive
+     * @param to end of the range, exclusive
+     * @return the time series
+     */
+    public EngagementTimeSeries getEngagementTimeSeries(
+            String userId, Collection<String> campaignIds, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new ValidationException("The end of the range must be after its start", "to");
         }
 
-        return linkStatsMap.values().stream()
-                .sorted((a, b) -> Integer.compare(b.getClicks(), a.getClicks()))
-                .limit(limit)
-                .peek(stats -> stats.setUniqueClickCount(stats.getUniqueClicks().size()))
-                .toList();
+        LocalDateTime hourlyHorizon = LocalDate.now().minusDays(hourlyRetentionDays).atStartOfDay();
+        TimeSeriesResolution finest = from.isBefore(hourlyHorizon) ? TimeSeriesResolution.DAY : TimeSeriesResolution.HOUR;
+        TimeSeriesResolution resolution = TimeSeriesResolution.choose(from, to, finest, timeSeriesMaxPoints);
+        LocalDateTime start = resolution.truncate(from);
+
+        Map<LocalDateTime, EngagementSeriesPoint> buckets = new HashMap<>();
+        analyticsRepository.findEngagementSeries(userId, campaignIds, start, to, resolution.getUnit(), timeSeriesMaxPoints)
+                .forEach(point -> buckets.put(point.bucketStart(), point));
+
+        List<EngagementSeriesPoint> points = new ArrayList<>();
+        for (LocalDateTime bucket = start; bucket.isBefore(to) && points.size() < timeSeriesMaxPoints;
+                bucket = resolution.next(bucket)) {
+            points.add(buckets.getOrDefault(bucket, EngagementSeriesPoint.empty(bucket)));
+        }
+
+        EngagementTimeSeries series = new EngagementTimeSeries();
+        series.setFrom(from);
+        series.setTo(to);
+        series.setResolution(resolution);
+        series.setPoints(points);
+        return series;
     }
 
     /**
@@ -328,6 +376,7 @@ public class CampaignAnalyticsService {
         private double averageClickRate;
         private double averageBounceRate;
         private List<CampaignSummary> recentCampaigns;
+        private LocalDateTime updatedAt;
 
         // Getters and setters
         public long getTotalCampaigns() { return totalCampaigns; }
@@ -352,6 +401,8 @@ public class CampaignAnalyticsService {
         public void setAverageBounceRate(double averageBounceRate) { this.averageBounceRate = averageBounceRate; }
         public List<CampaignSummary> getRecentCampaigns() { return recentCampaigns; }
         public void setRecentCampaigns(List<CampaignSummary> recentCampaigns) { this.recentCampaigns = recentCampaigns; }
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+        public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     }
 
     /**
@@ -386,7 +437,6 @@ public class CampaignAnalyticsService {
     public static class LinkStats {
         private String url;
         private int clicks;
-        private Set<String> uniqueClicks;
         private int uniqueClickCount;
 
         // Getters and setters
@@ -394,12 +444,56 @@ public class CampaignAnalyticsService {
         public void setUrl(String url) { this.url = url; }
         public int getClicks() { return clicks; }
         public void setClicks(int clicks) { this.clicks = clicks; }
-        public Set<String> getUniqueClicks() { return uniqueClicks; }
-        public void setUniqueClicks(Set<String> uniqueClicks) { this.uniqueClicks = uniqueClicks; }
         public int getUniqueClickCount() { return uniqueClickCount; }
         public void setUniqueClickCount(int uniqueClickCount) { this.uniqueClickCount = uniqueClickCount; }
     }
 
+    /**
+     * Approximate unique engagement for a day range.
+     */
+    public static class UniqueEngagement {
+        private LocalDate from;
+        private LocalDate to;
+        private long uniqueOpens;
+        private long uniqueClicks;
+        private Map<String, Long> uniqueClicksByUrl;
+        private double standardError;
+
+        // Getters and setters
+        public LocalDate getFrom() { return from; }
+        public void setFrom(LocalDate from) { this.from = from; }
+        public LocalDate getTo() { return to; }
+        public void setTo(LocalDate to) { this.to = to; }
+        public long getUniqueOpens() { return uniqueOpens; }
+        public void setUniqueOpens(long uniqueOpens) { this.uniqueOpens = uniqueOpens; }
+        public long getUniqueClicks() { return uniqueClicks; }
+        public void setUniqueClicks(long uniqueClicks) { this.uniqueClicks = uniqueClicks; }
+        public Map<String, Long> getUniqueClicksByUrl() { return uniqueClicksByUrl; }
+        public void setUniqueClicksByUrl(Map<String, Long> uniqueClicksByUrl) { this.uniqueClicksByUrl = uniqueClicksByUrl; }
+        public double getStandardError() { return standardError; }
+        public void setStandardError(double standardError) { this.standardError = standardError; }
+    }
+
+    /**
+     * Engagement time series over a range.
+     */
+    public static class EngagementTimeSeries {
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private TimeSeriesResolution resolution;
+        private List<EngagementSeriesPoint> points;
+
+        // Getters and setters
+        public LocalDateTime getFrom() { return from; }
+        public void setFrom(LocalDateTime from) { this.from = from; }
+        public LocalDateTime getTo() { return to; }
+        public void setTo(LocalDateTime to) { this.to = to; }
+        public TimeSeriesResolution getResolution() { return resolution; }
+        public void setResolution(TimeSeriesResolution resolution) { this.resolution = resolution; }
+        public List<EngagementSeriesPoint> getPoints() { return points; }
+        public void setPoints(List<EngagementSeriesPoint> points) { this.points = points; }
+    }
+
     /**
      * Timeline point for engagement chart.
      */
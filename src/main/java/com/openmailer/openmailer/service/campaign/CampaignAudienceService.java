@@ -7,7 +7,7 @@ import com.openmailer.openmailer.model.Segment;
 import com.openmailer.openmailer.repository.ContactListRepository;
 import com.openmailer.openmailer.repository.ContactRepository;
 import com.openmailer.openmailer.service.contact.ContactListMembershipService;
-import com.openmailer.openmailer.service.contact.SegmentEvaluationService;
+import com.openmailer.openmailer.service.contact.SegmentQueryService;
 import com.openmailer.openmailer.service.contact.SegmentService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,20 +22,20 @@ public class CampaignAudienceService {
     private final ContactListMembershipService membershipService;
     private final ContactRepository contactRepository;
     private final SegmentService segmentService;
-    private final SegmentEvaluationService segmentEvaluationService;
+    private final SegmentQueryService segmentQueryService;
 
     public CampaignAudienceService(
         ContactListRepository contactListRepository,
         ContactListMembershipService membershipService,
         ContactRepository contactRepository,
         SegmentService segmentService,
-        SegmentEvaluationService segmentEvaluationService
+        SegmentQueryService segmentQueryService
     ) {
         this.contactListRepository = contactListRepository;
         this.membershipService = membershipService;
         this.contactRepository = contactRepository;
         this.segmentService = segmentService;
-        this.segmentEvaluationService = segmentEvaluationService;
+        this.segmentQueryService = segmentQueryService;
     }
 
     public AudiencePreflight evaluate(String userId, String listId, String segmentId) {
@@ -79,41 +79,53 @@ public class CampaignAudienceService {
             return AudiencePreflight.empty(segment != null, segment != null ? segment.getCachedCount() : null);
         }
 
-        List<String> activeMembershipContactIds = membershipService.getActiveContactIdsByList(list.getId());
-        List<Contact> activeContacts = loadContacts(activeMembershipContactIds);
-        List<Contact> subscribedContacts = activeContacts.stream()
-            .filter(contact -> "SUBSCRIBED".equals(contact.getStatus()))
-            .toList();
-        if (segment != null && segment.getContactList() != null && !segment.getContactList().getId().equals(list.getId())) {
+        if (segment == null) {
+            // No per-contact filtering needed, so count in the database instead of loading contacts
+            int activeMemberships = (int) membershipService.countActiveByList(list.getId());
+            int subscribed = (int) contactRepository.countByActiveListMembershipAndStatus(list.getId(), "SUBSCRIBED");
+            return new AudiencePreflight(
+                list.getId(),
+                list.getName(),
+                safeInt(list.getTotalContacts()),
+                activeMemberships,
+                subscribed,
+                activeMemberships - subscribed,
+                null,
+                false,
+                subscribed == 0,
+                null
+            );
+        }
+
+        // Segment conditions are evaluated in the database, so only counts are read
+        int activeMemberships = (int) membershipService.countActiveByList(list.getId());
+        if (segment.getContactList() != null && !segment.getContactList().getId().equals(list.getId())) {
             return new AudiencePreflight(
                 list.getId(),
                 list.getName(),
                 safeInt(list.getTotalContacts()),
-                activeMembershipContactIds.size(),
+                activeMemberships,
                 0,
-                activeContacts.size(),
+                activeMemberships,
                 segment.getCachedCount(),
                 true,
                 true,
                 segmentWarning(segment, list)
             );
         }
-        List<Contact> filteredContacts = segment != null
-            ? segmentEvaluationService.filterContacts(subscribedContacts, segment)
-            : subscribedContacts;
-        int suppressedContacts = activeContacts.size() - filteredContacts.size();
-        Integer estimatedSegmentSize = segment != null ? filteredContacts.size() : null;
+        int filteredContacts = (int) segmentQueryService.countSubscribedContacts(
+            list.getUser().getId(), list.getId(), segment);
 
         return new AudiencePreflight(
             list.getId(),
             list.getName(),
             safeInt(list.getTotalContacts()),
-            activeMembershipContactIds.size(),
-            filteredContacts.size(),
-            suppressedContacts,
-            estimatedSegmentSize,
-            segment != null,
-            filteredContacts.isEmpty(),
+            activeMemberships,
+            filteredContacts,
+            activeMemberships - filteredContacts,
+            filteredContacts,
+            true,
+            filteredContacts == 0,
             segmentWarning(segment, list)
         );
     }
@@ -126,14 +138,12 @@ public class CampaignAudienceService {
             return List.of();
         }
 
-        List<Contact> subscribedContacts = loadContacts(membershipService.getActiveContactIdsByList(list.getId())).stream()
-            .filter(contact -> "SUBSCRIBED".equals(contact.getStatus()))
-            .toList();
-
         if (segment == null) {
-            return subscribedContacts;
+            return loadContacts(membershipService.getActiveContactIdsByList(list.getId())).stream()
+                .filter(contact -> "SUBSCRIBED".equals(contact.getStatus()))
+                .toList();
         }
-        return segmentEvaluationService.filterContacts(subscribedContacts, segment);
+        return segmentQueryService.findSubscribedContacts(list.getUser().getId(), list.getId(), segment);
     }
 
     private List<Contact> loadContacts(List<String> contactIds) {
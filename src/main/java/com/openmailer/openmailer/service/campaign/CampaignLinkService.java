@@ -4,6 +4,7 @@ import com.openmailer.openmailer.exception.ResourceNotFoundException;
 import com.openmailer.openmailer.exception.ValidationException;
 import com.openmailer.openmailer.model.CampaignLink;
 import com.openmailer.openmailer.repository.CampaignLinkRepository;
+import com.openmailer.openmailer.repository.projection.LinkTrackingView;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -100,6 +101,19 @@ public class CampaignLinkService {
         .orElseThrow(() -> new ResourceNotFoundException("CampaignLink", "shortCode", shortCode));
   }
 
+  /**
+   * Find the columns needed to record a click for a short code.
+   *
+   * @param shortCode the short code
+   * @return the tracking view
+   * @throws ResourceNotFoundException if link not found
+   */
+  @Transactional(readOnly = true)
+  public LinkTrackingView findTrackingView(String shortCode) {
+    return linkRepository.findTrackingViewByShortCode(shortCode)
+        .orElseThrow(() -> new ResourceNotFoundException("CampaignLink", "shortCode", shortCode));
+  }
+
   /**
    * Find all links for a campaign.
    *
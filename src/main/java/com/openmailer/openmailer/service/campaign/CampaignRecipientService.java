@@ -4,6 +4,8 @@ import com.openmailer.openmailer.exception.ResourceNotFoundException;
 import com.openmailer.openmailer.exception.ValidationException;
 import com.openmailer.openmailer.model.CampaignRecipient;
 import com.openmailer.openmailer.repository.CampaignRecipientRepository;
+import com.openmailer.openmailer.repository.EngagementRollupRepository;
+import com.openmailer.openmailer.repository.projection.RecipientTrackingView;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -22,10 +24,14 @@ import java.util.List;
 public class CampaignRecipientService {
 
   private final CampaignRecipientRepository recipientRepository;
+  private final EngagementRollupRepository rollupRepository;
 
   @Autowired
-  public CampaignRecipientService(CampaignRecipientRepository recipientRepository) {
+  public CampaignRecipientService(
+      CampaignRecipientRepository recipientRepository,
+      EngagementRollupRepository rollupRepository) {
     this.recipientRepository = recipientRepository;
+    this.rollupRepository = rollupRepository;
   }
 
   /**
@@ -86,6 +92,19 @@ public class CampaignRecipientService {
         .orElseThrow(() -> new ResourceNotFoundException("CampaignRecipient", "trackingId", trackingId));
   }
 
+  /**
+   * Find the recipient and campaign IDs for a tracking ID.
+   *
+   * @param trackingId the ID (String)
+   * @return the tracking view
+   * @throws ResourceNotFoundException if recipient not found
+   */
+  @Transactional(readOnly = true)
+  public RecipientTrackingView findTrackingView(String trackingId) {
+    return recipientRepository.findTrackingViewByTrackingId(trackingId)
+        .orElseThrow(() -> new ResourceNotFoundException("CampaignRecipient", "trackingId", trackingId));
+  }
+
   /**
    * Find recipient by campaign and contact.
    *
@@ -254,8 +273,12 @@ public class CampaignRecipientService {
    */
   public CampaignRecipient markAsBounced(String id, String errorMessage) {
     CampaignRecipient recipient = findById(id);
+    LocalDateTime now = LocalDateTime.now();
+    if (recipient.getBouncedAt() == null) {
+      rollupRepository.addBounce(recipient.getCampaign().getId(), now);
+    }
     recipient.setStatus("BOUNCED");
-    recipient.setBouncedAt(LocalDateTime.now());
+    recipient.setBouncedAt(now);
     recipient.setErrorMessage(errorMessage);
     return recipientRepository.save(recipient);
   }
@@ -268,8 +291,12 @@ public class CampaignRecipientService {
    */
   public CampaignRecipient markAsComplained(String id) {
     CampaignRecipient recipient = findById(id);
+    LocalDateTime now = LocalDateTime.now();
+    if (recipient.getComplainedAt() == null) {
+      rollupRepository.addComplaint(recipient.getCampaign().getId(), now);
+    }
     recipient.setStatus("COMPLAINED");
-    recipient.setComplainedAt(LocalDateTime.now());
+    recipient.setComplainedAt(now);
     return recipientRepository.save(recipient);
   }
 
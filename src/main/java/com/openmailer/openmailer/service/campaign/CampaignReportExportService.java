@@ -0,0 +1,163 @@
+package com.openmailer.openmailer.service.campaign;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVWriter;
+import com.openmailer.openmailer.model.EmailCampaign;
+import com.openmailer.openmailer.repository.CampaignReportRepository;
+import com.openmailer.openmailer.repository.projection.RecipientReportRow;
+import com.openmailer.openmailer.util.FailFastWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service for exporting recipient-level campaign reports.
+ * Rows are read from a database cursor and written straight to a gzip stream,
+ * so heap use does not depend on the number of recipients.
+ */
+@Service
+public class CampaignReportExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CampaignReportExportService.class);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String[] CSV_HEADERS = {"Email", "Status", "Sent At", "Opened At", "Clicked At", "Bounced At", "Error"};
+
+    private final CampaignService campaignService;
+    private final CampaignReportRepository reportRepository;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public CampaignReportExportService(CampaignService campaignService, CampaignReportRepository reportRepository) {
+        this.campaignService = campaignService;
+        this.reportRepository = reportRepository;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * Supported export formats.
+     */
+    public enum ReportFormat {
+        CSV("csv"),
+        NDJSON("ndjson");
+
+        private final String extension;
+
+        ReportFormat(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * @param value format name, case-insensitive; anything but {@code ndjson} selects CSV
+         * @return the format
+         */
+        public static ReportFormat from(String value) {
+            return "ndjson".equalsIgnoreCase(value) ? NDJSON : CSV;
+        }
+    }
+
+    /**
+     * Checks that a user owns a campaign before a report is streamed.
+     * Called before the response is committed, so a missing campaign still yields a 404.
+     *
+     * @param campaignId the campaign ID
+     * @param userId the user ID
+     * @return the campaign
+     */
+    public EmailCampaign findExportableCampaign(String campaignId, String userId) {
+        return campaignService.findByIdAndUserId(campaignId, userId);
+    }
+
+    /**
+     * Streams a campaign's recipients as gzip-compressed CSV or NDJSON.
+     *
+     * @param campaignId the campaign ID
+     * @param format the output format
+     * @param outputStream the response body; closed when the export finishes
+     * @return number of recipients written
+     */
+    @Transactional(readOnly = true)
+    public long exportRecipients(String campaignId, ReportFormat format, OutputStream outputStream) throws IOException {
+        long[] rows = {0};
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(outputStream, 64 * 1024), StandardCharsets.UTF_8))) {
+
+            if (format == ReportFormat.NDJSON) {
+                reportRepository.streamRecipients(campaignId, row -> {
+                    writeJsonLine(writer, row);
+                    rows[0]++;
+                });
+            } else {
+                // CSVWriter swallows write errors, so fail fast to stop at a client abort
+                CSVWriter csvWriter = new CSVWriter(new FailFastWriter(writer));
+                csvWriter.writeNext(CSV_HEADERS);
+                reportRepository.streamRecipients(campaignId, row -> {
+                    csvWriter.writeNext(toCsvRow(row));
+                    rows[0]++;
+                });
+                csvWriter.flush();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        log.info("Exported {} recipients of campaign {} as {}", rows[0], campaignId, format);
+        return rows[0];
+    }
+
+    private void writeJsonLine(Writer writer, RecipientReportRow row) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("email", row.email());
+        values.put("status", row.status());
+        values.put("sentAt", format(row.sentAt()));
+        values.put("openedAt", format(row.openedAt()));
+        values.put("clickedAt", format(row.clickedAt()));
+        values.put("bouncedAt", format(row.bouncedAt()));
+        values.put("error", row.errorMessage());
+        try {
+            writer.write(objectMapper.writeValueAsString(values));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String[] toCsvRow(RecipientReportRow row) {
+        return new String[] {
+                row.email(),
+                row.status() != null ? row.status() : "",
+                formatOrEmpty(row.sentAt()),
+                formatOrEmpty(row.openedAt()),
+                formatOrEmpty(row.clickedAt()),
+                formatOrEmpty(row.bouncedAt()),
+                row.errorMessage() != null ? row.errorMessage() : ""
+        };
+    }
+
+    private String format(LocalDateTime value) {
+        return value != null ? value.format(DATE_FORMATTER) : null;
+    }
+
+    private String formatOrEmpty(LocalDateTime value) {
+        return value != null ? value.format(DATE_FORMATTER) : "";
+    }
+}
@@ -2,7 +2,9 @@ package com.openmailer.openmailer.service.campaign;
 
 import com.openmailer.openmailer.exception.ValidationException;
 import com.openmailer.openmailer.model.*;
+import com.openmailer.openmailer.repository.ContactEngagementRepository;
 import com.openmailer.openmailer.repository.ContactRepository;
+import com.openmailer.openmailer.repository.EngagementRollupRepository;
 import com.openmailer.openmailer.repository.UserRepository;
 import com.openmailer.openmailer.service.contact.ContactListMembershipService;
 import com.openmailer.openmailer.service.email.EmailSender;
@@ -33,6 +35,12 @@ public class CampaignSendingService {
 
     private static final Logger log = LoggerFactory.getLogger(CampaignSendingService.class);
 
+    /**
+     * Number of successful sends accumulated before they are added to the rollups
+     * and to the contacts' last-sent times.
+     */
+    private static final int ROLLUP_FLUSH_SIZE = 100;
+
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
 
@@ -47,6 +55,8 @@ public class CampaignSendingService {
     private final TemplateRendererService templateRenderer;
     private final ProviderFactory providerFactory;
     private final UserRepository userRepository;
+    private final EngagementRollupRepository rollupRepository;
+    private final ContactEngagementRepository contactEngagementRepository;
 
     @Value("${spring.mail.host:}")
     private String sharedSmtpHost;
@@ -72,7 +82,9 @@ public class CampaignSendingService {
             CampaignDeliveryPolicyService deliveryPolicyService,
             TemplateRendererService templateRenderer,
             ProviderFactory providerFactory,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            EngagementRollupRepository rollupRepository,
+            ContactEngagementRepository contactEngagementRepository) {
         this.campaignService = campaignService;
         this.recipientService = recipientService;
         this.linkService = linkService;
@@ -84,6 +96,8 @@ public class CampaignSendingService {
         this.templateRenderer = templateRenderer;
         this.providerFactory = providerFactory;
         this.userRepository = userRepository;
+        this.rollupRepository = rollupRepository;
+        this.contactEngagementRepository = contactEngagementRepository;
     }
 
     /**
@@ -117,10 +131,7 @@ public class CampaignSendingService {
 
             if (contacts.isEmpty()) {
                 log.warn("No contacts found for campaign {}", campaignId);
-                campaign.setStatus("COMPLETED");
-                campaign.setTotalRecipients(0);
-                campaign.setSentAt(LocalDateTime.now());
-                campaignService.updateCampaign(campaignId, campaign.getUserId(), campaign);
+                campaignService.completeCampaign(campaignId, campaign.getUserId(), 0);
                 return;
             }
 
@@ -152,10 +163,8 @@ public class CampaignSendingService {
             // Update campaign statistics
             updateCampaignStatistics(campaign);
 
-            // Mark campaign as completed
-            campaign.setStatus("COMPLETED");
-            campaign.setSentAt(LocalDateTime.now());
-            campaignService.updateCampaign(campaignId, campaign.getUserId(), campaign);
+            // Mark campaign as completed and count it on the dashboard in one transaction
+            campaignService.completeCampaign(campaignId, campaign.getUserId(), campaign.getTotalRecipients());
 
             log.info("Campaign {} completed. Sent: {}, Failed: {}",
                     campaignId, campaign.getSentCount(), campaign.getFailedCount());
@@ -226,6 +235,7 @@ public class CampaignSendingService {
     private void sendEmailsToRecipients(EmailCampaign campaign, List<CampaignRecipient> recipients, EmailSender emailSender) {
         int sentCount = 0;
         int failedCount = 0;
+        List<String> unrolledContactIds = new ArrayList<>();
         int sendSpeed = campaign.getSendSpeed() != null ? campaign.getSendSpeed() : 100;
 
         for (CampaignRecipient recipient : recipients) {
@@ -235,6 +245,10 @@ public class CampaignSendingService {
 
                 if (success) {
                     sentCount++;
+                    unrolledContactIds.add(recipient.getContact().getId());
+                    if (unrolledContactIds.size() == ROLLUP_FLUSH_SIZE) {
+                        flushSends(campaign, unrolledContactIds);
+                    }
                 } else {
                     failedCount++;
                 }
@@ -256,12 +270,29 @@ public class CampaignSendingService {
             }
         }
 
+        if (!unrolledContactIds.isEmpty()) {
+            flushSends(campaign, unrolledContactIds);
+        }
+
         // Update campaign counts
         campaign.setSentCount(sentCount);
         campaign.setFailedCount(failedCount);
         campaignService.updateCampaign(campaign.getId(), campaign.getUserId(), campaign);
     }
 
+    /**
+     * Adds accumulated sends to the rollups and the contacts' last-sent times, then clears them.
+     *
+     * @param campaign the campaign
+     * @param contactIds IDs of the contacts sent to since the last flush
+     */
+    private void flushSends(EmailCampaign campaign, List<String> contactIds) {
+        LocalDateTime now = LocalDateTime.now();
+        rollupRepository.addSends(campaign.getId(), now, contactIds.size());
+        contactEngagementRepository.recordSends(contactIds, now);
+        contactIds.clear();
+    }
+
     /**
      * Sends an email to a single recipient.
      *
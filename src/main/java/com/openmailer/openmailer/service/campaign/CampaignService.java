@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,10 +26,12 @@ import java.util.List;
 public class CampaignService {
 
   private final EmailCampaignRepository campaignRepository;
+  private final DashboardSnapshotService dashboardSnapshotService;
 
   @Autowired
-  public CampaignService(EmailCampaignRepository campaignRepository) {
+  public CampaignService(EmailCampaignRepository campaignRepository, DashboardSnapshotService dashboardSnapshotService) {
     this.campaignRepository = campaignRepository;
+    this.dashboardSnapshotService = dashboardSnapshotService;
   }
 
   /**
@@ -104,7 +107,7 @@ public class CampaignService {
   @Cacheable(value = "campaignStats", key = "'campaign:' + #id")
   @Transactional(readOnly = true)
   public EmailCampaign findById(String id) {
-    return campaignRepository.findById(id)
+    return campaignRepository.findWithDeliveryGraphById(id)
         .orElseThrow(() -> new ResourceNotFoundException("EmailCampaign", "id", id));
   }
 
@@ -134,6 +137,18 @@ public class CampaignService {
     return campaignRepository.findByUserId(userId);
   }
 
+  /**
+   * Find a user's most recent campaigns.
+   *
+   * @param userId the ID (String)
+   * @param limit maximum number of campaigns
+   * @return most recent campaigns first
+   */
+  @Transactional(readOnly = true)
+  public List<EmailCampaign> findRecentByUserId(String userId, int limit) {
+    return campaignRepository.findRecentByUserId(userId, PageRequest.of(0, limit));
+  }
+
   /**
    * Find all campaigns for a user with pagination.
    *
@@ -236,6 +251,31 @@ public class CampaignService {
     return campaignRepository.save(campaign);
   }
 
+  /**
+   * Mark a campaign as completed and add it to the user's dashboard snapshot
+   * in the same transaction. A campaign that is already completed is left unchanged.
+   *
+   * @param id the ID (String)
+   * @param userId the ID (String)
+   * @param totalRecipients number of recipients the campaign was sent to
+   * @return the completed campaign
+   */
+  @CacheEvict(value = "campaignStats", allEntries = true)
+  public EmailCampaign completeCampaign(String id, String userId, int totalRecipients) {
+    EmailCampaign campaign = findByIdAndUserId(id, userId);
+    if ("COMPLETED".equals(campaign.getStatus())) {
+      return campaign;
+    }
+
+    campaign.setStatus("COMPLETED");
+    campaign.setTotalRecipients(totalRecipients);
+    campaign.setSentAt(LocalDateTime.now());
+    campaign.setUpdatedAt(LocalDateTime.now());
+    EmailCampaign saved = campaignRepository.save(campaign);
+    dashboardSnapshotService.recordCampaignCompleted(userId, totalRecipients);
+    return saved;
+  }
+
   /**
    * Schedule a campaign for future sending.
    *
@@ -322,6 +362,10 @@ public class CampaignService {
     }
 
     campaignRepository.delete(campaign);
+    if ("COMPLETED".equals(campaign.getStatus())) {
+      long recipients = campaign.getTotalRecipients() != null ? campaign.getTotalRecipients() : 0;
+      dashboardSnapshotService.recordCompletedCampaignDeleted(userId, recipients);
+    }
   }
 
   /**
@@ -332,6 +376,7 @@ public class CampaignService {
   @CacheEvict(value = "campaignStats", allEntries = true)
   public void deleteAllByUserId(String userId) {
     campaignRepository.deleteByUserId(userId);
+    dashboardSnapshotService.deleteSnapshot(userId);
   }
 
   /**
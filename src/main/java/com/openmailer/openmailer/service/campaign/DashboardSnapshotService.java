@@ -0,0 +1,104 @@
+package com.openmailer.openmailer.service.campaign;
+
+import com.openmailer.openmailer.repository.DashboardSnapshotRepository;
+import com.openmailer.openmailer.repository.EngagementEventRepository;
+import com.openmailer.openmailer.repository.projection.DashboardSnapshot;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for per-user dashboard snapshots.
+ * Engagement totals are added by the event pipeline and campaign completions as they happen,
+ * so loading a dashboard is a single cached read regardless of how many campaigns a user has.
+ */
+@Service
+public class DashboardSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardSnapshotService.class);
+
+    private final DashboardSnapshotRepository snapshotRepository;
+    private final EngagementEventRepository eventRepository;
+
+    @Autowired
+    public DashboardSnapshotService(
+            DashboardSnapshotRepository snapshotRepository,
+            EngagementEventRepository eventRepository) {
+        this.snapshotRepository = snapshotRepository;
+        this.eventRepository = eventRepository;
+    }
+
+    /**
+     * Creates the snapshot table before the event pipeline starts adding to it.
+     */
+    @PostConstruct
+    public void initialize() {
+        snapshotRepository.createSchemaIfMissing();
+    }
+
+    /**
+     * Gets a user's dashboard snapshot. The first load for a user creates the snapshot from
+     * the rollups while the projection cursor and the user's snapshot lock are held, so no
+     * event batch or counter increment is missed or counted twice.
+     *
+     * @param userId the user ID
+     * @return the dashboard snapshot
+     */
+    @Cacheable(value = "dashboardSnapshots", key = "#userId")
+    @Transactional
+    public DashboardSnapshot getSnapshot(String userId) {
+        DashboardSnapshot snapshot = snapshotRepository.findByUserId(userId);
+        if (snapshot.getUpdatedAt() != null) {
+            return snapshot;
+        }
+
+        eventRepository.lockCursor(EngagementProjectionService.CONSUMER);
+        if (snapshotRepository.createIfMissing(userId)) {
+            log.info("Created dashboard snapshot for user {}", userId);
+        }
+        return snapshotRepository.findByUserId(userId);
+    }
+
+    /**
+     * Adds a completed campaign to a user's snapshot.
+     * Called in the transaction that marks the campaign completed.
+     *
+     * @param userId the user ID
+     * @param recipients number of recipients of the campaign
+     */
+    @CacheEvict(value = "dashboardSnapshots", key = "#userId")
+    @Transactional
+    public void recordCampaignCompleted(String userId, long recipients) {
+        snapshotRepository.addCompletedCampaign(userId, recipients);
+    }
+
+    /**
+     * Removes a deleted completed campaign from a user's snapshot.
+     * Called in the transaction that deletes the campaign.
+     *
+     * @param userId the user ID
+     * @param recipients number of recipients of the campaign
+     */
+    @CacheEvict(value = "dashboardSnapshots", key = "#userId")
+    @Transactional
+    public void recordCompletedCampaignDeleted(String userId, long recipients) {
+        snapshotRepository.removeCompletedCampaign(userId, recipients);
+    }
+
+    /**
+     * Deletes a user's snapshot, e.g. when all of the user's campaigns are purged.
+     * The next dashboard load rebuilds it from the remaining data.
+     *
+     * @param userId the user ID
+     */
+    @CacheEvict(value = "dashboardSnapshots", key = "#userId")
+    @Transactional
+    public void deleteSnapshot(String userId) {
+        snapshotRepository.deleteByUserId(userId);
+    }
+}
@@ -0,0 +1,108 @@
+package com.openmailer.openmailer.service.campaign;
+
+import com.openmailer.openmailer.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Collapses repeated opens of the same email inside a short window.
+ * Mail clients and image proxies often fetch the tracking pixel several times
+ * within seconds; only the first fetch needs to become an engagement event.
+ *
+ * NOTE:
+ * - Two Bloom filters rotate: keys are added to the current one and looked up in both,
+ *   so a repeat within the window is suppressed and one up to two windows later may be
+ * - A generation is also rotated early once it holds its expected number of keys,
+ *   which keeps the false-positive rate (and memory) bounded under bursts; suppression
+ *   is therefore best-effort: when more opens than the configured capacity arrive within
+ *   a window, a key can be rotated out before its window ends and its repeat counted again
+ * - A false positive drops a genuine first open; the rate is configurable
+ */
+@Service
+public class DuplicateOpenFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicateOpenFilter.class);
+
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int expectedOpensPerWindow;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+    private volatile long currentStartedAt;
+
+    @Autowired
+    public DuplicateOpenFilter(
+            @Value("${app.tracking.open-dedupe.enabled:true}") boolean enabled,
+            @Value("${app.tracking.open-dedupe.window-seconds:60}") long windowSeconds,
+            @Value("${app.tracking.open-dedupe.expected-opens-per-window:100000}") int expectedOpensPerWindow,
+            @Value("${app.tracking.open-dedupe.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.enabled = enabled;
+        this.windowMillis = windowSeconds * 1000;
+        this.expectedOpensPerWindow = expectedOpensPerWindow;
+        this.falsePositiveRate = falsePositiveRate;
+        this.current = new BloomFilter(expectedOpensPerWindow, falsePositiveRate);
+        this.previous = new BloomFilter(expectedOpensPerWindow, falsePositiveRate);
+        // Start the first window on the first open
+        this.currentStartedAt = 0;
+    }
+
+    /**
+     * Records an open and reports whether it repeats one seen within the window.
+     *
+     * @param trackingId the recipient's tracking ID
+     * @return true if the open should be dropped as a duplicate
+     */
+    public boolean isDuplicate(String trackingId) {
+        return isDuplicate(trackingId, System.currentTimeMillis());
+    }
+
+    boolean isDuplicate(String trackingId, long nowMillis) {
+        if (!enabled || trackingId == null) {
+            return false;
+        }
+
+        rotateIfNeeded(nowMillis);
+
+        BloomFilter older = previous;
+        if (current.put(trackingId)) {
+            return true;
+        }
+        return older.mightContain(trackingId);
+    }
+
+    /**
+     * @return memory held by both filter generations, in bytes
+     */
+    public long getSizeInBytes() {
+        return current.getSizeInBytes() + previous.getSizeInBytes();
+    }
+
+    private void rotateIfNeeded(long nowMillis) {
+        if (nowMillis - currentStartedAt < windowMillis && current.getInsertions() < expectedOpensPerWindow) {
+            return;
+        }
+
+        synchronized (this) {
+            long age = nowMillis - currentStartedAt;
+            boolean full = current.getInsertions() >= expectedOpensPerWindow;
+            if (age < windowMillis && !full) {
+                return;
+            }
+
+            if (full && age < windowMillis) {
+                log.debug("Open dedupe filter reached {} keys before the window elapsed, rotating early",
+                        expectedOpensPerWindow);
+            }
+
+            // If a whole extra window passed with no traffic, the current generation is stale too
+            previous = age < 2 * windowMillis ? current : new BloomFilter(expectedOpensPerWindow, falsePositiveRate);
+            current = new BloomFilter(expectedOpensPerWindow, falsePositiveRate);
+            currentStartedAt = nowMillis;
+        }
+    }
+}
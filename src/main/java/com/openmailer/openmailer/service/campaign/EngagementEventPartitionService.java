@@ -0,0 +1,107 @@
+package com.openmailer.openmailer.service.campaign;
+
+import com.openmailer.openmailer.repository.EngagementEventRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Service for maintaining the daily partitions of the engagement event store.
+ * Creates partitions ahead of time and detaches expired ones for retention, once the
+ * projection has applied all of their events.
+ */
+@Service
+public class EngagementEventPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(EngagementEventPartitionService.class);
+
+    private final EngagementEventRepository eventRepository;
+    private final int daysAhead;
+    private final int retentionDays;
+
+    @Autowired
+    public EngagementEventPartitionService(
+            EngagementEventRepository eventRepository,
+            @Value("${app.tracking.events.partitions-ahead-days:3}") int daysAhead,
+            @Value("${app.tracking.events.retention-days:90}") int retentionDays) {
+        this.eventRepository = eventRepository;
+        this.daysAhead = daysAhead;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Creates the event table and the partitions for today and the coming days
+     * before any tracking request can append events.
+     */
+    @PostConstruct
+    public void initialize() {
+        eventRepository.createSchemaIfMissing();
+        createUpcomingPartitions(LocalDate.now());
+    }
+
+    /**
+     * Scheduled task to roll partitions forward and drop expired ones.
+     * Runs daily shortly after midnight.
+     */
+    @Scheduled(cron = "0 15 0 * * *") // Daily at 00:15
+    public void maintainPartitions() {
+        log.info("Starting engagement event partition maintenance");
+
+        try {
+            LocalDate today = LocalDate.now();
+            createUpcomingPartitions(today);
+            int dropped = dropExpiredPartitions(today);
+            log.info("Engagement event partition maintenance completed. Dropped: {}", dropped);
+        } catch (Exception e) {
+            log.error("Error in engagement event partition maintenance: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ensures partitions exist from yesterday through the configured days ahead.
+     * Yesterday is included so late-arriving events around midnight still have a home.
+     *
+     * @param today the current day
+     */
+    public void createUpcomingPartitions(LocalDate today) {
+        for (LocalDate day = today.minusDays(1); !day.isAfter(today.plusDays(daysAhead)); day = day.plusDays(1)) {
+            eventRepository.createDailyPartitionIfMissing(day);
+        }
+    }
+
+    /**
+     * Detaches and drops partitions older than the retention period.
+     * A partition whose events the projection has not applied yet, because it is stalled
+     * or catching up, is kept until a later run so its events still reach the rollups,
+     * sketches and contacts.
+     *
+     * @param today the current day
+     * @return number of partitions dropped
+     */
+    public int dropExpiredPartitions(LocalDate today) {
+        LocalDate oldestRetained = today.minusDays(retentionDays);
+        int dropped = 0;
+
+        for (String partition : eventRepository.findPartitionNames()) {
+            LocalDate day = EngagementEventRepository.partitionDay(partition);
+            if (day != null && day.isBefore(oldestRetained)) {
+                if (eventRepository.hasUnappliedEvents(partition, EngagementProjectionService.CONSUMER)) {
+                    log.warn("Keeping expired engagement event partition {}: the projection has not applied all of its events",
+                        partition);
+                    continue;
+                }
+                eventRepository.detachAndDropPartition(partition);
+                log.info("Dropped expired engagement event partition {}", partition);
+                dropped++;
+            }
+        }
+
+        return dropped;
+    }
+}
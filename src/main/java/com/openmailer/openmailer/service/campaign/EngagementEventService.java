@@ -0,0 +1,134 @@
+package com.openmailer.openmailer.service.campaign;
+
+import com.openmailer.openmailer.model.EngagementEvent;
+import com.openmailer.openmailer.repository.EngagementEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Service for appending engagement events (opens and clicks).
+ * Events are buffered in memory and written to the partitioned event store in
+ * JDBC batches, so tracking requests never wait on a per-event insert.
+ * A batch that fails to write is kept and retried first on later flushes, with a delay
+ * that doubles per failure up to {@link #MAX_RETRY_DELAY}; meanwhile new events stay
+ * buffered, and once the buffer is full they are written inline as usual.
+ */
+@Service
+public class EngagementEventService {
+
+    private static final Logger log = LoggerFactory.getLogger(EngagementEventService.class);
+
+    static final Duration MIN_RETRY_DELAY = Duration.ofSeconds(1);
+    static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final EngagementEventRepository eventRepository;
+    private final BlockingQueue<EngagementEvent> buffer;
+    private final int batchSize;
+    private final Clock clock;
+
+    // Only used by flush, which is synchronized
+    private final List<EngagementEvent> failedBatch = new ArrayList<>();
+    private Duration retryDelay = Duration.ZERO;
+    private Instant retryAt = Instant.MIN;
+
+    @Autowired
+    public EngagementEventService(
+            EngagementEventRepository eventRepository,
+            @Value("${app.tracking.events.buffer-capacity:10000}") int bufferCapacity,
+            @Value("${app.tracking.events.batch-size:500}") int batchSize) {
+        this(eventRepository, bufferCapacity, batchSize, Clock.systemUTC());
+    }
+
+    EngagementEventService(EngagementEventRepository eventRepository, int bufferCapacity, int batchSize, Clock clock) {
+        this.eventRepository = eventRepository;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.clock = clock;
+    }
+
+    /**
+     * Queues an event for the next batch write.
+     * If the buffer is full the event is written immediately, so the caller
+     * absorbs the back-pressure instead of the event being dropped.
+     *
+     * @param event the event to append
+     */
+    public void append(EngagementEvent event) {
+        if (!buffer.offer(event)) {
+            log.debug("Engagement event buffer full, writing event inline");
+            eventRepository.appendBatch(List.of(event));
+        }
+    }
+
+    /**
+     * Writes the batch that failed last, once its retry is due, then all buffered events
+     * in batches. Stops at the first batch that fails and keeps it for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${app.tracking.events.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (!failedBatch.isEmpty()) {
+            if (clock.instant().isBefore(retryAt) || !write(failedBatch)) {
+                return;
+            }
+            failedBatch.clear();
+        }
+
+        List<EngagementEvent> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            if (!write(batch)) {
+                failedBatch.addAll(batch);
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * @return whether the batch was written; if not, the next retry is scheduled
+     */
+    private boolean write(List<EngagementEvent> batch) {
+        try {
+            eventRepository.appendBatch(batch);
+            retryDelay = Duration.ZERO;
+            return true;
+        } catch (Exception e) {
+            retryDelay = retryDelay.isZero() ? MIN_RETRY_DELAY : retryDelay.multipliedBy(2);
+            if (retryDelay.compareTo(MAX_RETRY_DELAY) > 0) {
+                retryDelay = MAX_RETRY_DELAY;
+            }
+            retryAt = clock.instant().plus(retryDelay);
+            log.error("Failed to write {} engagement events, retrying in {}s: {}",
+                    batch.size(), retryDelay.toSeconds(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Gets the number of events waiting to be written.
+     *
+     * @return buffered event count, including a batch waiting to be retried
+     */
+    public synchronized int getBufferedCount() {
+        return buffer.size() + failedBatch.size();
+    }
+
+    @PreDestroy
+    synchronized void flushOnShutdown() {
+        // Last chance for a batch waiting to be retried
+        retryAt = Instant.MIN;
+        flush();
+    }
+}
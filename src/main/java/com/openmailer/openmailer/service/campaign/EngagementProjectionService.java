@@ -0,0 +1,78 @@
+package com.openmailer.openmailer.service.campaign;
+
+import com.openmailer.openmailer.repository.ContactEngagementRepository;
+import com.openmailer.openmailer.repository.EngagementEventRepository;
+import com.openmailer.openmailer.repository.EngagementRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service that derives recipient and link engagement fields from the event store.
+ * Each run applies the events after its cursor as a few set-based statements
+ * (hourly rollups, unique-recipient sketches, first open/click time, open/click counts,
+ * link click counters, contacts' last open/click time) and
+ * advances the cursor in the same transaction, so every event is applied exactly once.
+ * The cursor is a transaction ID that only moves past finished transactions, so events
+ * that commit late or out of ID order are still picked up.
+ */
+@Service
+public class EngagementProjectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(EngagementProjectionService.class);
+
+    static final String CONSUMER = "recipient-projection";
+
+    private final EngagementEventRepository eventRepository;
+    private final EngagementRollupRepository rollupRepository;
+    private final EngagementSketchService sketchService;
+    private final ContactEngagementRepository contactEngagementRepository;
+    private final int batchSize;
+
+    @Autowired
+    public EngagementProjectionService(
+            EngagementEventRepository eventRepository,
+            EngagementRollupRepository rollupRepository,
+            EngagementSketchService sketchService,
+            ContactEngagementRepository contactEngagementRepository,
+            @Value("${app.tracking.events.projection-batch-size:5000}") int batchSize) {
+        this.eventRepository = eventRepository;
+        this.rollupRepository = rollupRepository;
+        this.sketchService = sketchService;
+        this.contactEngagementRepository = contactEngagementRepository;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Applies the next batch of events to the rollups, sketches, campaign recipients, links and contacts.
+     * Rollups go first: unique opens/clicks are detected from the recipient's
+     * state before this batch is applied to it.
+     *
+     * @return number of rollup rows, recipients and links updated
+     */
+    @Scheduled(fixedDelayString = "${app.tracking.events.projection-interval-ms:5000}")
+    @Transactional
+    public int applyPendingEvents() {
+        long afterTxId = eventRepository.lockCursor(CONSUMER);
+        long upToTxId = eventRepository.findBatchUpperBound(afterTxId, batchSize);
+
+        if (upToTxId <= afterTxId) {
+            return 0;
+        }
+
+        int updated = rollupRepository.applyEvents(afterTxId, upToTxId);
+        updated += sketchService.applyEvents(afterTxId, upToTxId);
+        updated += eventRepository.applyOpensToRecipients(afterTxId, upToTxId);
+        updated += eventRepository.applyClicksToRecipients(afterTxId, upToTxId);
+        updated += eventRepository.applyClicksToLinks(afterTxId, upToTxId);
+        updated += contactEngagementRepository.applyEvents(afterTxId, upToTxId);
+        eventRepository.advanceCursor(CONSUMER, upToTxId);
+
+        log.debug("Applied engagement events of transactions ({}, {}] - {} rows updated", afterTxId, upToTxId, updated);
+        return updated;
+    }
+}
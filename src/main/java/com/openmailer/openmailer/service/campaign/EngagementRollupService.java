@@ -0,0 +1,99 @@
+package com.openmailer.openmailer.service.campaign;
+
+import com.openmailer.openmailer.repository.EngagementEventRepository;
+import com.openmailer.openmailer.repository.EngagementRollupRepository;
+import com.openmailer.openmailer.repository.EngagementSketchRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Service for maintaining the hourly and daily engagement rollups and the
+ * unique-recipient sketches. Creates and seeds both on startup and compacts
+ * hourly buckets older than the retention period into daily buckets.
+ */
+@Service
+@DependsOn("engagementEventPartitionService")
+public class EngagementRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(EngagementRollupService.class);
+
+    private final EngagementRollupRepository rollupRepository;
+    private final EngagementEventRepository eventRepository;
+    private final EngagementSketchRepository sketchRepository;
+    private final EngagementSketchService sketchService;
+    private final TransactionTemplate transactionTemplate;
+    private final int hourlyRetentionDays;
+
+    @Autowired
+    public EngagementRollupService(
+            EngagementRollupRepository rollupRepository,
+            EngagementEventRepository eventRepository,
+            EngagementSketchRepository sketchRepository,
+            EngagementSketchService sketchService,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.analytics.rollups.hourly-retention-days:14}") int hourlyRetentionDays) {
+        this.rollupRepository = rollupRepository;
+        this.eventRepository = eventRepository;
+        this.sketchRepository = sketchRepository;
+        this.sketchService = sketchService;
+        this.transactionTemplate = transactionTemplate;
+        this.hourlyRetentionDays = hourlyRetentionDays;
+    }
+
+    /**
+     * Creates the rollup and sketch tables and seeds them from existing recipients on first start.
+     * The projection cursor is locked while seeding, so events that are not yet reflected
+     * on the recipients are left for the projection to add.
+     */
+    @PostConstruct
+    public void initialize() {
+        rollupRepository.createSchemaIfMissing();
+        sketchRepository.createSchemaIfMissing();
+        transactionTemplate.executeWithoutResult(status -> {
+            eventRepository.lockCursor(EngagementProjectionService.CONSUMER);
+            if (!rollupRepository.hasRows()) {
+                int seeded = rollupRepository.seedFromRecipients();
+                log.info("Seeded engagement rollups from recipients: {} hourly buckets", seeded);
+            }
+            if (!sketchRepository.hasRows()) {
+                sketchService.seedFromRecordedEngagement();
+            }
+        });
+    }
+
+    /**
+     * Scheduled task to compact expired hourly buckets into daily buckets.
+     * Runs daily after the event partition maintenance.
+     */
+    @Scheduled(cron = "0 30 0 * * *") // Daily at 00:30
+    public void compactRollups() {
+        log.info("Starting engagement rollup compaction");
+
+        try {
+            int compacted = compactHourlyRollups(LocalDate.now());
+            log.info("Engagement rollup compaction completed. Daily buckets written: {}", compacted);
+        } catch (Exception e) {
+            log.error("Error in engagement rollup compaction: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Moves hourly buckets from days before the retention period into daily buckets.
+     * Only whole days are compacted, so a day never has both hourly and daily rows.
+     *
+     * @param today the current day
+     * @return number of daily buckets written
+     */
+    public int compactHourlyRollups(LocalDate today) {
+        return rollupRepository.compactHourlyBefore(today.minusDays(hourlyRetentionDays).atStartOfDay());
+    }
+}
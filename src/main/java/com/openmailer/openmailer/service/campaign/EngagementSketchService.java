@@ -0,0 +1,177 @@
+package com.openmailer.openmailer.service.campaign;
+
+import com.openmailer.openmailer.model.EngagementEventType;
+import com.openmailer.openmailer.repository.EngagementSketchRepository;
+import com.openmailer.openmailer.repository.projection.EngagementSketchKey;
+import com.openmailer.openmailer.util.HyperLogLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Service for approximate unique-recipient counts backed by daily HyperLogLog sketches.
+ * Every campaign has one sketch per event type and day, and every link one click sketch per day.
+ * Counts for any day range are answered by merging the daily sketches, in memory that
+ * does not depend on the number of recipients.
+ */
+@Service
+public class EngagementSketchService {
+
+    private static final Logger log = LoggerFactory.getLogger(EngagementSketchService.class);
+
+    /**
+     * Number of sketches held in memory before they are merged into the stored ones.
+     */
+    static final int FLUSH_SIZE = 256;
+
+    private final EngagementSketchRepository sketchRepository;
+
+    @Autowired
+    public EngagementSketchService(EngagementSketchRepository sketchRepository) {
+        this.sketchRepository = sketchRepository;
+    }
+
+    /**
+     * Adds the recipients of a transaction ID range to their daily sketches.
+     * Called by the projection consumer inside its transaction.
+     *
+     * @param afterTxId exclusive lower transaction ID
+     * @param upToTxId inclusive upper transaction ID
+     * @return number of sketches written
+     */
+    public int applyEvents(long afterTxId, long upToTxId) {
+        return addAll(handler -> sketchRepository.streamEventRecipients(afterTxId, upToTxId, handler));
+    }
+
+    /**
+     * Builds sketches from the opens and clicks already recorded on recipients and legacy
+     * click rows. Adding a recipient twice does not change a sketch, so overlap with
+     * events applied later is harmless.
+     *
+     * @return number of sketches written
+     */
+    public int seedFromRecordedEngagement() {
+        int written = addAll(sketchRepository::streamRecordedRecipients);
+        log.info("Seeded {} engagement sketches from recorded opens and clicks", written);
+        return written;
+    }
+
+    /**
+     * Estimates the number of distinct recipients who opened a campaign in a day range.
+     *
+     * @param campaignId the campaign ID
+     * @param from first day, inclusive
+     * @param to last day, inclusive
+     * @return estimated unique opens
+     */
+    public long estimateUniqueOpens(String campaignId, LocalDate from, LocalDate to) {
+        return mergeRange(campaignId, EngagementEventType.OPEN, false, from, to)
+                .getOrDefault(EngagementSketchKey.CAMPAIGN_WIDE, 0L);
+    }
+
+    /**
+     * Estimates the number of distinct recipients who clicked any link of a campaign in a day range.
+     *
+     * @param campaignId the campaign ID
+     * @param from first day, inclusive
+     * @param to last day, inclusive
+     * @return estimated unique clicks
+     */
+    public long estimateUniqueClicks(String campaignId, LocalDate from, LocalDate to) {
+        return mergeRange(campaignId, EngagementEventType.CLICK, false, from, to)
+                .getOrDefault(EngagementSketchKey.CAMPAIGN_WIDE, 0L);
+    }
+
+    /**
+     * Estimates the number of distinct recipients who clicked each link of a campaign in a day range.
+     *
+     * @param campaignId the campaign ID
+     * @param from first day, inclusive
+     * @param to last day, inclusive
+     * @return estimated unique clicks by link ID; links without clicks are absent
+     */
+    public Map<String, Long> estimateUniqueClicksByLink(String campaignId, LocalDate from, LocalDate to) {
+        return mergeRange(campaignId, EngagementEventType.CLICK, true, from, to);
+    }
+
+    /**
+     * @return relative standard error of the estimates, e.g. 0.008 for 0.8%
+     */
+    public double getStandardError() {
+        return HyperLogLog.standardError(HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    private Map<String, Long> mergeRange(
+            String campaignId, EngagementEventType type, boolean linkWide, LocalDate from, LocalDate to) {
+        Map<String, Long> estimates = new HashMap<>();
+        sketchRepository.findRange(campaignId, type, linkWide, from, to).forEach((linkId, daily) -> {
+            HyperLogLog merged = new HyperLogLog();
+            for (byte[] sketch : daily) {
+                merged.merge(HyperLogLog.fromBytes(sketch));
+            }
+            estimates.put(linkId, merged.estimate());
+        });
+        return estimates;
+    }
+
+    /**
+     * Adds streamed recipients to their sketches, merging them into the stored ones every
+     * {@value #FLUSH_SIZE} sketches, so memory does not grow with the number of keys streamed.
+     *
+     * @param stream streams keys and recipient IDs to the handler it is given
+     * @return number of sketches written
+     */
+    private int addAll(Consumer<BiConsumer<EngagementSketchKey, String>> stream) {
+        Map<EngagementSketchKey, HyperLogLog> pending = new HashMap<>();
+        int[] written = {0};
+        stream.accept((key, recipientId) -> {
+            add(pending, key, recipientId);
+            if (pending.size() >= FLUSH_SIZE) {
+                written[0] += flush(pending);
+            }
+        });
+        return written[0] + flush(pending);
+    }
+
+    /**
+     * Adds a recipient to the sketch of its key; clicks also go to the campaign-wide sketch.
+     */
+    private void add(Map<EngagementSketchKey, HyperLogLog> pending, EngagementSketchKey key, String recipientId) {
+        pending.computeIfAbsent(key, k -> new HyperLogLog()).add(recipientId);
+        if (!EngagementSketchKey.CAMPAIGN_WIDE.equals(key.linkId())) {
+            EngagementSketchKey campaignKey = new EngagementSketchKey(
+                    key.campaignId(), EngagementSketchKey.CAMPAIGN_WIDE, key.eventType(), key.day());
+            pending.computeIfAbsent(campaignKey, k -> new HyperLogLog()).add(recipientId);
+        }
+    }
+
+    /**
+     * Merges pending sketches into the stored ones, writes them back and clears the map.
+     */
+    private int flush(Map<EngagementSketchKey, HyperLogLog> pending) {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        Map<EngagementSketchKey, byte[]> stored = sketchRepository.findByKeys(pending.keySet());
+        Map<EngagementSketchKey, byte[]> merged = new HashMap<>();
+        pending.forEach((key, sketch) -> {
+            byte[] existing = stored.get(key);
+            if (existing != null) {
+                sketch.merge(HyperLogLog.fromBytes(existing));
+            }
+            merged.put(key, sketch.toBytes());
+        });
+
+        sketchRepository.saveAll(merged);
+        pending.clear();
+        return merged.size();
+    }
+}
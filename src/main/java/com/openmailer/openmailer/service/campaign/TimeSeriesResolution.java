@@ -0,0 +1,85 @@
+package com.openmailer.openmailer.service.campaign;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Bucket sizes for engagement time series, finest first.
+ * Each maps to a PostgreSQL {@code date_trunc} unit and truncates the same way,
+ * so empty buckets can be filled in without another query.
+ */
+public enum TimeSeriesResolution {
+    HOUR("hour", Duration.ofHours(1)),
+    DAY("day", Duration.ofDays(1)),
+    WEEK("week", Duration.ofDays(7)),
+    MONTH("month", Duration.ofDays(28));
+
+    private final String unit;
+    private final Duration approximateLength;
+
+    TimeSeriesResolution(String unit, Duration approximateLength) {
+        this.unit = unit;
+        this.approximateLength = approximateLength;
+    }
+
+    /**
+     * @return the {@code date_trunc} unit
+     */
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * Picks the finest resolution whose bucket count over a range stays within a cap.
+     * Lengths are lower bounds (a month counts as 28 days), so the estimate never undercounts.
+     *
+     * @param from start of the range
+     * @param to end of the range
+     * @param finest the finest resolution allowed for the range
+     * @param maxPoints maximum number of buckets
+     * @return the chosen resolution; {@link #MONTH} if nothing finer fits
+     */
+    public static TimeSeriesResolution choose(
+            LocalDateTime from, LocalDateTime to, TimeSeriesResolution finest, int maxPoints) {
+        Duration range = Duration.between(from, to);
+        for (TimeSeriesResolution resolution : values()) {
+            if (resolution.compareTo(finest) >= 0
+                    // Partial buckets at both ends can add two points
+                    && range.dividedBy(resolution.approximateLength) + 2 <= maxPoints) {
+                return resolution;
+            }
+        }
+        return MONTH;
+    }
+
+    /**
+     * Truncates a timestamp to the start of its bucket, like {@code date_trunc}.
+     *
+     * @param time the timestamp
+     * @return bucket start
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return switch (this) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case WEEK -> time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * @param bucketStart start of a bucket
+     * @return start of the following bucket
+     */
+    public LocalDateTime next(LocalDateTime bucketStart) {
+        return switch (this) {
+            case HOUR -> bucketStart.plusHours(1);
+            case DAY -> bucketStart.plusDays(1);
+            case WEEK -> bucketStart.plusWeeks(1);
+            case MONTH -> bucketStart.plusMonths(1);
+        };
+    }
+}
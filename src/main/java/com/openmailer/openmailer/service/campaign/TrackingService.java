@@ -1,8 +1,9 @@
 package com.openmailer.openmailer.service.campaign;
 
-import com.openmailer.openmailer.model.CampaignClick;
 import com.openmailer.openmailer.model.CampaignLink;
-import com.openmailer.openmailer.model.CampaignRecipient;
+import com.openmailer.openmailer.model.EngagementEvent;
+import com.openmailer.openmailer.repository.projection.LinkTrackingView;
+import com.openmailer.openmailer.repository.projection.RecipientTrackingView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,25 +15,29 @@ import java.util.UUID;
 /**
  * Service for handling email tracking functionality.
  * Generates tracking IDs for opens and orchestrates tracking operations.
+ * Opens and clicks only read projections and append to the engagement event buffer,
+ * so they run without a transaction.
  */
 @Service
-@Transactional
 public class TrackingService {
 
     private static final Logger log = LoggerFactory.getLogger(TrackingService.class);
 
     private final CampaignRecipientService recipientService;
     private final CampaignLinkService linkService;
-    private final CampaignClickService clickService;
+    private final EngagementEventService eventService;
+    private final DuplicateOpenFilter duplicateOpenFilter;
 
     @Autowired
     public TrackingService(
             CampaignRecipientService recipientService,
             CampaignLinkService linkService,
-            CampaignClickService clickService) {
+            EngagementEventService eventService,
+            DuplicateOpenFilter duplicateOpenFilter) {
         this.recipientService = recipientService;
         this.linkService = linkService;
-        this.clickService = clickService;
+        this.eventService = eventService;
+        this.duplicateOpenFilter = duplicateOpenFilter;
     }
 
     /**
@@ -47,22 +52,25 @@ public class TrackingService {
 
     /**
      * Records an email open event.
-     * This is called when the tracking pixel is loaded.
+     * This is called when the tracking pixel is loaded. The open is appended to the
+     * engagement event store; recipient open fields are derived from it asynchronously.
+     * Repeat fetches of the same pixel within the dedupe window are dropped before
+     * the recipient lookup.
      *
      * @param trackingId the tracking ID from the pixel URL
-     * @return the updated recipient
+     * @param userAgent the requesting User-Agent, may be null
      */
-    public CampaignRecipient recordOpen(String trackingId) {
-        log.info("Recording email open for tracking ID: {}", trackingId);
+    public void recordOpen(String trackingId, String userAgent) {
+        log.debug("Recording email open for tracking ID: {}", trackingId);
 
-        try {
-            CampaignRecipient recipient = recipientService.trackOpen(trackingId);
-            log.info("Email opened - Campaign: {}, Contact: {}, Open count: {}",
-                    recipient.getCampaign().getId(),
-                    recipient.getContact().getEmail(),
-                    recipient.getOpenCount());
+        if (duplicateOpenFilter.isDuplicate(trackingId)) {
+            log.debug("Skipping duplicate open for tracking ID: {}", trackingId);
+            return;
+        }
 
-            return recipient;
+        try {
+            RecipientTrackingView recipient = recipientService.findTrackingView(trackingId);
+            eventService.append(EngagementEvent.open(recipient.getCampaignId(), recipient.getId(), userAgent));
         } catch (Exception e) {
             log.error("Failed to record email open for tracking ID {}: {}",
                     trackingId, e.getMessage(), e);
@@ -72,45 +80,24 @@ public class TrackingService {
 
     /**
      * Records a link click event.
-     * This is called when a tracked link is clicked.
+     * This is called when a tracked link is clicked. Link and recipient click
+     * counters are derived from the engagement event store asynchronously.
      *
      * @param shortCode the short code from the tracking link
      * @param trackingId the recipient's tracking ID (from query param or session)
-     * @return the campaign link that was clicked
+     * @param userAgent the requesting User-Agent, may be null
+     * @return the original URL to redirect to
      */
-    public CampaignLink recordClick(String shortCode, String trackingId) {
-        log.info("Recording link click - Short code: {}, Tracking ID: {}", shortCode, trackingId);
+    public String recordClick(String shortCode, String trackingId, String userAgent) {
+        log.debug("Recording link click - Short code: {}, Tracking ID: {}", shortCode, trackingId);
 
         try {
-            // Get the link
-            CampaignLink link = linkService.findByShortCode(shortCode);
-
-            // Get the recipient
-            CampaignRecipient recipient = recipientService.findByTrackingId(trackingId);
-
-            // Check if this is a unique click (first time this recipient clicked this link)
-            boolean isUniqueClick = !clickService.hasClicked(recipient.getId(), link.getId());
-
-            // Increment click count on the link
-            linkService.incrementClickCount(shortCode, isUniqueClick);
-
-            // Track click on recipient
-            recipientService.trackClick(trackingId);
-
-            // Record detailed click event
-            CampaignClick click = new CampaignClick();
-            click.setCampaign(recipient.getCampaign());
-            click.setRecipient(recipient);
-            click.setLink(link);
-            clickService.recordClick(click);
+            LinkTrackingView link = linkService.findTrackingView(shortCode);
+            RecipientTrackingView recipient = recipientService.findTrackingView(trackingId);
 
-            log.info("Link clicked - Campaign: {}, Contact: {}, URL: {}, Unique: {}",
-                    recipient.getCampaign().getId(),
-                    recipient.getContact().getEmail(),
-                    link.getOriginalUrl(),
-                    isUniqueClick);
+            eventService.append(EngagementEvent.click(link.getCampaignId(), recipient.getId(), link.getId(), userAgent));
 
-            return link;
+            return link.getOriginalUrl();
         } catch (Exception e) {
             log.error("Failed to record link click for short code {}: {}",
                     shortCode, e.getMessage(), e);
@@ -120,21 +107,21 @@ public class TrackingService {
 
     /**
      * Records a click without tracking ID (anonymous click).
-     * Only increments the link click count.
+     * Only counts towards the link's total clicks.
      *
      * @param shortCode the short code from the tracking link
-     * @return the campaign link that was clicked
+     * @param userAgent the requesting User-Agent, may be null
+     * @return the original URL to redirect to
      */
-    public CampaignLink recordAnonymousClick(String shortCode) {
-        log.info("Recording anonymous link click for short code: {}", shortCode);
+    public String recordAnonymousClick(String shortCode, String userAgent) {
+        log.debug("Recording anonymous link click for short code: {}", shortCode);
 
         try {
-            // Increment click count (not unique since we don't know if it's a repeat)
-            CampaignLink link = linkService.incrementClickCount(shortCode, false);
+            LinkTrackingView link = linkService.findTrackingView(shortCode);
 
-            log.info("Anonymous click recorded - URL: {}", link.getOriginalUrl());
+            eventService.append(EngagementEvent.click(link.getCampaignId(), null, link.getId(), userAgent));
 
-            return link;
+            return link.getOriginalUrl();
         } catch (Exception e) {
             log.error("Failed to record anonymous click for short code {}: {}",
                     shortCode, e.getMessage(), e);
@@ -150,6 +137,7 @@ public class TrackingService {
      * @param baseUrl the base URL for the tracking service
      * @return the tracking URL
      */
+    @Transactional
     public String generateTrackingUrl(String campaignId, String originalUrl, String baseUrl) {
         CampaignLink link = linkService.findOrCreateLink(campaignId, originalUrl);
         return baseUrl + "/track/click/" + link.getShortCode();
@@ -2,25 +2,34 @@ package com.openmailer.openmailer.service.contact;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.opencsv.CSVWriter;
+import com.openmailer.openmailer.exception.ValidationException;
 import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.model.Segment;
 import com.openmailer.openmailer.repository.ContactRepository;
+import com.openmailer.openmailer.util.FailFastWriter;
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
- * Service for exporting contacts to CSV and JSON formats.
+ * Service for exporting contacts to CSV, JSON and NDJSON formats.
  * Supports filtering by list, segment, status, and custom fields.
+ * Exports are streamed, optionally gzip-compressed, straight to the response.
  */
 @Service
 @Transactional(readOnly = true)
@@ -30,117 +39,167 @@ public class ContactExportService {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     private final ContactRepository contactRepository;
-    private final ContactListMembershipService membershipService;
+    private final ContactListService listService;
+    private final SegmentService segmentService;
+    private final SegmentEvaluationService segmentEvaluationService;
+    private final EntityManager entityManager;
     private final ObjectMapper objectMapper;
 
     @Autowired
     public ContactExportService(
             ContactRepository contactRepository,
-            ContactListMembershipService membershipService) {
+            ContactListService listService,
+            SegmentService segmentService,
+            SegmentEvaluationService segmentEvaluationService,
+            EntityManager entityManager) {
         this.contactRepository = contactRepository;
-        this.membershipService = membershipService;
+        this.listService = listService;
+        this.segmentService = segmentService;
+        this.segmentEvaluationService = segmentEvaluationService;
+        this.entityManager = entityManager;
         this.objectMapper = new ObjectMapper();
     }
 
     /**
-     * Exports contacts to CSV format.
-     *
-     * @param userId the user ID
-     * @param options export options (filters, fields, etc.)
-     * @return CSV as byte array
+     * Supported export formats.
      */
-    public byte[] exportToCSV(String userId, ExportOptions options) {
-        log.info("Exporting contacts to CSV for user: {}", userId);
-
-        try {
-            List<Contact> contacts = getContactsForExport(userId, options);
+    public enum ExportFormat {
+        CSV("csv", "text/csv"),
+        JSON("json", "application/json"),
+        NDJSON("ndjson", "application/x-ndjson");
 
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            CSVWriter writer = new CSVWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        private final String extension;
+        private final String contentType;
 
-            // Write headers
-            String[] headers = getCSVHeaders(options);
-            writer.writeNext(headers);
-
-            // Write data rows
-            for (Contact contact : contacts) {
-                String[] row = contactToCSVRow(contact, options);
-                writer.writeNext(row);
-            }
+        ExportFormat(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
 
-            writer.close();
+        public String getExtension() {
+            return extension;
+        }
 
-            log.info("Exported {} contacts to CSV", contacts.size());
-            return outputStream.toByteArray();
+        public String getContentType() {
+            return contentType;
+        }
 
-        } catch (Exception e) {
-            log.error("Failed to export contacts to CSV: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to export contacts to CSV", e);
+        /**
+         * @param value format name, case-insensitive; unknown names select CSV
+         * @return the format
+         */
+        public static ExportFormat from(String value) {
+            if ("json".equalsIgnoreCase(value)) {
+                return JSON;
+            }
+            return "ndjson".equalsIgnoreCase(value) ? NDJSON : CSV;
         }
     }
 
     /**
-     * Exports contacts to JSON format.
+     * Checks that the list and segment an export is filtered by belong to the user.
+     * Called before the response is committed, so a missing list or segment still yields a 404.
      *
      * @param userId the user ID
      * @param options export options
-     * @return JSON as byte array
+     * @throws ValidationException if the segment belongs to a different list than the one requested
      */
-    public byte[] exportToJSON(String userId, ExportOptions options) {
-        log.info("Exporting contacts to JSON for user: {}", userId);
-
-        try {
-            List<Contact> contacts = getContactsForExport(userId, options);
-
-            List<Map<String, Object>> exportData = new ArrayList<>();
+    public void validateOptions(String userId, ExportOptions options) {
+        if (options.getListId() != null) {
+            listService.findByIdAndUserId(options.getListId(), userId);
+        }
+        if (options.getSegmentId() != null) {
+            Segment segment = segmentService.findByIdAndUserId(options.getSegmentId(), userId);
+            String segmentListId = segment.getContactList() != null ? segment.getContactList().getId() : null;
+            if (options.getListId() != null && segmentListId != null && !options.getListId().equals(segmentListId)) {
+                throw new ValidationException("Segment belongs to a different list", "segmentId");
+            }
+        }
+    }
 
-            for (Contact contact : contacts) {
-                Map<String, Object> contactMap = contactToMap(contact, options);
-                exportData.add(contactMap);
+    /**
+     * Streams a user's contacts to an output stream.
+     * Contacts are read from a database cursor and detached once written, so heap use
+     * does not depend on the number of contacts exported.
+     *
+     * @param userId the user ID
+     * @param options export options (filters, fields, etc.)
+     * @param format the output format
+     * @param gzip whether to gzip-compress the output
+     * @param outputStream the response body; closed when the export finishes
+     * @return number of contacts written
+     */
+    public long export(String userId, ExportOptions options, ExportFormat format, boolean gzip,
+                       OutputStream outputStream) throws IOException {
+        log.info("Exporting contacts as {} for user: {}", format, userId);
+
+        SegmentPredicate segmentPredicate = SegmentPredicate.ALL;
+        String listId = options.getListId();
+        if (options.getSegmentId() != null) {
+            Segment segment = segmentService.findByIdAndUserId(options.getSegmentId(), userId);
+            segmentPredicate = segmentEvaluationService.compile(segment);
+            if (listId == null && segment.getContactList() != null) {
+                listId = segment.getContactList().getId();
             }
+        }
+        SegmentPredicate segmentFilter = segmentPredicate;
+
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, 64 * 1024) : outputStream;
+        long[] rows = {0};
 
-            String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(exportData);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8));
+             Stream<Contact> contacts = listId != null
+                     ? contactRepository.streamListForExport(userId, listId, options.getStatus())
+                     : contactRepository.streamForExport(userId, options.getStatus())) {
 
-            log.info("Exported {} contacts to JSON", contacts.size());
-            return json.getBytes(StandardCharsets.UTF_8);
+            // CSVWriter swallows write errors, so fail fast to stop reading at a client abort
+            CSVWriter csvWriter = format == ExportFormat.CSV ? new CSVWriter(new FailFastWriter(writer)) : null;
+            if (csvWriter != null) {
+                csvWriter.writeNext(getCSVHeaders(options));
+            } else if (format == ExportFormat.JSON) {
+                writer.write("[\n");
+            }
 
-        } catch (Exception e) {
-            log.error("Failed to export contacts to JSON: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to export contacts to JSON", e);
+            contacts.forEach(contact -> {
+                if (segmentFilter.test(contact)) {
+                    if (csvWriter != null) {
+                        csvWriter.writeNext(contactToCSVRow(contact, options));
+                    } else {
+                        writeJson(writer, contactToMap(contact, options), format, rows[0] == 0);
+                    }
+                    rows[0]++;
+                }
+                entityManager.detach(contact);
+            });
+
+            if (csvWriter != null) {
+                csvWriter.flush();
+            } else if (format == ExportFormat.JSON) {
+                writer.write(rows[0] > 0 ? "\n]\n" : "]\n");
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
+
+        log.info("Exported {} contacts as {}", rows[0], format);
+        return rows[0];
     }
 
     /**
-     * Gets contacts for export based on filters.
+     * Writes one contact as a JSON array element or NDJSON line.
      */
-    private List<Contact> getContactsForExport(String userId, ExportOptions options) {
-        List<Contact> contacts;
-
-        if (options.getListId() != null) {
-            // Export contacts from a specific list
-            List<String> contactIds = membershipService.getContactIdsByList(options.getListId());
-            contacts = contactRepository.findAllById(contactIds);
-
-            // Filter by user
-            contacts = contacts.stream()
-                    .filter(c -> userId.equals(c.getUserId()))
-                    .toList();
-
-        } else if (options.getStatus() != null) {
-            // Export by status
-            Page<Contact> page = contactRepository.findByUser_IdAndStatus(
-                    userId,
-                    options.getStatus(),
-                    PageRequest.of(0, Integer.MAX_VALUE)
-            );
-            contacts = page.getContent();
-
-        } else {
-            // Export all contacts
-            contacts = contactRepository.findByUser_Id(userId);
-        }
-
-        return contacts;
+    private void writeJson(Writer writer, Map<String, Object> values, ExportFormat format, boolean first) {
+        try {
+            if (format == ExportFormat.JSON && !first) {
+                writer.write(",\n");
+            }
+            writer.write(objectMapper.writeValueAsString(values));
+            if (format == ExportFormat.NDJSON) {
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
@@ -215,9 +274,11 @@ public class ContactExportService {
                     : "";
             values.add(createdAt);
         }
-        if (options.isIncludeCustomFields() && contact.getCustomFields() != null) {
+        if (options.isIncludeCustomFields()) {
             try {
-                String customFields = objectMapper.writeValueAsString(contact.getCustomFields());
+                String customFields = contact.getCustomFields() != null
+                        ? objectMapper.writeValueAsString(contact.getCustomFields())
+                        : "";
                 values.add(customFields);
             } catch (Exception e) {
                 values.add("{}");
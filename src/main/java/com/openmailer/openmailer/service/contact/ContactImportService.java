@@ -1,53 +1,178 @@
 package com.openmailer.openmailer.service.contact;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
-import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.exception.ResourceNotFoundException;
+import com.openmailer.openmailer.exception.ValidationException;
 import com.openmailer.openmailer.model.User;
-import com.openmailer.openmailer.repository.ContactRepository;
+import com.openmailer.openmailer.repository.ContactImportJobRepository;
+import com.openmailer.openmailer.repository.ContactImportRepository;
+import com.openmailer.openmailer.repository.ContactListMembershipBulkRepository;
+import com.openmailer.openmailer.repository.projection.ContactImportJob;
+import com.openmailer.openmailer.repository.projection.ImportedContact;
+import com.openmailer.openmailer.util.IdGenerator;
+import com.openmailer.openmailer.util.MappedCsvScanner;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.validator.routines.EmailValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 /**
  * Service for importing contacts from CSV files.
- * Handles parsing, validation, duplicate detection, and bulk insertion.
+ * Uploads are staged to local disk, either from a single request or assembled from parts
+ * for large files, and imported by a background worker, so requests return as soon as
+ * the file is stored. Rows are streamed from the file in fixed-size
+ * chunks; each chunk is validated and normalized in parallel and written with a single
+ * bulk upsert together with the job's progress, so memory use does not grow with the file
+ * and an interrupted import resumes after its last committed chunk when the node restarts.
+ * Only a permanent failure fails a job and deletes its file: an import stopped by shutdown
+ * stays unfinished for the next start, and one stopped by a transient database error is
+ * retried on this node.
  */
 @Service
-@Transactional
 public class ContactImportService {
 
     private static final Logger log = LoggerFactory.getLogger(ContactImportService.class);
 
-    private static final int BATCH_SIZE = 100;
-    private static final Map<String, ImportJob> importJobs = new ConcurrentHashMap<>();
-
-    private final ContactRepository contactRepository;
-    private final ContactListMembershipService membershipService;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_REPORTED_DUPLICATES = 20;
+    private static final long SHUTDOWN_GRACE_SECONDS = 30;
+    private static final int PARSE_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static final Set<String> STANDARD_FIELDS =
+            Set.of("email", "firstname", "first_name", "lastname", "last_name", "status", "source");
+
+    private final ContactImportRepository importRepository;
+    private final ContactImportJobRepository jobRepository;
+    private final ContactListMembershipBulkRepository membershipRepository;
+    private final TransactionTemplate transactionTemplate;
     private final EmailValidator emailValidator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final long rangeBytes;
+    private final long maxUploadBytes;
+    private final long maxPartBytes;
+    private final int uploadExpiryHours;
+    private final Path stagingDirectory;
+    private final String node;
+    private final ExecutorService importExecutor;
+    // Set when existing contacts prevent the unique email index that imports upsert on
+    private volatile boolean emailIndexMissing;
+    private volatile boolean stopping;
+    // Jobs stopped by a transient error, waiting to be retried
+    private final Set<String> pausedJobIds = ConcurrentHashMap.newKeySet();
 
     @Autowired
     public ContactImportService(
-            ContactRepository contactRepository,
-            ContactListMembershipService membershipService) {
-        this.contactRepository = contactRepository;
-        this.membershipService = membershipService;
+            ContactImportRepository importRepository,
+            ContactImportJobRepository jobRepository,
+            ContactListMembershipBulkRepository membershipRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.contacts.import.chunk-size:1000}") int chunkSize,
+            @Value("${app.contacts.import.range-bytes:4194304}") long rangeBytes,
+            @Value("${app.contacts.import.upload.max-file-size:4294967296}") long maxUploadBytes,
+            @Value("${app.contacts.import.upload.max-part-size:67108864}") long maxPartBytes,
+            @Value("${app.contacts.import.upload.expiry-hours:24}") int uploadExpiryHours,
+            @Value("${app.contacts.import.staging-dir:${java.io.tmpdir}/openmailer-imports}") String stagingDirectory,
+            @Value("${app.contacts.import.node-id:}") String node,
+            @Value("${app.contacts.import.concurrency:2}") int concurrency) {
+        this.importRepository = importRepository;
+        this.jobRepository = jobRepository;
+        this.membershipRepository = membershipRepository;
+        this.transactionTemplate = transactionTemplate;
         this.emailValidator = EmailValidator.getInstance();
+        this.objectMapper = new ObjectMapper();
+        this.chunkSize = Math.min(chunkSize, ContactImportRepository.MAX_CHUNK_SIZE);
+        this.rangeBytes = rangeBytes;
+        this.maxUploadBytes = maxUploadBytes;
+        this.maxPartBytes = maxPartBytes;
+        this.uploadExpiryHours = uploadExpiryHours;
+        this.stagingDirectory = Paths.get(stagingDirectory);
+        this.node = node.isBlank() ? localHostName() : node;
+        this.importExecutor = Executors.newFixedThreadPool(concurrency, Thread.ofPlatform().name("contact-import-", 0).factory());
+    }
+
+    @PostConstruct
+    public void initialize() throws IOException {
+        List<String> duplicates = importRepository.createSchemaIfMissing(MAX_REPORTED_DUPLICATES);
+        emailIndexMissing = !duplicates.isEmpty();
+        if (emailIndexMissing) {
+            log.error("Contact imports are paused: some users have emails that differ only in case. "
+                    + "Merge them and restart to build the unique email index. Duplicates: {}", duplicates);
+        }
+        jobRepository.createSchemaIfMissing();
+        Files.createDirectories(stagingDirectory);
+    }
+
+    /**
+     * Stops the running imports after their current chunk. Stopped jobs stay unfinished
+     * and keep their files, so they resume when the node starts again.
+     */
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+        importExecutor.shutdown();
+        try {
+            if (!importExecutor.awaitTermination(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS)) {
+                importExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            importExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Resumes this node's imports that were queued or running when it last stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedImports() {
+        List<String> jobIds = jobRepository.findUnfinishedIds(node);
+        if (!jobIds.isEmpty()) {
+            log.info("Resuming {} unfinished import job(s) on node {}", jobIds.size(), node);
+        }
+        jobIds.forEach(jobId -> importExecutor.execute(() -> runImport(jobId)));
     }
 
     /**
-     * Starts an asynchronous import job from a CSV file.
+     * Stages a CSV file and queues an import job for it.
      *
      * @param file the CSV file
      * @param user the user importing contacts
@@ -58,219 +183,421 @@ public class ContactImportService {
     public String startImport(MultipartFile file, User user, String listId, boolean skipDuplicates) {
         String jobId = UUID.randomUUID().toString();
 
-        ImportJob job = new ImportJob();
+        try {
+            file.transferTo(stagedFile(jobId));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to stage import file", e);
+        }
+
+        ContactImportJob job = new ContactImportJob();
         job.setJobId(jobId);
         job.setUserId(user.getId());
         job.setListId(listId);
-        job.setStatus("PROCESSING");
+        job.setSkipDuplicates(skipDuplicates);
+        job.setStatus(ContactImportJobRepository.QUEUED);
+        job.setFileSize(file.getSize());
         job.setStartedAt(LocalDateTime.now());
+        jobRepository.insert(job, node);
 
-        importJobs.put(jobId, job);
-
-        // Start async processing
-        processImportAsync(file, user, listId, skipDuplicates, job);
+        importExecutor.execute(() -> runImport(jobId));
 
         return jobId;
     }
 
     /**
-     * Processes the import asynchronously.
+     * Creates an import job whose file is uploaded in parts, for files beyond the
+     * multipart request limit. Parts are appended in order with {@link #appendUpload};
+     * after a failed part the client reads {@code uploadedBytes} and continues from there.
+     *
+     * @param user the user importing contacts
+     * @param fileSize total size of the file in bytes
+     * @return the job, whose ID identifies the upload
      */
-    @Async
-    public void processImportAsync(MultipartFile file, User user, String listId, boolean skipDuplicates, ImportJob job) {
-        try {
-            log.info("Starting import job {} for user {}", job.getJobId(), user.getId());
-
-            List<Map<String, String>> records = parseCSV(file);
-            job.setTotalRows(records.size());
+    public ContactImportJob createUpload(User user, long fileSize) {
+        if (fileSize <= 0 || fileSize > maxUploadBytes) {
+            throw new ValidationException("File size must be between 1 and " + maxUploadBytes + " bytes", "fileSize");
+        }
 
-            List<Contact> contactsToSave = new ArrayList<>();
-            List<String> errors = new ArrayList<>();
+        String jobId = UUID.randomUUID().toString();
+        try {
+            Files.createFile(stagedFile(jobId));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to stage import file", e);
+        }
 
-            for (int i = 0; i < records.size(); i++) {
-                Map<String, String> row = records.get(i);
+        ContactImportJob job = new ContactImportJob();
+        job.setJobId(jobId);
+        job.setUserId(user.getId());
+        job.setStatus(ContactImportJobRepository.UPLOADING);
+        job.setFileSize(fileSize);
+        job.setStartedAt(LocalDateTime.now());
+        jobRepository.insert(job, node);
+        return job;
+    }
 
-                try {
-                    Contact contact = processRow(row, user, skipDuplicates);
-                    if (contact != null) {
-                        contactsToSave.add(contact);
-                    } else {
-                        job.setSkippedCount(job.getSkippedCount() + 1);
-                    }
+    /**
+     * Appends a part to an upload. The part must start where the received bytes end.
+     * Bytes received before a broken connection are kept, so the client can resume.
+     *
+     * @param jobId the upload's job ID
+     * @param userId the user uploading
+     * @param offset where the part starts in the file
+     * @param part the part's bytes
+     * @return the job with the bytes received so far
+     */
+    public ContactImportJob appendUpload(String jobId, String userId, long offset, InputStream part) {
+        ContactImportJob job = getUpload(jobId, userId);
 
-                    // Batch insert
-                    if (contactsToSave.size() >= BATCH_SIZE) {
-                        saveContacts(contactsToSave, listId);
-                        job.setImportedCount(job.getImportedCount() + contactsToSave.size());
-                        contactsToSave.clear();
-                    }
+        try (FileChannel channel = FileChannel.open(stagedFile(jobId), StandardOpenOption.WRITE)) {
+            // The lock is released when the channel closes
+            if (tryLock(channel) == null) {
+                throw new ValidationException("Another part of this upload is being received", "offset");
+            }
 
-                } catch (Exception e) {
-                    errors.add("Row " + (i + 1) + ": " + e.getMessage());
-                    job.setErrorCount(job.getErrorCount() + 1);
-                }
+            long received = channel.size();
+            if (offset != received) {
+                throw new ValidationException("Upload continues at byte " + received, "offset");
             }
 
-            // Save remaining contacts
-            if (!contactsToSave.isEmpty()) {
-                saveContacts(contactsToSave, listId);
-                job.setImportedCount(job.getImportedCount() + contactsToSave.size());
+            long allowed = Math.min(maxPartBytes, job.getFileSize() - received);
+            long written = channel.transferFrom(Channels.newChannel(part), received, allowed + 1);
+            if (written > allowed) {
+                channel.truncate(received);
+                throw new ValidationException(
+                        "Part exceeds the part size limit or the declared file size", "offset");
             }
+            job.setUploadedBytes(received + written);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store upload part", e);
+        }
+
+        jobRepository.touch(jobId);
+        return job;
+    }
+
+    /**
+     * Queues the import of a fully uploaded file.
+     *
+     * @param jobId the upload's job ID
+     * @param userId the user uploading
+     * @param listId optional list to add contacts to
+     * @param skipDuplicates whether to skip or update duplicates
+     * @return the job ID
+     */
+    public String completeUpload(String jobId, String userId, String listId, boolean skipDuplicates) {
+        ContactImportJob job = getUpload(jobId, userId);
+        if (job.getUploadedBytes() != job.getFileSize()) {
+            throw new ValidationException("Upload is incomplete: received " + job.getUploadedBytes()
+                    + " of " + job.getFileSize() + " bytes", "fileSize");
+        }
 
-            job.setStatus("COMPLETED");
-            job.setCompletedAt(LocalDateTime.now());
-            job.setErrors(errors);
+        if (jobRepository.queueUploaded(jobId, listId, skipDuplicates)) {
+            importExecutor.execute(() -> runImport(jobId));
+        }
+        return jobId;
+    }
 
-            log.info("Import job {} completed. Imported: {}, Errors: {}",
-                    job.getJobId(), job.getImportedCount(), job.getErrorCount());
+    /**
+     * Retries the imports that were stopped by a transient error.
+     */
+    @Scheduled(cron = "0 * * * * *") // Every minute
+    public void retryPausedImports() {
+        for (String jobId : List.copyOf(pausedJobIds)) {
+            if (pausedJobIds.remove(jobId)) {
+                importExecutor.execute(() -> runImport(jobId));
+            }
+        }
+    }
 
-        } catch (Exception e) {
-            log.error("Import job {} failed: {}", job.getJobId(), e.getMessage(), e);
-            job.setStatus("FAILED");
-            job.setCompletedAt(LocalDateTime.now());
-            job.getErrors().add("Import failed: " + e.getMessage());
+    /**
+     * Fails uploads that stopped receiving parts and deletes their files.
+     */
+    @Scheduled(cron = "0 45 * * * *") // Every hour at 45 minutes
+    public void expireStaleUploads() {
+        List<String> expired = jobRepository.expireUploads(node, LocalDateTime.now().minusHours(uploadExpiryHours));
+        expired.forEach(jobId -> deleteStagedFile(stagedFile(jobId)));
+        if (!expired.isEmpty()) {
+            log.info("Expired {} incomplete import upload(s)", expired.size());
         }
     }
 
     /**
-     * Parses a CSV file and returns records as maps.
+     * Gets an upload that is still receiving parts on this node, with the bytes received so far.
+     *
+     * @param jobId the upload's job ID
+     * @param userId the user uploading
+     * @return the job
      */
-    private List<Map<String, String>> parseCSV(MultipartFile file) throws IOException, CsvException {
-        List<Map<String, String>> records = new ArrayList<>();
+    public ContactImportJob getUpload(String jobId, String userId) {
+        ContactImportJob job = jobRepository.findById(jobId)
+                .filter(found -> found.getUserId().equals(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Import upload", "id", jobId));
+        if (!ContactImportJobRepository.UPLOADING.equals(job.getStatus())) {
+            throw new ValidationException("Import upload is already complete", "id");
+        }
 
-        try (CSVReader reader = new CSVReader(new InputStreamReader(file.getInputStream()))) {
-            List<String[]> rows = reader.readAll();
+        Path file = stagedFile(jobId);
+        if (!Files.exists(file)) {
+            throw new ValidationException("Import upload is stored on another server", "id");
+        }
+        try {
+            job.setUploadedBytes(Files.size(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read upload size", e);
+        }
+        return job;
+    }
 
-            if (rows.isEmpty()) {
-                throw new IllegalArgumentException("CSV file is empty");
-            }
+    /**
+     * Runs or resumes an import job from its last checkpoint.
+     *
+     * @param jobId the job ID
+     */
+    void runImport(String jobId) {
+        Optional<ContactImportJob> claimed = jobRepository.markProcessing(jobId);
+        if (claimed.isEmpty()) {
+            return;
+        }
 
-            // First row is headers
-            String[] headers = rows.get(0);
+        ContactImportJob job = claimed.get();
+        Path file = stagedFile(jobId);
+        try {
+            log.info("Starting import job {} for user {} at byte {}", jobId, job.getUserId(), job.getProcessedBytes());
 
-            // Validate required headers
-            boolean hasEmail = Arrays.asList(headers).stream()
-                    .anyMatch(h -> h.equalsIgnoreCase("email"));
-            if (!hasEmail) {
-                throw new IllegalArgumentException("CSV must contain 'email' column");
+            if (!Files.exists(file)) {
+                throw new IllegalStateException("Staged import file is no longer available");
             }
+            if (emailIndexMissing) {
+                throw new IllegalStateException("Contacts with emails that differ only in case must be merged first");
+            }
+            importRows(file, job);
+            job.setStatus(ContactImportJobRepository.COMPLETED);
 
-            // Parse data rows
-            for (int i = 1; i < rows.size(); i++) {
-                String[] values = rows.get(i);
-                Map<String, String> record = new HashMap<>();
-
-                for (int j = 0; j < headers.length && j < values.length; j++) {
-                    record.put(headers[j].toLowerCase(), values[j]);
-                }
+            log.info("Import job {} completed. Imported: {}, Skipped: {}, Errors: {}",
+                    jobId, job.getImportedCount(), job.getSkippedCount(), job.getErrorCount());
 
-                records.add(record);
+        } catch (Exception e) {
+            if (stopping || Thread.currentThread().isInterrupted()) {
+                log.info("Import job {} stopped at byte {}; it resumes when the node restarts",
+                        jobId, job.getProcessedBytes());
+                return;
+            }
+            if (isTransient(e)) {
+                log.warn("Import job {} paused at byte {} and will be retried: {}",
+                        jobId, job.getProcessedBytes(), e.getMessage());
+                pausedJobIds.add(jobId);
+                return;
             }
+            log.error("Import job {} failed: {}", jobId, e.getMessage(), e);
+            job.setStatus(ContactImportJobRepository.FAILED);
+            job.getErrors().add("Import failed: " + e.getMessage());
         }
 
-        return records;
+        jobRepository.finish(job);
+        deleteStagedFile(file);
     }
 
     /**
-     * Processes a single CSV row into a Contact.
+     * Whether an import failed on an error that may go away by itself, such as a lost
+     * connection or a lock timeout, rather than on its data.
      */
-    private Contact processRow(Map<String, String> row, User user, boolean skipDuplicates) {
-        String email = row.get("email");
-
-        if (email == null || email.trim().isEmpty()) {
-            throw new IllegalArgumentException("Email is required");
+    private static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException) {
+                return true;
+            }
         }
+        return false;
+    }
 
-        email = email.trim().toLowerCase();
+    /**
+     * Imports the rows after the job's checkpoint. The file is memory-mapped and read in
+     * windows of byte ranges: the ranges of a window are parsed on several cores, then
+     * their rows are written in file order, one chunk at a time. Each chunk commits
+     * together with the job's new progress, so row numbers, "later rows win" and the
+     * checkpoint all follow the order of the file.
+     *
+     * @param file the staged CSV file
+     * @param job the job to import and record progress on
+     */
+    void importRows(Path file, ContactImportJob job) throws IOException {
+        try (MappedCsvScanner scanner = MappedCsvScanner.open(file)) {
+            long[] header = scanner.split(scanner.start(), 1, 1);
+            String[] headers = readHeaders(header.length > 1
+                    ? scanner.parse(header[0], header[1]).fields().stream().findFirst().orElse(null)
+                    : null);
+
+            long position = Math.max(job.getProcessedBytes(), header[1]);
+            while (position < scanner.size()) {
+                long[] bounds = scanner.split(position, rangeBytes, PARSE_PARALLELISM);
+                List<MappedCsvScanner.Records> ranges = IntStream.range(0, bounds.length - 1)
+                        .parallel()
+                        .mapToObj(i -> scanner.parse(bounds[i], bounds[i + 1]))
+                        .toList();
+
+                for (MappedCsvScanner.Records range : ranges) {
+                    for (int from = 0; from < range.fields().size(); from += chunkSize) {
+                        if (stopping) {
+                            throw new CancellationException("Import stopped by shutdown");
+                        }
+                        int to = Math.min(from + chunkSize, range.fields().size());
+                        importChunk(headers, range.fields().subList(from, to), range.ends()[to - 1], job);
+                    }
+                }
+                position = bounds[bounds.length - 1];
+            }
+        }
+    }
 
-        // Validate email format
-        if (!emailValidator.isValid(email)) {
-            throw new IllegalArgumentException("Invalid email format: " + email);
+    /**
+     * Validates and writes one chunk of rows, then checkpoints the job in the same transaction.
+     */
+    private void importChunk(String[] headers, List<String[]> chunk, long endOffset, ContactImportJob job) {
+        int firstRowNumber = job.getTotalRows() + 1;
+        List<ParsedRow> parsed = IntStream.range(0, chunk.size())
+                .parallel()
+                .mapToObj(i -> parseRow(headers, chunk.get(i), firstRowNumber + i))
+                .toList();
+
+        // Later rows win over earlier rows with the same email
+        Map<String, ImportedContact> contacts = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        int repeated = 0;
+        for (ParsedRow row : parsed) {
+            if (row.error() != null) {
+                errors.add("Row " + row.rowNumber() + ": " + row.error());
+            } else if (contacts.put(row.contact().email(), row.contact()) != null) {
+                repeated++;
+            }
         }
 
-        // Check for duplicates
-        Optional<Contact> existing = contactRepository.findByEmailAndUser_Id(email, user.getId());
+        List<ImportedContact> withStatus = new ArrayList<>();
+        List<ImportedContact> withoutStatus = new ArrayList<>();
+        contacts.values().forEach(contact -> (contact.status() != null ? withStatus : withoutStatus).add(contact));
 
-        if (existing.isPresent()) {
-            if (skipDuplicates) {
-                return null; // Skip this contact
-            } else {
-                // Update existing contact
-                Contact contact = existing.get();
-                updateContactFromRow(contact, row);
-                return contact;
+        boolean updateExisting = !job.isSkipDuplicates();
+        int skipped = repeated;
+        transactionTemplate.executeWithoutResult(status -> {
+            List<String> ids = new ArrayList<>(importRepository.upsert(job.getUserId(), withStatus, updateExisting, true));
+            ids.addAll(importRepository.upsert(job.getUserId(), withoutStatus, updateExisting, false));
+            if (job.getListId() != null && !job.getListId().isEmpty()) {
+                membershipRepository.addContacts(job.getListId(), ids);
             }
+
+            job.setProcessedBytes(endOffset);
+            job.setTotalRows(job.getTotalRows() + chunk.size());
+            job.setImportedCount(job.getImportedCount() + ids.size());
+            job.setSkippedCount(job.getSkippedCount() + skipped + contacts.size() - ids.size());
+            job.setErrorCount(job.getErrorCount() + errors.size());
+            errors.stream()
+                    .limit(Math.max(MAX_REPORTED_ERRORS - job.getErrors().size(), 0))
+                    .forEach(job.getErrors()::add);
+            jobRepository.saveProgress(job);
+        });
+    }
+
+    /**
+     * Validates and normalizes the header row.
+     */
+    private String[] readHeaders(String[] headers) {
+        if (headers == null) {
+            throw new IllegalArgumentException("CSV file is empty");
+        }
+
+        for (int i = 0; i < headers.length; i++) {
+            String header = i == 0 && headers[i].startsWith("\uFEFF") ? headers[i].substring(1) : headers[i];
+            headers[i] = header.trim().toLowerCase();
         }
 
-        // Create new contact
-        Contact contact = new Contact();
-        contact.setUser(user);
-        contact.setEmail(email);
-        contact.setStatus("SUBSCRIBED");
-        updateContactFromRow(contact, row);
+        // Validate required headers
+        if (!Arrays.asList(headers).contains("email")) {
+            throw new IllegalArgumentException("CSV must contain 'email' column");
+        }
 
-        return contact;
+        return headers;
     }
 
     /**
-     * Updates contact fields from CSV row.
+     * Validates and normalizes a single CSV row. Safe to call from several threads.
      */
-    private void updateContactFromRow(Contact contact, Map<String, String> row) {
-        if (row.containsKey("firstname") || row.containsKey("first_name")) {
-            String firstName = row.getOrDefault("firstname", row.get("first_name"));
-            if (firstName != null && !firstName.isEmpty()) {
-                contact.setFirstName(firstName.trim());
-            }
+    private ParsedRow parseRow(String[] headers, String[] values, int rowNumber) {
+        Map<String, String> row = new HashMap<>();
+        for (int j = 0; j < headers.length && j < values.length; j++) {
+            row.put(headers[j], values[j]);
         }
 
-        if (row.containsKey("lastname") || row.containsKey("last_name")) {
-            String lastName = row.getOrDefault("lastname", row.get("last_name"));
-            if (lastName != null && !lastName.isEmpty()) {
-                contact.setLastName(lastName.trim());
-            }
-        }
+        String email = row.get("email");
 
-        if (row.containsKey("status")) {
-            String status = row.get("status");
-            if (status != null && !status.isEmpty()) {
-                contact.setStatus(status.toUpperCase());
-            }
+        if (email == null || email.trim().isEmpty()) {
+            return ParsedRow.error(rowNumber, "Email is required");
         }
 
-        if (row.containsKey("source")) {
-            String source = row.get("source");
-            if (source != null && !source.isEmpty()) {
-                contact.setSource(source.trim());
-            }
+        email = email.trim().toLowerCase();
+
+        // Validate email format
+        if (!emailValidator.isValid(email)) {
+            return ParsedRow.error(rowNumber, "Invalid email format: " + email);
         }
 
+        String firstName = trimToNull(row.getOrDefault("firstname", row.get("first_name")));
+        String lastName = trimToNull(row.getOrDefault("lastname", row.get("last_name")));
+        String status = trimToNull(row.get("status"));
+        String source = trimToNull(row.get("source"));
+
         // Handle custom fields (any column not in standard fields)
         Map<String, Object> customFields = new HashMap<>();
-        Set<String> standardFields = Set.of("email", "firstname", "first_name", "lastname", "last_name", "status", "source");
-
         for (Map.Entry<String, String> entry : row.entrySet()) {
-            if (!standardFields.contains(entry.getKey()) && entry.getValue() != null && !entry.getValue().isEmpty()) {
+            if (!STANDARD_FIELDS.contains(entry.getKey()) && entry.getValue() != null && !entry.getValue().isEmpty()) {
                 customFields.put(entry.getKey(), entry.getValue());
             }
         }
 
-        if (!customFields.isEmpty()) {
-            contact.setCustomFields(customFields);
+        try {
+            return new ParsedRow(rowNumber, new ImportedContact(
+                    IdGenerator.generateId(),
+                    email,
+                    firstName,
+                    lastName,
+                    status != null ? status.toUpperCase() : null,
+                    source,
+                    customFields.isEmpty() ? null : objectMapper.writeValueAsString(customFields)), null);
+        } catch (JsonProcessingException e) {
+            return ParsedRow.error(rowNumber, "Invalid custom fields: " + e.getOriginalMessage());
         }
     }
 
-    /**
-     * Saves contacts in batch and optionally adds them to a list.
-     */
-    private void saveContacts(List<Contact> contacts, String listId) {
-        List<Contact> saved = contactRepository.saveAll(contacts);
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
 
-        // Add to list if specified
-        if (listId != null && !listId.isEmpty()) {
-            List<String> contactIds = saved.stream()
-                    .map(Contact::getId)
-                    .toList();
-            membershipService.addContactsToList(contactIds, listId);
+    private Path stagedFile(String jobId) {
+        return stagingDirectory.resolve(jobId + ".csv");
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    private static void deleteStagedFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete staged import file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
         }
     }
 
@@ -280,12 +607,9 @@ public class ContactImportService {
      * @param jobId the job ID
      * @return import job status
      */
-    public ImportJob getImportStatus(String jobId) {
-        ImportJob job = importJobs.get(jobId);
-        if (job == null) {
-            throw new RuntimeException("Import job not found: " + jobId);
-        }
-        return job;
+    public ContactImportJob getImportStatus(String jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Import job", "id", jobId));
     }
 
     /**
@@ -297,17 +621,20 @@ public class ContactImportService {
     public ValidationResult validateCSV(MultipartFile file) {
         ValidationResult result = new ValidationResult();
 
-        try {
-            List<Map<String, String>> records = parseCSV(file);
+        try (CSVReader reader = new CSVReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            String[] headers = readHeaders(reader.readNext());
+            int emailColumn = Arrays.asList(headers).indexOf("email");
             result.setValid(true);
-            result.setTotalRows(records.size());
 
             Set<String> emails = new HashSet<>();
+            int totalRows = 0;
             int duplicatesInFile = 0;
             int invalidEmails = 0;
+            String[] values;
 
-            for (Map<String, String> row : records) {
-                String email = row.get("email");
+            while ((values = reader.readNext()) != null) {
+                totalRows++;
+                String email = emailColumn < values.length ? values[emailColumn] : null;
 
                 if (email == null || email.trim().isEmpty()) {
                     invalidEmails++;
@@ -321,16 +648,15 @@ public class ContactImportService {
                     continue;
                 }
 
-                if (emails.contains(email)) {
+                if (!emails.add(email)) {
                     duplicatesInFile++;
-                } else {
-                    emails.add(email);
                 }
             }
 
+            result.setTotalRows(totalRows);
             result.setDuplicatesInFile(duplicatesInFile);
             result.setInvalidEmails(invalidEmails);
-            result.setValidRows(records.size() - invalidEmails);
+            result.setValidRows(totalRows - invalidEmails);
 
         } catch (Exception e) {
             result.setValid(false);
@@ -341,107 +667,12 @@ public class ContactImportService {
     }
 
     /**
-     * Import job tracking.
+     * Outcome of validating one row: either a contact or an error.
      */
-    public static class ImportJob {
-        private String jobId;
-        private String userId;
-        private String listId;
-        private String status;
-        private int totalRows;
-        private int importedCount = 0;
-        private int skippedCount = 0;
-        private int errorCount = 0;
-        private LocalDateTime startedAt;
-        private LocalDateTime completedAt;
-        private List<String> errors = new ArrayList<>();
-
-        public String getJobId() {
-            return jobId;
-        }
-
-        public void setJobId(String jobId) {
-            this.jobId = jobId;
-        }
-
-        public String getUserId() {
-            return userId;
-        }
-
-        public void setUserId(String userId) {
-            this.userId = userId;
-        }
-
-        public String getListId() {
-            return listId;
-        }
-
-        public void setListId(String listId) {
-            this.listId = listId;
-        }
-
-        public String getStatus() {
-            return status;
-        }
-
-        public void setStatus(String status) {
-            this.status = status;
-        }
-
-        public int getTotalRows() {
-            return totalRows;
-        }
-
-        public void setTotalRows(int totalRows) {
-            this.totalRows = totalRows;
-        }
-
-        public int getImportedCount() {
-            return importedCount;
-        }
-
-        public void setImportedCount(int importedCount) {
-            this.importedCount = importedCount;
-        }
-
-        public int getErrorCount() {
-            return errorCount;
-        }
-
-        public void setErrorCount(int errorCount) {
-            this.errorCount = errorCount;
-        }
-
-        public int getSkippedCount() {
-            return skippedCount;
-        }
-
-        public void setSkippedCount(int skippedCount) {
-            this.skippedCount = skippedCount;
-        }
-
-        public LocalDateTime getStartedAt() {
-            return startedAt;
-        }
-
-        public void setStartedAt(LocalDateTime startedAt) {
-            this.startedAt = startedAt;
-        }
-
-        public LocalDateTime getCompletedAt() {
-            return completedAt;
-        }
-
-        public void setCompletedAt(LocalDateTime completedAt) {
-            this.completedAt = completedAt;
-        }
-
-        public List<String> getErrors() {
-            return errors;
-        }
+    private record ParsedRow(int rowNumber, ImportedContact contact, String error) {
 
-        public void setErrors(List<String> errors) {
-            this.errors = errors;
+        static ParsedRow error(int rowNumber, String error) {
+            return new ParsedRow(rowNumber, null, error);
         }
     }
 
@@ -3,7 +3,9 @@ package com.openmailer.openmailer.service.contact;
 import com.openmailer.openmailer.exception.ResourceNotFoundException;
 import com.openmailer.openmailer.exception.ValidationException;
 import com.openmailer.openmailer.model.ContactListMembership;
+import com.openmailer.openmailer.repository.ContactListMembershipBulkRepository;
 import com.openmailer.openmailer.repository.ContactListMembershipRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,21 +13,35 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service class for ContactListMembership management operations.
  * Handles adding/removing contacts to/from lists.
+ * Every change also updates the list's cached total and active counts in the same transaction.
  */
 @Service
 @Transactional
 public class ContactListMembershipService {
 
   private final ContactListMembershipRepository membershipRepository;
+  private final ContactListMembershipBulkRepository bulkRepository;
 
   @Autowired
-  public ContactListMembershipService(ContactListMembershipRepository membershipRepository) {
+  public ContactListMembershipService(
+      ContactListMembershipRepository membershipRepository,
+      ContactListMembershipBulkRepository bulkRepository) {
     this.membershipRepository = membershipRepository;
+    this.bulkRepository = bulkRepository;
+  }
+
+  @PostConstruct
+  public void initialize() {
+    bulkRepository.createSchemaIfMissing();
   }
 
   /**
@@ -47,28 +63,34 @@ public class ContactListMembershipService {
     }
 
     membership.setAddedAt(LocalDateTime.now());
-    return membershipRepository.save(membership);
+    ContactListMembership saved = membershipRepository.save(membership);
+    bulkRepository.adjustCounts(saved.getListId(), 1, "ACTIVE".equals(saved.getStatus()) ? 1 : 0);
+    return saved;
   }
 
   /**
    * Add multiple contacts to a list.
    *
-   * @param contactIds list of contact IDs
+   * Contacts already in the list are skipped.
+   *
+   * @param contactIds contact IDs
    * @param listId the list ID
-   * @return list of created memberships
+   * @return number of contacts added
+   */
+  public int addContactsToList(Collection<String> contactIds, String listId) {
+    return bulkRepository.addContacts(listId, new LinkedHashSet<>(contactIds));
+  }
+
+  /**
+   * Find which of the given contacts belong to a user, in one query.
+   *
+   * @param userId the user ID
+   * @param contactIds contact IDs
+   * @return IDs of the given contacts owned by the user
    */
-  public List<ContactListMembership> addContactsToList(List<String> contactIds, String listId) {
-    return contactIds.stream()
-        .filter(contactId -> !membershipRepository.existsByContactIdAndListId(contactId, listId))
-        .map(contactId -> {
-          ContactListMembership membership = new ContactListMembership();
-          membership.setContactId(contactId);
-          membership.setListId(listId);
-          membership.setStatus("ACTIVE");
-          membership.setAddedAt(LocalDateTime.now());
-          return membershipRepository.save(membership);
-        })
-        .toList();
+  @Transactional(readOnly = true)
+  public Set<String> findOwnedContactIds(String userId, Collection<String> contactIds) {
+    return new HashSet<>(bulkRepository.findOwnedContactIds(userId, new LinkedHashSet<>(contactIds)));
   }
 
   /**
@@ -164,8 +186,25 @@ public class ContactListMembershipService {
    */
   public ContactListMembership updateStatus(String contactId, String listId, String status) {
     ContactListMembership membership = findByContactAndList(contactId, listId);
+    int active = ("ACTIVE".equals(status) ? 1 : 0) - ("ACTIVE".equals(membership.getStatus()) ? 1 : 0);
     membership.setStatus(status);
-    return membershipRepository.save(membership);
+    ContactListMembership saved = membershipRepository.save(membership);
+    if (active != 0) {
+      bulkRepository.adjustCounts(listId, 0, active);
+    }
+    return saved;
+  }
+
+  /**
+   * Update the membership status of multiple contacts in a list.
+   *
+   * @param contactIds contact IDs
+   * @param listId the list ID
+   * @param status the new status
+   * @return number of memberships whose status changed
+   */
+  public int updateStatus(Collection<String> contactIds, String listId, String status) {
+    return bulkRepository.updateStatus(listId, new LinkedHashSet<>(contactIds), status);
   }
 
   /**
@@ -175,19 +214,28 @@ public class ContactListMembershipService {
    * @param listId the list ID
    */
   public void removeContactFromList(String contactId, String listId) {
-    membershipRepository.deleteByContactIdAndListId(contactId, listId);
+    bulkRepository.removeContacts(listId, List.of(contactId));
   }
 
   /**
    * Remove multiple contacts from a list.
    *
-   * @param contactIds list of contact IDs
+   * @param contactIds contact IDs
    * @param listId the list ID
+   * @return number of contacts removed
+   */
+  public int removeContactsFromList(Collection<String> contactIds, String listId) {
+    return bulkRepository.removeContacts(listId, new LinkedHashSet<>(contactIds));
+  }
+
+  /**
+   * Remove a contact from every list it belongs to.
+   *
+   * @param contactId the contact ID
+   * @return IDs of the lists the contact was removed from
    */
-  public void removeContactsFromList(List<String> contactIds, String listId) {
-    contactIds.forEach(contactId ->
-        membershipRepository.deleteByContactIdAndListId(contactId, listId)
-    );
+  public List<String> removeContactFromAllLists(String contactId) {
+    return bulkRepository.removeFromAllLists(contactId);
   }
 
   /**
@@ -196,7 +244,7 @@ public class ContactListMembershipService {
    * @param listId the list ID
    */
   public void removeAllContactsFromList(String listId) {
-    membershipRepository.deleteByListId(listId);
+    bulkRepository.removeAll(listId);
   }
 
   /**
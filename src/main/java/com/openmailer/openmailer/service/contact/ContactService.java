@@ -4,6 +4,11 @@ import com.openmailer.openmailer.exception.ResourceNotFoundException;
 import com.openmailer.openmailer.exception.ValidationException;
 import com.openmailer.openmailer.model.Contact;
 import com.openmailer.openmailer.repository.ContactRepository;
+import com.openmailer.openmailer.repository.ContactSearchRepository;
+import com.openmailer.openmailer.repository.ContactTagCountRepository;
+import com.openmailer.openmailer.repository.projection.ContactPageCursor;
+import com.openmailer.openmailer.repository.projection.ContactSummaryRow;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,7 +16,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Service class for Contact management operations.
@@ -22,10 +30,21 @@ import java.util.List;
 public class ContactService {
 
   private final ContactRepository contactRepository;
+  private final ContactSearchRepository searchRepository;
+  private final ContactTagCountRepository tagCountRepository;
 
   @Autowired
-  public ContactService(ContactRepository contactRepository) {
+  public ContactService(ContactRepository contactRepository, ContactSearchRepository searchRepository,
+                        ContactTagCountRepository tagCountRepository) {
     this.contactRepository = contactRepository;
+    this.searchRepository = searchRepository;
+    this.tagCountRepository = tagCountRepository;
+  }
+
+  @PostConstruct
+  public void initialize() {
+    searchRepository.createSchemaIfMissing();
+    tagCountRepository.createSchemaIfMissing();
   }
 
   /**
@@ -108,11 +127,17 @@ public class ContactService {
   }
 
   /**
-   * Search contacts by email, first name, or last name.
+   * Search contacts by email, names, tags or searched custom fields, matching the same
+   * contacts as a search through {@link #findPage}.
    */
   @Transactional(readOnly = true)
   public Page<Contact> searchContacts(String userId, String searchTerm, Pageable pageable) {
-    return contactRepository.searchContacts(userId, searchTerm, pageable);
+    String pattern = ContactSearchRepository.containsPattern(searchTerm);
+    if (searchRepository.isFuzzySearch()) {
+      return contactRepository.fuzzySearchContacts(
+          userId, pattern, searchTerm.toLowerCase(Locale.ROOT), pageable);
+    }
+    return contactRepository.searchContacts(userId, pattern, pageable);
   }
 
   /**
@@ -123,6 +148,77 @@ public class ContactService {
     return contactRepository.findByTag(userId, tag, pageable);
   }
 
+  /**
+   * Find one page of a user's contacts, newest first.
+   * Pages are addressed by cursor tokens from a previous page rather than by number,
+   * so each page is read from an index no matter how deep it is.
+   *
+   * @param userId the user ID
+   * @param status only contacts with this status, or null for all
+   * @param tag only contacts with this tag, or null for all
+   * @param search case-insensitive substring of the email or name, or null for all
+   * @param after token of the page to continue after, or null
+   * @param before token of the page to go back from; takes precedence over {@code after}
+   * @param size page size
+   * @return the page
+   */
+  @Transactional(readOnly = true)
+  public ContactPage findPage(String userId, String status, String tag, String search,
+                              String after, String before, int size) {
+    ContactPageCursor beforeCursor = ContactPageCursor.decode(before);
+    boolean backward = beforeCursor != null;
+    ContactPageCursor cursor = backward ? beforeCursor : ContactPageCursor.decode(after);
+
+    List<ContactSummaryRow> rows = new ArrayList<>(searchRepository.findPage(
+        userId, blankToNull(status), blankToNull(tag), blankToNull(search), cursor, backward, size + 1));
+    boolean hasMore = rows.size() > size;
+    if (hasMore) {
+      // The extra row is the one furthest from the cursor
+      rows.remove(backward ? 0 : rows.size() - 1);
+    }
+    if (rows.isEmpty()) {
+      return new ContactPage(rows, null, null);
+    }
+
+    String previous = (backward ? hasMore : cursor != null) ? ContactPageCursor.of(rows.getFirst()).encode() : null;
+    String next = (backward || hasMore) ? ContactPageCursor.of(rows.getLast()).encode() : null;
+    return new ContactPage(rows, previous, next);
+  }
+
+  /**
+   * Count a user's contacts per status.
+   *
+   * @param userId the user ID
+   * @return contact count by status
+   */
+  @Transactional(readOnly = true)
+  public Map<String, Long> countPerStatus(String userId) {
+    return searchRepository.countByStatus(userId);
+  }
+
+  /**
+   * Count a user's contacts per tag, from the maintained tag counts.
+   *
+   * @param userId the user ID
+   * @return contact count by tag, in tag order
+   */
+  @Transactional(readOnly = true)
+  public Map<String, Long> countPerTag(String userId) {
+    return tagCountRepository.findCounts(userId);
+  }
+
+  /**
+   * Find a user's most engaged contacts.
+   *
+   * @param userId the user ID
+   * @param limit maximum number of contacts
+   * @return contacts, highest current engagement score first
+   */
+  @Transactional(readOnly = true)
+  public List<Contact> findMostEngaged(String userId, int limit) {
+    return contactRepository.findMostEngaged(userId, limit);
+  }
+
   /**
    * Update an existing contact.
    */
@@ -240,4 +336,42 @@ public class ContactService {
   public long countByListAndStatus(String listId, String status) {
     return contactRepository.countByListAndStatus(listId, status);
   }
+
+  private static String blankToNull(String value) {
+    return value == null || value.isBlank() ? null : value.trim();
+  }
+
+  /**
+   * One page of the contacts list.
+   */
+  public static class ContactPage {
+
+    private final List<ContactSummaryRow> contacts;
+    private final String previousCursor;
+    private final String nextCursor;
+
+    public ContactPage(List<ContactSummaryRow> contacts, String previousCursor, String nextCursor) {
+      this.contacts = contacts;
+      this.previousCursor = previousCursor;
+      this.nextCursor = nextCursor;
+    }
+
+    public List<ContactSummaryRow> getContacts() {
+      return contacts;
+    }
+
+    /**
+     * @return token for the previous page, or null on the first page
+     */
+    public String getPreviousCursor() {
+      return previousCursor;
+    }
+
+    /**
+     * @return token for the next page, or null on the last page
+     */
+    public String getNextCursor() {
+      return nextCursor;
+    }
+  }
 }
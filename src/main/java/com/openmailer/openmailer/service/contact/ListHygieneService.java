@@ -1,36 +1,111 @@
 package com.openmailer.openmailer.service.contact;
 
 import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.repository.ContactEngagementRepository;
+import com.openmailer.openmailer.repository.ContactHygieneRepository;
 import com.openmailer.openmailer.repository.ContactRepository;
+import com.openmailer.openmailer.repository.projection.ContactEmail;
+import com.openmailer.openmailer.repository.projection.ContactHygieneCounts;
+import jakarta.annotation.PostConstruct;
+import org.apache.commons.validator.routines.EmailValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntSupplier;
 
 /**
  * Service for maintaining list hygiene.
  * Performs scheduled cleanup of bounced contacts, flags inactive contacts,
  * and removes old hard bounces.
+ *
+ * Jobs that touch many contacts run as set-based statements over batches of
+ * {@code batchSize} contacts, each committed in its own transaction, and log
+ * their progress as they go.
  */
 @Service
-@Transactional
 public class ListHygieneService {
 
     private static final Logger log = LoggerFactory.getLogger(ListHygieneService.class);
 
     private static final int INACTIVE_THRESHOLD_MONTHS = 6;
     private static final int HARD_BOUNCE_REMOVAL_DAYS = 30;
+    private static final int PROGRESS_LOG_INTERVAL = 20;
+    private static final int BACKFILL_BATCHES_PER_RUN = 10;
 
     private final ContactRepository contactRepository;
+    private final ContactHygieneRepository hygieneRepository;
+    private final ContactEngagementRepository engagementRepository;
+    private final MxLookupService mxLookupService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private volatile boolean engagementBackfilled;
 
     @Autowired
-    public ListHygieneService(ContactRepository contactRepository) {
+    public ListHygieneService(
+            ContactRepository contactRepository,
+            ContactHygieneRepository hygieneRepository,
+            ContactEngagementRepository engagementRepository,
+            MxLookupService mxLookupService,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.contacts.hygiene.batch-size:5000}") int batchSize) {
         this.contactRepository = contactRepository;
+        this.hygieneRepository = hygieneRepository;
+        this.engagementRepository = engagementRepository;
+        this.mxLookupService = mxLookupService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        hygieneRepository.createSchemaIfMissing();
+        engagementRepository.createSchemaIfMissing();
+    }
+
+    /**
+     * Scheduled task that fills contacts' engagement times from the recipient history,
+     * a few batches per run so startup and other scheduled tasks are not held up.
+     * Does nothing once the backfill has completed.
+     */
+    @Scheduled(fixedDelayString = "${app.contacts.hygiene.backfill-interval-ms:60000}",
+            initialDelayString = "${app.contacts.hygiene.backfill-interval-ms:60000}")
+    public void backfillEngagementTimes() {
+        if (isEngagementBackfilled()) {
+            return;
+        }
+
+        try {
+            for (int batch = 0; batch < BACKFILL_BATCHES_PER_RUN; batch++) {
+                if (!engagementRepository.backfillNextBatch()) {
+                    engagementBackfilled = true;
+                    log.info("Backfilled contact engagement times from the recipient history");
+                    return;
+                }
+            }
+            log.debug("Contact engagement backfill continues on the next run");
+        } catch (Exception e) {
+            log.error("Error backfilling contact engagement times: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean isEngagementBackfilled() {
+        if (!engagementBackfilled) {
+            engagementBackfilled = engagementRepository.isBackfillComplete();
+        }
+        return engagementBackfilled;
     }
 
     /**
@@ -58,58 +133,40 @@ public class ListHygieneService {
     }
 
     /**
-     * Flags contacts as inactive if they haven't opened any emails in 6 months.
-     * This doesn't remove them but marks them for review.
+     * Flags subscribed contacts as INACTIVE if they have been sent email for at least
+     * 6 months but haven't opened, clicked or (re)subscribed in that time.
+     * This doesn't remove them but stops sending to them until they are reactivated.
      *
      * @return number of contacts flagged as inactive
      */
     public int flagInactiveContacts() {
+        if (!isEngagementBackfilled()) {
+            // Contacts not reached yet would look inactive without their past opens and clicks
+            log.info("Skipping inactive contact flagging until engagement times are backfilled");
+            return 0;
+        }
         log.info("Flagging inactive contacts (no activity in {} months)", INACTIVE_THRESHOLD_MONTHS);
 
         LocalDateTime inactiveThreshold = LocalDateTime.now().minusMonths(INACTIVE_THRESHOLD_MONTHS);
-        int count = 0;
-
-        // This is a simplified implementation
-        // In a real system, you'd query based on last_opened_at or similar field
-        // For now, we'll just log the intent
-        log.debug("Would flag contacts with no opens since {}", inactiveThreshold);
-
-        // TODO: Implement based on campaign recipient tracking
-        // Query: SELECT contacts WHERE last_activity < inactiveThreshold AND status = 'SUBSCRIBED'
+        int count = runInBatches("Flagging inactive contacts",
+                () -> engagementRepository.flagInactiveBefore(inactiveThreshold, batchSize));
 
+        log.info("Flagged {} contacts with no activity since {}", count, inactiveThreshold);
         return count;
     }
 
     /**
-     * Removes contacts that have been in BOUNCED status for more than 30 days.
+     * Archives contacts that have been in BOUNCED status for more than 30 days.
      * This helps keep the database clean and comply with best practices.
      *
-     * @return number of contacts removed
+     * @return number of contacts archived
      */
     public int removeOldHardBounces() {
-        log.info("Removing hard bounces older than {} days", HARD_BOUNCE_REMOVAL_DAYS);
+        log.info("Archiving hard bounces older than {} days", HARD_BOUNCE_REMOVAL_DAYS);
 
         LocalDateTime removalThreshold = LocalDateTime.now().minusDays(HARD_BOUNCE_REMOVAL_DAYS);
-        int count = 0;
-
-        // Find bounced contacts older than threshold
-        List<Contact> allContacts = contactRepository.findAll();
-
-        for (Contact contact : allContacts) {
-            if ("BOUNCED".equals(contact.getStatus()) &&
-                contact.getLastBouncedAt() != null &&
-                contact.getLastBouncedAt().isBefore(removalThreshold)) {
-
-                // Option 1: Permanently delete (use with caution)
-                // contactRepository.delete(contact);
-
-                // Option 2: Mark as archived (safer approach)
-                contact.setStatus("ARCHIVED");
-                contactRepository.save(contact);
-
-                count++;
-            }
-        }
+        int count = runInBatches("Archiving old hard bounces",
+                () -> hygieneRepository.archiveBouncedBefore(removalThreshold, batchSize));
 
         log.info("Archived {} old hard bounced contacts", count);
         return count;
@@ -117,7 +174,8 @@ public class ListHygieneService {
 
     /**
      * Cleans up duplicate contacts based on email address.
-     * Keeps the most recently created contact and removes older duplicates.
+     * Keeps the most recently created contact, moves the campaign history and list
+     * memberships of older duplicates onto it, and removes them.
      *
      * @param userId the user ID to clean duplicates for
      * @return number of duplicates removed
@@ -125,48 +183,30 @@ public class ListHygieneService {
     public int removeDuplicateContacts(String userId) {
         log.info("Removing duplicate contacts for user: {}", userId);
 
-        int removedCount = 0;
-
-        // This is a simplified implementation
-        // In production, you'd use a more efficient query
-
-        List<Contact> contacts = contactRepository.findByUser_Id(userId);
+        String[] lastEmail = {null};
+        int[] removedCount = {0};
 
-        // Group by email (case-insensitive)
-        var emailGroups = new java.util.HashMap<String, java.util.List<Contact>>();
-
-        for (Contact contact : contacts) {
-            String emailLower = contact.getEmail().toLowerCase();
-            emailGroups.computeIfAbsent(emailLower, k -> new java.util.ArrayList<>()).add(contact);
-        }
-
-        // For each group with duplicates, keep the newest and remove others
-        for (var entry : emailGroups.entrySet()) {
-            List<Contact> duplicates = entry.getValue();
-
-            if (duplicates.size() > 1) {
-                // Sort by created date (newest first)
-                duplicates.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
-
-                // Keep the first (newest), remove the rest
-                for (int i = 1; i < duplicates.size(); i++) {
-                    Contact duplicate = duplicates.get(i);
-                    log.debug("Removing duplicate contact: {} (older duplicate of {})",
-                            duplicate.getId(), duplicates.get(0).getId());
-
-                    contactRepository.delete(duplicate);
-                    removedCount++;
-                }
+        runInBatches("Removing duplicate contacts for user " + userId, () -> {
+            List<String> emails = hygieneRepository.findDuplicateEmailsAfter(userId, lastEmail[0], batchSize);
+            if (emails.isEmpty()) {
+                return 0;
             }
-        }
+            lastEmail[0] = emails.get(emails.size() - 1);
+            removedCount[0] += hygieneRepository.removeDuplicates(userId, emails);
+            return emails.size();
+        });
 
-        log.info("Removed {} duplicate contacts for user {}", removedCount, userId);
-        return removedCount;
+        log.info("Removed {} duplicate contacts for user {}", removedCount[0], userId);
+        return removedCount[0];
     }
 
     /**
      * Validates and cleans up invalid email addresses.
-     * Uses commons-validator to check email format.
+     * Uses commons-validator to check email format, then resolves each distinct domain
+     * of a batch concurrently through {@link MxLookupService} and flags contacts whose
+     * domain does not accept mail. Domains whose lookup fails are left alone.
+     * Only IDs and emails are read, lookups run outside any transaction, and each batch's
+     * invalid contacts are flagged in one short transaction.
      *
      * @param userId the user ID to validate contacts for
      * @return number of invalid contacts found
@@ -174,28 +214,45 @@ public class ListHygieneService {
     public int validateAndFlagInvalidEmails(String userId) {
         log.info("Validating email addresses for user: {}", userId);
 
+        EmailValidator validator = EmailValidator.getInstance();
+        String formatNote = "[" + LocalDateTime.now() + "] Invalid email format detected";
+        String domainNote = "[" + LocalDateTime.now() + "] Email domain does not accept mail";
+        String lastEmail = null;
         int invalidCount = 0;
-        List<Contact> contacts = contactRepository.findByUser_Id(userId);
-
-        org.apache.commons.validator.routines.EmailValidator validator =
-                org.apache.commons.validator.routines.EmailValidator.getInstance();
-
-        for (Contact contact : contacts) {
-            if (!validator.isValid(contact.getEmail())) {
-                log.warn("Invalid email format detected: {}", contact.getEmail());
-
-                // Mark as bounced or create a custom status
-                if (!"BOUNCED".equals(contact.getStatus())) {
-                    contact.setStatus("INVALID");
-                    String notes = contact.getNotes() != null ? contact.getNotes() : "";
-                    notes += "\n[" + LocalDateTime.now() + "] Invalid email format detected";
-                    contact.setNotes(notes.trim());
-
-                    contactRepository.save(contact);
-                    invalidCount++;
+        int total = 0;
+        int batches = 0;
+        List<ContactEmail> contacts;
+
+        do {
+            contacts = hygieneRepository.findEmailsAfter(userId, lastEmail, batchSize);
+            if (contacts.isEmpty()) {
+                break;
+            }
+            lastEmail = contacts.get(contacts.size() - 1).emailKey();
+
+            List<String> invalidFormatIds = new ArrayList<>();
+            Map<String, List<String>> idsByDomain = new HashMap<>();
+            for (ContactEmail contact : contacts) {
+                if (!validator.isValid(contact.email())) {
+                    log.warn("Invalid email format detected: {}", contact.email());
+                    invalidFormatIds.add(contact.id());
+                } else {
+                    String domain = contact.email().substring(contact.email().lastIndexOf('@') + 1);
+                    idsByDomain.computeIfAbsent(domain.toLowerCase(Locale.ROOT), d -> new ArrayList<>()).add(contact.id());
                 }
             }
-        }
+            List<String> noMailIds = findContactsOnDomainsWithoutMail(idsByDomain);
+
+            Integer flagged = transactionTemplate.execute(status ->
+                    hygieneRepository.markInvalid(invalidFormatIds, formatNote)
+                            + hygieneRepository.markInvalid(noMailIds, domainNote));
+            invalidCount += flagged != null ? flagged : 0;
+            total += contacts.size();
+            if (++batches % PROGRESS_LOG_INTERVAL == 0) {
+                log.info("Validating email addresses for user {}: {} rows in {} batches so far, {} domains cached",
+                        userId, total, batches, mxLookupService.cachedDomains());
+            }
+        } while (contacts.size() >= batchSize);
 
         log.info("Found and flagged {} invalid email addresses", invalidCount);
         return invalidCount;
@@ -208,6 +265,7 @@ public class ListHygieneService {
      * @param contactId the contact ID to reactivate
      * @return the reactivated contact
      */
+    @Transactional
     public Contact reactivateContact(String contactId) {
         log.info("Reactivating contact: {}", contactId);
 
@@ -215,6 +273,7 @@ public class ListHygieneService {
                 .orElseThrow(() -> new RuntimeException("Contact not found: " + contactId));
 
         contact.setStatus("SUBSCRIBED");
+        contact.setSubscribedAt(LocalDateTime.now());
         contact.setUnsubscribedAt(null);
         contact.setBounceCount(0);
         contact.setLastBouncedAt(null);
@@ -235,24 +294,14 @@ public class ListHygieneService {
      * @param userId the user ID
      * @return hygiene statistics
      */
+    @Transactional(readOnly = true)
     public HygieneStatistics getHygieneStatistics(String userId) {
-        List<Contact> contacts = contactRepository.findByUser_Id(userId);
-
-        long totalContacts = contacts.size();
-        long subscribedCount = contacts.stream()
-                .filter(c -> "SUBSCRIBED".equals(c.getStatus()))
-                .count();
-        long bouncedCount = contacts.stream()
-                .filter(c -> "BOUNCED".equals(c.getStatus()))
-                .count();
-        long unsubscribedCount = contacts.stream()
-                .filter(c -> "UNSUBSCRIBED".equals(c.getStatus()))
-                .count();
-
-        // Count contacts with high bounce rates
-        long highBounceCount = contacts.stream()
-                .filter(c -> c.getBounceCount() != null && c.getBounceCount() >= 2)
-                .count();
+        ContactHygieneCounts counts = hygieneRepository.countByCategory(userId);
+        long totalContacts = counts.total();
+        long subscribedCount = counts.subscribed();
+        long bouncedCount = counts.bounced();
+        long unsubscribedCount = counts.unsubscribed();
+        long highBounceCount = counts.highBounce();
 
         HygieneStatistics stats = new HygieneStatistics();
         stats.setTotalContacts(totalContacts);
@@ -277,6 +326,48 @@ public class ListHygieneService {
         performDailyListCleanup();
     }
 
+    /**
+     * Resolves domains concurrently and collects the contacts on domains that do not accept mail.
+     *
+     * @param idsByDomain contact IDs grouped by lower-cased domain
+     * @return IDs of contacts whose domain does not accept mail
+     */
+    private List<String> findContactsOnDomainsWithoutMail(Map<String, List<String>> idsByDomain) {
+        Map<String, CompletableFuture<MxLookupService.DomainStatus>> lookups = new HashMap<>();
+        idsByDomain.keySet().forEach(domain -> lookups.put(domain, mxLookupService.resolve(domain)));
+
+        List<String> noMailIds = new ArrayList<>();
+        lookups.forEach((domain, lookup) -> {
+            if (lookup.join() == MxLookupService.DomainStatus.NO_MAIL) {
+                log.warn("Email domain does not accept mail: {}", domain);
+                noMailIds.addAll(idsByDomain.get(domain));
+            }
+        });
+        return noMailIds;
+    }
+
+    /**
+     * Runs a batch in its own transaction until it handles fewer than {@code batchSize} rows.
+     *
+     * @param job description used in progress logs
+     * @param batch processes one batch and returns the number of rows it handled
+     * @return total rows handled
+     */
+    private int runInBatches(String job, IntSupplier batch) {
+        int total = 0;
+        int batches = 0;
+        int handled;
+        do {
+            Integer result = transactionTemplate.execute(status -> batch.getAsInt());
+            handled = result != null ? result : 0;
+            total += handled;
+            if (++batches % PROGRESS_LOG_INTERVAL == 0) {
+                log.info("{}: {} rows in {} batches so far", job, total, batches);
+            }
+        } while (handled >= batchSize);
+        return total;
+    }
+
     /**
      * Data class for hygiene statistics.
      */
@@ -0,0 +1,268 @@
+package com.openmailer.openmailer.service.contact;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.xbill.DNS.ARecord;
+import org.xbill.DNS.AAAARecord;
+import org.xbill.DNS.DClass;
+import org.xbill.DNS.ExtendedResolver;
+import org.xbill.DNS.MXRecord;
+import org.xbill.DNS.Message;
+import org.xbill.DNS.Name;
+import org.xbill.DNS.Rcode;
+import org.xbill.DNS.Record;
+import org.xbill.DNS.Resolver;
+import org.xbill.DNS.SOARecord;
+import org.xbill.DNS.Section;
+import org.xbill.DNS.SimpleResolver;
+import org.xbill.DNS.TextParseException;
+import org.xbill.DNS.Type;
+
+import java.net.IDN;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Service for checking whether recipient domains accept mail, by their MX records.
+ *
+ * Lookups are asynchronous and at most {@code maxConcurrentLookups} domains are being
+ * resolved at once; callers block while the limit is reached. Results are cached per domain for the
+ * records' TTL (the SOA minimum for nonexistent domains), clamped to a configured
+ * range, and concurrent requests for a domain share one lookup.
+ *
+ * A domain without MX records accepts mail if it has an address record (implicit MX,
+ * RFC 5321); a "null MX" (RFC 7505) or a nonexistent domain does not. Lookups that
+ * fail or time out, including address lookups of the implicit MX fallback, are reported
+ * as UNKNOWN and retried after a short delay. Expired entries are evicted periodically.
+ */
+@Service
+public class MxLookupService {
+
+    private static final Logger log = LoggerFactory.getLogger(MxLookupService.class);
+
+    /**
+     * Whether a domain accepts mail.
+     */
+    public enum DomainStatus {
+        ACCEPTS_MAIL,
+        NO_MAIL,
+        UNKNOWN
+    }
+
+    private final Resolver resolver;
+    private final Semaphore lookups;
+    private final Duration minCacheTime;
+    private final Duration maxCacheTime;
+    private final Duration errorCacheTime;
+    private final Clock clock;
+    private final ConcurrentHashMap<String, CachedStatus> cache = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MxLookupService(
+            @Value("${app.contacts.verification.dns-server:}") String dnsServer,
+            @Value("${app.contacts.verification.dns-timeout-ms:5000}") long timeoutMillis,
+            @Value("${app.contacts.verification.max-concurrent-lookups:64}") int maxConcurrentLookups,
+            @Value("${app.contacts.verification.min-cache-seconds:60}") long minCacheSeconds,
+            @Value("${app.contacts.verification.max-cache-seconds:86400}") long maxCacheSeconds,
+            @Value("${app.contacts.verification.error-cache-seconds:300}") long errorCacheSeconds)
+            throws UnknownHostException {
+        this(createResolver(dnsServer, Duration.ofMillis(timeoutMillis)), maxConcurrentLookups,
+                Duration.ofSeconds(minCacheSeconds), Duration.ofSeconds(maxCacheSeconds),
+                Duration.ofSeconds(errorCacheSeconds), Clock.systemUTC());
+    }
+
+    MxLookupService(Resolver resolver, int maxConcurrentLookups, Duration minCacheTime,
+                    Duration maxCacheTime, Duration errorCacheTime, Clock clock) {
+        this.resolver = resolver;
+        this.lookups = new Semaphore(maxConcurrentLookups);
+        this.minCacheTime = minCacheTime;
+        this.maxCacheTime = maxCacheTime;
+        this.errorCacheTime = errorCacheTime;
+        this.clock = clock;
+    }
+
+    /**
+     * Resolves whether a domain accepts mail, from the cache when possible.
+     *
+     * @param domain the domain part of an email address
+     * @return the domain's status
+     */
+    public CompletableFuture<DomainStatus> resolve(String domain) {
+        String key = normalize(domain);
+        if (key == null) {
+            return CompletableFuture.completedFuture(DomainStatus.NO_MAIL);
+        }
+
+        long now = clock.millis();
+        CachedStatus cached = cache.compute(key, (k, existing) ->
+                existing != null && !existing.isExpired(now) ? existing : new CachedStatus());
+        if (cached.claim()) {
+            lookups.acquireUninterruptibly();
+            CompletableFuture.completedFuture(key).thenCompose(this::lookup).whenComplete((result, error) -> {
+                lookups.release();
+                if (error != null) {
+                    log.debug("MX lookup for {} failed: {}", key, error.getMessage());
+                    result = new LookupResult(DomainStatus.UNKNOWN, errorCacheTime);
+                }
+                cached.complete(result, clock.millis());
+            });
+        }
+        return cached.status;
+    }
+
+    /**
+     * Removes the cached statuses whose TTL has passed, so domains that are not looked up
+     * again do not stay in memory.
+     */
+    @Scheduled(cron = "0 */10 * * * *") // Every 10 minutes
+    public void evictExpired() {
+        long now = clock.millis();
+        cache.values().removeIf(cached -> cached.isExpired(now));
+    }
+
+    /**
+     * @return number of domains in the cache
+     */
+    public int cachedDomains() {
+        return cache.size();
+    }
+
+    private CompletableFuture<LookupResult> lookup(String domain) {
+        Name name;
+        try {
+            name = Name.fromString(domain, Name.root);
+        } catch (TextParseException e) {
+            return CompletableFuture.completedFuture(new LookupResult(DomainStatus.NO_MAIL, maxCacheTime));
+        }
+
+        return query(name, Type.MX).thenCompose(response -> {
+            int rcode = response.getRcode();
+            if (rcode == Rcode.NXDOMAIN) {
+                return CompletableFuture.completedFuture(new LookupResult(DomainStatus.NO_MAIL, negativeTtl(response)));
+            }
+            if (rcode != Rcode.NOERROR) {
+                return CompletableFuture.completedFuture(new LookupResult(DomainStatus.UNKNOWN, errorCacheTime));
+            }
+
+            List<MXRecord> exchanges = response.getSection(Section.ANSWER).stream()
+                    .filter(MXRecord.class::isInstance)
+                    .map(MXRecord.class::cast)
+                    .toList();
+            if (!exchanges.isEmpty()) {
+                boolean nullMx = exchanges.stream().allMatch(mx -> mx.getTarget().equals(Name.root));
+                long ttl = exchanges.stream().mapToLong(Record::getTTL).min().orElse(0);
+                return CompletableFuture.completedFuture(
+                        new LookupResult(nullMx ? DomainStatus.NO_MAIL : DomainStatus.ACCEPTS_MAIL, clamp(ttl)));
+            }
+            return implicitMx(name);
+        });
+    }
+
+    private CompletableFuture<LookupResult> implicitMx(Name name) {
+        return query(name, Type.A).thenCompose(response -> {
+            long ttl = addressTtl(response);
+            if (ttl >= 0) {
+                return CompletableFuture.completedFuture(new LookupResult(DomainStatus.ACCEPTS_MAIL, clamp(ttl)));
+            }
+            return query(name, Type.AAAA).thenApply(ipv6 -> {
+                long ipv6Ttl = addressTtl(ipv6);
+                if (ipv6Ttl >= 0) {
+                    return new LookupResult(DomainStatus.ACCEPTS_MAIL, clamp(ipv6Ttl));
+                }
+                // Only a definite answer to both lookups shows that the domain has no address
+                return isDefinite(response) && isDefinite(ipv6)
+                        ? new LookupResult(DomainStatus.NO_MAIL, negativeTtl(ipv6))
+                        : new LookupResult(DomainStatus.UNKNOWN, errorCacheTime);
+            });
+        });
+    }
+
+    private static boolean isDefinite(Message response) {
+        int rcode = response.getRcode();
+        return rcode == Rcode.NOERROR || rcode == Rcode.NXDOMAIN;
+    }
+
+    private CompletableFuture<Message> query(Name name, int type) {
+        return resolver.sendAsync(Message.newQuery(Record.newRecord(name, type, DClass.IN))).toCompletableFuture();
+    }
+
+    private long addressTtl(Message response) {
+        return response.getSection(Section.ANSWER).stream()
+                .filter(record -> record instanceof ARecord || record instanceof AAAARecord)
+                .mapToLong(Record::getTTL)
+                .min()
+                .orElse(-1);
+    }
+
+    private Duration negativeTtl(Message response) {
+        return response.getSection(Section.AUTHORITY).stream()
+                .filter(SOARecord.class::isInstance)
+                .map(SOARecord.class::cast)
+                .findFirst()
+                .map(soa -> clamp(Math.min(soa.getTTL(), soa.getMinimum())))
+                .orElse(minCacheTime);
+    }
+
+    private Duration clamp(long ttlSeconds) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        return ttl.compareTo(minCacheTime) < 0 ? minCacheTime : ttl.compareTo(maxCacheTime) > 0 ? maxCacheTime : ttl;
+    }
+
+    private static String normalize(String domain) {
+        if (domain == null || domain.isBlank()) {
+            return null;
+        }
+        try {
+            String ascii = IDN.toASCII(domain.trim(), IDN.ALLOW_UNASSIGNED).toLowerCase(Locale.ROOT);
+            return ascii.endsWith(".") ? ascii.substring(0, ascii.length() - 1) : ascii;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Resolver createResolver(String dnsServer, Duration timeout) throws UnknownHostException {
+        Resolver resolver = dnsServer == null || dnsServer.isBlank()
+                ? new ExtendedResolver()
+                : new SimpleResolver(dnsServer);
+        resolver.setTimeout(timeout);
+        return resolver;
+    }
+
+    private record LookupResult(DomainStatus status, Duration ttl) {
+    }
+
+    /**
+     * A domain's cached or pending status. Expires {@code ttl} after its lookup completed.
+     */
+    private static final class CachedStatus {
+
+        private final CompletableFuture<DomainStatus> status = new CompletableFuture<>();
+        private boolean claimed;
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        synchronized boolean claim() {
+            boolean first = !claimed;
+            claimed = true;
+            return first;
+        }
+
+        void complete(LookupResult result, long now) {
+            expiresAt = now + result.ttl().toMillis();
+            status.complete(result.status());
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
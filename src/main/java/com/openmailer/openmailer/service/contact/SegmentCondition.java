@@ -0,0 +1,365 @@
+package com.openmailer.openmailer.service.contact;
+
+import com.openmailer.openmailer.model.Contact;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Segment conditions parsed from their JSON form.
+ * Parsing resolves field names and operators and pre-parses expected values once, so
+ * evaluating a condition (see {@link SegmentPredicate}) does no work on the segment itself.
+ *
+ * Accepted forms:
+ * - A rule: {@code {"field": ..., "operator": ..., "value": ...}}
+ * - A group: {@code {"operator": "AND" | "OR", "rules": [...]}}, or {@code {"and": [...]}},
+ *   {@code {"or": [...]}} and {@code {"not": {...}}}
+ * - Any other map: an AND of equality rules, one per entry
+ */
+public sealed interface SegmentCondition {
+
+    /**
+     * Parses a condition tree. Null or empty conditions match every contact.
+     *
+     * @param conditions the segment's conditions
+     * @return the parsed condition
+     */
+    static SegmentCondition parse(Map<String, Object> conditions) {
+        if (conditions == null || conditions.isEmpty()) {
+            return new Group(false, List.of());
+        }
+
+        if (conditions.containsKey("field")) {
+            return new Rule(
+                    String.valueOf(conditions.get("field")),
+                    Operator.parse(conditions.get("operator")),
+                    Value.of(conditions.get("value")));
+        }
+
+        if (conditions.containsKey("rules")) {
+            Object operator = conditions.get("operator");
+            boolean any = operator != null && "OR".equals(String.valueOf(operator).trim().toUpperCase(Locale.ROOT));
+            return new Group(any, parseAll(conditions.get("rules")));
+        }
+
+        if (conditions.containsKey("and")) {
+            return new Group(false, parseAll(conditions.get("and")));
+        }
+        if (conditions.containsKey("or")) {
+            return new Group(true, parseAll(conditions.get("or")));
+        }
+        if (conditions.get("not") instanceof Map<?, ?> map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> cast = (Map<String, Object>) map;
+            return new Not(parse(cast));
+        }
+
+        // Fallback: treat each top-level key/value as equality checks joined by AND.
+        List<SegmentCondition> rules = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : conditions.entrySet()) {
+            rules.add(new Rule(entry.getKey(), Operator.EQUALS, Value.of(entry.getValue())));
+        }
+        return new Group(false, rules);
+    }
+
+    private static List<SegmentCondition> parseAll(Object rawRules) {
+        List<SegmentCondition> result = new ArrayList<>();
+        if (rawRules instanceof Collection<?> collection) {
+            for (Object rawRule : collection) {
+                if (rawRule instanceof Map<?, ?> map) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> cast = (Map<String, Object>) map;
+                    result.add(parse(cast));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Conditions joined by AND, or by OR if {@code any}. An empty group matches every contact.
+     */
+    record Group(boolean any, List<SegmentCondition> conditions) implements SegmentCondition {
+    }
+
+    /**
+     * Negation of a condition.
+     */
+    record Not(SegmentCondition condition) implements SegmentCondition {
+    }
+
+    /**
+     * Comparison of one contact field with an expected value.
+     *
+     * @param field the field
+     * @param customField the custom field key, for {@link Field#CUSTOM_FIELD}
+     * @param operator the comparison
+     * @param value the expected value
+     */
+    record Rule(Field field, String customField, Operator operator, Value value) implements SegmentCondition {
+
+        Rule(String field, Operator operator, Value value) {
+            this(Field.resolve(field), Field.customFieldKey(field), operator, value);
+        }
+    }
+
+    /**
+     * Rule operators. Operator names are case-insensitive and may use spaces or dashes
+     * for underscores; unknown operators compare for equality.
+     */
+    enum Operator {
+        EQUALS,
+        NOT_EQUALS,
+        CONTAINS,
+        NOT_CONTAINS,
+        STARTS_WITH,
+        ENDS_WITH,
+        IN,
+        NOT_IN,
+        GREATER_THAN,
+        GREATER_THAN_OR_EQUAL,
+        LESS_THAN,
+        LESS_THAN_OR_EQUAL,
+        IS_TRUE,
+        IS_FALSE,
+        IS_NULL,
+        NOT_NULL;
+
+        static Operator parse(Object operator) {
+            if (operator == null || String.valueOf(operator).isBlank()) {
+                return EQUALS;
+            }
+            String normalized = String.valueOf(operator).trim()
+                    .toLowerCase(Locale.ROOT)
+                    .replace(" ", "_")
+                    .replace("-", "_");
+            return switch (normalized) {
+                case "not_equals" -> NOT_EQUALS;
+                case "contains" -> CONTAINS;
+                case "not_contains" -> NOT_CONTAINS;
+                case "starts_with" -> STARTS_WITH;
+                case "ends_with" -> ENDS_WITH;
+                case "in" -> IN;
+                case "not_in" -> NOT_IN;
+                case "greater_than", "after" -> GREATER_THAN;
+                case "greater_than_or_equal", "gte" -> GREATER_THAN_OR_EQUAL;
+                case "less_than", "before" -> LESS_THAN;
+                case "less_than_or_equal", "lte" -> LESS_THAN_OR_EQUAL;
+                case "is_true" -> IS_TRUE;
+                case "is_false" -> IS_FALSE;
+                case "is_null" -> IS_NULL;
+                case "not_null" -> NOT_NULL;
+                default -> EQUALS;
+            };
+        }
+    }
+
+    /**
+     * Contact fields that rules can refer to, by their camel-case or snake-case names.
+     * Fields that do not exist are {@link #UNKNOWN} and always null.
+     */
+    enum Field {
+        EMAIL("email", "email", Contact::getEmail),
+        FIRST_NAME("firstName", "first_name", Contact::getFirstName),
+        LAST_NAME("lastName", "last_name", Contact::getLastName),
+        STATUS("status", "status", Contact::getStatus),
+        EMAIL_VERIFIED("emailVerified", "email_verified", Contact::getEmailVerified),
+        SOURCE("source", "source", Contact::getSource),
+        NOTES("notes", "notes", Contact::getNotes),
+        GDPR_CONSENT("gdprConsent", "gdpr_consent", Contact::getGdprConsent),
+        CREATED_AT("createdAt", "created_at", Contact::getCreatedAt),
+        UPDATED_AT("updatedAt", "updated_at", Contact::getUpdatedAt),
+        SUBSCRIBED_AT("subscribedAt", "subscribed_at", Contact::getSubscribedAt),
+        CONFIRMED_AT("confirmedAt", "confirmed_at", Contact::getConfirmedAt),
+        UNSUBSCRIBED_AT("unsubscribedAt", "unsubscribed_at", Contact::getUnsubscribedAt),
+        BOUNCE_COUNT("bounceCount", "bounce_count", Contact::getBounceCount),
+        COMPLAINT_COUNT("complaintCount", "complaint_count", Contact::getComplaintCount),
+        BOUNCE_TYPE("bounceType", "bounce_type", Contact::getBounceType),
+        LAST_SENT_AT("lastSentAt", "last_sent_at", Contact::getLastSentAt),
+        LAST_OPENED_AT("lastOpenedAt", "last_opened_at", Contact::getLastOpenedAt),
+        LAST_CLICKED_AT("lastClickedAt", "last_clicked_at", Contact::getLastClickedAt),
+        // Decayed to the time of evaluation; see SegmentPredicate
+        ENGAGEMENT_SCORE("engagementScore", "engagement_score", null),
+        TAGS("tags", "tags", Contact::getTags),
+        CUSTOM_FIELD(null, "custom_fields", null),
+        UNKNOWN(null, null, contact -> null);
+
+        private static final String CUSTOM_FIELD_PREFIX = "customFields.";
+
+        private final String key;
+        private final String column;
+        private final Function<Contact, Object> accessor;
+
+        Field(String key, String column, Function<Contact, Object> accessor) {
+            this.key = key;
+            this.column = column;
+            this.accessor = accessor;
+        }
+
+        /**
+         * @return the field's column in {@code contacts}; null for unknown fields
+         */
+        String column() {
+            return column;
+        }
+
+        /**
+         * @return reads the field from a contact; null for engagement scores and custom fields
+         */
+        Function<Contact, Object> accessor() {
+            return accessor;
+        }
+
+        static Field resolve(String field) {
+            String normalized = normalize(field);
+            if (normalized == null) {
+                return UNKNOWN;
+            }
+            if (normalized.startsWith(CUSTOM_FIELD_PREFIX)) {
+                return CUSTOM_FIELD;
+            }
+            for (Field candidate : values()) {
+                if (normalized.equals(candidate.key)) {
+                    return candidate;
+                }
+            }
+            return UNKNOWN;
+        }
+
+        static String customFieldKey(String field) {
+            String normalized = normalize(field);
+            return normalized != null && normalized.startsWith(CUSTOM_FIELD_PREFIX)
+                    ? normalized.substring(CUSTOM_FIELD_PREFIX.length())
+                    : null;
+        }
+
+        private static String normalize(String field) {
+            if (field == null || field.isBlank()) {
+                return null;
+            }
+            return field.trim()
+                    .replace("custom_fields.", "customFields.")
+                    .replace("first_name", "firstName")
+                    .replace("last_name", "lastName")
+                    .replace("email_verified", "emailVerified")
+                    .replace("gdpr_consent", "gdprConsent")
+                    .replace("created_at", "createdAt")
+                    .replace("updated_at", "updatedAt")
+                    .replace("subscribed_at", "subscribedAt")
+                    .replace("confirmed_at", "confirmedAt")
+                    .replace("unsubscribed_at", "unsubscribedAt")
+                    .replace("bounce_count", "bounceCount")
+                    .replace("complaint_count", "complaintCount")
+                    .replace("bounce_type", "bounceType")
+                    .replace("last_sent_at", "lastSentAt")
+                    .replace("last_opened_at", "lastOpenedAt")
+                    .replace("last_clicked_at", "lastClickedAt")
+                    .replace("engagement_score", "engagementScore");
+        }
+    }
+
+    /**
+     * An expected value with its interpretations parsed up front.
+     *
+     * @param raw the value as given
+     * @param text the value as a string ("null" for null)
+     * @param lowerText {@code text} in lower case
+     * @param bool the value as a boolean, or null
+     * @param number the value as a number, or NaN
+     * @param decimal the value as a {@link BigDecimal}, or null if it is not a number
+     * @param exactDouble whether {@code number} compares with other doubles as {@code decimal}
+     *                    does with their {@link BigDecimal#valueOf(double)}
+     * @param dateTime the value as a date and time, or null
+     * @param items the values of a list, or null if the value is not a list
+     */
+    record Value(Object raw, String text, String lowerText, Boolean bool, double number, BigDecimal decimal,
+                 boolean exactDouble, LocalDateTime dateTime, List<Value> items) {
+
+        static Value of(Object raw) {
+            List<Value> items = null;
+            if (raw instanceof Collection<?> collection) {
+                items = collection.stream().map(Value::of).toList();
+            } else if (raw instanceof Object[] array) {
+                items = Arrays.stream(array).map(Value::of).toList();
+            }
+            String text = String.valueOf(raw);
+            BigDecimal decimal = asDecimal(raw);
+            double number = decimal != null ? decimal.doubleValue() : Double.NaN;
+            boolean exactDouble = decimal != null && !Double.isInfinite(number)
+                    && BigDecimal.valueOf(number).compareTo(decimal) == 0;
+            return new Value(raw, text, text.toLowerCase(Locale.ROOT), asBoolean(raw), number, decimal,
+                    exactDouble, asDateTime(raw), items);
+        }
+
+        boolean isNumber() {
+            return decimal != null;
+        }
+
+        /**
+         * Numbers and numeric strings as {@link BigDecimal}s. Numbers are read through their
+         * double value, as {@link BigDecimal#valueOf(double)} does; strings are parsed only if
+         * they start like a number.
+         *
+         * @return the value as a number, or null
+         */
+        static BigDecimal asDecimal(Object value) {
+            if (value instanceof Number number) {
+                double doubleValue = number.doubleValue();
+                return Double.isFinite(doubleValue) ? BigDecimal.valueOf(doubleValue) : null;
+            }
+            if (value instanceof String string && !string.isBlank()) {
+                String trimmed = string.trim();
+                char first = trimmed.charAt(0);
+                if ((first >= '0' && first <= '9') || first == '-' || first == '+' || first == '.') {
+                    try {
+                        return new BigDecimal(trimmed);
+                    } catch (NumberFormatException ignored) {
+                        return null;
+                    }
+                }
+            }
+            return null;
+        }
+
+        static Boolean asBoolean(Object value) {
+            if (value instanceof Boolean bool) {
+                return bool;
+            }
+            if (value instanceof String string && !string.isBlank()) {
+                return Boolean.parseBoolean(string.trim());
+            }
+            return null;
+        }
+
+        /**
+         * Dates and ISO-8601 date-time strings, which are only parsed if they start like one.
+         *
+         * @return the value as a date and time, or null
+         */
+        static LocalDateTime asDateTime(Object value) {
+            if (value instanceof LocalDateTime dateTime) {
+                return dateTime;
+            }
+            if (value instanceof String string && !string.isBlank()) {
+                String trimmed = string.trim();
+                char first = trimmed.charAt(0);
+                if ((first >= '0' && first <= '9') || first == '-' || first == '+') {
+                    try {
+                        return LocalDateTime.parse(trimmed);
+                    } catch (DateTimeParseException ignored) {
+                        return null;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
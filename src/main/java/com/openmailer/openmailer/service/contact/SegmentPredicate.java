@@ -0,0 +1,46 @@
+package com.openmailer.openmailer.service.contact;
+
+import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.service.contact.SegmentCondition.Group;
+import com.openmailer.openmailer.service.contact.SegmentCondition.Not;
+import com.openmailer.openmailer.service.contact.SegmentCondition.Rule;
+
+import java.util.Map;
+
+/**
+ * A compiled segment condition; see {@link SegmentPredicates} for how rules compare values.
+ */
+@FunctionalInterface
+public interface SegmentPredicate {
+
+    SegmentPredicate ALL = contact -> true;
+
+    boolean test(Contact contact);
+
+    /**
+     * Compiles a segment's conditions.
+     *
+     * @param conditions the conditions in their JSON form
+     * @return the predicate
+     */
+    static SegmentPredicate compile(Map<String, Object> conditions) {
+        return compile(SegmentCondition.parse(conditions));
+    }
+
+    /**
+     * Compiles a parsed condition.
+     *
+     * @param condition the condition
+     * @return the predicate
+     */
+    static SegmentPredicate compile(SegmentCondition condition) {
+        return switch (condition) {
+            case Group group -> SegmentPredicates.group(group);
+            case Not not -> {
+                SegmentPredicate negated = compile(not.condition());
+                yield contact -> !negated.test(contact);
+            }
+            case Rule rule -> SegmentPredicates.rule(rule);
+        };
+    }
+}
@@ -0,0 +1,265 @@
+package com.openmailer.openmailer.service.contact;
+
+import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.service.contact.SegmentCondition.Group;
+import com.openmailer.openmailer.service.contact.SegmentCondition.Rule;
+import com.openmailer.openmailer.service.contact.SegmentCondition.Value;
+import com.openmailer.openmailer.util.EngagementScore;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Compiles segment conditions into {@link SegmentPredicate}s.
+ *
+ * Compiling turns a {@link SegmentCondition} tree into nested predicates with the field
+ * accessor and the expected value's parsed forms bound in, so testing a contact reads its
+ * fields and compares them without allocating. Only string values compared with numbers or
+ * dates are parsed per contact, and only when they start like one.
+ *
+ * Comparisons:
+ * - Values compare as numbers if both are numbers or numeric strings, then as date-times,
+ *   then as case-insensitive strings; booleans compare as booleans
+ * - Numbers compare as {@link BigDecimal}s, with numbers read through their double value, so
+ *   "10.00000000000000001" is greater than 10
+ * - A list-valued field (tags, or a custom field holding a list) equals or contains a value
+ *   if any of its items equals it
+ */
+final class SegmentPredicates {
+
+    private static final int INCOMPARABLE = Integer.MIN_VALUE;
+
+    private SegmentPredicates() {
+    }
+
+    /**
+     * @return a predicate that tests the group's conditions in order, stopping at the first that decides it
+     */
+    static SegmentPredicate group(Group group) {
+        List<SegmentCondition> conditions = group.conditions();
+        if (conditions.isEmpty()) {
+            return SegmentPredicate.ALL;
+        }
+        if (conditions.size() == 1) {
+            return SegmentPredicate.compile(conditions.get(0));
+        }
+
+        SegmentPredicate[] predicates = conditions.stream()
+                .map(SegmentPredicate::compile)
+                .toArray(SegmentPredicate[]::new);
+        if (group.any()) {
+            return contact -> {
+                for (SegmentPredicate predicate : predicates) {
+                    if (predicate.test(contact)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+        return contact -> {
+            for (SegmentPredicate predicate : predicates) {
+                if (!predicate.test(contact)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    /**
+     * @return a predicate that reads the rule's field and compares it with the pre-parsed value
+     */
+    static SegmentPredicate rule(Rule rule) {
+        Value expected = rule.value();
+        if (rule.field() == SegmentCondition.Field.ENGAGEMENT_SCORE) {
+            SegmentPredicate scorePredicate = compileScore(rule.operator(), expected);
+            if (scorePredicate != null) {
+                return scorePredicate;
+            }
+        }
+
+        Function<Contact, Object> field = accessor(rule);
+        return switch (rule.operator()) {
+            case EQUALS -> contact -> equalTo(field.apply(contact), expected);
+            case NOT_EQUALS -> contact -> !equalTo(field.apply(contact), expected);
+            case CONTAINS -> contact -> contains(field.apply(contact), expected);
+            case NOT_CONTAINS -> contact -> !contains(field.apply(contact), expected);
+            case STARTS_WITH -> contact -> startsWith(field.apply(contact), expected);
+            case ENDS_WITH -> contact -> endsWith(field.apply(contact), expected);
+            case IN -> contact -> in(field.apply(contact), expected);
+            case NOT_IN -> contact -> !in(field.apply(contact), expected);
+            case GREATER_THAN -> contact -> compare(field.apply(contact), expected) > 0;
+            case GREATER_THAN_OR_EQUAL -> contact -> compare(field.apply(contact), expected) >= 0;
+            case LESS_THAN -> contact -> compare(field.apply(contact), expected) < 0;
+            case LESS_THAN_OR_EQUAL -> contact -> compare(field.apply(contact), expected) <= 0;
+            case IS_TRUE -> contact -> Boolean.TRUE.equals(Value.asBoolean(field.apply(contact)));
+            case IS_FALSE -> contact -> Boolean.FALSE.equals(Value.asBoolean(field.apply(contact)));
+            case IS_NULL -> contact -> field.apply(contact) == null;
+            case NOT_NULL -> contact -> field.apply(contact) != null;
+        };
+    }
+
+    private static Function<Contact, Object> accessor(Rule rule) {
+        return switch (rule.field()) {
+            case ENGAGEMENT_SCORE -> SegmentPredicates::engagementScore;
+            case CUSTOM_FIELD -> {
+                String key = rule.customField();
+                yield contact -> contact.getCustomFields() != null ? contact.getCustomFields().get(key) : null;
+            }
+            default -> rule.field().accessor();
+        };
+    }
+
+    /**
+     * Numeric comparisons of the engagement score, without boxing it.
+     *
+     * @return the predicate, or null if the comparison is not numeric or the value is not exact as a double
+     */
+    private static SegmentPredicate compileScore(SegmentCondition.Operator operator, Value expected) {
+        if (!expected.exactDouble()) {
+            return null;
+        }
+        double value = expected.number();
+        return switch (operator) {
+            case EQUALS -> contact -> engagementScore(contact) == value;
+            case NOT_EQUALS -> contact -> engagementScore(contact) != value;
+            case GREATER_THAN -> contact -> engagementScore(contact) > value;
+            case GREATER_THAN_OR_EQUAL -> contact -> engagementScore(contact) >= value;
+            case LESS_THAN -> contact -> engagementScore(contact) < value;
+            case LESS_THAN_OR_EQUAL -> contact -> engagementScore(contact) <= value;
+            default -> null;
+        };
+    }
+
+    private static double engagementScore(Contact contact) {
+        return EngagementScore.current(contact.getEngagementScore(), contact.getEngagementScoredAt(),
+                System.currentTimeMillis() / 1000);
+    }
+
+    private static boolean equalTo(Object actual, Value expected) {
+        if (actual == null) {
+            return expected.raw() == null;
+        }
+        if (actual instanceof Collection<?> collection) {
+            for (Object item : collection) {
+                if (equalTo(item, expected)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (actual instanceof Object[] array) {
+            for (Object item : array) {
+                if (equalTo(item, expected)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (actual instanceof Boolean || expected.raw() instanceof Boolean) {
+            return Objects.equals(Value.asBoolean(actual), expected.bool());
+        }
+        if (expected.isNumber()) {
+            int comparison = compareNumber(actual, expected);
+            if (comparison != INCOMPARABLE) {
+                return comparison == 0;
+            }
+        }
+        if (expected.dateTime() != null) {
+            LocalDateTime actualDate = Value.asDateTime(actual);
+            if (actualDate != null) {
+                return actualDate.isEqual(expected.dateTime());
+            }
+        }
+        return String.valueOf(actual).equalsIgnoreCase(expected.text());
+    }
+
+    private static boolean contains(Object actual, Value expected) {
+        if (actual == null || expected.raw() == null) {
+            return false;
+        }
+        if (actual instanceof Collection<?> || actual instanceof Object[]) {
+            return equalTo(actual, expected);
+        }
+        String string = String.valueOf(actual);
+        String part = expected.lowerText();
+        for (int offset = 0; offset + part.length() <= string.length(); offset++) {
+            if (string.regionMatches(true, offset, part, 0, part.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(Object actual, Value expected) {
+        return actual != null
+                && expected.raw() != null
+                && String.valueOf(actual).regionMatches(true, 0, expected.lowerText(), 0, expected.lowerText().length());
+    }
+
+    private static boolean endsWith(Object actual, Value expected) {
+        if (actual == null || expected.raw() == null) {
+            return false;
+        }
+        String string = String.valueOf(actual);
+        int offset = string.length() - expected.lowerText().length();
+        return offset >= 0 && string.regionMatches(true, offset, expected.lowerText(), 0, expected.lowerText().length());
+    }
+
+    private static boolean in(Object actual, Value expected) {
+        if (expected.items() == null) {
+            return equalTo(actual, expected);
+        }
+        for (Value item : expected.items()) {
+            if (equalTo(actual, item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int compare(Object actual, Value expected) {
+        if (expected.isNumber()) {
+            int comparison = compareNumber(actual, expected);
+            if (comparison != INCOMPARABLE) {
+                return comparison;
+            }
+        }
+        if (expected.dateTime() != null) {
+            LocalDateTime actualDate = Value.asDateTime(actual);
+            if (actualDate != null) {
+                return actualDate.compareTo(expected.dateTime());
+            }
+        }
+        String actualString = actual == null ? "" : String.valueOf(actual).toLowerCase(Locale.ROOT);
+        String expectedString = expected.raw() == null ? "" : expected.lowerText();
+        return actualString.compareTo(expectedString);
+    }
+
+    /**
+     * Compares as {@link BigDecimal}s. Numbers are compared as doubles when the expected
+     * value is exact as one, which orders them the same way without allocating.
+     *
+     * @return the comparison, or {@link #INCOMPARABLE} if {@code actual} is not a number
+     */
+    private static int compareNumber(Object actual, Value expected) {
+        if (actual instanceof Number number) {
+            double actualNumber = number.doubleValue();
+            if (!Double.isFinite(actualNumber)) {
+                return INCOMPARABLE;
+            }
+            if (expected.exactDouble()) {
+                return Double.compare(actualNumber + 0.0, expected.number() + 0.0);
+            }
+            return BigDecimal.valueOf(actualNumber).compareTo(expected.decimal());
+        }
+        BigDecimal actualDecimal = Value.asDecimal(actual);
+        return actualDecimal != null ? actualDecimal.compareTo(expected.decimal()) : INCOMPARABLE;
+    }
+}
@@ -0,0 +1,108 @@
+package com.openmailer.openmailer.service.contact;
+
+import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.model.Segment;
+import com.openmailer.openmailer.repository.ContactRepository;
+import com.openmailer.openmailer.repository.ContactSegmentRepository;
+import com.openmailer.openmailer.service.contact.SegmentSqlTranslator.SegmentSql;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for finding and counting the subscribed contacts in a segment.
+ * Segment conditions are translated to SQL (see {@link SegmentSqlTranslator}), so matching
+ * contacts and counts come from the database. When part of a condition cannot be translated,
+ * the database returns a superset of the segment, which is filtered in memory with the
+ * compiled segment predicate.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SegmentQueryService {
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentQueryService.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ContactSegmentRepository segmentRepository;
+    private final ContactRepository contactRepository;
+    private final SegmentEvaluationService evaluationService;
+
+    public SegmentQueryService(
+            ContactSegmentRepository segmentRepository,
+            ContactRepository contactRepository,
+            SegmentEvaluationService evaluationService) {
+        this.segmentRepository = segmentRepository;
+        this.contactRepository = contactRepository;
+        this.evaluationService = evaluationService;
+    }
+
+    /**
+     * Finds a user's subscribed contacts in a segment, newest first.
+     *
+     * @param userId the user ID
+     * @param listId only contacts with an active membership in this list, or null for all
+     * @param segment the segment, or null for all subscribed contacts
+     * @return the matching contacts
+     */
+    public List<Contact> findSubscribedContacts(String userId, String listId, Segment segment) {
+        SegmentSql sql = translate(segment);
+        List<Contact> contacts = loadContacts(
+                segmentRepository.findSubscribedIds(userId, listId, sql.condition(), sql.params()));
+        if (sql.exact()) {
+            return contacts;
+        }
+
+        log.debug("Segment {} is partly evaluated in memory over {} candidates", segment.getId(), contacts.size());
+        SegmentPredicate predicate = evaluationService.compile(segment);
+        return contacts.stream()
+                .filter(predicate::test)
+                .toList();
+    }
+
+    /**
+     * Counts a user's subscribed contacts in a segment.
+     *
+     * @param userId the user ID
+     * @param listId only contacts with an active membership in this list, or null for all
+     * @param segment the segment, or null for all subscribed contacts
+     * @return number of matching contacts
+     */
+    public long countSubscribedContacts(String userId, String listId, Segment segment) {
+        SegmentSql sql = translate(segment);
+        if (sql.exact()) {
+            return segmentRepository.countSubscribed(userId, listId, sql.condition(), sql.params());
+        }
+        return findSubscribedContacts(userId, listId, segment).size();
+    }
+
+    private static SegmentSql translate(Segment segment) {
+        SegmentCondition condition = SegmentCondition.parse(segment != null ? segment.getConditions() : null);
+        return SegmentSqlTranslator.translate(condition, System.currentTimeMillis() / 1000);
+    }
+
+    /**
+     * Loads contacts in batches, keeping the order of the IDs.
+     */
+    private List<Contact> loadContacts(List<String> contactIds) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < contactIds.size(); i++) {
+            positions.put(contactIds.get(i), i);
+        }
+
+        List<Contact> contacts = new ArrayList<>(contactIds.size());
+        for (int from = 0; from < contactIds.size(); from += LOAD_BATCH_SIZE) {
+            contacts.addAll(contactRepository.findAllById(
+                    contactIds.subList(from, Math.min(from + LOAD_BATCH_SIZE, contactIds.size()))));
+        }
+        contacts.sort(Comparator.comparing(contact -> positions.get(contact.getId())));
+        return contacts;
+    }
+}
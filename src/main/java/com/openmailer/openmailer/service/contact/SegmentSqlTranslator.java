@@ -0,0 +1,336 @@
+package com.openmailer.openmailer.service.contact;
+
+import com.openmailer.openmailer.repository.ContactEngagementRepository;
+import com.openmailer.openmailer.repository.ContactTagCountRepository;
+import com.openmailer.openmailer.service.contact.SegmentCondition.Group;
+import com.openmailer.openmailer.service.contact.SegmentCondition.Not;
+import com.openmailer.openmailer.service.contact.SegmentCondition.Operator;
+import com.openmailer.openmailer.service.contact.SegmentCondition.Rule;
+import com.openmailer.openmailer.service.contact.SegmentCondition.Value;
+import com.openmailer.openmailer.util.EngagementScore;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Translates segment conditions into a SQL predicate over {@code contacts} with bound parameters.
+ *
+ * NOTE:
+ * - Each rule becomes a predicate that is true for the contacts the in-memory
+ *   {@link SegmentPredicate} matches, and false or NULL for the others. Rules are left bare,
+ *   so the planner can answer them from the indexes on their columns; only negations read
+ *   NULL as false ({@code NOT (x IS TRUE)}). Rules compare as the in-memory predicate does:
+ *   strings case-insensitively, a contact without a value is below every number and date,
+ *   and tags and list-valued custom fields match if any item does
+ * - A rule that cannot be expressed in SQL is dropped from its AND group, which widens the
+ *   predicate; an OR group or negation containing one is dropped as a whole. Custom field
+ *   number comparisons only filter fields stored as JSON numbers. The translation is then
+ *   not exact and the matching rows must be re-checked in memory
+ * - Engagement score thresholds compare the indexed rank (see {@link ContactEngagementRepository#RANK});
+ *   tags are matched as the indexed {@link ContactTagCountRepository#LOWER_TAGS} overlapping the values
+ */
+final class SegmentSqlTranslator {
+
+    /**
+     * A translated condition.
+     *
+     * @param condition SQL predicate over {@code contacts}; TRUE if nothing could be translated
+     * @param params the predicate's parameters
+     * @param exact whether the predicate matches exactly the contacts the segment matches,
+     *              rather than a superset of them
+     */
+    record SegmentSql(String condition, MapSqlParameterSource params, boolean exact) {
+    }
+
+    private record Part(String sql, boolean exact) {
+    }
+
+    private final MapSqlParameterSource params = new MapSqlParameterSource();
+    private final long now;
+
+    private SegmentSqlTranslator(long now) {
+        this.now = now;
+    }
+
+    /**
+     * @param condition the parsed condition
+     * @param now the time to evaluate engagement scores at, in epoch seconds
+     * @return the SQL predicate
+     */
+    static SegmentSql translate(SegmentCondition condition, long now) {
+        SegmentSqlTranslator translator = new SegmentSqlTranslator(now);
+        Part part = translator.part(condition);
+        return part != null
+                ? new SegmentSql(part.sql(), translator.params, part.exact())
+                : new SegmentSql("TRUE", translator.params, false);
+    }
+
+    /**
+     * @return the predicate, or null if the condition cannot be translated
+     */
+    private Part part(SegmentCondition condition) {
+        return switch (condition) {
+            case Group group -> group(group);
+            case Not not -> {
+                Part negated = part(not.condition());
+                yield negated != null && negated.exact() ? exact(negated.sql(), true) : null;
+            }
+            case Rule rule -> rule(rule);
+        };
+    }
+
+    private Part group(Group group) {
+        if (group.conditions().isEmpty()) {
+            return new Part("TRUE", true);
+        }
+
+        List<String> parts = new ArrayList<>();
+        boolean exact = true;
+        for (SegmentCondition condition : group.conditions()) {
+            Part part = part(condition);
+            if (part == null && group.any()) {
+                return null;
+            }
+            if (part == null) {
+                exact = false;
+            } else {
+                parts.add("(" + part.sql() + ")");
+                exact &= part.exact();
+            }
+        }
+        if (parts.isEmpty()) {
+            return new Part("TRUE", false);
+        }
+        return new Part(String.join(group.any() ? " OR " : " AND ", parts), exact);
+    }
+
+    private Part rule(Rule rule) {
+        return switch (rule.field()) {
+            case EMAIL, FIRST_NAME, LAST_NAME, STATUS, SOURCE, NOTES, BOUNCE_TYPE -> text(rule);
+            case EMAIL_VERIFIED, GDPR_CONSENT -> bool(rule);
+            case BOUNCE_COUNT, COMPLAINT_COUNT -> ordered(rule, Value::isNumber, Value::decimal);
+            case CREATED_AT, UPDATED_AT, SUBSCRIBED_AT, CONFIRMED_AT, UNSUBSCRIBED_AT,
+                 LAST_SENT_AT, LAST_OPENED_AT, LAST_CLICKED_AT -> ordered(rule, value -> value.dateTime() != null,
+                    value -> Timestamp.valueOf(value.dateTime()));
+            case ENGAGEMENT_SCORE -> engagementScore(rule);
+            case TAGS -> tags(rule);
+            case CUSTOM_FIELD -> customField(rule);
+            // Unknown fields are always null, so the rule has the same result for every contact
+            case UNKNOWN -> new Part(SegmentPredicate.compile(rule).test(null) ? "TRUE" : "FALSE", true);
+        };
+    }
+
+    private Part text(Rule rule) {
+        String column = rule.field().column();
+        Value value = rule.value();
+        return switch (rule.operator()) {
+            case EQUALS, NOT_EQUALS, IN, NOT_IN -> {
+                List<Value> values = listed(rule);
+                if (!values.stream().allMatch(SegmentSqlTranslator::isText)) {
+                    yield null;
+                }
+                String sql = values.isEmpty() ? "FALSE" : "lower(" + column + ") IN (:" + bind(lowerTexts(values)) + ")";
+                yield exact(sql, rule.operator() == Operator.NOT_EQUALS || rule.operator() == Operator.NOT_IN);
+            }
+            case CONTAINS, NOT_CONTAINS, STARTS_WITH, ENDS_WITH -> {
+                if (value.raw() == null) {
+                    yield exact("FALSE", rule.operator() == Operator.NOT_CONTAINS);
+                }
+                String pattern = switch (rule.operator()) {
+                    case STARTS_WITH -> escapeLike(value.lowerText()) + "%";
+                    case ENDS_WITH -> "%" + escapeLike(value.lowerText());
+                    default -> "%" + escapeLike(value.lowerText()) + "%";
+                };
+                yield exact(column + " ILIKE :" + bind(pattern) + " ESCAPE '\\'", rule.operator() == Operator.NOT_CONTAINS);
+            }
+            case IS_NULL -> exact(column + " IS NULL", false);
+            case NOT_NULL -> exact(column + " IS NOT NULL", false);
+            default -> null;
+        };
+    }
+
+    private Part bool(Rule rule) {
+        String column = rule.field().column();
+        Value value = rule.value();
+        return switch (rule.operator()) {
+            case IS_TRUE -> exact(column, false);
+            case IS_FALSE -> exact("NOT " + column, false);
+            case EQUALS, NOT_EQUALS -> value.bool() != null
+                    ? exact(column + " = :" + bind(value.bool()), rule.operator() == Operator.NOT_EQUALS)
+                    : null;
+            case IS_NULL -> exact(column + " IS NULL", false);
+            case NOT_NULL -> exact(column + " IS NOT NULL", false);
+            default -> null;
+        };
+    }
+
+    /**
+     * Numbers and dates. In memory, a missing value compares as an empty string, which is
+     * below every number and date, so it matches "less than" rules.
+     */
+    private Part ordered(Rule rule, Predicate<Value> comparable, Function<Value, Object> parameter) {
+        String column = rule.field().column();
+        Value value = rule.value();
+        if (rule.operator() == Operator.IS_NULL || rule.operator() == Operator.NOT_NULL) {
+            return exact(column + (rule.operator() == Operator.IS_NULL ? " IS NULL" : " IS NOT NULL"), false);
+        }
+        if (rule.operator() == Operator.IN || rule.operator() == Operator.NOT_IN) {
+            List<Value> values = listed(rule);
+            if (!values.stream().allMatch(comparable)) {
+                return null;
+            }
+            String sql = values.isEmpty() ? "FALSE" : column + " IN (:" + bind(values.stream().map(parameter).toList()) + ")";
+            return exact(sql, rule.operator() == Operator.NOT_IN);
+        }
+        if (!comparable.test(value)) {
+            return null;
+        }
+
+        String bound = ":" + bind(parameter.apply(value));
+        return switch (rule.operator()) {
+            case EQUALS -> exact(column + " = " + bound, false);
+            case NOT_EQUALS -> exact(column + " = " + bound, true);
+            case GREATER_THAN -> exact(column + " > " + bound, false);
+            case GREATER_THAN_OR_EQUAL -> exact(column + " >= " + bound, false);
+            case LESS_THAN -> new Part(column + " IS NULL OR " + column + " < " + bound, true);
+            case LESS_THAN_OR_EQUAL -> new Part(column + " IS NULL OR " + column + " <= " + bound, true);
+            default -> null;
+        };
+    }
+
+    /**
+     * A positive score is above a threshold exactly when its rank is above the threshold's
+     * rank at the current time; other scores count as zero.
+     */
+    private Part engagementScore(Rule rule) {
+        Value value = rule.value();
+        if (!value.isNumber() || value.number() <= 0) {
+            return null;
+        }
+        String rank = ":" + bind(EngagementScore.rank(value.number(), now));
+        String above = "engagement_score > 0 AND engagement_scored_at IS NOT NULL AND "
+                + ContactEngagementRepository.RANK;
+        return switch (rule.operator()) {
+            case GREATER_THAN -> exact(above + " > " + rank, false);
+            case GREATER_THAN_OR_EQUAL -> exact(above + " >= " + rank, false);
+            case LESS_THAN -> exact(above + " >= " + rank, true);
+            case LESS_THAN_OR_EQUAL -> exact(above + " > " + rank, true);
+            default -> null;
+        };
+    }
+
+    private Part tags(Rule rule) {
+        return switch (rule.operator()) {
+            case EQUALS, NOT_EQUALS, CONTAINS, NOT_CONTAINS, IN, NOT_IN -> {
+                List<Value> values = listed(rule);
+                if (!values.stream().allMatch(SegmentSqlTranslator::isText)) {
+                    yield null;
+                }
+                String sql = values.isEmpty()
+                        ? "FALSE"
+                        : ContactTagCountRepository.LOWER_TAGS + " && CAST(ARRAY[:" + bind(lowerTexts(values)) + "] AS TEXT[])";
+                yield exact(sql, rule.operator() == Operator.NOT_EQUALS || rule.operator() == Operator.NOT_CONTAINS
+                        || rule.operator() == Operator.NOT_IN);
+            }
+            case IS_NULL -> exact("tags IS NULL", false);
+            case NOT_NULL -> exact("tags IS NOT NULL", false);
+            default -> null;
+        };
+    }
+
+    private Part customField(Rule rule) {
+        String key = "CAST(:" + bind(rule.customField()) + " AS TEXT)";
+        String json = "custom_fields -> " + key;
+        String text = "custom_fields ->> " + key;
+        Value value = rule.value();
+        return switch (rule.operator()) {
+            case EQUALS, NOT_EQUALS, IN, NOT_IN, CONTAINS, NOT_CONTAINS -> {
+                List<Value> values = listed(rule);
+                if (!values.stream().allMatch(SegmentSqlTranslator::isText)) {
+                    yield null;
+                }
+                boolean negated = rule.operator() == Operator.NOT_EQUALS || rule.operator() == Operator.NOT_IN
+                        || rule.operator() == Operator.NOT_CONTAINS;
+                if (values.isEmpty()) {
+                    yield exact("FALSE", negated);
+                }
+                List<String> matches = new ArrayList<>();
+                for (Value item : values) {
+                    String lower = ":" + bind(item.lowerText());
+                    // A string, or a number as its text; a boolean equals text that parses as it
+                    String scalar = "jsonb_typeof(" + json + ") = 'boolean' AND " + text + " = :" + bind(String.valueOf(item.bool()))
+                            + " OR jsonb_typeof(" + json + ") IN ('string', 'number') AND lower(" + text + ") = " + lower;
+                    if (rule.operator() == Operator.CONTAINS || rule.operator() == Operator.NOT_CONTAINS) {
+                        scalar = "jsonb_typeof(" + json + ") IN ('string', 'number', 'boolean') AND " + text
+                                + " ILIKE :" + bind("%" + escapeLike(item.lowerText()) + "%") + " ESCAPE '\\'";
+                    }
+                    matches.add(scalar + " OR jsonb_typeof(" + json + ") = 'array' AND EXISTS ("
+                            + "SELECT 1 FROM jsonb_array_elements_text(" + json + ") AS item WHERE lower(item) = " + lower + ")");
+                }
+                yield exact(String.join(" OR ", matches), negated);
+            }
+            case GREATER_THAN, GREATER_THAN_OR_EQUAL, LESS_THAN, LESS_THAN_OR_EQUAL -> {
+                if (!value.isNumber()) {
+                    yield null;
+                }
+                String comparison = switch (rule.operator()) {
+                    case GREATER_THAN -> " > ";
+                    case GREATER_THAN_OR_EQUAL -> " >= ";
+                    case LESS_THAN -> " < ";
+                    default -> " <= ";
+                };
+                yield new Part("CASE WHEN jsonb_typeof(" + json + ") = 'number' THEN CAST(" + text + " AS NUMERIC)"
+                        + comparison + ":" + bind(value.decimal()) + " ELSE TRUE END", false);
+            }
+            case IS_NULL -> new Part("COALESCE(jsonb_typeof(" + json + "), 'null') = 'null'", true);
+            case NOT_NULL -> new Part("COALESCE(jsonb_typeof(" + json + "), 'null') <> 'null'", true);
+            case IS_TRUE -> exact("jsonb_typeof(" + json + ") IN ('boolean', 'string') AND lower(trim(" + text + ")) = 'true'", false);
+            case IS_FALSE -> exact("jsonb_typeof(" + json + ") = 'boolean' AND " + text + " = 'false'"
+                    + " OR jsonb_typeof(" + json + ") = 'string' AND trim(" + text + ") <> ''"
+                    + " AND lower(trim(" + text + ")) <> 'true'", false);
+            default -> null;
+        };
+    }
+
+    /**
+     * @return the predicate, or its negation with NULL read as false
+     */
+    private static Part exact(String sql, boolean negated) {
+        return new Part(negated ? "NOT ((" + sql + ") IS TRUE)" : sql, true);
+    }
+
+    private String bind(Object value) {
+        String name = "segment" + params.getValues().size();
+        params.addValue(name, value);
+        return name;
+    }
+
+    /**
+     * Whether a value compares as case-insensitive text in memory, rather than as a number,
+     * date or boolean.
+     */
+    private static boolean isText(Value value) {
+        return value.raw() != null && value.items() == null && !(value.raw() instanceof Boolean)
+                && !value.isNumber() && value.dateTime() == null;
+    }
+
+    /**
+     * @return the values an IN rule lists, or the rule's single value
+     */
+    private static List<Value> listed(Rule rule) {
+        boolean in = rule.operator() == Operator.IN || rule.operator() == Operator.NOT_IN;
+        return in && rule.value().items() != null ? rule.value().items() : List.of(rule.value());
+    }
+
+    private static List<String> lowerTexts(List<Value> values) {
+        return values.stream().map(Value::lowerText).toList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -154,13 +154,8 @@ public class UnsubscribeService {
      */
     private void removeFromAllLists(String contactId) {
         try {
-            List<ContactListMembership> memberships = membershipService.findByContact(contactId);
-
-            for (ContactListMembership membership : memberships) {
-                membershipService.removeContactFromList(contactId, membership.getListId());
-            }
-
-            log.info("Removed contact {} from {} lists", contactId, memberships.size());
+            List<String> listIds = membershipService.removeContactFromAllLists(contactId);
+            log.info("Removed contact {} from {} lists", contactId, listIds.size());
         } catch (Exception e) {
             log.error("Failed to remove contact {} from lists: {}", contactId, e.getMessage(), e);
         }
@@ -1,13 +1,16 @@
 package com.openmailer.openmailer.service.email;
 
 import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.repository.ContactEngagementRepository;
 import com.openmailer.openmailer.repository.ContactRepository;
+import com.openmailer.openmailer.util.EngagementScore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 
 /**
@@ -25,10 +28,13 @@ public class BounceProcessingService {
     private static final String STATUS_UNSUBSCRIBED = "UNSUBSCRIBED";
 
     private final ContactRepository contactRepository;
+    private final ContactEngagementRepository engagementRepository;
 
     @Autowired
-    public BounceProcessingService(ContactRepository contactRepository) {
+    public BounceProcessingService(ContactRepository contactRepository,
+                                   ContactEngagementRepository engagementRepository) {
         this.contactRepository = contactRepository;
+        this.engagementRepository = engagementRepository;
     }
 
     /**
@@ -60,6 +66,7 @@ public class BounceProcessingService {
         contact.setNotes(notes.trim());
 
         Contact updated = contactRepository.save(contact);
+        engagementRepository.recordEvent(contactId, EngagementScore.BOUNCE_WEIGHT, Instant.now());
 
         log.warn("Contact {} marked as BOUNCED due to hard bounce: {}",
                 contact.getEmail(), bounceReason);
@@ -102,7 +109,9 @@ public class BounceProcessingService {
                     contact.getEmail(), contact.getBounceCount(), MAX_SOFT_BOUNCES);
         }
 
-        return contactRepository.save(contact);
+        Contact updated = contactRepository.save(contact);
+        engagementRepository.recordEvent(contactId, EngagementScore.BOUNCE_WEIGHT, Instant.now());
+        return updated;
     }
 
     /**
@@ -129,6 +138,7 @@ public class BounceProcessingService {
         contact.setNotes(notes.trim());
 
         Contact updated = contactRepository.save(contact);
+        recordComplaint(contactId);
 
         log.warn("Contact {} unsubscribed due to spam complaint: {}",
                 contact.getEmail(), complaintReason);
@@ -136,6 +146,15 @@ public class BounceProcessingService {
         return updated;
     }
 
+    /**
+     * Adds a spam complaint to a contact's engagement score.
+     *
+     * @param contactId the contact ID
+     */
+    public void recordComplaint(String contactId) {
+        engagementRepository.recordEvent(contactId, EngagementScore.COMPLAINT_WEIGHT, Instant.now());
+    }
+
     /**
      * Processes a bounce by email address.
      * Useful when processing webhook events where we might only have the email.
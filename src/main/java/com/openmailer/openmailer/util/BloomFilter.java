@@ -0,0 +1,138 @@
+package com.openmailer.openmailer.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, thread-safe Bloom filter for string keys.
+ * Sized up front from the expected number of insertions and the target
+ * false-positive rate, so memory never grows with traffic.
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicInteger insertions = new AtomicInteger();
+
+    /**
+     * @param expectedInsertions number of keys the filter should hold at the target rate
+     * @param falsePositiveRate target false-positive rate, between 0 and 1 (exclusive)
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+
+        // m = -n ln(p) / (ln 2)^2, k = (m / n) ln 2
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+        int words = (int) Math.max(1, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * LN2));
+    }
+
+    /**
+     * Adds a key to the filter.
+     *
+     * @param key the key to add
+     * @return true if the key was probably already present
+     */
+    public boolean put(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        boolean present = true;
+
+        for (int i = 1; i <= hashCount; i++) {
+            int combined = h1 + i * h2;
+            long index = (combined & Integer.MAX_VALUE) % bitCount;
+            if (setBit(index)) {
+                present = false;
+            }
+        }
+
+        if (!present) {
+            insertions.incrementAndGet();
+        }
+        return present;
+    }
+
+    /**
+     * Checks whether a key was probably added.
+     *
+     * @param key the key to check
+     * @return false if the key was definitely never added
+     */
+    public boolean mightContain(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashCount; i++) {
+            int combined = h1 + i * h2;
+            long index = (combined & Integer.MAX_VALUE) % bitCount;
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return approximate number of distinct keys added
+     */
+    public int getInsertions() {
+        return insertions.get();
+    }
+
+    /**
+     * @return memory used by the bit array, in bytes
+     */
+    public long getSizeInBytes() {
+        return (long) bits.length() * Long.BYTES;
+    }
+
+    /**
+     * Sets a bit.
+     *
+     * @return true if the bit was previously clear
+     */
+    private boolean setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+        return true;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finalized with the MurmurHash3 mixer
+     * so both 32-bit halves are usable as independent hashes.
+     * Shared with {@link HyperLogLog}, which needs well-mixed leading bits.
+     */
+    static long hash64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe1a85313L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,68 @@
+package com.openmailer.openmailer.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Exponentially decayed engagement score.
+ * A score is stored with the time it was last updated; it halves every {@link #HALF_LIFE_SECONDS}
+ * without new activity, and each open, click, bounce or complaint adds its weight at the
+ * time it happened. Updates run in SQL ({@code ContactEngagementRepository}) and only need
+ * the stored score and time, so they are O(1) per event no matter how much history a contact
+ * has. Scores never go below zero.
+ *
+ * Scores updated at different times compare by {@link #rank}: the logarithm of the score
+ * decayed forward to a fixed origin, which orders contacts exactly as their current scores
+ * do without depending on the time of the query. Times are epoch seconds in UTC, as in SQL.
+ */
+public final class EngagementScore {
+
+    public static final long HALF_LIFE_SECONDS = 30L * 24 * 60 * 60;
+
+    public static final double OPEN_WEIGHT = 1.0;
+    public static final double CLICK_WEIGHT = 3.0;
+    public static final double BOUNCE_WEIGHT = -5.0;
+    public static final double COMPLAINT_WEIGHT = -25.0;
+
+    static final double DECAY_RATE = Math.log(2) / HALF_LIFE_SECONDS;
+
+    private EngagementScore() {
+    }
+
+    /**
+     * @param score the stored score
+     * @param scoredAt when the score was last updated, or null if it never was
+     * @param now the time to decay the score to
+     * @return the score as of {@code now}
+     */
+    public static double current(Double score, LocalDateTime scoredAt, LocalDateTime now) {
+        return current(score, scoredAt, epochSeconds(now));
+    }
+
+    /**
+     * @param score the stored score
+     * @param scoredAt when the score was last updated, or null if it never was
+     * @param now the time to decay the score to, in epoch seconds
+     * @return the score as of {@code now}
+     */
+    public static double current(Double score, LocalDateTime scoredAt, long now) {
+        if (score == null || scoredAt == null || score <= 0) {
+            return 0;
+        }
+        long elapsed = Math.max(0, now - epochSeconds(scoredAt));
+        return score * Math.exp(-DECAY_RATE * elapsed);
+    }
+
+    /**
+     * @param score a positive stored score
+     * @param scoredAt when the score was last updated, in epoch seconds
+     * @return a key that orders scores as their current values do
+     */
+    public static double rank(double score, long scoredAt) {
+        return Math.log(score) + scoredAt * DECAY_RATE;
+    }
+
+    public static long epochSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
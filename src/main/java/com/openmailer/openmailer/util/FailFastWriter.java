@@ -0,0 +1,55 @@
+package com.openmailer.openmailer.util;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writer that rethrows I/O failures of the writer it wraps as {@link UncheckedIOException}.
+ * Writers that swallow {@link IOException}, such as opencsv's {@code CSVWriter}, then stop
+ * at the first failed write, e.g. when the client of a streamed download disconnects,
+ * instead of writing the rest of the export into a closed connection.
+ */
+public class FailFastWriter extends FilterWriter {
+
+    public FailFastWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int c) {
+        try {
+            out.write(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+        try {
+            out.write(buffer, offset, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) {
+        try {
+            out.write(text, offset, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
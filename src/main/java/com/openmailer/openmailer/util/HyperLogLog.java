@@ -0,0 +1,210 @@
+package com.openmailer.openmailer.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * HyperLogLog sketch for counting distinct string keys in fixed memory.
+ * Sketches with the same precision merge losslessly (register-wise maximum),
+ * so per-bucket sketches can be combined into counts for any range of buckets.
+ *
+ * The default precision uses 2^14 registers, a relative standard error of about 0.8%.
+ * Serialized sketches are sparse while few registers are set and 6-bit packed otherwise.
+ * Not thread-safe.
+ */
+public class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 14;
+
+    private static final int MIN_PRECISION = 4;
+    private static final int MAX_PRECISION = 16;
+    private static final int REGISTER_BITS = 6;
+    private static final int SPARSE_FLAG = 0x80;
+    private static final int SPARSE_ENTRY_BYTES = 3;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision number of index bits, between 4 and 16; the sketch uses 2^precision registers
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Adds a key to the sketch.
+     *
+     * @param key the key to add
+     * @return true if the sketch changed
+     */
+    public boolean add(String key) {
+        long hash = BloomFilter.hash64(key);
+        int index = (int) (hash >>> (64 - precision));
+        // Guard bit keeps the rank bounded when all remaining bits are zero
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Merges another sketch into this one. Afterwards this sketch estimates
+     * the number of distinct keys added to either sketch.
+     *
+     * @param other sketch with the same precision
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches with precision " + other.precision + " into " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Estimates the number of distinct keys added to the sketch.
+     * Small cardinalities use linear counting over the empty registers.
+     *
+     * @return estimated distinct count
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double raw = alpha(m) * m * m / sum;
+        if (raw <= 2.5 * m && zeros > 0) {
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(raw);
+    }
+
+    /**
+     * @return true if no key has been added
+     */
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Relative standard error of estimates at a precision: 1.04 / sqrt(2^precision).
+     *
+     * @param precision number of index bits
+     * @return relative standard error, e.g. 0.008 for 0.8%
+     */
+    public static double standardError(int precision) {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    /**
+     * Serializes the sketch. The first byte holds the precision, with the high bit set
+     * for the sparse form (3 bytes per non-zero register); the dense form packs every
+     * register into 6 bits.
+     *
+     * @return serialized sketch
+     */
+    public byte[] toBytes() {
+        int nonZero = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                nonZero++;
+            }
+        }
+
+        int denseBytes = (registers.length * REGISTER_BITS + 7) / 8;
+        if (nonZero * SPARSE_ENTRY_BYTES < denseBytes) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 + nonZero * SPARSE_ENTRY_BYTES);
+            buffer.put((byte) (precision | SPARSE_FLAG));
+            for (int i = 0; i < registers.length; i++) {
+                if (registers[i] != 0) {
+                    buffer.putShort((short) i);
+                    buffer.put(registers[i]);
+                }
+            }
+            return buffer.array();
+        }
+
+        byte[] bytes = new byte[1 + denseBytes];
+        bytes[0] = (byte) precision;
+        for (int i = 0; i < registers.length; i++) {
+            int bit = i * REGISTER_BITS;
+            int value = registers[i] << (bit & 7);
+            bytes[1 + (bit >>> 3)] |= (byte) value;
+            if ((bit & 7) > 8 - REGISTER_BITS) {
+                bytes[2 + (bit >>> 3)] |= (byte) (value >>> 8);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Restores a sketch serialized with {@link #toBytes()}.
+     *
+     * @param bytes serialized sketch
+     * @return the sketch
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            throw new IllegalArgumentException("Serialized sketch is empty");
+        }
+        boolean sparse = (bytes[0] & SPARSE_FLAG) != 0;
+        HyperLogLog sketch = new HyperLogLog(bytes[0] & 0xff & ~SPARSE_FLAG);
+
+        if (sparse) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+            while (buffer.remaining() >= SPARSE_ENTRY_BYTES) {
+                int index = buffer.getShort() & 0xffff;
+                sketch.registers[index] = buffer.get();
+            }
+            return sketch;
+        }
+
+        for (int i = 0; i < sketch.registers.length; i++) {
+            int bit = i * REGISTER_BITS;
+            int value = (bytes[1 + (bit >>> 3)] & 0xff) >>> (bit & 7);
+            if ((bit & 7) > 8 - REGISTER_BITS) {
+                value |= (bytes[2 + (bit >>> 3)] & 0xff) << (8 - (bit & 7));
+            }
+            sketch.registers[i] = (byte) (value & ((1 << REGISTER_BITS) - 1));
+        }
+        return sketch;
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+}
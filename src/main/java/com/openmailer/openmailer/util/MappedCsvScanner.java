@@ -0,0 +1,224 @@
+package com.openmailer.openmailer.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CSV scanner over a memory-mapped UTF-8 file.
+ * The file is split into byte ranges that end at record boundaries, and each range
+ * can be parsed independently, so several threads can parse one file at once.
+ * Fields are decoded straight from the mapped pages without reading the file
+ * through streams or line buffers.
+ *
+ * Quotes follow RFC 4180: quoted fields may contain commas, doubled quotes and
+ * line breaks. Blank lines are skipped.
+ */
+public class MappedCsvScanner implements Closeable {
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final FileChannel channel;
+    // A single mapping is limited to 2 GB, so larger files are mapped in 1 GB segments
+    private final MappedByteBuffer[] segments;
+    private final long size;
+    private final long start;
+
+    private MappedCsvScanner(FileChannel channel, MappedByteBuffer[] segments, long size) {
+        this.channel = channel;
+        this.segments = segments;
+        this.size = size;
+        this.start = size >= 3 && (byteAt(0) & 0xff) == 0xEF && (byteAt(1) & 0xff) == 0xBB
+                && (byteAt(2) & 0xff) == 0xBF ? 3 : 0;
+    }
+
+    /**
+     * Maps a file for scanning.
+     *
+     * @param file the CSV file
+     * @return the scanner
+     */
+    public static MappedCsvScanner open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long offset = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(SEGMENT_SIZE, size - offset));
+            }
+            return new MappedCsvScanner(channel, segments, size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return file size in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return offset of the first record, after a UTF-8 byte order mark if there is one
+     */
+    public long start() {
+        return start;
+    }
+
+    /**
+     * Splits the file after a record boundary into consecutive ranges of at least
+     * {@code targetBytes}, each ending at a record boundary. The last range may be
+     * shorter if the file ends first. This is a single sequential pass that only
+     * tracks quotes and line breaks.
+     *
+     * @param from a record boundary
+     * @param targetBytes minimum range length
+     * @param count maximum number of ranges
+     * @return range boundaries: {@code from} followed by the end of each range
+     */
+    public long[] split(long from, long targetBytes, int count) {
+        long[] bounds = new long[count + 1];
+        bounds[0] = from;
+        int ranges = 0;
+        long next = from + targetBytes;
+        boolean quoted = false;
+
+        for (long position = from; position < size && ranges < count; position++) {
+            byte b = byteAt(position);
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n' && !quoted && position + 1 >= next) {
+                bounds[++ranges] = position + 1;
+                next = position + 1 + targetBytes;
+            }
+        }
+        if (ranges < count && bounds[ranges] < size) {
+            bounds[++ranges] = size;
+        }
+        return Arrays.copyOf(bounds, ranges + 1);
+    }
+
+    /**
+     * Parses the records in a byte range returned by {@link #split}.
+     * Safe to call from several threads at once.
+     *
+     * @param from start of the range
+     * @param to end of the range
+     * @return the records and the offset after each of them
+     */
+    public Records parse(long from, long to) {
+        List<String[]> records = new ArrayList<>();
+        long[] ends = new long[16];
+        List<String> fields = new ArrayList<>();
+        FieldBuffer field = new FieldBuffer();
+        boolean quoted = false;
+
+        long position = from;
+        while (position < to) {
+            byte b = byteAt(position++);
+            if (quoted) {
+                if (b != '"') {
+                    field.append(b);
+                } else if (position < to && byteAt(position) == '"') {
+                    field.append(b);
+                    position++;
+                } else {
+                    quoted = false;
+                }
+            } else if (b == '"') {
+                quoted = true;
+            } else if (b == ',') {
+                fields.add(field.take());
+            } else if (b == '\n') {
+                field.dropTrailingCarriageReturn();
+                if (!fields.isEmpty() || !field.isEmpty()) {
+                    fields.add(field.take());
+                    ends = add(records, ends, fields, position);
+                    fields.clear();
+                }
+            } else {
+                field.append(b);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field at end of file");
+        }
+        if (!fields.isEmpty() || !field.isEmpty()) {
+            fields.add(field.take());
+            ends = add(records, ends, fields, to);
+        }
+        return new Records(records, Arrays.copyOf(ends, records.size()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private byte byteAt(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK));
+    }
+
+    private static long[] add(List<String[]> records, long[] ends, List<String> fields, long end) {
+        if (records.size() == ends.length) {
+            ends = Arrays.copyOf(ends, ends.length * 2);
+        }
+        ends[records.size()] = end;
+        records.add(fields.toArray(new String[0]));
+        return ends;
+    }
+
+    /**
+     * Records parsed from one byte range.
+     *
+     * @param fields each record's fields
+     * @param ends byte offset after each record; the next record starts there
+     */
+    public record Records(List<String[]> fields, long[] ends) {
+    }
+
+    /**
+     * Growable byte buffer for the field being parsed.
+     */
+    private static final class FieldBuffer {
+
+        private byte[] bytes = new byte[64];
+        private int length;
+
+        void append(byte b) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, length * 2);
+            }
+            bytes[length++] = b;
+        }
+
+        void dropTrailingCarriageReturn() {
+            if (length > 0 && bytes[length - 1] == '\r') {
+                length--;
+            }
+        }
+
+        boolean isEmpty() {
+            return length == 0;
+        }
+
+        String take() {
+            String value = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            length = 0;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.openmailer.openmailer.benchmark;
+
+import com.openmailer.openmailer.model.CampaignRecipient;
+import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.model.EmailCampaign;
+import com.openmailer.openmailer.model.EmailTemplate;
+import com.openmailer.openmailer.model.EngagementEvent;
+import com.openmailer.openmailer.model.EngagementEventType;
+import com.openmailer.openmailer.model.User;
+import com.openmailer.openmailer.repository.CampaignRecipientRepository;
+import com.openmailer.openmailer.repository.ContactEngagementRepository;
+import com.openmailer.openmailer.repository.ContactRepository;
+import com.openmailer.openmailer.repository.EmailCampaignRepository;
+import com.openmailer.openmailer.repository.EmailTemplateRepository;
+import com.openmailer.openmailer.repository.EngagementEventRepository;
+import com.openmailer.openmailer.repository.UserRepository;
+import com.openmailer.openmailer.util.EngagementScore;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark for the engagement score update path as it runs in production: the SQL in
+ * {@link ContactEngagementRepository#applyEvents}, which the engagement projection calls
+ * once per batch of events, and {@link ContactEngagementRepository#recordEvent}, which
+ * bounces and complaints call once per event.
+ *
+ * Runs against the local PostgreSQL from the {@code dev} profile. Seeds one campaign with
+ * recipients, appends batches of opens and clicks to the event store as the tracking
+ * flush writes them, then applies them in projection-sized transaction ID ranges, and
+ * reports the cost per batch and per event over several measured rounds after warm-up.
+ * Events arrive slightly out of order, as they do from the event store, so scores are
+ * also updated with times before their stored time.
+ *
+ * Disabled by default; run with the application stopped, so its projection does not
+ * consume the events:
+ * <pre>
+ * ./mvnw test -Pbenchmark -Dtest=EngagementScoreBenchmark -Dbenchmark.contacts=100000
+ * </pre>
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark.enabled", matches = "true")
+@ActiveProfiles("dev")
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ContactEngagementRepository.class, EngagementEventRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EngagementScoreBenchmark {
+
+    private static final int CONTACTS = Integer.getInteger("benchmark.contacts", 20_000);
+    private static final int BATCH_SIZE = Integer.getInteger("benchmark.batch-size", 5_000);
+    private static final int BATCHES = Integer.getInteger("benchmark.batches", 20);
+    private static final int WARMUP_ROUNDS = Integer.getInteger("benchmark.warmup-rounds", 1);
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 3);
+    private static final int RECORDED_EVENTS = Integer.getInteger("benchmark.recorded-events", 2_000);
+
+    @Autowired
+    private ContactEngagementRepository engagementRepository;
+
+    @Autowired
+    private EngagementEventRepository eventRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmailTemplateRepository templateRepository;
+
+    @Autowired
+    private EmailCampaignRepository campaignRepository;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private CampaignRecipientRepository recipientRepository;
+
+    @Test
+    void updatePath() {
+        engagementRepository.createSchemaIfMissing();
+        eventRepository.createSchemaIfMissing();
+        eventRepository.createDailyPartitionIfMissing(LocalDate.now().minusDays(1));
+        eventRepository.createDailyPartitionIfMissing(LocalDate.now());
+
+        Fixture fixture = seed();
+        try {
+            SplittableRandom random = new SplittableRandom(42);
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                applyRound(fixture, random);
+            }
+
+            double[] millisPerBatch = new double[ROUNDS];
+            long updated = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                Round result = applyRound(fixture, random);
+                millisPerBatch[round] = result.nanos() / 1e6 / BATCHES;
+                updated += result.updated();
+            }
+
+            long began = System.nanoTime();
+            for (int i = 0; i < RECORDED_EVENTS; i++) {
+                String contactId = fixture.contacts().get(random.nextInt(CONTACTS)).getId();
+                double weight = random.nextInt(10) == 0 ? EngagementScore.COMPLAINT_WEIGHT : EngagementScore.BOUNCE_WEIGHT;
+                engagementRepository.recordEvent(contactId, weight, Instant.now());
+            }
+            double microsPerRecordedEvent = (System.nanoTime() - began) / 1e3 / RECORDED_EVENTS;
+
+            Arrays.sort(millisPerBatch);
+            double median = millisPerBatch[ROUNDS / 2];
+            System.out.printf(Locale.ROOT, "%n=== Engagement score benchmark ===%n"
+                    + "contacts=%d batchSize=%d batches=%d rounds=%d%n"
+                    + "applyEvents ms/batch min=%.2f median=%.2f max=%.2f (%.1f us/event, %.0f events/s at median)%n"
+                    + "recordEvent us/event=%.1f over %d events%n",
+                CONTACTS, BATCH_SIZE, BATCHES, ROUNDS,
+                millisPerBatch[0], median, millisPerBatch[ROUNDS - 1],
+                median * 1e3 / BATCH_SIZE, BATCH_SIZE / median * 1e3,
+                microsPerRecordedEvent, RECORDED_EVENTS);
+            assertTrue(updated > 0, "no score was updated");
+        } finally {
+            cleanup(fixture);
+        }
+    }
+
+    /**
+     * Appends a round of event batches, then applies them one batch at a time; only the
+     * applies are timed.
+     */
+    private Round applyRound(Fixture fixture, SplittableRandom random) {
+        long after = eventRepository.findBatchUpperBound(0, Integer.MAX_VALUE);
+        for (int batch = 0; batch < BATCHES; batch++) {
+            eventRepository.appendBatch(events(fixture, random));
+        }
+
+        long nanos = 0;
+        long updated = 0;
+        for (int batch = 0; batch < BATCHES; batch++) {
+            long upTo = eventRepository.findBatchUpperBound(after, BATCH_SIZE);
+            long began = System.nanoTime();
+            updated += engagementRepository.applyEvents(after, upTo);
+            nanos += System.nanoTime() - began;
+            after = upTo;
+        }
+        return new Round(nanos, updated);
+    }
+
+    private List<EngagementEvent> events(Fixture fixture, SplittableRandom random) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EngagementEvent> events = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String recipientId = fixture.recipients().get(random.nextInt(CONTACTS)).getId();
+            boolean click = random.nextInt(10) < 3;
+            // Each event up to 10 minutes late
+            events.add(new EngagementEvent(click ? EngagementEventType.CLICK : EngagementEventType.OPEN,
+                fixture.campaign().getId(), recipientId, null, now.minusSeconds(random.nextInt(600)), null));
+        }
+        return events;
+    }
+
+    private Fixture seed() {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+
+        User user = userRepository.save(new User("bench-" + run, "bench-" + run + "@example.com", "benchmark"));
+
+        EmailTemplate template = new EmailTemplate("bench-" + run, "Benchmark", "<p>Benchmark</p>", user);
+        template.setUserId(user.getId());
+        template = templateRepository.save(template);
+
+        EmailCampaign campaign = new EmailCampaign("bench-" + run, template, user);
+        campaign.setUserId(user.getId());
+        campaign.setStatus("SENT");
+        campaign = campaignRepository.save(campaign);
+
+        List<Contact> contacts = new ArrayList<>(CONTACTS);
+        for (int i = 0; i < CONTACTS; i++) {
+            Contact contact = new Contact(user, "bench-" + run + "-" + i + "@example.com");
+            contact.setStatus("SUBSCRIBED");
+            contacts.add(contact);
+        }
+        contacts = contactRepository.saveAll(contacts);
+
+        List<CampaignRecipient> recipients = new ArrayList<>(CONTACTS);
+        for (int i = 0; i < CONTACTS; i++) {
+            CampaignRecipient recipient = new CampaignRecipient(campaign, contacts.get(i));
+            recipient.setStatus("SENT");
+            recipient.setTrackingId(run + "t" + i);
+            recipients.add(recipient);
+        }
+        recipients = recipientRepository.saveAll(recipients);
+
+        return new Fixture(user, template, campaign, contacts, recipients);
+    }
+
+    private void cleanup(Fixture fixture) {
+        jdbcTemplate.update("DELETE FROM engagement_events WHERE campaign_id = :campaignId",
+            new MapSqlParameterSource("campaignId", fixture.campaign().getId()));
+        recipientRepository.deleteAll(fixture.recipients());
+        contactRepository.deleteAll(fixture.contacts());
+        campaignRepository.delete(fixture.campaign());
+        templateRepository.delete(fixture.template());
+        userRepository.delete(fixture.user());
+    }
+
+    private record Fixture(
+            User user,
+            EmailTemplate template,
+            EmailCampaign campaign,
+            List<Contact> contacts,
+            List<CampaignRecipient> recipients) {
+    }
+
+    private record Round(long nanos, long updated) {
+    }
+}
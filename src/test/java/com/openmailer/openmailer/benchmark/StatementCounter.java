@@ -0,0 +1,89 @@
+package com.openmailer.openmailer.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts JDBC statements executed through the application's DataSource.
+ * Registered as a bean post-processor, so JPA and JdbcTemplate traffic are both counted.
+ * A JDBC batch counts as one statement; its rows are counted separately.
+ */
+public class StatementCounter implements BeanPostProcessor {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder batchedRows = new LongAdder();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !Proxy.isProxyClass(bean.getClass())) {
+            return proxy(DataSource.class, dataSource);
+        }
+        return bean;
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    public long getBatchedRows() {
+        return batchedRows.sum();
+    }
+
+    public void reset() {
+        statements.reset();
+        batchedRows.reset();
+    }
+
+    private Object proxy(Class<?> type, Object target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            String name = method.getName();
+
+            if (result instanceof Connection connection) {
+                return proxy(Connection.class, connection);
+            }
+            if (result instanceof Statement statement) {
+                return proxy(statementInterface(statement), statement);
+            }
+            if (EXECUTE_METHODS.contains(name)) {
+                statements.increment();
+            } else if ("addBatch".equals(name)) {
+                batchedRows.increment();
+            }
+            return result;
+        };
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private static Class<?> statementInterface(Statement statement) {
+        if (statement instanceof CallableStatement) {
+            return CallableStatement.class;
+        }
+        if (statement instanceof PreparedStatement) {
+            return PreparedStatement.class;
+        }
+        return Statement.class;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.openmailer.openmailer.benchmark;
+
+import com.openmailer.openmailer.model.CampaignLink;
+import com.openmailer.openmailer.model.CampaignRecipient;
+import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.model.EmailCampaign;
+import com.openmailer.openmailer.model.EmailTemplate;
+import com.openmailer.openmailer.model.User;
+import com.openmailer.openmailer.repository.CampaignLinkRepository;
+import com.openmailer.openmailer.repository.CampaignRecipientRepository;
+import com.openmailer.openmailer.repository.ContactRepository;
+import com.openmailer.openmailer.repository.EmailCampaignRepository;
+import com.openmailer.openmailer.repository.EmailTemplateRepository;
+import com.openmailer.openmailer.repository.UserRepository;
+import com.openmailer.openmailer.service.campaign.EngagementEventService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.server.test.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load benchmark for the tracking endpoints.
+ *
+ * Starts the full application on a random port against the local PostgreSQL from the
+ * {@code dev} profile, seeds one campaign with recipients and links, then drives
+ * {@code /track/open} and {@code /track/click} at a fixed request rate from an in-process
+ * HTTP client. Reports latency percentiles, throughput and JDBC statement counts.
+ *
+ * Disabled by default; run with:
+ * <pre>
+ * ./mvnw test -Pbenchmark -Dbenchmark.rps=2000 -Dbenchmark.duration-seconds=30
+ * </pre>
+ *
+ * Latency is measured from each request's scheduled send time (open-loop), so a stalled
+ * server shows up in the percentiles instead of silently lowering the offered load.
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark.enabled", matches = "true")
+@ActiveProfiles("dev")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+            "spring.jpa.show-sql=false",
+            "logging.level.root=WARN",
+            "logging.level.com.openmailer=WARN",
+            "logging.level.org.springframework.web=WARN",
+            "logging.level.org.hibernate.SQL=WARN",
+            "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+        })
+class TrackingLoadBenchmark {
+
+    private static final int RECIPIENTS = Integer.getInteger("benchmark.recipients", 10_000);
+    private static final int LINKS = Integer.getInteger("benchmark.links", 20);
+    private static final int TARGET_RPS = Integer.getInteger("benchmark.rps", 1_000);
+    private static final int DURATION_SECONDS = Integer.getInteger("benchmark.duration-seconds", 30);
+    private static final int WARMUP_SECONDS = Integer.getInteger("benchmark.warmup-seconds", 5);
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("benchmark.max-in-flight", 256);
+    private static final int CLICK_PERCENT = Integer.getInteger("benchmark.click-percent", 30);
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        static StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private EngagementEventService eventService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmailTemplateRepository templateRepository;
+
+    @Autowired
+    private EmailCampaignRepository campaignRepository;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private CampaignRecipientRepository recipientRepository;
+
+    @Autowired
+    private CampaignLinkRepository linkRepository;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void trackingThroughput() throws InterruptedException {
+        Fixture fixture = seed();
+        try {
+            run(fixture, WARMUP_SECONDS);
+
+            eventService.flush();
+            statementCounter.reset();
+            Result result = run(fixture, DURATION_SECONDS);
+            long requestStatements = statementCounter.getStatements();
+            eventService.flush();
+
+            report(result, requestStatements);
+            assertTrue(result.completed() > 0, "no tracking requests completed");
+        } finally {
+            cleanup(fixture);
+        }
+    }
+
+    private Result run(Fixture fixture, int seconds) throws InterruptedException {
+        long total = (long) TARGET_RPS * seconds;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / TARGET_RPS;
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        ConcurrentLinkedQueue<Long> openLatencies = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Long> clickLatencies = new ConcurrentLinkedQueue<>();
+        LongAdder errors = new LongAdder();
+
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long scheduledAt = start + i * intervalNanos;
+            long wait = scheduledAt - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+
+            boolean click = ThreadLocalRandom.current().nextInt(100) < CLICK_PERCENT;
+            ConcurrentLinkedQueue<Long> latencies = click ? clickLatencies : openLatencies;
+            HttpRequest request = HttpRequest.newBuilder(click ? fixture.randomClickUri(port) : fixture.randomOpenUri(port))
+                    .header("User-Agent", "openmailer-benchmark")
+                    .timeout(Duration.ofSeconds(10))
+                    .GET()
+                    .build();
+
+            inFlight.acquire();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        inFlight.release();
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.increment();
+                        } else {
+                            latencies.add(System.nanoTime() - scheduledAt);
+                        }
+                    });
+        }
+
+        inFlight.acquire(MAX_IN_FLIGHT);
+        inFlight.release(MAX_IN_FLIGHT);
+        long elapsed = System.nanoTime() - start;
+
+        return new Result(toSortedArray(openLatencies), toSortedArray(clickLatencies), errors.sum(), elapsed);
+    }
+
+    private void report(Result result, long requestStatements) {
+        double seconds = result.elapsedNanos() / 1e9;
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%n=== Tracking load benchmark ===%n"));
+        out.append(String.format(Locale.ROOT, "recipients=%d links=%d targetRps=%d duration=%ds clicks=%d%%%n",
+                RECIPIENTS, LINKS, TARGET_RPS, DURATION_SECONDS, CLICK_PERCENT));
+        out.append(String.format(Locale.ROOT, "completed=%d errors=%d throughput=%.1f req/s%n",
+                result.completed(), result.errors(), result.completed() / seconds));
+        out.append(latencyLine("open ", result.openLatencies()));
+        out.append(latencyLine("click", result.clickLatencies()));
+        out.append(String.format(Locale.ROOT, "db statements during run=%d (%.3f per request), batched rows=%d%n",
+                requestStatements, (double) requestStatements / Math.max(1, result.completed()),
+                statementCounter.getBatchedRows()));
+        out.append(String.format(Locale.ROOT, "db statements incl. final flush=%d%n", statementCounter.getStatements()));
+        System.out.println(out);
+    }
+
+    private static String latencyLine(String label, long[] sorted) {
+        return String.format(Locale.ROOT, "%s n=%d p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n",
+                label, sorted.length,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                percentile(sorted, 99.9), percentile(sorted, 100));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static long[] toSortedArray(ConcurrentLinkedQueue<Long> values) {
+        long[] array = values.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    private Fixture seed() {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+
+        User user = userRepository.save(new User("bench-" + run, "bench-" + run + "@example.com", "benchmark"));
+
+        EmailTemplate template = new EmailTemplate("bench-" + run, "Benchmark", "<p>Benchmark</p>", user);
+        template.setUserId(user.getId());
+        template = templateRepository.save(template);
+
+        EmailCampaign campaign = new EmailCampaign("bench-" + run, template, user);
+        campaign.setUserId(user.getId());
+        campaign.setStatus("SENT");
+        campaign = campaignRepository.save(campaign);
+
+        List<Contact> contacts = new ArrayList<>(RECIPIENTS);
+        for (int i = 0; i < RECIPIENTS; i++) {
+            Contact contact = new Contact(user, "bench-" + run + "-" + i + "@example.com");
+            contact.setStatus("SUBSCRIBED");
+            contacts.add(contact);
+        }
+        contacts = contactRepository.saveAll(contacts);
+
+        List<CampaignRecipient> recipients = new ArrayList<>(RECIPIENTS);
+        String[] trackingIds = new String[RECIPIENTS];
+        for (int i = 0; i < RECIPIENTS; i++) {
+            CampaignRecipient recipient = new CampaignRecipient(campaign, contacts.get(i));
+            recipient.setStatus("SENT");
+            trackingIds[i] = run + "t" + i;
+            recipient.setTrackingId(trackingIds[i]);
+            recipients.add(recipient);
+        }
+        recipients = recipientRepository.saveAll(recipients);
+
+        List<CampaignLink> links = new ArrayList<>(LINKS);
+        String[] shortCodes = new String[LINKS];
+        for (int i = 0; i < LINKS; i++) {
+            shortCodes[i] = run + "l" + i;
+            links.add(new CampaignLink(campaign, "https://example.com/" + i, shortCodes[i]));
+        }
+        links = linkRepository.saveAll(links);
+
+        return new Fixture(user, template, campaign, contacts, recipients, links, trackingIds, shortCodes);
+    }
+
+    private void cleanup(Fixture fixture) {
+        linkRepository.deleteAll(fixture.links());
+        recipientRepository.deleteAll(fixture.recipients());
+        contactRepository.deleteAll(fixture.contacts());
+        campaignRepository.delete(fixture.campaign());
+        templateRepository.delete(fixture.template());
+        userRepository.delete(fixture.user());
+    }
+
+    private record Fixture(
+            User user,
+            EmailTemplate template,
+            EmailCampaign campaign,
+            List<Contact> contacts,
+            List<CampaignRecipient> recipients,
+            List<CampaignLink> links,
+            String[] trackingIds,
+            String[] shortCodes) {
+
+        URI randomOpenUri(int port) {
+            String trackingId = trackingIds[ThreadLocalRandom.current().nextInt(trackingIds.length)];
+            return URI.create("http://localhost:" + port + "/track/open/" + trackingId);
+        }
+
+        URI randomClickUri(int port) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String shortCode = shortCodes[random.nextInt(shortCodes.length)];
+            String trackingId = trackingIds[random.nextInt(trackingIds.length)];
+            return URI.create("http://localhost:" + port + "/track/click/" + shortCode + "?tid=" + trackingId);
+        }
+    }
+
+    private record Result(long[] openLatencies, long[] clickLatencies, long errors, long elapsedNanos) {
+
+        long completed() {
+            return openLatencies.length + clickLatencies.length;
+        }
+    }
+}
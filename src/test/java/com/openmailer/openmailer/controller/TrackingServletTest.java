@@ -0,0 +1,141 @@
+package com.openmailer.openmailer.controller;
+
+import com.openmailer.openmailer.exception.ResourceNotFoundException;
+import com.openmailer.openmailer.service.campaign.TrackingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TrackingServletTest {
+
+    private static final byte[] TRACKING_PIXEL = {
+        71, 73, 70, 56, 57, 97, 1, 0, 1, 0, -128, 0, 0, 0, 0, 0,
+        -1, -1, -1, 33, -7, 4, 1, 0, 0, 0, 0, 44, 0, 0, 0, 0,
+        1, 0, 1, 0, 0, 2, 1, 68, 0, 59
+    };
+
+    @Mock
+    private TrackingService trackingService;
+
+    private TrackingServlet servlet;
+
+    @BeforeEach
+    void setUp() {
+        servlet = new TrackingServlet(trackingService);
+    }
+
+    @Test
+    void trackOpenReturnsPixelAndNoCacheHeaders() throws IOException {
+        MockHttpServletRequest request = request("/open/tracking-1");
+        request.addHeader(HttpHeaders.USER_AGENT, "Mozilla/5.0");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        servlet.doGet(request, response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(MediaType.IMAGE_GIF_VALUE, response.getContentType());
+        assertEquals("no-cache, no-store, must-revalidate", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("no-cache", response.getHeader(HttpHeaders.PRAGMA));
+        assertEquals("Thu, 01 Jan 1970 00:00:00 GMT", response.getHeader(HttpHeaders.EXPIRES));
+        assertArrayEquals(TRACKING_PIXEL, response.getContentAsByteArray());
+        verify(trackingService).recordOpen("tracking-1", "Mozilla/5.0");
+    }
+
+    @Test
+    void trackOpenReturnsPixelWhenTrackingIdIsMissing() throws IOException {
+        doThrow(new ResourceNotFoundException("Tracking id not found"))
+            .when(trackingService).recordOpen("missing", null);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        servlet.doGet(request("/open/missing"), response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(MediaType.IMAGE_GIF_VALUE, response.getContentType());
+        assertArrayEquals(TRACKING_PIXEL, response.getContentAsByteArray());
+    }
+
+    @Test
+    void trackClickRedirectsToOriginalUrlWhenTrackingIdPresent() throws IOException {
+        when(trackingService.recordClick("abc123", "tracking-1", "Mozilla/5.0"))
+            .thenReturn("https://example.com/landing");
+        MockHttpServletRequest request = request("/click/abc123");
+        request.setParameter("tid", "tracking-1");
+        request.addHeader(HttpHeaders.USER_AGENT, "Mozilla/5.0");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        servlet.doGet(request, response);
+
+        assertEquals(302, response.getStatus());
+        assertEquals("https://example.com/landing", response.getHeader(HttpHeaders.LOCATION));
+        verify(trackingService).recordClick("abc123", "tracking-1", "Mozilla/5.0");
+    }
+
+    @Test
+    void trackClickFallsBackToAnonymousRedirectWhenTrackingIdMissing() throws IOException {
+        when(trackingService.recordAnonymousClick("shorty", null)).thenReturn("https://example.com/newsletter");
+        MockHttpServletRequest request = request("/click/shorty");
+        request.setParameter("tid", "");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        servlet.doGet(request, response);
+
+        assertEquals(302, response.getStatus());
+        assertEquals("https://example.com/newsletter", response.getHeader(HttpHeaders.LOCATION));
+        verify(trackingService).recordAnonymousClick("shorty", null);
+    }
+
+    @Test
+    void trackClickRedirectsHomeWhenShortCodeIsMissing() throws IOException {
+        doThrow(new ResourceNotFoundException("Link not found"))
+            .when(trackingService).recordAnonymousClick("missing", null);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        servlet.doGet(request("/click/missing"), response);
+
+        assertEquals(302, response.getStatus());
+        assertEquals("/", response.getHeader(HttpHeaders.LOCATION));
+    }
+
+    @Test
+    void healthReturnsOkMessage() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        servlet.doGet(request("/health"), response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("Tracking service is running", response.getContentAsString());
+    }
+
+    @Test
+    void unknownPathReturnsNotFound() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        servlet.doGet(request("/unknown"), response);
+
+        assertEquals(404, response.getStatus());
+        verifyNoInteractions(trackingService);
+    }
+
+    private MockHttpServletRequest request(String pathInfo) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/track" + pathInfo);
+        request.setServletPath("/track");
+        request.setPathInfo(pathInfo);
+        return request;
+    }
+}
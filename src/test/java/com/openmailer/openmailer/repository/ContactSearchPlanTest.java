@@ -0,0 +1,123 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.model.User;
+import com.openmailer.openmailer.repository.projection.ContactSummaryRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Asserts that contact searches are answered from the trigram index and unfiltered
+ * pages from the keyset index, so a predicate the indexes cannot serve fails a build
+ * instead of scanning every contact of a large tenant.
+ */
+@PostgresIntegrationTest
+@Import({ContactSearchRepository.class, ContactTagCountRepository.class})
+class ContactSearchPlanTest extends PostgresTestSupport {
+
+    private static final int CONTACTS = 2_000;
+
+    @Autowired
+    private ContactSearchRepository searchRepository;
+
+    @Autowired
+    private ContactTagCountRepository tagCountRepository;
+
+    private String userId;
+
+    @BeforeEach
+    void setUp() {
+        searchRepository.createSchemaIfMissing();
+        tagCountRepository.createSchemaIfMissing();
+
+        User user = persistUser("search");
+        userId = user.getId();
+
+        Contact ada = new Contact(user, "ada-" + run + "@example.com");
+        ada.setFirstName("Ada");
+        ada.setLastName("Lovelace");
+        ada.setTags(new String[]{" mathematics"});
+        ada.setCustomFields(Map.of("company", "Analytical Engines", "city", "London"));
+        entityManager.persist(ada);
+
+        for (int i = 0; i < CONTACTS; i++) {
+            Contact contact = new Contact(user, "reader-" + i + "-" + run + "@example.com");
+            contact.setFirstName("Reader");
+            contact.setLastName("Number " + i);
+            entityManager.persist(contact);
+            if (i % 500 == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        jdbcTemplate.getJdbcTemplate().execute("ANALYZE contacts");
+        jdbcTemplate.getJdbcTemplate().execute("SET LOCAL enable_seqscan = off");
+    }
+
+    @Test
+    void substringSearchUsesTheTrigramIndex() {
+        assertTrue(searchRepository.isFuzzySearch());
+
+        String plan = explain("velac");
+
+        assertTrue(plan.contains("idx_contacts_search_trgm"), plan);
+        assertEquals(List.of("Ada"), firstNames(searchRepository.findPage(userId, null, null, "velac", null, false, 51)));
+    }
+
+    @Test
+    void tagsAndSearchedCustomFieldsAreMatched() {
+        assertEquals(List.of("Ada"), firstNames(searchRepository.findPage(userId, null, null, "Mathem", null, false, 51)));
+        assertEquals(List.of("Ada"), firstNames(searchRepository.findPage(userId, null, null, "analytical", null, false, 51)));
+    }
+
+    @Test
+    void changingTheSearchedCustomFieldsRecomputesExistingRows() {
+        assertTrue(searchRepository.findPage(userId, null, null, "london", null, false, 51).isEmpty());
+
+        ContactSearchRepository reconfigured = new ContactSearchRepository(jdbcTemplate, List.of("company", "city"));
+        reconfigured.createSchemaIfMissing();
+
+        assertEquals(List.of("Ada"), firstNames(reconfigured.findPage(userId, null, null, "london", null, false, 51)));
+    }
+
+    @Test
+    void tagFilterMatchesTheTrimmedTag() {
+        assertEquals(List.of("Ada"), firstNames(searchRepository.findPage(userId, null, "mathematics", null, null, false, 51)));
+        assertEquals(List.of("Ada"), firstNames(searchRepository.findPage(userId, null, " mathematics ", null, null, false, 51)));
+    }
+
+    @Test
+    void misspelledSearchFindsCloseWordsThroughTheTrigramIndex() {
+        String plan = explain("lovelase");
+
+        assertTrue(plan.contains("idx_contacts_search_trgm"), plan);
+        assertEquals(List.of("Ada"), firstNames(searchRepository.findPage(userId, null, null, "lovelase", null, false, 51)));
+    }
+
+    @Test
+    void unfilteredPageUsesTheKeysetIndex() {
+        String plan = explain(null);
+
+        assertTrue(plan.contains("idx_contacts_user_sort"), plan);
+        assertFalse(plan.contains("Sort Key"), plan);
+    }
+
+    private String explain(String search) {
+        ContactSearchRepository.PageQuery query = searchRepository.pageQuery(userId, null, null, search, null, false, 51);
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query.sql(), query.params(), String.class));
+    }
+
+    private static List<String> firstNames(List<ContactSummaryRow> rows) {
+        return rows.stream().map(ContactSummaryRow::firstName).toList();
+    }
+}
@@ -0,0 +1,117 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Asserts that the triggers keep tag counts in step with contact writes, and that
+ * tag filters are answered from the GIN index on tags.
+ */
+@PostgresIntegrationTest
+@Import(ContactTagCountRepository.class)
+class ContactTagCountTest extends PostgresTestSupport {
+
+    @Autowired
+    private ContactTagCountRepository tagCountRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        tagCountRepository.createSchemaIfMissing();
+        user = persistUser("tags");
+    }
+
+    @Test
+    void countsFollowCreatesUpdatesAndDeletes() {
+        Contact ada = contact("ada", "vip", " beta", "vip");
+        Contact grace = contact("grace", "vip");
+        assertEquals(Map.of("beta", 1L, "vip", 2L), tagCountRepository.findCounts(user.getId()));
+
+        ada.setTags(new String[]{"beta", "newsletter"});
+        entityManager.flush();
+        assertEquals(Map.of("beta", 1L, "newsletter", 1L, "vip", 1L), tagCountRepository.findCounts(user.getId()));
+
+        grace.setStatus("UNSUBSCRIBED");
+        entityManager.remove(ada);
+        entityManager.flush();
+        assertEquals(Map.of("vip", 1L), tagCountRepository.findCounts(user.getId()));
+    }
+
+    @Test
+    void bulkStatementsApplyOneDeltaPerTag() {
+        for (int i = 0; i < 20; i++) {
+            contact("reader-" + i, "newsletter");
+        }
+
+        jdbcTemplate.update("""
+            UPDATE contacts SET tags = array_append(tags, 'engaged')
+            WHERE user_id = :userId AND email LIKE 'reader-1%'
+        """, new MapSqlParameterSource("userId", user.getId()));
+        assertEquals(Map.of("engaged", 11L, "newsletter", 20L), tagCountRepository.findCounts(user.getId()));
+
+        jdbcTemplate.update("DELETE FROM contacts WHERE user_id = :userId AND email LIKE 'reader-1%'",
+            new MapSqlParameterSource("userId", user.getId()));
+        assertEquals(Map.of("newsletter", 9L), tagCountRepository.findCounts(user.getId()));
+    }
+
+    @Test
+    void tagsAreTrimmedOnWriteSoFiltersMatchTheirCounts() {
+        Contact ada = contact("ada", " beta", "beta ", "", "vip");
+
+        assertEquals(List.of("beta", "vip"), storedTags(ada));
+        assertEquals(Map.of("beta", 1L, "vip", 1L), tagCountRepository.findCounts(user.getId()));
+        assertEquals(List.of(ada.getId()), jdbcTemplate.queryForList("""
+            SELECT id FROM contacts c
+            WHERE c.user_id = :userId AND c.tags @> ARRAY[trim(CAST(:tag AS TEXT))]
+        """, new MapSqlParameterSource("userId", user.getId()).addValue("tag", "beta"), String.class));
+    }
+
+    @Test
+    void tagsWrittenBeforeTheTriggerAreNormalizedAtStartup() {
+        jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE contacts DISABLE TRIGGER contacts_normalize_tags");
+        Contact ada = contact("ada", " beta", "vip", "vip");
+        jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE contacts ENABLE TRIGGER contacts_normalize_tags");
+
+        tagCountRepository.createSchemaIfMissing();
+
+        assertEquals(List.of("beta", "vip"), storedTags(ada));
+        assertEquals(Map.of("beta", 1L, "vip", 1L), tagCountRepository.findCounts(user.getId()));
+    }
+
+    @Test
+    void tagFilterUsesTheGinIndex() {
+        jdbcTemplate.getJdbcTemplate().execute("SET LOCAL enable_seqscan = off");
+
+        String plan = String.join("\n", jdbcTemplate.queryForList("""
+            EXPLAIN SELECT id FROM contacts c WHERE c.tags @> ARRAY[trim(CAST(:tag AS TEXT))]
+        """, new MapSqlParameterSource("tag", "vip"), String.class));
+
+        assertTrue(plan.contains("idx_contacts_tags"), plan);
+    }
+
+    private List<String> storedTags(Contact contact) {
+        return List.of(jdbcTemplate.queryForObject("SELECT tags FROM contacts WHERE id = :id",
+            new MapSqlParameterSource("id", contact.getId()),
+            (rs, rowNum) -> (String[]) rs.getArray("tags").getArray()));
+    }
+
+    private Contact contact(String name, String... tags) {
+        Contact contact = new Contact(user, name + "@example.com");
+        contact.setTags(tags);
+        entityManager.persist(contact);
+        entityManager.flush();
+        return contact;
+    }
+}
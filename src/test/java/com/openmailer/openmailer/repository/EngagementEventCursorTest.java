@@ -0,0 +1,91 @@
+package com.openmailer.openmailer.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Asserts that the projection cursor does not move past events whose insert transaction
+ * is still open, even when a later event ID has already committed.
+ */
+@PostgresIntegrationTest
+@Import(EngagementEventRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EngagementEventCursorTest extends PostgresTestSupport {
+
+    @Autowired
+    private EngagementEventRepository eventRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private String campaignId;
+
+    @BeforeEach
+    void setUp() {
+        eventRepository.createSchemaIfMissing();
+        eventRepository.createDailyPartitionIfMissing(LocalDate.now());
+        campaignId = "cursor-" + run;
+    }
+
+    @Test
+    void eventsCommittedOutOfIdOrderAreNotSkipped() throws SQLException {
+        long start = eventRepository.findBatchUpperBound(0, Integer.MAX_VALUE);
+
+        long slowId;
+        long fastId;
+        try (Connection slow = dataSource.getConnection(); Connection fast = dataSource.getConnection()) {
+            slow.setAutoCommit(false);
+            slowId = insertEvent(slow);
+            fastId = insertEvent(fast);
+            assertTrue(slowId < fastId);
+
+            // The higher ID is committed, but the open transaction holds the lower one
+            assertEquals(start, eventRepository.findBatchUpperBound(start, 1_000));
+
+            slow.commit();
+        }
+
+        long upTo = eventRepository.findBatchUpperBound(start, 1_000);
+        assertEquals(List.of(slowId, fastId), jdbcTemplate.queryForList("""
+            SELECT id FROM engagement_events
+            WHERE campaign_id = :campaignId AND tx_id > :afterTxId AND tx_id <= :upToTxId
+            ORDER BY id
+        """, new MapSqlParameterSource()
+            .addValue("campaignId", campaignId)
+            .addValue("afterTxId", start)
+            .addValue("upToTxId", upTo), Long.class));
+    }
+
+    private long insertEvent(Connection connection) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("""
+            INSERT INTO engagement_events (event_type, campaign_id, occurred_at)
+            VALUES (1, ?, ?)
+            RETURNING id
+        """)) {
+            insert.setString(1, campaignId);
+            insert.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            try (ResultSet rs = insert.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.model.User;
+import com.openmailer.openmailer.util.EngagementScore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Asserts the score arithmetic of {@link ContactEngagementRepository}: stored scores decay
+ * before an event is added, late events are decayed to the stored time, and scores never
+ * go below zero.
+ */
+@PostgresIntegrationTest
+@Import(ContactEngagementRepository.class)
+class EngagementScoreUpdateTest extends PostgresTestSupport {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final Duration HALF_LIFE = Duration.ofSeconds(EngagementScore.HALF_LIFE_SECONDS);
+
+    @Autowired
+    private ContactEngagementRepository engagementRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        engagementRepository.createSchemaIfMissing();
+        user = persistUser("score");
+    }
+
+    @Test
+    void scoreHalvesEveryHalfLifeBeforeTheEventIsAdded() {
+        Contact contact = contactScored("halves", 8.0, START);
+
+        engagementRepository.recordEvent(contact.getId(), EngagementScore.CLICK_WEIGHT, at(START.plus(HALF_LIFE)));
+
+        assertEquals(4.0 + EngagementScore.CLICK_WEIGHT, score(contact), 1e-9);
+        assertEquals(START.plus(HALF_LIFE), scoredAt(contact));
+    }
+
+    @Test
+    void lateEventsAreDecayedToTheStoredTime() {
+        Contact inOrder = contactScored("in-order", 0.0, START);
+        Contact outOfOrder = contactScored("out-of-order", 0.0, START);
+
+        engagementRepository.recordEvent(inOrder.getId(), EngagementScore.OPEN_WEIGHT, at(START.plusDays(10)));
+        engagementRepository.recordEvent(inOrder.getId(), EngagementScore.CLICK_WEIGHT, at(START.plusDays(20)));
+        engagementRepository.recordEvent(outOfOrder.getId(), EngagementScore.CLICK_WEIGHT, at(START.plusDays(20)));
+        engagementRepository.recordEvent(outOfOrder.getId(), EngagementScore.OPEN_WEIGHT, at(START.plusDays(10)));
+
+        assertEquals(score(inOrder), score(outOfOrder), 1e-9);
+        assertEquals(START.plusDays(20), scoredAt(outOfOrder));
+    }
+
+    @Test
+    void negativeEventsNeverPushTheScoreBelowZero() {
+        Contact contact = contactScored("complained", 3.0, START);
+
+        engagementRepository.recordEvent(contact.getId(), EngagementScore.COMPLAINT_WEIGHT, at(START.plusDays(1)));
+
+        assertEquals(0.0, score(contact));
+    }
+
+    private Contact contactScored(String name, double score, LocalDateTime scoredAt) {
+        Contact contact = new Contact(user, name + "-" + run + "@example.com");
+        entityManager.persist(contact);
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE contacts SET engagement_score = :score, engagement_scored_at = :at WHERE id = :id",
+            new MapSqlParameterSource("id", contact.getId())
+                .addValue("score", score)
+                .addValue("at", Timestamp.valueOf(scoredAt)));
+        return contact;
+    }
+
+    private double score(Contact contact) {
+        return (Double) row(contact).get("engagement_score");
+    }
+
+    private LocalDateTime scoredAt(Contact contact) {
+        return ((Timestamp) row(contact).get("engagement_scored_at")).toLocalDateTime();
+    }
+
+    private Map<String, Object> row(Contact contact) {
+        return jdbcTemplate.queryForMap("SELECT engagement_score, engagement_scored_at FROM contacts WHERE id = :id",
+            new MapSqlParameterSource("id", contact.getId()));
+    }
+
+    private static Instant at(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,151 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.model.CampaignRecipient;
+import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.model.ContactList;
+import com.openmailer.openmailer.model.ContactListMembership;
+import com.openmailer.openmailer.model.EmailCampaign;
+import com.openmailer.openmailer.model.EmailTemplate;
+import com.openmailer.openmailer.model.User;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Asserts the number of SQL statements issued by hot read paths, so fetch-plan
+ * regressions (eager joins, N+1 loads) fail a build instead of a production node.
+ */
+@PostgresIntegrationTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.show-sql=false"
+})
+class FetchPlanStatementCountTest extends PostgresTestSupport {
+
+    private static final int RECIPIENTS = 5;
+
+    @Autowired
+    private EmailCampaignRepository campaignRepository;
+
+    @Autowired
+    private CampaignRecipientRepository recipientRepository;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    private Statistics statistics;
+    private User user;
+    private ContactList list;
+    private EmailCampaign campaign;
+    private String firstTrackingId;
+
+    @BeforeEach
+    void setUp() {
+        user = persistUser("fetch");
+
+        EmailTemplate template = new EmailTemplate("fetch-" + run, "Subject", "<p>Body</p>", user);
+        template.setUserId(user.getId());
+        entityManager.persist(template);
+
+        list = entityManager.persist(new ContactList(user, "fetch-" + run));
+
+        for (int c = 0; c < 3; c++) {
+            EmailCampaign other = new EmailCampaign("fetch-" + run + "-" + c, template, user);
+            other.setUserId(user.getId());
+            other.setContactList(list);
+            entityManager.persist(other);
+            if (campaign == null) {
+                campaign = other;
+            }
+        }
+
+        for (int i = 0; i < RECIPIENTS; i++) {
+            Contact contact = new Contact(user, "fetch-" + run + "-" + i + "@example.com");
+            contact.setStatus(i == 0 ? "UNSUBSCRIBED" : "SUBSCRIBED");
+            entityManager.persist(contact);
+            entityManager.persist(new ContactListMembership(contact, list));
+
+            CampaignRecipient recipient = new CampaignRecipient(campaign, contact);
+            recipient.setTrackingId(run + "-" + i);
+            if (firstTrackingId == null) {
+                firstTrackingId = recipient.getTrackingId();
+            }
+            recipient.setStatus("SENT");
+            recipient.setOpenedAt(i % 2 == 0 ? LocalDateTime.now() : null);
+            entityManager.persist(recipient);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void trackingViewIsASingleStatement() {
+        assertTrue(recipientRepository.findTrackingViewByTrackingId(firstTrackingId).isPresent());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void recipientLookupDoesNotLoadCampaignOrContact() {
+        CampaignRecipient recipient = recipientRepository.findByTrackingId(firstTrackingId).orElseThrow();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(Hibernate.isInitialized(recipient.getCampaign()));
+        assertFalse(Hibernate.isInitialized(recipient.getContact()));
+    }
+
+    @Test
+    void campaignDeliveryGraphLoadsAssociationsInOneStatement() {
+        EmailCampaign loaded = campaignRepository.findWithDeliveryGraphById(campaign.getId()).orElseThrow();
+
+        assertTrue(Hibernate.isInitialized(loaded.getTemplate()));
+        assertTrue(Hibernate.isInitialized(loaded.getCreatedBy()));
+        assertTrue(Hibernate.isInitialized(loaded.getContactList()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void campaignListDoesNotLoadAssociations() {
+        List<EmailCampaign> campaigns = campaignRepository.findByUserId(user.getId());
+
+        assertEquals(3, campaigns.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void pendingRecipientsFetchContactsWithoutNPlusOne() {
+        entityManager.getEntityManager()
+            .createQuery("UPDATE CampaignRecipient r SET r.status = 'PENDING' WHERE r.campaign.id = :campaignId")
+            .setParameter("campaignId", campaign.getId())
+            .executeUpdate();
+        statistics.clear();
+
+        List<CampaignRecipient> pending = recipientRepository.findPendingRecipients(campaign.getId(), 3);
+        pending.forEach(recipient -> recipient.getContact().getEmail());
+
+        assertEquals(RECIPIENTS, pending.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void audienceCountIsASingleStatement() {
+        long subscribed = contactRepository.countByActiveListMembershipAndStatus(list.getId(), "SUBSCRIBED");
+
+        assertEquals(RECIPIENTS - 1, subscribed);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,68 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Asserts that only contacts mailed for the whole inactivity window are flagged, however
+ * long ago they subscribed.
+ */
+@PostgresIntegrationTest
+@Import(ContactEngagementRepository.class)
+class InactiveContactFlagTest extends PostgresTestSupport {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 1, 0, 0);
+    private static final LocalDateTime CUTOFF = NOW.minusMonths(6);
+
+    @Autowired
+    private ContactEngagementRepository engagementRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        engagementRepository.createSchemaIfMissing();
+        user = persistUser("inactive");
+    }
+
+    @Test
+    void contactsFirstMailedAfterTheCutoffAreNotFlagged() {
+        Contact mailedForYears = subscribedLongAgo("mailed-for-years");
+        Contact mailedLastWeek = subscribedLongAgo("mailed-last-week");
+        Contact neverMailed = subscribedLongAgo("never-mailed");
+        engagementRepository.recordSends(List.of(mailedForYears.getId()), NOW.minusYears(2));
+        engagementRepository.recordSends(List.of(mailedForYears.getId(), mailedLastWeek.getId()), NOW.minusWeeks(1));
+
+        engagementRepository.flagInactiveBefore(CUTOFF, Integer.MAX_VALUE);
+
+        assertEquals("INACTIVE", status(mailedForYears));
+        assertEquals("SUBSCRIBED", status(mailedLastWeek));
+        assertEquals("SUBSCRIBED", status(neverMailed));
+    }
+
+    private Contact subscribedLongAgo(String name) {
+        Contact contact = new Contact(user, name + "-" + run + "@example.com");
+        contact.setStatus("SUBSCRIBED");
+        entityManager.persist(contact);
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE contacts SET created_at = :at, subscribed_at = :at WHERE id = :id",
+            new MapSqlParameterSource("id", contact.getId()).addValue("at", Timestamp.valueOf(NOW.minusYears(3))));
+        return contact;
+    }
+
+    private String status(Contact contact) {
+        return jdbcTemplate.queryForObject("SELECT status FROM contacts WHERE id = :id",
+            new MapSqlParameterSource("id", contact.getId()), String.class);
+    }
+}
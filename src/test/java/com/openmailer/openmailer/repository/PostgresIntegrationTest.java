@@ -0,0 +1,36 @@
+package com.openmailer.openmailer.repository;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a JPA slice test that runs against the local PostgreSQL from the {@code dev}
+ * profile instead of an embedded database. These tests only run when enabled with
+ * {@code ./mvnw test -Pintegration}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Tag("integration")
+@EnabledIfSystemProperty(named = "integration.enabled", matches = "true")
+@ActiveProfiles("dev")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public @interface PostgresIntegrationTest {
+
+    /**
+     * @return additional Spring properties for the test context
+     */
+    @AliasFor(annotation = DataJpaTest.class, attribute = "properties")
+    String[] properties() default "spring.jpa.show-sql=false";
+}
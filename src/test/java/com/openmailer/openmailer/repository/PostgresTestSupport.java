@@ -0,0 +1,35 @@
+package com.openmailer.openmailer.repository;
+
+import com.openmailer.openmailer.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Base class for {@link PostgresIntegrationTest} classes.
+ * Tests share one database, so each run creates its own user and scopes its rows to it.
+ */
+public abstract class PostgresTestSupport {
+
+    /**
+     * Unique suffix for names created by the current test.
+     */
+    protected final String run = Long.toString(System.nanoTime(), 36);
+
+    @Autowired
+    protected TestEntityManager entityManager;
+
+    @Autowired
+    protected NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Persists a user owned by the current test.
+     *
+     * @param prefix name prefix identifying the test
+     * @return the persisted user
+     */
+    protected User persistUser(String prefix) {
+        String name = prefix + "-" + run;
+        return entityManager.persist(new User(name, name + "@example.com", "secret"));
+    }
+}
@@ -0,0 +1,219 @@
+package com.openmailer.openmailer.service.campaign;
+
+import com.openmailer.openmailer.exception.ResourceNotFoundException;
+import com.openmailer.openmailer.exception.ValidationException;
+import com.openmailer.openmailer.model.CampaignLink;
+import com.openmailer.openmailer.model.EmailCampaign;
+import com.openmailer.openmailer.repository.CampaignAnalyticsRepository;
+import com.openmailer.openmailer.repository.CampaignLinkRepository;
+import com.openmailer.openmailer.repository.projection.DashboardSnapshot;
+import com.openmailer.openmailer.repository.projection.EngagementBucket;
+import com.openmailer.openmailer.repository.projection.EngagementSeriesPoint;
+import com.openmailer.openmailer.repository.projection.EngagementTotals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CampaignAnalyticsServiceTest {
+
+    @Mock
+    private CampaignService campaignService;
+
+    @Mock
+    private CampaignAnalyticsRepository analyticsRepository;
+
+    @Mock
+    private CampaignLinkRepository linkRepository;
+
+    @Mock
+    private EngagementSketchService sketchService;
+
+    @Mock
+    private DashboardSnapshotService dashboardSnapshotService;
+
+    private CampaignAnalyticsService analyticsService;
+
+    @BeforeEach
+    void setUp() {
+        analyticsService = new CampaignAnalyticsService(
+            campaignService, analyticsRepository, linkRepository, sketchService, dashboardSnapshotService, 500, 14);
+    }
+
+    @Test
+    void campaignAnalyticsIssuesAFixedNumberOfAggregateQueries() {
+        EmailCampaign campaign = new EmailCampaign();
+        campaign.setId("campaign-1");
+        campaign.setName("Launch");
+        campaign.setStatus("COMPLETED");
+        campaign.setTotalRecipients(1_000_000);
+        when(campaignService.findById("campaign-1")).thenReturn(campaign);
+        when(analyticsRepository.findCampaignTotals("campaign-1"))
+            .thenReturn(new EngagementTotals(990_000, 400_000, 245_000, 70_000, 49_000, 10_000, 98));
+        when(analyticsRepository.findEngagementBuckets("campaign-1", "day")).thenReturn(List.of(
+            new EngagementBucket(LocalDateTime.of(2026, 3, 1, 0, 0), 200_000, 40_000),
+            new EngagementBucket(LocalDateTime.of(2026, 3, 2, 0, 0), 45_000, 9_000)
+        ));
+        when(linkRepository.findTopClickedByCampaignId("campaign-1", PageRequest.of(0, 10))).thenReturn(Page.empty());
+
+        CampaignAnalyticsService.CampaignAnalytics analytics = analyticsService.getCampaignAnalytics("campaign-1");
+
+        assertEquals(1_000_000, analytics.getTotalRecipients());
+        assertEquals(980_000, analytics.getDeliveredCount());
+        assertEquals(25.0, analytics.getOpenRate());
+        assertEquals(5.0, analytics.getClickRate());
+        assertEquals(1.0, analytics.getBounceRate());
+        assertEquals(20.0, analytics.getClickToOpenRate());
+        assertEquals(2, analytics.getEngagementTimeline().size());
+        assertEquals(LocalDate.of(2026, 3, 1), analytics.getEngagementTimeline().get(0).getDate());
+        assertEquals(200_000, analytics.getEngagementTimeline().get(0).getOpens());
+
+        // One lookup per concern, independent of the number of recipients
+        verify(campaignService).findById("campaign-1");
+        verify(analyticsRepository).findCampaignTotals("campaign-1");
+        verify(analyticsRepository).findEngagementBuckets("campaign-1", "day");
+        verify(linkRepository).findTopClickedByCampaignId("campaign-1", PageRequest.of(0, 10));
+        verifyNoMoreInteractions(campaignService, analyticsRepository, linkRepository, sketchService);
+    }
+
+    @Test
+    void campaignWithoutRecipientsReportsZeroRates() {
+        EmailCampaign campaign = new EmailCampaign();
+        campaign.setId("campaign-1");
+        when(campaignService.findById("campaign-1")).thenReturn(campaign);
+        when(analyticsRepository.findCampaignTotals("campaign-1")).thenReturn(EngagementTotals.empty());
+        when(analyticsRepository.findEngagementBuckets("campaign-1", "day")).thenReturn(List.of());
+        when(linkRepository.findTopClickedByCampaignId("campaign-1", PageRequest.of(0, 10))).thenReturn(Page.empty());
+
+        CampaignAnalyticsService.CampaignAnalytics analytics = analyticsService.getCampaignAnalytics("campaign-1");
+
+        assertEquals(0, analytics.getTotalRecipients());
+        assertEquals(0.0, analytics.getOpenRate());
+        assertEquals(0.0, analytics.getClickToOpenRate());
+    }
+
+    @Test
+    void dashboardReadsTotalsFromTheSnapshotInsteadOfLoadingCampaigns() {
+        DashboardSnapshot snapshot = new DashboardSnapshot();
+        snapshot.setCampaigns(250);
+        snapshot.setCompletedCampaigns(240);
+        snapshot.setSendingCampaigns(1);
+        snapshot.setTotalRecipients(1_000);
+        snapshot.setUniqueOpens(300);
+        snapshot.setUniqueClicks(80);
+        snapshot.setBounces(20);
+        snapshot.setUpdatedAt(LocalDateTime.of(2026, 3, 2, 9, 0));
+        EmailCampaign recent = new EmailCampaign();
+        recent.setName("Launch");
+        when(dashboardSnapshotService.getSnapshot("user-1")).thenReturn(snapshot);
+        when(campaignService.findRecentByUserId("user-1", 5)).thenReturn(List.of(recent));
+
+        CampaignAnalyticsService.DashboardAnalytics analytics = analyticsService.getDashboardAnalytics("user-1");
+
+        assertEquals(250, analytics.getTotalCampaigns());
+        assertEquals(1_000, analytics.getTotalRecipients());
+        assertEquals(300, analytics.getTotalOpened());
+        assertEquals(80, analytics.getTotalClicked());
+        assertEquals(20, analytics.getTotalBounced());
+        assertEquals(30.0, analytics.getAverageOpenRate());
+        assertEquals(snapshot.getUpdatedAt(), analytics.getUpdatedAt());
+        assertEquals(1, analytics.getRecentCampaigns().size());
+
+        verify(dashboardSnapshotService).getSnapshot("user-1");
+        verify(campaignService).findRecentByUserId("user-1", 5);
+        verifyNoMoreInteractions(campaignService, analyticsRepository, dashboardSnapshotService);
+    }
+
+    @Test
+    void uniqueEngagementMergesSketchesForTheRequestedRange() {
+        LocalDate from = LocalDate.of(2026, 3, 1);
+        LocalDate to = LocalDate.of(2026, 3, 7);
+        CampaignLink link = new CampaignLink();
+        link.setId("link-1");
+        link.setOriginalUrl("https://example.com/pricing");
+        when(sketchService.estimateUniqueOpens("campaign-1", from, to)).thenReturn(12_345L);
+        when(sketchService.estimateUniqueClicks("campaign-1", from, to)).thenReturn(2_345L);
+        when(sketchService.estimateUniqueClicksByLink("campaign-1", from, to)).thenReturn(Map.of("link-1", 1_200L));
+        when(linkRepository.findAllById(Set.of("link-1"))).thenReturn(List.of(link));
+        when(sketchService.getStandardError()).thenReturn(0.008);
+
+        CampaignAnalyticsService.UniqueEngagement engagement =
+            analyticsService.getUniqueEngagement("campaign-1", "user-1", from, to);
+
+        verify(campaignService).findByIdAndUserId("campaign-1", "user-1");
+        assertEquals(12_345, engagement.getUniqueOpens());
+        assertEquals(2_345, engagement.getUniqueClicks());
+        assertEquals(Map.of("https://example.com/pricing", 1_200L), engagement.getUniqueClicksByUrl());
+    }
+
+    @Test
+    void uniqueEngagementOfAnotherUsersCampaignIsNotFound() {
+        LocalDate day = LocalDate.of(2026, 3, 1);
+        when(campaignService.findByIdAndUserId("campaign-1", "user-2"))
+            .thenThrow(new ResourceNotFoundException("EmailCampaign", "id", "campaign-1"));
+
+        assertThrows(ResourceNotFoundException.class,
+            () -> analyticsService.getUniqueEngagement("campaign-1", "user-2", day, day));
+        verifyNoInteractions(sketchService);
+    }
+
+    @Test
+    void shortRecentRangeIsReturnedHourlyWithEmptyBucketsFilled() {
+        LocalDateTime from = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(3);
+        LocalDateTime to = from.plusHours(3);
+        when(analyticsRepository.findEngagementSeries("user-1", List.of("campaign-1"), from, to, "hour", 500))
+            .thenReturn(List.of(new EngagementSeriesPoint(from.plusHours(1), 10, 8, 3, 2, 1)));
+
+        CampaignAnalyticsService.EngagementTimeSeries series =
+            analyticsService.getEngagementTimeSeries("user-1", List.of("campaign-1"), from, to);
+
+        assertEquals(TimeSeriesResolution.HOUR, series.getResolution());
+        assertEquals(List.of(
+            EngagementSeriesPoint.empty(from),
+            new EngagementSeriesPoint(from.plusHours(1), 10, 8, 3, 2, 1),
+            EngagementSeriesPoint.empty(from.plusHours(2))
+        ), series.getPoints());
+    }
+
+    @Test
+    void longRangeFallsBackToACoarserResolutionWithinThePointCap() {
+        LocalDateTime to = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime from = to.minusYears(2);
+        LocalDateTime start = TimeSeriesResolution.WEEK.truncate(from);
+        when(analyticsRepository.findEngagementSeries("user-1", List.of(), start, to, "week", 500)).thenReturn(List.of());
+
+        CampaignAnalyticsService.EngagementTimeSeries series =
+            analyticsService.getEngagementTimeSeries("user-1", List.of(), from, to);
+
+        assertEquals(TimeSeriesResolution.WEEK, series.getResolution());
+        assertEquals(start, series.getPoints().get(0).bucketStart());
+        assertTrue(series.getPoints().size() <= 500);
+    }
+
+    @Test
+    void emptyRangeIsRejected() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThrows(ValidationException.class,
+            () -> analyticsService.getEngagementTimeSeries("user-1", List.of(), now, now));
+    }
+}
@@ -0,0 +1,132 @@
+package com.openmailer.openmailer.service.campaign;
+
+import com.openmailer.openmailer.repository.CampaignReportRepository;
+import com.openmailer.openmailer.repository.projection.RecipientReportRow;
+import com.openmailer.openmailer.service.campaign.CampaignReportExportService.ReportFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class CampaignReportExportServiceTest {
+
+    private static final RecipientReportRow OPENED = new RecipientReportRow(
+        "ada@example.com", "SENT", LocalDateTime.of(2026, 3, 1, 9, 0), LocalDateTime.of(2026, 3, 1, 9, 5),
+        null, null, null);
+    private static final RecipientReportRow BOUNCED = new RecipientReportRow(
+        "bob@example.com", "BOUNCED", LocalDateTime.of(2026, 3, 1, 9, 0), null,
+        null, LocalDateTime.of(2026, 3, 1, 9, 1), "550 mailbox unavailable");
+
+    @Mock
+    private CampaignService campaignService;
+
+    @Mock
+    private CampaignReportRepository reportRepository;
+
+    private CampaignReportExportService exportService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        exportService = new CampaignReportExportService(campaignService, reportRepository);
+        lenient().doAnswer(invocation -> {
+            Consumer<RecipientReportRow> handler = invocation.getArgument(1);
+            handler.accept(OPENED);
+            handler.accept(BOUNCED);
+            return null;
+        }).when(reportRepository).streamRecipients(eq("campaign-1"), any(Consumer.class));
+    }
+
+    @Test
+    void csvExportIsGzippedWithOneLinePerRecipient() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        long rows = exportService.exportRecipients("campaign-1", ReportFormat.CSV, body);
+
+        String[] lines = gunzip(body).split("\n");
+        assertEquals(2, rows);
+        assertEquals(3, lines.length);
+        assertEquals("\"Email\",\"Status\",\"Sent At\",\"Opened At\",\"Clicked At\",\"Bounced At\",\"Error\"", lines[0]);
+        assertEquals("\"ada@example.com\",\"SENT\",\"2026-03-01 09:00:00\",\"2026-03-01 09:05:00\",\"\",\"\",\"\"", lines[1]);
+    }
+
+    @Test
+    void ndjsonExportWritesOneObjectPerLine() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        exportService.exportRecipients("campaign-1", ReportFormat.NDJSON, body);
+
+        String[] lines = gunzip(body).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"email\":\"bob@example.com\",\"status\":\"BOUNCED\",\"sentAt\":\"2026-03-01 09:00:00\","
+            + "\"openedAt\":null,\"clickedAt\":null,\"bouncedAt\":\"2026-03-01 09:01:00\","
+            + "\"error\":\"550 mailbox unavailable\"}", lines[1]);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void csvExportStopsWhenTheClientDisconnects() {
+        AtomicInteger streamed = new AtomicInteger();
+        doAnswer(invocation -> {
+            Consumer<RecipientReportRow> handler = invocation.getArgument(1);
+            for (int i = 0; i < 100_000; i++) {
+                streamed.incrementAndGet();
+                handler.accept(new RecipientReportRow(
+                    "reader-" + i + "@example.com", "SENT", LocalDateTime.of(2026, 3, 1, 9, 0).plusSeconds(i),
+                    null, null, null, null));
+            }
+            return null;
+        }).when(reportRepository).streamRecipients(eq("campaign-2"), any(Consumer.class));
+
+        assertThrows(IOException.class,
+            () -> exportService.exportRecipients("campaign-2", ReportFormat.CSV, new DisconnectedClient()));
+        assertTrue(streamed.get() < 100_000);
+    }
+
+    @Test
+    void unknownFormatsFallBackToCsv() {
+        assertEquals(ReportFormat.NDJSON, ReportFormat.from("NDJSON"));
+        assertEquals(ReportFormat.CSV, ReportFormat.from("xlsx"));
+    }
+
+    /**
+     * Response body whose client went away after the first few bytes.
+     */
+    private static final class DisconnectedClient extends OutputStream {
+
+        private int written;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (++written > 64) {
+                throw new IOException("Broken pipe");
+            }
+        }
+    }
+
+    private static String gunzip(ByteArrayOutputStream body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
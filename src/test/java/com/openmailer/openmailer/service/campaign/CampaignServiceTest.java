@@ -33,11 +33,14 @@ class CampaignServiceTest {
     @Mock
     private EmailCampaignRepository campaignRepository;
 
+    @Mock
+    private DashboardSnapshotService dashboardSnapshotService;
+
     private CampaignService campaignService;
 
     @BeforeEach
     void setUp() {
-        campaignService = new CampaignService(campaignRepository);
+        campaignService = new CampaignService(campaignRepository, dashboardSnapshotService);
         lenient().when(campaignRepository.save(any(EmailCampaign.class)))
             .thenAnswer(invocation -> invocation.getArgument(0));
     }
@@ -136,6 +139,45 @@ class CampaignServiceTest {
         assertNull(result.getScheduledAt());
     }
 
+    @Test
+    void completeCampaignCountsTheCampaignOnTheDashboardOnce() {
+        EmailCampaign existing = draftCampaign();
+        existing.setStatus("SENDING");
+
+        when(campaignRepository.findByIdAndUserId("campaign-1", "user-1"))
+            .thenReturn(Optional.of(existing));
+
+        campaignService.completeCampaign("campaign-1", "user-1", 42);
+        campaignService.completeCampaign("campaign-1", "user-1", 42);
+
+        assertEquals("COMPLETED", existing.getStatus());
+        assertEquals(42, existing.getTotalRecipients());
+        verify(dashboardSnapshotService).recordCampaignCompleted("user-1", 42);
+    }
+
+    @Test
+    void deletingCompletedCampaignRemovesItFromTheDashboard() {
+        EmailCampaign existing = draftCampaign();
+        existing.setStatus("COMPLETED");
+        existing.setTotalRecipients(42);
+
+        when(campaignRepository.findByIdAndUserId("campaign-1", "user-1"))
+            .thenReturn(Optional.of(existing));
+
+        campaignService.deleteCampaign("campaign-1", "user-1");
+
+        verify(campaignRepository).delete(existing);
+        verify(dashboardSnapshotService).recordCompletedCampaignDeleted("user-1", 42);
+    }
+
+    @Test
+    void deletingAllCampaignsOfAUserDropsTheDashboardSnapshot() {
+        campaignService.deleteAllByUserId("user-1");
+
+        verify(campaignRepository).deleteByUserId("user-1");
+        verify(dashboardSnapshotService).deleteSnapshot("user-1");
+    }
+
     private EmailCampaign draftCampaign() {
         EmailCampaign campaign = new EmailCampaign();
         campaign.setStatus("DRAFT");
@@ -0,0 +1,66 @@
+package com.openmailer.openmailer.service.campaign;
+
+import com.openmailer.openmailer.repository.DashboardSnapshotRepository;
+import com.openmailer.openmailer.repository.EngagementEventRepository;
+import com.openmailer.openmailer.repository.projection.DashboardSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardSnapshotServiceTest {
+
+    @Mock
+    private DashboardSnapshotRepository snapshotRepository;
+
+    @Mock
+    private EngagementEventRepository eventRepository;
+
+    private DashboardSnapshotService snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        snapshotService = new DashboardSnapshotService(snapshotRepository, eventRepository);
+    }
+
+    @Test
+    void existingSnapshotIsReadWithASingleQuery() {
+        DashboardSnapshot snapshot = snapshot(LocalDateTime.of(2026, 3, 2, 9, 0));
+        when(snapshotRepository.findByUserId("user-1")).thenReturn(snapshot);
+
+        assertSame(snapshot, snapshotService.getSnapshot("user-1"));
+        verify(eventRepository, never()).lockCursor(anyString());
+        verify(snapshotRepository, never()).createIfMissing(anyString());
+    }
+
+    @Test
+    void missingSnapshotIsCreatedUnderTheProjectionCursorLock() {
+        DashboardSnapshot created = snapshot(LocalDateTime.of(2026, 3, 2, 9, 0));
+        when(snapshotRepository.findByUserId("user-1")).thenReturn(snapshot(null), created);
+        when(snapshotRepository.createIfMissing("user-1")).thenReturn(true);
+
+        assertSame(created, snapshotService.getSnapshot("user-1"));
+
+        InOrder order = inOrder(eventRepository, snapshotRepository);
+        order.verify(eventRepository).lockCursor(EngagementProjectionService.CONSUMER);
+        order.verify(snapshotRepository).createIfMissing("user-1");
+    }
+
+    private static DashboardSnapshot snapshot(LocalDateTime updatedAt) {
+        DashboardSnapshot snapshot = new DashboardSnapshot();
+        snapshot.setUpdatedAt(updatedAt);
+        return snapshot;
+    }
+}
@@ -0,0 +1,49 @@
+package com.openmailer.openmailer.service.campaign;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DuplicateOpenFilterTest {
+
+    private static final long START = 1_000_000L;
+    private static final long WINDOW_MILLIS = 60_000L;
+
+    @Test
+    void repeatedOpenWithinWindowIsDuplicate() {
+        DuplicateOpenFilter filter = new DuplicateOpenFilter(true, 60, 1000, 0.001);
+
+        assertFalse(filter.isDuplicate("tracking-1", START));
+        assertTrue(filter.isDuplicate("tracking-1", START + 1_000));
+        assertFalse(filter.isDuplicate("tracking-2", START + 2_000));
+    }
+
+    @Test
+    void repeatAcrossOneRotationIsStillDuplicate() {
+        DuplicateOpenFilter filter = new DuplicateOpenFilter(true, 60, 1000, 0.001);
+
+        filter.isDuplicate("other", START);
+        assertFalse(filter.isDuplicate("tracking-1", START + WINDOW_MILLIS - 1));
+        assertTrue(filter.isDuplicate("tracking-1", START + WINDOW_MILLIS + 1));
+    }
+
+    @Test
+    void openAfterTwoWindowsIsCountedAgain() {
+        DuplicateOpenFilter filter = new DuplicateOpenFilter(true, 60, 1000, 0.001);
+
+        assertFalse(filter.isDuplicate("tracking-1", START));
+        filter.isDuplicate("other", START + WINDOW_MILLIS + 1);
+        filter.isDuplicate("other", START + 2 * WINDOW_MILLIS + 2);
+
+        assertFalse(filter.isDuplicate("tracking-1", START + 2 * WINDOW_MILLIS + 3));
+    }
+
+    @Test
+    void disabledFilterNeverSuppresses() {
+        DuplicateOpenFilter filter = new DuplicateOpenFilter(false, 60, 1000, 0.001);
+
+        assertFalse(filter.isDuplicate("tracking-1", START));
+        assertFalse(filter.isDuplicate("tracking-1", START + 1));
+    }
+}
@@ -0,0 +1,95 @@
+package com.openmailer.openmailer.service.campaign;
+
+import com.openmailer.openmailer.repository.EngagementEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EngagementEventPartitionServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 10);
+
+    @Mock
+    private EngagementEventRepository eventRepository;
+
+    private EngagementEventPartitionService partitionService;
+
+    @BeforeEach
+    void setUp() {
+        partitionService = new EngagementEventPartitionService(eventRepository, 2, 30);
+    }
+
+    @Test
+    void createUpcomingPartitionsCoversYesterdayThroughDaysAhead() {
+        partitionService.createUpcomingPartitions(TODAY);
+
+        verify(eventRepository).createDailyPartitionIfMissing(LocalDate.of(2026, 3, 9));
+        verify(eventRepository).createDailyPartitionIfMissing(LocalDate.of(2026, 3, 10));
+        verify(eventRepository).createDailyPartitionIfMissing(LocalDate.of(2026, 3, 11));
+        verify(eventRepository).createDailyPartitionIfMissing(LocalDate.of(2026, 3, 12));
+        verify(eventRepository, times(4)).createDailyPartitionIfMissing(any());
+    }
+
+    @Test
+    void dropExpiredPartitionsOnlyDropsDaysBeyondRetention() {
+        when(eventRepository.findPartitionNames()).thenReturn(List.of(
+            "engagement_events_p20260207",
+            "engagement_events_p20260208",
+            "engagement_events_p20260310",
+            "engagement_events_legacy"
+        ));
+
+        int dropped = partitionService.dropExpiredPartitions(TODAY);
+
+        assertEquals(1, dropped);
+        verify(eventRepository).detachAndDropPartition("engagement_events_p20260207");
+        verify(eventRepository, never()).detachAndDropPartition("engagement_events_p20260208");
+        verify(eventRepository, never()).detachAndDropPartition("engagement_events_legacy");
+    }
+
+    @Test
+    void dropExpiredPartitionsKeepsPartitionsTheProjectionHasNotApplied() {
+        when(eventRepository.findPartitionNames()).thenReturn(List.of(
+            "engagement_events_p20260206",
+            "engagement_events_p20260207"
+        ));
+        when(eventRepository.hasUnappliedEvents("engagement_events_p20260206", EngagementProjectionService.CONSUMER))
+            .thenReturn(false);
+        when(eventRepository.hasUnappliedEvents("engagement_events_p20260207", EngagementProjectionService.CONSUMER))
+            .thenReturn(true);
+
+        assertEquals(1, partitionService.dropExpiredPartitions(TODAY));
+        verify(eventRepository).detachAndDropPartition("engagement_events_p20260206");
+        verify(eventRepository, never()).detachAndDropPartition("engagement_events_p20260207");
+    }
+
+    @Test
+    void dropExpiredPartitionsDoesNothingWhenAllPartitionsAreRetained() {
+        when(eventRepository.findPartitionNames()).thenReturn(List.of("engagement_events_p20260309"));
+
+        assertEquals(0, partitionService.dropExpiredPartitions(TODAY));
+        verify(eventRepository, never()).detachAndDropPartition(anyString());
+    }
+
+    @Test
+    void partitionNamesRoundTripToTheirDay() {
+        String name = EngagementEventRepository.partitionName(TODAY);
+
+        assertEquals("engagement_events_p20260310", name);
+        assertEquals(TODAY, EngagementEventRepository.partitionDay(name));
+    }
+}
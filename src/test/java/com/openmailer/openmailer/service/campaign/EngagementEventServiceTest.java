@@ -0,0 +1,112 @@
+package com.openmailer.openmailer.service.campaign;
+
+import com.openmailer.openmailer.model.EngagementEvent;
+import com.openmailer.openmailer.repository.EngagementEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EngagementEventServiceTest {
+
+    @Mock
+    private EngagementEventRepository eventRepository;
+
+    private final MutableClock clock = new MutableClock();
+    private final List<EngagementEvent> written = new ArrayList<>();
+
+    private EngagementEventService eventService;
+
+    @BeforeEach
+    void setUp() {
+        eventService = new EngagementEventService(eventRepository, 100, 2, clock);
+    }
+
+    @Test
+    void failedBatchIsKeptAndWrittenOnALaterFlush() {
+        failOnce();
+        List<EngagementEvent> events = List.of(
+            EngagementEvent.open("campaign-1", "recipient-1", null),
+            EngagementEvent.open("campaign-1", "recipient-2", null),
+            EngagementEvent.click("campaign-1", "recipient-1", "link-1", null));
+        events.forEach(eventService::append);
+
+        eventService.flush();
+        assertTrue(written.isEmpty());
+        assertEquals(3, eventService.getBufferedCount());
+
+        eventService.flush();
+        verify(eventRepository, times(1)).appendBatch(anyList());
+
+        clock.advance(EngagementEventService.MIN_RETRY_DELAY);
+        eventService.flush();
+        assertEquals(events, written);
+        assertEquals(0, eventService.getBufferedCount());
+    }
+
+    @Test
+    void shutdownRetriesAFailedBatchWithoutWaiting() {
+        failOnce();
+        EngagementEvent event = EngagementEvent.open("campaign-1", "recipient-1", null);
+        eventService.append(event);
+        eventService.flush();
+
+        eventService.flushOnShutdown();
+
+        assertEquals(List.of(event), written);
+    }
+
+    private void failOnce() {
+        doAnswer(invocation -> {
+            throw new DataAccessResourceFailureException("connection refused");
+        }).doAnswer(invocation -> {
+            written.addAll(invocation.getArgument(0));
+            return null;
+        }).when(eventRepository).appendBatch(anyList());
+    }
+
+    /**
+     * Clock that only moves when a test advances it.
+     */
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now = Instant.parse("2026-03-10T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.openmailer.openmailer.service.campaign;
+
+import com.openmailer.openmailer.repository.EngagementEventRepository;
+import com.openmailer.openmailer.repository.EngagementRollupRepository;
+import com.openmailer.openmailer.repository.EngagementSketchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EngagementRollupServiceTest {
+
+    @Mock
+    private EngagementRollupRepository rollupRepository;
+
+    @Mock
+    private EngagementEventRepository eventRepository;
+
+    @Mock
+    private EngagementSketchRepository sketchRepository;
+
+    @Mock
+    private EngagementSketchService sketchService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private EngagementRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        rollupService = new EngagementRollupService(
+                rollupRepository, eventRepository, sketchRepository, sketchService, transactionTemplate, 14);
+    }
+
+    @Test
+    void compactionMovesWholeDaysBeforeTheRetentionPeriod() {
+        LocalDateTime cutoff = LocalDateTime.of(2026, 2, 24, 0, 0);
+        when(rollupRepository.compactHourlyBefore(cutoff)).thenReturn(42);
+
+        assertEquals(42, rollupService.compactHourlyRollups(LocalDate.of(2026, 3, 10)));
+        verify(rollupRepository).compactHourlyBefore(cutoff);
+    }
+}
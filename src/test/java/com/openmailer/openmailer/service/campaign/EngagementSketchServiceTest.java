@@ -0,0 +1,60 @@
+package com.openmailer.openmailer.service.campaign;
+
+import com.openmailer.openmailer.model.EngagementEventType;
+import com.openmailer.openmailer.repository.EngagementSketchRepository;
+import com.openmailer.openmailer.repository.projection.EngagementSketchKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EngagementSketchServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 10);
+
+    @Mock
+    private EngagementSketchRepository sketchRepository;
+
+    private EngagementSketchService sketchService;
+
+    @BeforeEach
+    void setUp() {
+        sketchService = new EngagementSketchService(sketchRepository);
+    }
+
+    @Test
+    void applyEventsFlushesEveryFlushSizeSketches() {
+        int campaigns = EngagementSketchService.FLUSH_SIZE + 10;
+        doAnswer(invocation -> {
+            BiConsumer<EngagementSketchKey, String> handler = invocation.getArgument(2);
+            for (int i = 0; i < campaigns; i++) {
+                handler.accept(new EngagementSketchKey("campaign-" + i, EngagementSketchKey.CAMPAIGN_WIDE,
+                    EngagementEventType.OPEN.getCode(), DAY), "recipient-1");
+            }
+            return null;
+        }).when(sketchRepository).streamEventRecipients(eq(10L), eq(20L), any());
+
+        assertEquals(campaigns, sketchService.applyEvents(10, 20));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<EngagementSketchKey, byte[]>> saved = ArgumentCaptor.forClass(Map.class);
+        verify(sketchRepository, times(2)).saveAll(saved.capture());
+        List<Integer> sizes = saved.getAllValues().stream().map(Map::size).toList();
+        assertEquals(List.of(EngagementSketchService.FLUSH_SIZE, 10), sizes);
+    }
+}
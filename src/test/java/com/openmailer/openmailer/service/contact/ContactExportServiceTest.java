@@ -0,0 +1,142 @@
+package com.openmailer.openmailer.service.contact;
+
+import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.model.ContactList;
+import com.openmailer.openmailer.model.Segment;
+import com.openmailer.openmailer.repository.ContactRepository;
+import com.openmailer.openmailer.service.contact.ContactExportService.ExportFormat;
+import com.openmailer.openmailer.service.contact.ContactExportService.ExportOptions;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ContactExportServiceTest {
+
+    @Mock
+    private ContactRepository contactRepository;
+
+    @Mock
+    private ContactListService listService;
+
+    @Mock
+    private SegmentService segmentService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ContactExportService exportService;
+
+    private final Contact ada = contact("ada@example.com", "Ada", "SUBSCRIBED");
+    private final Contact bob = contact("bob@example.com", "Bob", "UNSUBSCRIBED");
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ContactExportService(
+            contactRepository, listService, segmentService, new SegmentEvaluationService(), entityManager);
+    }
+
+    @Test
+    void csvExportStreamsEveryContactAndDetachesIt() throws IOException {
+        when(contactRepository.streamForExport("user-1", null)).thenReturn(Stream.of(ada, bob));
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        long rows = exportService.export("user-1", new ExportOptions(), ExportFormat.CSV, false, body);
+
+        String[] lines = body.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals("\"Email\",\"First Name\",\"Last Name\",\"Status\"", lines[0]);
+        assertEquals("\"bob@example.com\",\"Bob\",\"\",\"UNSUBSCRIBED\"", lines[2]);
+        verify(entityManager).detach(ada);
+        verify(entityManager).detach(bob);
+    }
+
+    @Test
+    void segmentExportReadsTheSegmentListAndKeepsMatchingContacts() throws IOException {
+        ContactList list = new ContactList();
+        list.setId("list-1");
+        Segment segment = new Segment();
+        segment.setContactList(list);
+        segment.setConditions(Map.of("field", "status", "operator", "equals", "value", "SUBSCRIBED"));
+        when(segmentService.findByIdAndUserId("segment-1", "user-1")).thenReturn(segment);
+        when(contactRepository.streamListForExport("user-1", "list-1", null)).thenReturn(Stream.of(ada, bob));
+        ExportOptions options = new ExportOptions();
+        options.setSegmentId("segment-1");
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        long rows = exportService.export("user-1", options, ExportFormat.NDJSON, true, body);
+
+        String[] lines = gunzip(body).split("\n");
+        assertEquals(1, rows);
+        assertEquals(1, lines.length);
+        assertEquals("{\"email\":\"ada@example.com\",\"firstName\":\"Ada\",\"lastName\":null,\"status\":\"SUBSCRIBED\"}",
+            lines[0]);
+        verify(entityManager).detach(bob);
+    }
+
+    @Test
+    void jsonExportWritesAnArray() throws IOException {
+        when(contactRepository.streamForExport("user-1", "SUBSCRIBED")).thenReturn(Stream.of(ada));
+        ExportOptions options = new ExportOptions();
+        options.setStatus("SUBSCRIBED");
+        options.setIncludeLastName(false);
+        options.setIncludeStatus(false);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        exportService.export("user-1", options, ExportFormat.JSON, false, body);
+
+        assertEquals("[\n{\"email\":\"ada@example.com\",\"firstName\":\"Ada\"}\n]\n",
+            body.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void csvExportStopsReadingContactsWhenTheClientDisconnects() {
+        AtomicInteger read = new AtomicInteger();
+        when(contactRepository.streamForExport("user-1", null)).thenReturn(Stream.iterate(0, i -> i < 100_000, i -> i + 1)
+            .peek(i -> read.incrementAndGet())
+            .map(i -> contact("reader-" + i + "@example.com", "Reader", "SUBSCRIBED")));
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class,
+            () -> exportService.export("user-1", new ExportOptions(), ExportFormat.CSV, false, disconnected));
+        assertTrue(read.get() < 100_000);
+    }
+
+    private static Contact contact(String email, String firstName, String status) {
+        Contact contact = new Contact();
+        contact.setEmail(email);
+        contact.setFirstName(firstName);
+        contact.setStatus(status);
+        return contact;
+    }
+
+    private static String gunzip(ByteArrayOutputStream body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
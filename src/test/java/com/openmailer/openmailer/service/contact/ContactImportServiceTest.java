@@ -0,0 +1,284 @@
+package com.openmailer.openmailer.service.contact;
+
+import com.openmailer.openmailer.exception.ResourceNotFoundException;
+import com.openmailer.openmailer.exception.ValidationException;
+import com.openmailer.openmailer.model.User;
+import com.openmailer.openmailer.repository.ContactImportJobRepository;
+import com.openmailer.openmailer.repository.ContactImportRepository;
+import com.openmailer.openmailer.repository.ContactListMembershipBulkRepository;
+import com.openmailer.openmailer.repository.projection.ContactImportJob;
+import com.openmailer.openmailer.repository.projection.ImportedContact;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ContactImportServiceTest {
+
+    private static final String CSV = """
+        Email,First_Name,Status,Plan
+        ada@example.com,Ada,,pro
+        not-an-email,Bob,,
+        ADA@example.com ,Ada L.,,
+        grace@example.com,,unsubscribed,
+        """;
+
+    @TempDir
+    private Path stagingDirectory;
+
+    @Mock
+    private ContactImportRepository importRepository;
+
+    @Mock
+    private ContactImportJobRepository jobRepository;
+
+    @Mock
+    private ContactListMembershipBulkRepository membershipRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ContactImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ContactImportService(
+            importRepository, jobRepository, membershipRepository, transactionTemplate, 2, 1 << 20, 10, 6, 24,
+            stagingDirectory.toString(), "node-1", 1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rowsAreUpsertedPerChunkAndEachChunkIsCheckpointed() throws Exception {
+        runTransactionsInline();
+        returnWrittenIds();
+        ContactImportJob job = newJob(false);
+
+        importService.importRows(stage(CSV), job);
+
+        assertEquals(4, job.getTotalRows());
+        assertEquals(3, job.getImportedCount());
+        assertEquals(0, job.getSkippedCount());
+        assertEquals(1, job.getErrorCount());
+        assertEquals(List.of("Row 2: Invalid email format: not-an-email"), job.getErrors());
+        assertEquals(Files.size(stagingDirectory.resolve("job-1.csv")), job.getProcessedBytes());
+        verify(jobRepository, times(2)).saveProgress(job);
+
+        // First chunk: the only valid row has no status
+        ArgumentCaptor<List<ImportedContact>> withoutStatus = ArgumentCaptor.forClass(List.class);
+        verify(importRepository, times(2)).upsert(eq("user-1"), withoutStatus.capture(), eq(true), eq(false));
+        ImportedContact ada = withoutStatus.getAllValues().get(0).get(0);
+        assertEquals("ada@example.com", ada.email());
+        assertEquals("Ada", ada.firstName());
+        assertNull(ada.status());
+        assertEquals("{\"plan\":\"pro\"}", ada.customFields());
+
+        // Second chunk: the repeated email updates the same contact
+        assertEquals("Ada L.", withoutStatus.getAllValues().get(1).get(0).firstName());
+        ArgumentCaptor<List<ImportedContact>> withStatus = ArgumentCaptor.forClass(List.class);
+        verify(importRepository, times(2)).upsert(eq("user-1"), withStatus.capture(), eq(true), eq(true));
+        assertEquals("UNSUBSCRIBED", withStatus.getAllValues().get(1).get(0).status());
+        verify(membershipRepository, times(2)).addContacts(eq("list-1"), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void interruptedImportResumesAfterTheLastCommittedChunk() throws Exception {
+        runTransactionsInline();
+        when(importRepository.upsert(eq("user-1"), anyList(), eq(false), anyBoolean()))
+            .thenAnswer(invocation -> ((List<ImportedContact>) invocation.getArgument(1)).stream()
+                .map(ImportedContact::id)
+                .toList())
+            .thenAnswer(invocation -> ((List<ImportedContact>) invocation.getArgument(1)).stream()
+                .map(ImportedContact::id)
+                .toList())
+            .thenThrow(new QueryTimeoutException("connection lost"))
+            .thenReturn(List.of("contact-3"));
+        Path file = stage(CSV);
+        ContactImportJob job = newJob(true);
+
+        assertThrows(QueryTimeoutException.class, () -> importService.importRows(file, job));
+        long checkpoint = job.getProcessedBytes();
+        assertEquals(2, job.getTotalRows());
+
+        importService.importRows(file, job);
+
+        assertTrue(checkpoint < Files.size(file));
+        assertEquals(4, job.getTotalRows());
+        assertEquals(Files.size(file), job.getProcessedBytes());
+        ArgumentCaptor<List<ImportedContact>> written = ArgumentCaptor.forClass(List.class);
+        verify(importRepository, times(5)).upsert(eq("user-1"), written.capture(), eq(false), anyBoolean());
+        assertEquals("grace@example.com", written.getAllValues().get(3).get(0).email());
+    }
+
+    @Test
+    void transientErrorLeavesJobUnfinishedWithItsFile() throws Exception {
+        runTransactionsInline();
+        when(importRepository.upsert(eq("user-1"), anyList(), eq(false), anyBoolean()))
+            .thenThrow(new QueryTimeoutException("connection lost"));
+        ContactImportJob job = newJob(true);
+        job.setStatus(ContactImportJobRepository.PROCESSING);
+        when(jobRepository.markProcessing("job-1")).thenReturn(Optional.of(job));
+        Path file = stage(CSV);
+
+        importService.runImport("job-1");
+
+        assertEquals(ContactImportJobRepository.PROCESSING, job.getStatus());
+        assertTrue(job.getErrors().isEmpty());
+        assertTrue(Files.exists(file));
+        verify(jobRepository, never()).finish(any());
+    }
+
+    @Test
+    void importStoppedByShutdownKeepsItsFile() throws Exception {
+        importService.shutdown();
+        ContactImportJob job = newJob(true);
+        job.setStatus(ContactImportJobRepository.PROCESSING);
+        when(jobRepository.markProcessing("job-1")).thenReturn(Optional.of(job));
+        Path file = stage(CSV);
+
+        importService.runImport("job-1");
+
+        assertEquals(ContactImportJobRepository.PROCESSING, job.getStatus());
+        assertTrue(Files.exists(file));
+        verify(jobRepository, never()).finish(any());
+        verify(importRepository, never()).upsert(any(), anyList(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    void runImportFailsJobWhoseStagedFileIsGone() {
+        ContactImportJob job = newJob(true);
+        when(jobRepository.markProcessing("job-1")).thenReturn(Optional.of(job));
+
+        importService.runImport("job-1");
+
+        assertEquals(ContactImportJobRepository.FAILED, job.getStatus());
+        assertEquals("Import failed: Staged import file is no longer available", job.getErrors().get(0));
+        verify(jobRepository).finish(job);
+        verify(importRepository, never()).upsert(any(), anyList(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    void importsArePausedWhileCaseDuplicateEmailsBlockTheUniqueIndex() throws Exception {
+        when(importRepository.createSchemaIfMissing(anyInt())).thenReturn(List.of("user-1: ada@example.com"));
+        importService.initialize();
+        ContactImportJob job = newJob(true);
+        when(jobRepository.markProcessing("job-1")).thenReturn(Optional.of(job));
+        stage(CSV);
+
+        importService.runImport("job-1");
+
+        assertEquals("Import failed: Contacts with emails that differ only in case must be merged first",
+            job.getErrors().get(0));
+        verify(importRepository, never()).upsert(any(), anyList(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    void fileWithoutEmailColumnIsRejectedBeforeWriting() throws Exception {
+        ContactImportJob job = newJob(true);
+        Path file = stage("name\nAda\n");
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> importService.importRows(file, job));
+
+        assertEquals("CSV must contain 'email' column", error.getMessage());
+        assertTrue(job.getErrors().isEmpty());
+        verify(importRepository, never()).upsert(any(), anyList(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    void largeFilesAreUploadedInOrderedPartsBeforeBeingQueued() {
+        User user = new User();
+        user.setId("user-1");
+        ContactImportJob upload = importService.createUpload(user, 10);
+        String jobId = upload.getJobId();
+        verify(jobRepository).insert(upload, "node-1");
+        when(jobRepository.findById(jobId)).thenReturn(Optional.of(upload));
+
+        assertEquals(6, importService.appendUpload(jobId, "user-1", 0, bytes("email\n")).getUploadedBytes());
+
+        // A retried part must continue where the received bytes end, and parts cannot overrun the file
+        assertThrows(ValidationException.class, () -> importService.appendUpload(jobId, "user-1", 0, bytes("a@b\n")));
+        assertThrows(ValidationException.class, () -> importService.appendUpload(jobId, "user-1", 6, bytes("a@b.c\n")));
+        assertThrows(ValidationException.class, () -> importService.completeUpload(jobId, "user-1", null, true));
+
+        assertEquals(10, importService.appendUpload(jobId, "user-1", 6, bytes("a@b\n")).getUploadedBytes());
+        when(jobRepository.queueUploaded(jobId, "list-1", false)).thenReturn(true);
+
+        assertEquals(jobId, importService.completeUpload(jobId, "user-1", "list-1", false));
+        verify(jobRepository).queueUploaded(jobId, "list-1", false);
+    }
+
+    @Test
+    void uploadsOfOtherUsersAreNotFound() {
+        ContactImportJob upload = newJob(true);
+        upload.setStatus(ContactImportJobRepository.UPLOADING);
+        when(jobRepository.findById("job-1")).thenReturn(Optional.of(upload));
+
+        assertThrows(ResourceNotFoundException.class,
+            () -> importService.appendUpload("job-1", "user-2", 0, bytes("email\n")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionsInline() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any(Consumer.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void returnWrittenIds() {
+        when(importRepository.upsert(eq("user-1"), anyList(), anyBoolean(), anyBoolean()))
+            .thenAnswer(invocation -> ((List<ImportedContact>) invocation.getArgument(1)).stream()
+                .map(ImportedContact::id)
+                .toList());
+    }
+
+    private static ByteArrayInputStream bytes(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path stage(String csv) throws Exception {
+        return Files.writeString(stagingDirectory.resolve("job-1.csv"), csv);
+    }
+
+    private static ContactImportJob newJob(boolean skipDuplicates) {
+        ContactImportJob job = new ContactImportJob();
+        job.setJobId("job-1");
+        job.setUserId("user-1");
+        job.setListId(skipDuplicates ? null : "list-1");
+        job.setSkipDuplicates(skipDuplicates);
+        return job;
+    }
+}
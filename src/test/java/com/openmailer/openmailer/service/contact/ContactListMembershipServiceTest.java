@@ -0,0 +1,87 @@
+package com.openmailer.openmailer.service.contact;
+
+import com.openmailer.openmailer.model.ContactListMembership;
+import com.openmailer.openmailer.repository.ContactListMembershipBulkRepository;
+import com.openmailer.openmailer.repository.ContactListMembershipRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ContactListMembershipServiceTest {
+
+    @Mock
+    private ContactListMembershipRepository membershipRepository;
+
+    @Mock
+    private ContactListMembershipBulkRepository bulkRepository;
+
+    private ContactListMembershipService membershipService;
+
+    @BeforeEach
+    void setUp() {
+        membershipService = new ContactListMembershipService(membershipRepository, bulkRepository);
+    }
+
+    @Test
+    void addContactsToListWritesDistinctIdsInOneStatement() {
+        when(bulkRepository.addContacts("list-1", Set.of("c-1", "c-2"))).thenReturn(1);
+
+        assertEquals(1, membershipService.addContactsToList(List.of("c-1", "c-2", "c-1"), "list-1"));
+        verify(membershipRepository, never()).existsByContactIdAndListId(anyString(), anyString());
+        verify(membershipRepository, never()).save(any());
+    }
+
+    @Test
+    void ownedContactIdsAreCheckedInOneQuery() {
+        when(bulkRepository.findOwnedContactIds("user-1", Set.of("c-1", "c-2"))).thenReturn(List.of("c-1"));
+
+        assertEquals(Set.of("c-1"), membershipService.findOwnedContactIds("user-1", List.of("c-1", "c-2", "c-1")));
+    }
+
+    @Test
+    void addContactToListUpdatesCachedCounts() {
+        ContactListMembership membership = membership("UNSUBSCRIBED");
+        when(membershipRepository.save(membership)).thenReturn(membership);
+
+        membershipService.addContactToList(membership);
+
+        verify(bulkRepository).adjustCounts("list-1", 1, 0);
+    }
+
+    @Test
+    void updateStatusOnlyAdjustsActiveCountWhenActivityChanges() {
+        ContactListMembership membership = membership("ACTIVE");
+        when(membershipRepository.findByContactIdAndListId("c-1", "list-1")).thenReturn(Optional.of(membership));
+        when(membershipRepository.save(membership)).thenReturn(membership);
+
+        membershipService.updateStatus("c-1", "list-1", "UNSUBSCRIBED");
+        membershipService.updateStatus("c-1", "list-1", "BOUNCED");
+
+        verify(bulkRepository).adjustCounts("list-1", 0, -1);
+        verify(bulkRepository, times(1)).adjustCounts(anyString(), anyInt(), anyInt());
+    }
+
+    private ContactListMembership membership(String status) {
+        ContactListMembership membership = new ContactListMembership();
+        membership.setContactId("c-1");
+        membership.setListId("list-1");
+        membership.setStatus(status);
+        return membership;
+    }
+}
@@ -0,0 +1,106 @@
+package com.openmailer.openmailer.service.contact;
+
+import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.repository.ContactRepository;
+import com.openmailer.openmailer.repository.ContactSearchRepository;
+import com.openmailer.openmailer.repository.ContactTagCountRepository;
+import com.openmailer.openmailer.repository.projection.ContactPageCursor;
+import com.openmailer.openmailer.repository.projection.ContactSummaryRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ContactServiceTest {
+
+    private static final ContactSummaryRow NEWEST = row("c-3", 3);
+    private static final ContactSummaryRow MIDDLE = row("c-2", 2);
+    private static final ContactSummaryRow OLDEST = row("c-1", 1);
+
+    @Mock
+    private ContactRepository contactRepository;
+
+    @Mock
+    private ContactSearchRepository searchRepository;
+
+    @Mock
+    private ContactTagCountRepository tagCountRepository;
+
+    private ContactService contactService;
+
+    @BeforeEach
+    void setUp() {
+        contactService = new ContactService(contactRepository, searchRepository, tagCountRepository);
+    }
+
+    @Test
+    void searchEscapesWildcardsAndMatchesCloseWordsLikeTheContactsPage() {
+        Pageable pageable = PageRequest.of(0, 50);
+        Page<Contact> found = new PageImpl<>(List.of());
+        when(searchRepository.isFuzzySearch()).thenReturn(true);
+        when(contactRepository.fuzzySearchContacts("user-1", "%100\\%\\_off%", "100%_off", pageable)).thenReturn(found);
+
+        assertSame(found, contactService.searchContacts("user-1", "100%_OFF", pageable));
+    }
+
+    @Test
+    void searchFallsBackToEscapedSubstringsWithoutTrigrams() {
+        Pageable pageable = PageRequest.of(0, 50);
+        Page<Contact> found = new PageImpl<>(List.of());
+        when(searchRepository.isFuzzySearch()).thenReturn(false);
+        when(contactRepository.searchContacts("user-1", "%ada\\_%", pageable)).thenReturn(found);
+
+        assertSame(found, contactService.searchContacts("user-1", "Ada_", pageable));
+    }
+
+    @Test
+    void firstPageReadsOneExtraRowToKnowThereIsANextPage() {
+        when(searchRepository.findPage("user-1", "SUBSCRIBED", null, null, null, false, 3))
+            .thenReturn(List.of(NEWEST, MIDDLE, OLDEST));
+
+        ContactService.ContactPage page = contactService.findPage("user-1", "SUBSCRIBED", " ", "", null, null, 2);
+
+        assertEquals(List.of(NEWEST, MIDDLE), page.getContacts());
+        assertNull(page.getPreviousCursor());
+        assertEquals(ContactPageCursor.of(MIDDLE), ContactPageCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void goingBackDropsTheRowFurthestFromTheCursor() {
+        ContactPageCursor cursor = ContactPageCursor.of(OLDEST);
+        when(searchRepository.findPage("user-1", null, null, null, cursor, true, 2))
+            .thenReturn(List.of(NEWEST, MIDDLE));
+
+        ContactService.ContactPage page = contactService.findPage(
+            "user-1", null, null, null, "ignored", cursor.encode(), 1);
+
+        assertEquals(List.of(MIDDLE), page.getContacts());
+        assertEquals(ContactPageCursor.of(MIDDLE), ContactPageCursor.decode(page.getPreviousCursor()));
+        assertEquals(ContactPageCursor.of(MIDDLE), ContactPageCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void malformedCursorsStartAtTheFirstPage() {
+        assertNull(ContactPageCursor.decode("not a cursor"));
+        assertNull(ContactPageCursor.decode("bm8tc2VwYXJhdG9y"));
+    }
+
+    private static ContactSummaryRow row(String id, int day) {
+        return new ContactSummaryRow(id, id + "@example.com", null, null, "SUBSCRIBED", null, null,
+            LocalDateTime.of(2026, 3, day, 9, 30, 15, 123_000));
+    }
+}
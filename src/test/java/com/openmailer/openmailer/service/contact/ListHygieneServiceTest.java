@@ -0,0 +1,141 @@
+package com.openmailer.openmailer.service.contact;
+
+import com.openmailer.openmailer.repository.ContactEngagementRepository;
+import com.openmailer.openmailer.repository.ContactHygieneRepository;
+import com.openmailer.openmailer.repository.ContactRepository;
+import com.openmailer.openmailer.repository.projection.ContactEmail;
+import com.openmailer.openmailer.repository.projection.ContactHygieneCounts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ListHygieneServiceTest {
+
+    @Mock
+    private ContactRepository contactRepository;
+
+    @Mock
+    private ContactHygieneRepository hygieneRepository;
+
+    @Mock
+    private ContactEngagementRepository engagementRepository;
+
+    @Mock
+    private MxLookupService mxLookupService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ListHygieneService hygieneService;
+
+    @BeforeEach
+    void setUp() {
+        hygieneService = new ListHygieneService(
+            contactRepository, hygieneRepository, engagementRepository, mxLookupService, transactionTemplate, 2);
+    }
+
+    @Test
+    void oldHardBouncesAreArchivedInBatchesUntilOneComesBackShort() {
+        runTransactionsInline();
+        when(hygieneRepository.archiveBouncedBefore(any(), eq(2))).thenReturn(2, 2, 1);
+
+        assertEquals(5, hygieneService.removeOldHardBounces());
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+
+    @Test
+    void inactiveContactsAreFlaggedFromTheLastActivityIndexInBatches() {
+        runTransactionsInline();
+        when(engagementRepository.isBackfillComplete()).thenReturn(true);
+        when(engagementRepository.flagInactiveBefore(any(), eq(2))).thenReturn(2, 0);
+
+        assertEquals(2, hygieneService.flagInactiveContacts());
+        verify(engagementRepository, times(2)).flagInactiveBefore(any(), eq(2));
+    }
+
+    @Test
+    void inactiveContactsAreNotFlaggedUntilTheEngagementBackfillCompletes() {
+        when(engagementRepository.isBackfillComplete()).thenReturn(false);
+
+        assertEquals(0, hygieneService.flagInactiveContacts());
+        verify(engagementRepository, never()).flagInactiveBefore(any(), anyInt());
+    }
+
+    @Test
+    void engagementBackfillRunsBatchesUntilTheCursorReachesTheEnd() {
+        when(engagementRepository.isBackfillComplete()).thenReturn(false);
+        when(engagementRepository.backfillNextBatch()).thenReturn(true, true, false);
+
+        hygieneService.backfillEngagementTimes();
+
+        verify(engagementRepository, times(3)).backfillNextBatch();
+    }
+
+    @Test
+    void duplicatesAreRemovedOneBatchOfEmailsAtATime() {
+        runTransactionsInline();
+        when(hygieneRepository.findDuplicateEmailsAfter("user-1", null, 2)).thenReturn(List.of("a@x.io", "b@x.io"));
+        when(hygieneRepository.findDuplicateEmailsAfter("user-1", "b@x.io", 2)).thenReturn(List.of("c@x.io"));
+        when(hygieneRepository.removeDuplicates("user-1", List.of("a@x.io", "b@x.io"))).thenReturn(3);
+        when(hygieneRepository.removeDuplicates("user-1", List.of("c@x.io"))).thenReturn(1);
+
+        assertEquals(4, hygieneService.removeDuplicateContacts("user-1"));
+    }
+
+    @Test
+    void invalidEmailsAndContactsOnDomainsWithoutMailAreFlaggedOncePerDomain() {
+        runTransactionsInline();
+        when(hygieneRepository.findEmailsAfter("user-1", null, 2)).thenReturn(List.of(
+            new ContactEmail("c-1", "ada@example.com", "ada@example.com"),
+            new ContactEmail("c-2", "not-an-email", "not-an-email")));
+        when(hygieneRepository.findEmailsAfter("user-1", "not-an-email", 2)).thenReturn(List.of(
+            new ContactEmail("c-3", "bob@Gone.example", "bob@gone.example"),
+            new ContactEmail("c-4", "eve@gone.example", "eve@gone.example")));
+        when(hygieneRepository.findEmailsAfter("user-1", "eve@gone.example", 2)).thenReturn(List.of());
+        when(mxLookupService.resolve("example.com"))
+            .thenReturn(CompletableFuture.completedFuture(MxLookupService.DomainStatus.ACCEPTS_MAIL));
+        when(mxLookupService.resolve("gone.example"))
+            .thenReturn(CompletableFuture.completedFuture(MxLookupService.DomainStatus.NO_MAIL));
+        when(hygieneRepository.markInvalid(eq(List.of("c-2")), anyString())).thenReturn(1);
+        when(hygieneRepository.markInvalid(eq(List.of("c-3", "c-4")), anyString())).thenReturn(2);
+        when(hygieneRepository.markInvalid(eq(List.of()), anyString())).thenReturn(0);
+
+        assertEquals(3, hygieneService.validateAndFlagInvalidEmails("user-1"));
+        verify(mxLookupService).resolve("gone.example");
+    }
+
+    @Test
+    void statisticsComeFromOneGroupedCount() {
+        when(hygieneRepository.countByCategory("user-1")).thenReturn(new ContactHygieneCounts(8, 6, 1, 1, 2));
+
+        ListHygieneService.HygieneStatistics stats = hygieneService.getHygieneStatistics("user-1");
+
+        assertEquals(8, stats.getTotalContacts());
+        assertEquals(2, stats.getHighBounceCount());
+        assertEquals(75.0, stats.getHealthScore());
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction((TransactionStatus) null));
+    }
+}
@@ -0,0 +1,237 @@
+package com.openmailer.openmailer.service.contact;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xbill.DNS.ARecord;
+import org.xbill.DNS.DClass;
+import org.xbill.DNS.Flags;
+import org.xbill.DNS.MXRecord;
+import org.xbill.DNS.Message;
+import org.xbill.DNS.Name;
+import org.xbill.DNS.Rcode;
+import org.xbill.DNS.Record;
+import org.xbill.DNS.SOARecord;
+import org.xbill.DNS.Section;
+import org.xbill.DNS.SimpleResolver;
+import org.xbill.DNS.Type;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs lookups against a stand-in DNS server on a local UDP port.
+ */
+class MxLookupServiceTest {
+
+    private final Map<String, AtomicInteger> queries = new ConcurrentHashMap<>();
+    private final MutableClock clock = new MutableClock();
+
+    private DatagramSocket server;
+    private Thread serverThread;
+    private MxLookupService lookupService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        serverThread = new Thread(this::serve, "stand-in-dns");
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        SimpleResolver resolver = new SimpleResolver(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort()));
+        resolver.setTimeout(Duration.ofSeconds(2));
+        lookupService = new MxLookupService(resolver, 4, Duration.ofSeconds(60), Duration.ofDays(1),
+            Duration.ofMinutes(5), clock);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.close();
+        serverThread.join(1000);
+    }
+
+    @Test
+    void domainsWithMxRecordsAcceptMail() {
+        assertEquals(MxLookupService.DomainStatus.ACCEPTS_MAIL, resolve("mail.example"));
+    }
+
+    @Test
+    void nonexistentDomainsAndNullMxDoNotAcceptMail() {
+        assertEquals(MxLookupService.DomainStatus.NO_MAIL, resolve("gone.example"));
+        assertEquals(MxLookupService.DomainStatus.NO_MAIL, resolve("nullmx.example"));
+    }
+
+    @Test
+    void domainsWithoutMxFallBackToTheirAddressRecord() {
+        assertEquals(MxLookupService.DomainStatus.ACCEPTS_MAIL, resolve("address-only.example"));
+        assertEquals(1, queries("address-only.example", Type.A));
+    }
+
+    @Test
+    void failedLookupsAreUnknown() {
+        assertEquals(MxLookupService.DomainStatus.UNKNOWN, resolve("broken.example"));
+    }
+
+    @Test
+    void failedAddressLookupsOfTheImplicitMxAreUnknown() {
+        assertEquals(MxLookupService.DomainStatus.UNKNOWN, resolve("address-broken.example"));
+        assertEquals(1, queries("address-broken.example", Type.A));
+    }
+
+    @Test
+    void expiredDomainsAreEvicted() {
+        resolve("mail.example");
+        resolve("gone.example");
+
+        clock.advance(Duration.ofSeconds(300));
+        lookupService.evictExpired();
+        assertEquals(1, lookupService.cachedDomains());
+
+        clock.advance(Duration.ofSeconds(600));
+        lookupService.evictExpired();
+        assertEquals(0, lookupService.cachedDomains());
+    }
+
+    @Test
+    void eachDomainIsLookedUpOnceUntilItsTtlExpires() {
+        List<MxLookupService.DomainStatus> statuses = IntStream.range(0, 50)
+            .mapToObj(i -> lookupService.resolve(i % 2 == 0 ? "mail.example" : "MAIL.example."))
+            .toList()
+            .stream()
+            .map(CompletableFuture::join)
+            .toList();
+
+        assertEquals(50, statuses.stream().filter(MxLookupService.DomainStatus.ACCEPTS_MAIL::equals).count());
+        assertEquals(1, queries("mail.example", Type.MX));
+
+        // The MX record's TTL is 300 seconds
+        clock.advance(Duration.ofSeconds(299));
+        resolve("mail.example");
+        assertEquals(1, queries("mail.example", Type.MX));
+
+        clock.advance(Duration.ofSeconds(1));
+        resolve("mail.example");
+        assertEquals(2, queries("mail.example", Type.MX));
+    }
+
+    @Test
+    void nonexistentDomainsAreCachedForTheSoaMinimum() {
+        resolve("gone.example");
+
+        clock.advance(Duration.ofSeconds(899));
+        resolve("gone.example");
+        assertEquals(1, queries("gone.example", Type.MX));
+
+        clock.advance(Duration.ofSeconds(1));
+        resolve("gone.example");
+        assertEquals(2, queries("gone.example", Type.MX));
+    }
+
+    private MxLookupService.DomainStatus resolve(String domain) {
+        return lookupService.resolve(domain).join();
+    }
+
+    private int queries(String domain, int type) {
+        AtomicInteger count = queries.get(domain + "/" + Type.string(type));
+        return count != null ? count.get() : 0;
+    }
+
+    private void serve() {
+        byte[] buffer = new byte[512];
+        while (!server.isClosed()) {
+            try {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                server.receive(packet);
+                Message query = new Message(Arrays.copyOf(packet.getData(), packet.getLength()));
+                byte[] response = answer(query).toWire();
+                server.send(new DatagramPacket(response, response.length, packet.getSocketAddress()));
+            } catch (IOException e) {
+                // Socket closed by tearDown
+            }
+        }
+    }
+
+    private Message answer(Message query) throws IOException {
+        Record question = query.getQuestion();
+        Name name = question.getName();
+        String domain = name.toString(true);
+        queries.computeIfAbsent(domain + "/" + Type.string(question.getType()), key -> new AtomicInteger())
+            .incrementAndGet();
+
+        Message response = new Message(query.getHeader().getID());
+        response.getHeader().setFlag(Flags.QR);
+        response.getHeader().setFlag(Flags.AA);
+        response.addRecord(question, Section.QUESTION);
+
+        switch (domain) {
+            case "mail.example" -> response.addRecord(
+                new MXRecord(name, DClass.IN, 300, 10, Name.fromString("mx.mail.example.")), Section.ANSWER);
+            case "nullmx.example" -> response.addRecord(
+                new MXRecord(name, DClass.IN, 300, 0, Name.root), Section.ANSWER);
+            case "address-only.example" -> {
+                if (question.getType() == Type.A) {
+                    response.addRecord(new ARecord(name, DClass.IN, 300,
+                        InetAddress.getByAddress(new byte[]{(byte) 192, 0, 2, 1})), Section.ANSWER);
+                }
+            }
+            case "broken.example" -> response.getHeader().setRcode(Rcode.SERVFAIL);
+            case "address-broken.example" -> {
+                if (question.getType() != Type.MX) {
+                    response.getHeader().setRcode(Rcode.SERVFAIL);
+                }
+            }
+            default -> {
+                response.getHeader().setRcode(Rcode.NXDOMAIN);
+                response.addRecord(new SOARecord(Name.fromString("example."), DClass.IN, 3600,
+                    Name.fromString("ns.example."), Name.fromString("hostmaster.example."),
+                    1, 3600, 600, 86400, 900), Section.AUTHORITY);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Clock that only moves when a test advances it.
+     */
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now = Instant.parse("2026-03-10T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.openmailer.openmailer.service.contact;
+
+import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.model.Segment;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentEvaluationServiceTest {
+
+    private final SegmentEvaluationService evaluationService = new SegmentEvaluationService();
+
+    @Test
+    void rulesResolveSnakeCaseFieldsAndOperatorSpellings() {
+        Contact contact = contact();
+
+        assertTrue(matches(contact, rule("first_name", "equals", "ADA")));
+        assertTrue(matches(contact, rule("email", "Ends With", "@Example.com")));
+        assertTrue(matches(contact, rule("email", "contains", "LOVELACE")));
+        assertTrue(matches(contact, rule("bounce_count", "gte", "2")));
+        assertTrue(matches(contact, rule("bounceCount", "less-than", 2.5)));
+        assertTrue(matches(contact, rule("created_at", "before", "2026-01-01T00:00:00")));
+        assertTrue(matches(contact, rule("email_verified", "is_true", null)));
+        assertTrue(matches(contact, rule("notes", "is_null", null)));
+        assertTrue(matches(contact, rule("status", "in", List.of("BOUNCED", "subscribed"))));
+        assertFalse(matches(contact, rule("status", "not_in", List.of("SUBSCRIBED"))));
+        assertFalse(matches(contact, rule("no_such_field", "not_null", null)));
+    }
+
+    @Test
+    void tagsAndCustomFieldsCompareTheirValues() {
+        Contact contact = contact();
+
+        assertTrue(matches(contact, rule("tags", "contains", "VIP")));
+        assertFalse(matches(contact, rule("tags", "contains", "v")));
+        assertTrue(matches(contact, rule("custom_fields.plan", "equals", "Pro")));
+        assertTrue(matches(contact, rule("customFields.seats", "greater_than", "9")));
+        assertTrue(matches(contact, rule("customFields.regions", "equals", "eu")));
+        assertFalse(matches(contact, rule("customFields.missing", "not_null", null)));
+    }
+
+    @Test
+    void numbersCompareAsDecimalsNotDoubles() {
+        Contact contact = contact();
+        contact.setCustomFields(Map.of("seats", 10, "budget", "0.1000000000000000001"));
+
+        // Each of these expected values rounds to the actual value as a double
+        assertTrue(matches(contact, rule("customFields.seats", "greater_than", "9.99999999999999999999")));
+        assertFalse(matches(contact, rule("customFields.seats", "equals", "10.000000000000000001")));
+        assertTrue(matches(contact, rule("customFields.budget", "greater_than", 0.1)));
+        assertFalse(matches(contact, rule("customFields.budget", "in", List.of(0.1, "0.1"))));
+
+        assertTrue(matches(contact, rule("customFields.seats", "equals", "10.0")));
+        assertTrue(matches(contact, rule("bounce_count", "less_than_or_equal", "2.00")));
+        assertTrue(matches(contact, rule("bounce_count", "less_than", "2.000000000000000001")));
+    }
+
+    @Test
+    void groupsCombineRulesAndPlainMapsAreEqualityChecks() {
+        Contact contact = contact();
+
+        assertTrue(matches(contact, Map.of("operator", "or", "rules", List.of(
+            rule("status", "equals", "BOUNCED"),
+            rule("first_name", "starts_with", "a")))));
+        assertFalse(matches(contact, Map.of("and", List.of(
+            rule("status", "equals", "SUBSCRIBED"),
+            rule("first_name", "equals", "Grace")))));
+        assertTrue(matches(contact, Map.of("not", rule("status", "equals", "BOUNCED"))));
+        assertTrue(matches(contact, Map.of("status", "subscribed", "bounceCount", 2)));
+        assertTrue(matches(contact, Map.of()));
+    }
+
+    @Test
+    void segmentsAreCompiledOncePerVersion() {
+        Segment segment = new Segment();
+        segment.setId("segment-1");
+        segment.setUpdatedAt(LocalDateTime.of(2026, 3, 1, 12, 0));
+        segment.setConditions(rule("status", "equals", "SUBSCRIBED"));
+
+        SegmentPredicate compiled = evaluationService.compile(segment);
+        assertSame(compiled, evaluationService.compile(segment));
+        assertEquals(1, evaluationService.filterContacts(List.of(contact()), segment).size());
+
+        segment.setUpdatedAt(LocalDateTime.of(2026, 3, 2, 12, 0));
+        segment.setConditions(rule("status", "equals", "BOUNCED"));
+        assertNotSame(compiled, evaluationService.compile(segment));
+        assertTrue(evaluationService.filterContacts(List.of(contact()), segment).isEmpty());
+    }
+
+    private boolean matches(Contact contact, Map<String, Object> conditions) {
+        return evaluationService.matches(contact, conditions);
+    }
+
+    private static Map<String, Object> rule(String field, String operator, Object value) {
+        return value == null
+            ? Map.of("field", field, "operator", operator)
+            : Map.of("field", field, "operator", operator, "value", value);
+    }
+
+    private static Contact contact() {
+        Contact contact = new Contact();
+        contact.setEmail("ada.lovelace@example.com");
+        contact.setFirstName("Ada");
+        contact.setStatus("SUBSCRIBED");
+        contact.setBounceCount(2);
+        contact.setEmailVerified(true);
+        contact.setCreatedAt(LocalDateTime.of(2025, 6, 1, 9, 30));
+        contact.setTags(new String[]{"vip", "beta"});
+        contact.setCustomFields(Map.of("plan", "pro", "seats", 10, "regions", List.of("EU", "US")));
+        return contact;
+    }
+}
@@ -0,0 +1,214 @@
+package com.openmailer.openmailer.service.contact;
+
+import com.openmailer.openmailer.model.Contact;
+import com.openmailer.openmailer.model.User;
+import com.openmailer.openmailer.repository.ContactEngagementRepository;
+import com.openmailer.openmailer.repository.ContactSegmentRepository;
+import com.openmailer.openmailer.repository.ContactTagCountRepository;
+import com.openmailer.openmailer.repository.PostgresIntegrationTest;
+import com.openmailer.openmailer.repository.PostgresTestSupport;
+import com.openmailer.openmailer.service.contact.SegmentSqlTranslator.SegmentSql;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Asserts that segment conditions translated to SQL match the same contacts as the
+ * in-memory predicate, or a superset of them when the translation is not exact, and
+ * that rules on indexed columns are answered from their indexes.
+ */
+@PostgresIntegrationTest
+@Import({ContactSegmentRepository.class, ContactTagCountRepository.class, ContactEngagementRepository.class})
+class SegmentSqlParityTest extends PostgresTestSupport {
+
+    private static final List<Map<String, Object>> CONDITIONS = List.of(
+        rule("email", "equals", "ADA@example.com"),
+        rule("first_name", "contains", "race"),
+        rule("first_name", "not_contains", "a"),
+        rule("last_name", "starts_with", "LOVE"),
+        rule("email", "ends_with", "@example.org"),
+        rule("status", "in", List.of("subscribed", "bounced")),
+        rule("source", "not_equals", "import"),
+        rule("bounce_count", "greater_than", "1"),
+        rule("bounce_count", "less_than", 2),
+        rule("created_at", "before", "2025-06-01T00:00:00"),
+        rule("created_at", "after", "2025-06-01T00:00:00"),
+        rule("email_verified", "is_true", null),
+        rule("gdpr_consent", "equals", false),
+        rule("notes", "is_null", null),
+        rule("tags", "contains", "VIP"),
+        rule("tags", "not_in", List.of("vip", "beta")),
+        rule("tags", "in", List.of("Beta", "newsletter")),
+        rule("engagement_score", "greater_than", 1),
+        rule("engagement_score", "less_than", 1),
+        Map.of("not", rule("engagement_score", "gte", "0.1")),
+        rule("custom_fields.plan", "equals", "Pro"),
+        rule("customFields.plan", "in", List.of("pro", "enterprise")),
+        rule("customFields.regions", "equals", "eu"),
+        rule("customFields.plan", "contains", "ent"),
+        rule("customFields.beta", "is_true", null),
+        rule("customFields.missing", "is_null", null),
+        rule("customFields.seats", "greater_than", 5),
+        rule("no_such_field", "is_null", null),
+        Map.of("operator", "or", "rules", List.of(
+            rule("tags", "contains", "beta"),
+            Map.of("not", rule("custom_fields.plan", "equals", "free")))),
+        Map.of("and", List.of(
+            rule("customFields.seats", "gte", 10),
+            rule("first_name", "starts_with", "g"))),
+        Map.of("not", rule("bounce_count", "gte", 1)),
+        Map.of("status", "SUBSCRIBED", "bounceCount", 0));
+
+    @Autowired
+    private ContactSegmentRepository segmentRepository;
+
+    @Autowired
+    private ContactTagCountRepository tagCountRepository;
+
+    @Autowired
+    private ContactEngagementRepository engagementRepository;
+
+    private User user;
+    private final List<Contact> contacts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        tagCountRepository.createSchemaIfMissing();
+        engagementRepository.createSchemaIfMissing();
+        // Built concurrently at startup, which cannot run in the test's transaction
+        jdbcTemplate.getJdbcTemplate().execute(
+            "CREATE INDEX IF NOT EXISTS idx_contacts_user_email_lower ON contacts (user_id, lower(email))");
+        user = persistUser("segments");
+
+        contact("ada@example.com", "Ada", "Lovelace", 0, LocalDateTime.of(2025, 1, 10, 9, 0),
+            Map.of("plan", "pro", "seats", 12, "regions", List.of("EU", "US"), "beta", true), "vip");
+        contact("grace@example.org", "Grace", "Hopper", 2, LocalDateTime.of(2025, 8, 1, 12, 0),
+            Map.of("plan", "Enterprise", "seats", "many", "beta", "TRUE"), "beta");
+        contact("alan@example.org", null, "Turing", 1, LocalDateTime.of(2024, 12, 31, 23, 59),
+            Map.of("plan", "free"));
+        Contact unnamed = contact("unnamed@example.net", null, null, 3, LocalDateTime.of(2025, 6, 1, 0, 0), null);
+        unnamed.setSource("import");
+        unnamed.setEmailVerified(true);
+        unnamed.setGdprConsent(null);
+        unnamed.setNotes("imported");
+        entityManager.flush();
+
+        LocalDateTime scoredAt = LocalDateTime.now(ZoneOffset.UTC).withNano(0);
+        score(contacts.get(0), 5.0, scoredAt);
+        score(contacts.get(1), 0.5, scoredAt);
+
+        // Creation times are set on insert and scores are not written by JPA, so set them directly
+        for (Contact contact : contacts) {
+            jdbcTemplate.update("""
+                UPDATE contacts
+                SET created_at = :createdAt, engagement_score = :score, engagement_scored_at = :scoredAt
+                WHERE id = :id
+            """, new MapSqlParameterSource()
+                .addValue("createdAt", Timestamp.valueOf(contact.getCreatedAt()))
+                .addValue("score", contact.getEngagementScore())
+                .addValue("scoredAt", contact.getEngagementScoredAt() != null
+                    ? Timestamp.valueOf(contact.getEngagementScoredAt()) : null)
+                .addValue("id", contact.getId()));
+        }
+    }
+
+    @Test
+    void translatedConditionsMatchTheInMemoryPredicate() {
+        for (Map<String, Object> conditions : CONDITIONS) {
+            SegmentCondition condition = SegmentCondition.parse(conditions);
+            SegmentSql sql = SegmentSqlTranslator.translate(condition, System.currentTimeMillis() / 1000);
+            Set<String> fromDatabase = new HashSet<>(
+                segmentRepository.findSubscribedIds(user.getId(), null, sql.condition(), sql.params()));
+
+            SegmentPredicate predicate = SegmentPredicate.compile(condition);
+            Set<String> inMemory = contacts.stream()
+                .filter(predicate::test)
+                .map(Contact::getId)
+                .collect(Collectors.toSet());
+
+            if (sql.exact()) {
+                assertEquals(inMemory, fromDatabase, conditions + " -> " + sql.condition());
+                assertEquals(inMemory.size(),
+                    segmentRepository.countSubscribed(user.getId(), null, sql.condition(), sql.params()));
+            } else {
+                assertTrue(fromDatabase.containsAll(inMemory), conditions + " -> " + sql.condition());
+            }
+        }
+    }
+
+    @Test
+    void onlyNumericCustomFieldComparisonsNeedInMemoryEvaluation() {
+        long inexact = CONDITIONS.stream()
+            .map(conditions -> SegmentSqlTranslator.translate(SegmentCondition.parse(conditions), 0))
+            .filter(sql -> !sql.exact())
+            .count();
+
+        assertEquals(2, inexact);
+        assertFalse(SegmentSqlTranslator.translate(SegmentCondition.parse(
+            rule("custom_fields.signed_up", "before", "2025-01-01T00:00:00")), 0).exact());
+    }
+
+    @Test
+    void rulesAreAnsweredFromTheIndexesOnTheirColumns() {
+        jdbcTemplate.getJdbcTemplate().execute("SET LOCAL enable_seqscan = off");
+
+        String email = plan("user_id = :userId AND ", rule("email", "in", List.of("ADA@example.com", "grace@example.org")));
+        assertTrue(email.contains("idx_contacts_user_email_lower"), email);
+
+        String score = plan("user_id = :userId AND ", rule("engagement_score", "greater_than", 1));
+        assertTrue(score.contains("idx_contacts_user_engagement_rank"), score);
+
+        String tags = plan("", rule("tags", "contains", "VIP"));
+        assertTrue(tags.contains("idx_contacts_tags_lower"), tags);
+    }
+
+    private String plan(String scope, Map<String, Object> conditions) {
+        SegmentSql sql = SegmentSqlTranslator.translate(SegmentCondition.parse(conditions), System.currentTimeMillis() / 1000);
+        return String.join("\n", jdbcTemplate.queryForList(
+            "EXPLAIN SELECT id FROM contacts WHERE " + scope + "(" + sql.condition() + ")",
+            new MapSqlParameterSource(sql.params().getValues()).addValue("userId", user.getId()), String.class));
+    }
+
+    private static void score(Contact contact, double score, LocalDateTime scoredAt) {
+        contact.setEngagementScore(score);
+        contact.setEngagementScoredAt(scoredAt);
+    }
+
+    private Contact contact(String email, String firstName, String lastName, int bounceCount,
+                            LocalDateTime createdAt, Map<String, Object> customFields, String... tags) {
+        Contact contact = new Contact(user, email);
+        contact.setFirstName(firstName);
+        contact.setLastName(lastName);
+        contact.setStatus("SUBSCRIBED");
+        contact.setBounceCount(bounceCount);
+        contact.setCustomFields(customFields);
+        contact.setTags(tags.length > 0 ? tags : null);
+        entityManager.persist(contact);
+        // Replaces the insert time in memory; setUp writes it to the database
+        contact.setCreatedAt(createdAt);
+        contacts.add(contact);
+        return contact;
+    }
+
+    private static Map<String, Object> rule(String field, String operator, Object value) {
+        return value == null
+            ? Map.of("field", field, "operator", operator)
+            : Map.of("field", field, "operator", operator, "value", value);
+    }
+}
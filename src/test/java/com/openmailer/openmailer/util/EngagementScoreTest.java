@@ -0,0 +1,25 @@
+package com.openmailer.openmailer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EngagementScoreTest {
+
+    private static final long HALF_LIFE = EngagementScore.HALF_LIFE_SECONDS;
+
+    @Test
+    void rankOrdersScoresAsTheirCurrentValues() {
+        // 10 points a half-life ago are worth less today than 6 points now
+        double older = EngagementScore.rank(10.0, 0);
+        double newer = EngagementScore.rank(6.0, HALF_LIFE);
+
+        assertTrue(newer > older);
+        LocalDateTime now = LocalDateTime.of(2026, 3, 10, 12, 0);
+        assertEquals(5.0, EngagementScore.current(10.0, now.minusSeconds(HALF_LIFE), now), 1e-9);
+        assertEquals(0.0, EngagementScore.current(null, null, now));
+    }
+}
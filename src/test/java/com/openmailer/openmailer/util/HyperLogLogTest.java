@@ -0,0 +1,78 @@
+package com.openmailer.openmailer.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    @Test
+    void smallCardinalitiesAreCountedExactly() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100; i++) {
+            sketch.add("recipient-" + i);
+            sketch.add("recipient-" + i);
+        }
+
+        assertEquals(100, sketch.estimate());
+    }
+
+    @Test
+    void largeCardinalitiesStayWithinTwoPercent() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 500_000; i++) {
+            sketch.add("recipient-" + i);
+        }
+
+        assertEquals(500_000, sketch.estimate(), 500_000 * 0.02);
+    }
+
+    @Test
+    void mergedSketchesCountOverlappingKeysOnce() {
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        for (int i = 0; i < 60_000; i++) {
+            monday.add("recipient-" + i);
+        }
+        for (int i = 40_000; i < 100_000; i++) {
+            tuesday.add("recipient-" + i);
+        }
+
+        monday.merge(tuesday);
+
+        assertEquals(100_000, monday.estimate(), 100_000 * 0.02);
+    }
+
+    @Test
+    void sparseAndDenseFormsRoundTrip() {
+        HyperLogLog sparse = new HyperLogLog();
+        sparse.add("recipient-1");
+        HyperLogLog dense = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) {
+            dense.add("recipient-" + i);
+        }
+
+        assertEquals(4, sparse.toBytes().length);
+        assertEquals(1 + (1 << HyperLogLog.DEFAULT_PRECISION) * 6 / 8, dense.toBytes().length);
+        assertEquals(sparse.estimate(), HyperLogLog.fromBytes(sparse.toBytes()).estimate());
+        assertEquals(dense.estimate(), HyperLogLog.fromBytes(dense.toBytes()).estimate());
+    }
+
+    @Test
+    void addReportsWhetherTheSketchChanged() {
+        HyperLogLog sketch = new HyperLogLog();
+
+        assertTrue(sketch.isEmpty());
+        assertTrue(sketch.add("recipient-1"));
+        assertFalse(sketch.add("recipient-1"));
+        assertFalse(sketch.isEmpty());
+    }
+
+    @Test
+    void sketchesWithDifferentPrecisionCannotBeMerged() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(12).merge(new HyperLogLog(14)));
+    }
+}
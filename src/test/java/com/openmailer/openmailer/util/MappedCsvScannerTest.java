@@ -0,0 +1,81 @@
+package com.openmailer.openmailer.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedCsvScannerTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void quotedFieldsMayContainSeparatorsQuotesAndLineBreaks() throws IOException {
+        Path file = write("\uFEFFemail,note\r\na@example.com,\"one, \"\"two\"\"\nthree\"\r\n\r\nb@example.com,last");
+
+        try (MappedCsvScanner scanner = MappedCsvScanner.open(file)) {
+            MappedCsvScanner.Records records = scanner.parse(scanner.start(), scanner.size());
+
+            assertEquals(3, records.fields().size());
+            assertArrayEquals(new String[] {"email", "note"}, records.fields().get(0));
+            assertArrayEquals(new String[] {"a@example.com", "one, \"two\"\nthree"}, records.fields().get(1));
+            assertArrayEquals(new String[] {"b@example.com", "last"}, records.fields().get(2));
+            assertEquals(scanner.size(), records.ends()[2]);
+        }
+    }
+
+    @Test
+    void rangesEndAtRecordBoundariesAndParseToTheSameRecords() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 1_000; i++) {
+            csv.append("user").append(i).append("@example.com,\"note\n").append(i).append("\"\n");
+        }
+        Path file = write(csv.toString());
+
+        try (MappedCsvScanner scanner = MappedCsvScanner.open(file)) {
+            long[] bounds = scanner.split(0, 1_000, 100);
+            List<String[]> records = new ArrayList<>();
+            for (int i = 0; i < bounds.length - 1; i++) {
+                MappedCsvScanner.Records range = scanner.parse(bounds[i], bounds[i + 1]);
+                assertEquals(bounds[i + 1], range.ends()[range.ends().length - 1]);
+                records.addAll(range.fields());
+            }
+
+            assertEquals(scanner.size(), bounds[bounds.length - 1]);
+            assertEquals(1_000, records.size());
+            assertArrayEquals(new String[] {"user999@example.com", "note\n999"}, records.get(999));
+        }
+    }
+
+    @Test
+    void splitStopsAfterTheRequestedNumberOfRanges() throws IOException {
+        Path file = write("a\nb\nc\nd\n");
+
+        try (MappedCsvScanner scanner = MappedCsvScanner.open(file)) {
+            assertArrayEquals(new long[] {0, 2, 4}, scanner.split(0, 1, 2));
+            assertArrayEquals(new long[] {4, 8}, scanner.split(4, 100, 2));
+        }
+    }
+
+    @Test
+    void unterminatedQuoteIsRejected() throws IOException {
+        Path file = write("email\n\"a@example.com\n");
+
+        try (MappedCsvScanner scanner = MappedCsvScanner.open(file)) {
+            assertThrows(IllegalArgumentException.class, () -> scanner.parse(0, scanner.size()));
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(directory.resolve("contacts.csv"), content);
+    }
+}